@@ -3,14 +3,26 @@ package app;
 import database.CreateH2Database;
 import database.DatabaseConnect;
 import config.AppConfig;
+import engines.H2_SQLEngine;
+import engines.SPARQLEngine;
 
 /**
  * Main Application Entry Point
  * Launches the H2 Database to accept requests
+ *
+ * Usage:
+ *   AppRunner                   - initialize and check the database
+ *   AppRunner --server [port]   - run a local SPARQL endpoint on a warm OBDA stack
  */
 public class AppRunner {
     
     public static void main(String[] args) {
+        if (args.length > 0 && "--server".equals(args[0])) {
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : AppConfig.SPARQL_ENDPOINT_PORT;
+            runServer(port);
+            return;
+        }
+
         System.out.println("Sport Ontology OBDA System");
         System.out.println("Initializing system...");
         
@@ -48,4 +60,35 @@ public class AppRunner {
             }
         }
     }
+
+    /**
+     * Server mode: start H2 and the SPARQL engine once and serve queries until the JVM exits
+     */
+    private static void runServer(int port) {
+        System.out.println("Sport Ontology OBDA System - SPARQL endpoint mode");
+
+        H2_SQLEngine dbEngine = new H2_SQLEngine();
+        SPARQLEngine sparqlEngine = new SPARQLEngine(dbEngine);
+        SparqlEndpointServer server = new SparqlEndpointServer(sparqlEngine, port);
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            sparqlEngine.cleanup();
+            try {
+                dbEngine.stop();
+            } catch (Exception e) {
+                System.out.println("Could not stop database engine: " + e.getMessage());
+            }
+        }));
+
+        try {
+            dbEngine.start();
+            server.start();
+            System.out.println("Press Ctrl+C to stop");
+        } catch (Exception e) {
+            System.out.println("SPARQL endpoint failed to start: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
 }
@@ -0,0 +1,360 @@
+package app;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import config.AppConfig;
+import engines.BindingRow;
+import engines.InvalidQueryException;
+import engines.QueryDeadline;
+import engines.SPARQLEngine;
+import engines.SPARQLResultCursor;
+import engines.TermType;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local SPARQL 1.1 Protocol endpoint backed by a warm SPARQLEngine.
+ * Clients share one Ontop engine (and its reformulation cache) instead of each paying
+ * the Ontop startup cost.
+ *
+ * Supported requests on /sparql:
+ * → GET ?query=...
+ * → POST application/x-www-form-urlencoded (query=...)
+ * → POST application/sparql-query (query as body)
+ *
+ * Results stream as chunked SPARQL JSON (default) or CSV (Accept: text/csv), gzip-compressed
+ * when the client sends Accept-Encoding: gzip. Connections are kept alive between requests.
+ *
+ * Each request runs under a QueryDeadline of AppConfig.SPARQL_ENDPOINT_TIMEOUT_SECONDS, so a
+ * runaway query cannot hold a worker thread. The query is also cancelled when the client goes
+ * away - noticed when writing the response fails.
+ */
+public class SparqlEndpointServer {
+    private static final String JSON_TYPE = "application/sparql-results+json";
+    private static final String CSV_TYPE = "text/csv";
+
+    private final SPARQLEngine sparqlEngine;
+    private final int port;
+    private final long timeoutMillis;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public SparqlEndpointServer(SPARQLEngine sparqlEngine, int port) {
+        this(sparqlEngine, port, TimeUnit.SECONDS.toMillis(AppConfig.SPARQL_ENDPOINT_TIMEOUT_SECONDS));
+    }
+
+    /**
+     * @param timeoutMillis time limit of one request, 0 for none
+     */
+    public SparqlEndpointServer(SPARQLEngine sparqlEngine, int port, long timeoutMillis) {
+        this.sparqlEngine = sparqlEngine;
+        this.port = port;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Start listening on localhost - the SPARQL engine is set up first so the first
+     * request does not pay the warm-up
+     */
+    public void start() throws Exception {
+        if (server != null) {
+            return;
+        }
+        if (!sparqlEngine.isSetup()) {
+            sparqlEngine.setup();
+        }
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/sparql", this::handle);
+        executor = Executors.newFixedThreadPool(AppConfig.SPARQL_MAX_CONCURRENCY);
+        server.setExecutor(executor);
+        server.start();
+        System.out.println("SPARQL endpoint listening on " + getEndpointUrl());
+    }
+
+    public void stop() {
+        if (server == null) {
+            return;
+        }
+        server.stop(1);
+        executor.shutdownNow();
+        server = null;
+        System.out.println("SPARQL endpoint stopped");
+    }
+
+    /**
+     * Bound port - differs from the configured one when started with port 0 (any free port)
+     */
+    public int getPort() {
+        return server != null ? server.getAddress().getPort() : port;
+    }
+
+    public String getEndpointUrl() {
+        return "http://localhost:" + getPort() + "/sparql";
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        QueryDeadline deadline = timeoutMillis > 0 ? QueryDeadline.afterMillis(timeoutMillis) : QueryDeadline.none();
+        try {
+            String query = readQuery(exchange);
+            if (query == null) {
+                return;
+            }
+
+            SPARQLResultCursor cursor;
+            try {
+                cursor = sparqlEngine.executeSPARQLCursor(query, deadline);
+            } catch (Exception e) {
+                sendError(exchange, statusFor(e), "Query failed: " + e.getMessage());
+                return;
+            }
+
+            try (SPARQLResultCursor results = cursor) {
+                writeResults(exchange, results);
+            } catch (IOException e) {
+                // The client disconnected - stop the query instead of producing rows nobody reads
+                deadline.cancel();
+                throw e;
+            }
+        } catch (Exception e) {
+            // Headers may already be sent - all we can do is drop the connection
+            System.err.println("SPARQL endpoint request failed: " + e.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * HTTP status for a query that failed before results were sent: 400 only when the query
+     * itself is invalid, 504 when it ran out of time, 503 when it was cancelled and 500 for
+     * failures of the engine
+     */
+    private static int statusFor(Exception e) {
+        if (e instanceof InvalidQueryException) {
+            return 400;
+        }
+        if (e instanceof QueryDeadline.DeadlineExceededException) {
+            return 504;
+        }
+        if (e instanceof CancellationException) {
+            return 503;
+        }
+        return 500;
+    }
+
+    /**
+     * Extract the query per the SPARQL 1.1 Protocol - sends the error response and returns
+     * null when the request is not a valid query operation
+     */
+    private String readQuery(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String query = null;
+
+        if ("GET".equals(method)) {
+            query = formParameter(exchange.getRequestURI().getRawQuery(), "query");
+        } else if ("POST".equals(method)) {
+            String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+            String body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            if (contentType != null && contentType.startsWith("application/sparql-query")) {
+                query = body;
+            } else if (contentType != null && contentType.startsWith("application/x-www-form-urlencoded")) {
+                query = formParameter(body, "query");
+            } else {
+                sendError(exchange, 415, "Unsupported Content-Type: " + contentType);
+                return null;
+            }
+        } else {
+            exchange.getResponseHeaders().set("Allow", "GET, POST");
+            sendError(exchange, 405, "Method not allowed: " + method);
+            return null;
+        }
+
+        if (query == null || query.trim().isEmpty()) {
+            sendError(exchange, 400, "Missing 'query' parameter");
+            return null;
+        }
+        return query;
+    }
+
+    /**
+     * Stream the cursor as chunked JSON or CSV, gzip-compressed when accepted
+     */
+    private void writeResults(HttpExchange exchange, SPARQLResultCursor cursor) throws IOException {
+        boolean csv = accepts(exchange, "Accept", CSV_TYPE) && !accepts(exchange, "Accept", JSON_TYPE);
+        boolean gzip = accepts(exchange, "Accept-Encoding", "gzip");
+
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("Content-Type", (csv ? CSV_TYPE : JSON_TYPE) + "; charset=utf-8");
+        if (gzip) {
+            headers.set("Content-Encoding", "gzip");
+        }
+        exchange.sendResponseHeaders(200, 0);
+
+        OutputStream body = exchange.getResponseBody();
+        if (gzip) {
+            body = new GZIPOutputStream(body, 8192);
+        }
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(body, StandardCharsets.UTF_8))) {
+            if (csv) {
+                writeCsv(out, cursor);
+            } else {
+                writeJson(out, cursor);
+            }
+        }
+    }
+
+    private static void writeCsv(Writer out, SPARQLResultCursor cursor) throws IOException {
+        out.write(String.join(",", cursor.getVariables()));
+        out.write("\r\n");
+        while (cursor.hasNext()) {
+            out.write(cursor.next().toCsvLine());
+            out.write("\r\n");
+        }
+    }
+
+    /**
+     * SPARQL 1.1 Query Results JSON Format, written from the term types the engine reports
+     * (see BindingRow.getType). Only the Ontop CLI fallback streams plain CSV without them;
+     * its IRIs are then recognised by their scheme and every other value is a plain literal.
+     */
+    private static void writeJson(Writer out, SPARQLResultCursor cursor) throws IOException {
+        List<String> variables = cursor.getVariables();
+        out.write("{\"head\":{\"vars\":[");
+        for (int i = 0; i < variables.size(); i++) {
+            if (i > 0) out.write(',');
+            writeJsonString(out, variables.get(i));
+        }
+        out.write("]},\"results\":{\"bindings\":[");
+
+        boolean first = true;
+        while (cursor.hasNext()) {
+            BindingRow row = cursor.next();
+            out.write(first ? "\n{" : ",\n{");
+            first = false;
+
+            boolean firstBinding = true;
+            for (int i = 0; i < variables.size(); i++) {
+                String value = row.getString(i);
+                if (value == null) {
+                    continue;
+                }
+                if (!firstBinding) out.write(',');
+                firstBinding = false;
+                writeJsonString(out, variables.get(i));
+                writeJsonTerm(out, value, row.hasTypes() ? row.getType(i) : untypedTerm(value));
+            }
+            out.write('}');
+        }
+        out.write("\n]}}\n");
+    }
+
+    /**
+     * One RDF term object: {"type":"uri"|"bnode"|"literal","value":...} plus the literal's
+     * datatype or language; xsd:string literals are written as simple literals
+     */
+    private static void writeJsonTerm(Writer out, String value, TermType type) throws IOException {
+        if (type == null) {
+            type = TermType.STRING;
+        }
+        switch (type.getKind()) {
+            case IRI:
+                out.write(":{\"type\":\"uri\",\"value\":");
+                writeJsonString(out, value);
+                break;
+            case BNODE:
+                out.write(":{\"type\":\"bnode\",\"value\":");
+                writeJsonString(out, value.startsWith("_:") ? value.substring(2) : value);
+                break;
+            default:
+                out.write(":{\"type\":\"literal\",\"value\":");
+                writeJsonString(out, value);
+                if (type.getLanguage() != null) {
+                    out.write(",\"xml:lang\":");
+                    writeJsonString(out, type.getLanguage());
+                } else if (type.getDatatype() != null && !type.getDatatype().equals(TermType.XSD_STRING)) {
+                    out.write(",\"datatype\":");
+                    writeJsonString(out, type.getDatatype());
+                }
+        }
+        out.write('}');
+    }
+
+    /**
+     * Best guess for CSV rows from the Ontop CLI, which carry no term types
+     */
+    private static TermType untypedTerm(String value) {
+        boolean iri = value.startsWith("http://") || value.startsWith("https://") || value.startsWith("urn:");
+        return iri ? TermType.IRI : TermType.STRING;
+    }
+
+    private static void writeJsonString(Writer out, String value) throws IOException {
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': out.write("\\\""); break;
+                case '\\': out.write("\\\\"); break;
+                case '\n': out.write("\\n"); break;
+                case '\r': out.write("\\r"); break;
+                case '\t': out.write("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        out.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+            }
+        }
+        out.write('"');
+    }
+
+    private static boolean accepts(HttpExchange exchange, String header, String value) {
+        for (String field : exchange.getRequestHeaders().getOrDefault(header, List.of())) {
+            if (field.toLowerCase().contains(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String formParameter(String form, String name) {
+        if (form == null) {
+            return null;
+        }
+        for (String pair : form.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            if (name.equals(key)) {
+                return eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] body = (message + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
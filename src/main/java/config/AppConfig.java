@@ -98,6 +98,7 @@ public class AppConfig {
     public static final Path RESOURCES_DIR = PROJECT_ROOT.resolve("src").resolve("main").resolve("resources");
     public static final Path ONTOLOGY_DIR = RESOURCES_DIR.resolve("ontology");
     public static final Path TOOLS_DIR = PROJECT_ROOT.resolve("tools");
+    public static final Path CACHE_DIR = PROJECT_ROOT.resolve("cache");
     
     /**
      * Ontology file paths - used by reasoning and SPARQL engines
@@ -120,7 +121,154 @@ public class AppConfig {
         TOOLS_DIR.resolve(isWindows() ? "ontop.bat" : "ontop"),
         Paths.get(isWindows() ? "ontop.bat" : "ontop") // System PATH
     };
-    
+
+    /**
+     * Ontop distribution folders - lib/ holds the Ontop jars, jdbc/ the H2 driver
+     * Used by the embedded (in-process) SPARQL mode
+     */
+    public static final Path ONTOP_LIB_DIR = TOOLS_DIR.resolve("ontop").resolve("lib");
+    public static final Path ONTOP_JDBC_DIR = TOOLS_DIR.resolve("ontop").resolve("jdbc");
+
+    // =============================================================================
+    // SPARQL ENGINE CONFIGURATION
+    // =============================================================================
+
+    /**
+     * SPARQL execution mode (override with -Dsparql.mode=...):
+     * → "embedded": Ontop loaded once in-process, queries answered from the warm engine
+     * → "pool": N warm "ontop endpoint" worker processes queried over local HTTP
+     * → "cli": one Ontop CLI process per query (slow, but needs no Ontop jars in the JVM)
+     * Embedded and pool modes fall back to the CLI when they cannot be started
+     */
+    public static final String SPARQL_MODE = System.getProperty("sparql.mode", "embedded");
+
+    /**
+     * Ontop worker pool settings (pool mode only)
+     * → size defaults to the number of cores (max 4), workers use consecutive ports from the base port
+     * → a worker is restarted after ONTOP_POOL_MAX_QUERIES_PER_WORKER queries to bound its heap growth
+     */
+    public static final int ONTOP_POOL_SIZE = Integer.getInteger("sparql.pool.size",
+        Math.min(4, Runtime.getRuntime().availableProcessors()));
+    public static final int ONTOP_POOL_BASE_PORT = Integer.getInteger("sparql.pool.basePort", 8090);
+    public static final int ONTOP_POOL_MAX_QUERIES_PER_WORKER = Integer.getInteger("sparql.pool.maxQueries", 1000);
+    public static final int ONTOP_POOL_ACQUIRE_TIMEOUT_SECONDS = 60;
+    public static final int ONTOP_POOL_STARTUP_TIMEOUT_SECONDS = 120;
+    public static final int ONTOP_POOL_QUERY_TIMEOUT_SECONDS = 30;
+    public static final int ONTOP_POOL_HEALTH_CHECK_SECONDS = 30;
+
+    /**
+     * Port of the local SPARQL endpoint started by "AppRunner --server [port]"
+     */
+    public static final int SPARQL_ENDPOINT_PORT = Integer.getInteger("sparql.endpoint.port", 8080);
+
+    /**
+     * Time limit of one endpoint request, after which it is cancelled and answered 504 (0 = no limit)
+     */
+    public static final int SPARQL_ENDPOINT_TIMEOUT_SECONDS = Integer.getInteger("sparql.endpoint.timeout", 60);
+
+    /**
+     * Answer simple class/property patterns with SQL built from the mapping index,
+     * skipping Ontop (see engines.DirectSQLRouter) - disable with -Dsparql.directSql=false
+     */
+    public static final boolean SPARQL_DIRECT_SQL = Boolean.parseBoolean(System.getProperty("sparql.directSql", "true"));
+
+    // =============================================================================
+    // REASONER CONFIGURATION
+    // =============================================================================
+
+    /**
+     * OWL reasoner behind ReasoningEngine (see engines.ReasonerBackend)
+     * → hermit: complete OWL 2 DL tableau reasoner (default)
+     * → elk: EL reasoner, when the ELK OWL API jar is on the classpath
+     * → structural: told axioms only, no inference
+     * → any other value: name of a ServiceLoader backend or an OWLReasonerFactory class
+     */
+    public static final String REASONER_BACKEND = System.getProperty("reasoner.backend", "hermit");
+
+    /**
+     * Start ReasoningEngine from the classification snapshot in CACHE_DIR when it matches the
+     * ontology and backend, and save one after each full classification (see
+     * engines.ClassificationSnapshot). false always parses and classifies with the reasoner.
+     */
+    public static final boolean REASONER_SNAPSHOT = Boolean.parseBoolean(System.getProperty("reasoner.snapshot", "true"));
+
+    // =============================================================================
+    // ASYNC QUERY CONFIGURATION
+    // =============================================================================
+
+    /**
+     * Maximum concurrent asynchronous queries per layer (see engines.QueryExecutors)
+     * → SQL: cheap H2 lookups, scale with cores
+     * → SPARQL: bounded by Ontop capacity (worker pool size in pool mode)
+     * → Reasoning: 1 by default - an OWLReasoner instance is not safe for concurrent use
+     */
+    public static final int SQL_MAX_CONCURRENCY = Integer.getInteger("async.sql.maxConcurrency",
+        Runtime.getRuntime().availableProcessors() * 2);
+    public static final int SPARQL_MAX_CONCURRENCY = Integer.getInteger("async.sparql.maxConcurrency",
+        Math.max(ONTOP_POOL_SIZE, 2));
+    public static final int REASONING_MAX_CONCURRENCY = Integer.getInteger("async.reasoning.maxConcurrency", 1);
+
+    // =============================================================================
+    // RESULT CACHE CONFIGURATION
+    // =============================================================================
+
+    /**
+     * Query result caches in front of H2_SQLEngine and SPARQLEngine (see engines.QueryResultCache)
+     * → entries are invalidated when a table they read changes, disable with -Dcache.results=false
+     * → bounded by total weight: SQL results in cells (rows x columns), SPARQL results in characters
+     */
+    public static final boolean RESULT_CACHE_ENABLED = Boolean.parseBoolean(System.getProperty("cache.results", "true"));
+    public static final long SQL_RESULT_CACHE_MAX_CELLS = Long.getLong("cache.sql.maxCells", 1_000_000L);
+    public static final long SPARQL_RESULT_CACHE_MAX_CHARS = Long.getLong("cache.sparql.maxChars", 16L * 1024 * 1024);
+
+    // =============================================================================
+    // CONNECTION POOL CONFIGURATION
+    // =============================================================================
+
+    /**
+     * JDBC connection pool shared by H2_SQLEngine and DatabaseConnect (see database.ConnectionPool)
+     * → min connections are opened up front, max bounds concurrent borrowers
+     * → a connection held longer than the leak threshold is reported with its borrow stack (0 disables)
+     * → each connection caches up to statementCacheSize prepared statements
+     */
+    public static final int DB_POOL_MIN_SIZE = Integer.getInteger("db.pool.minSize", 2);
+    public static final int DB_POOL_MAX_SIZE = Integer.getInteger("db.pool.maxSize",
+        Math.max(SQL_MAX_CONCURRENCY, 4));
+    public static final int DB_POOL_BORROW_TIMEOUT_SECONDS = Integer.getInteger("db.pool.borrowTimeout", 30);
+    public static final int DB_POOL_LEAK_THRESHOLD_SECONDS = Integer.getInteger("db.pool.leakThreshold", 60);
+    public static final int DB_POOL_STATEMENT_CACHE_SIZE = Integer.getInteger("db.pool.statementCacheSize", 64);
+
+    /**
+     * Rows fetched per round trip by the streaming query API (H2_SQLEngine.query/stream/forEachRow)
+     */
+    public static final int SQL_FETCH_SIZE = Integer.getInteger("db.fetchSize", 1000);
+
+    // =============================================================================
+    // BULK LOAD CONFIGURATION
+    // =============================================================================
+
+    /**
+     * Batched loading (see database.BulkLoader)
+     * → rows sent to H2 per executeBatch round trip
+     * → rows per transaction - large enough to avoid a commit per batch, small enough
+     *   to bound H2's undo log
+     */
+    public static final int BULK_LOAD_BATCH_SIZE = Integer.getInteger("db.bulk.batchSize", 5000);
+    public static final long BULK_LOAD_COMMIT_ROWS = Long.getLong("db.bulk.commitRows", 200_000L);
+
+    /**
+     * Create the secondary indexes database.IndexAdvisor derives from the mapping's
+     * rr:sqlQuery sources when the SQL engine starts
+     */
+    public static final boolean DB_INDEX_ADVISOR = Boolean.parseBoolean(System.getProperty("db.indexAdvisor", "true"));
+
+    /**
+     * Reuse the seeded database across starts when its fingerprint and checksum still match,
+     * restoring it from the gzip snapshot otherwise (see database.SeedSnapshot).
+     * false rebuilds it with CreateH2Database on every start.
+     */
+    public static final boolean DB_REUSE_SEED = Boolean.parseBoolean(System.getProperty("db.reuseSeed", "true"));
+
     // =============================================================================
     // UTILITY METHODS
     // =============================================================================
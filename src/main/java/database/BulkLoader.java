@@ -0,0 +1,286 @@
+package database;
+
+import config.AppConfig;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Bulk loader for the sport schema - replaces one INSERT (and one commit) per row.
+ *
+ * → rows go through PreparedStatement.addBatch, AppConfig.BULK_LOAD_BATCH_SIZE rows per round trip
+ * → one transaction per AppConfig.BULK_LOAD_COMMIT_ROWS rows instead of autocommit
+ * → foreign-key checks are switched off per table while loading and verified once at the end
+ * → secondary indexes registered with deferIndex() are built after the data is in
+ * → loadCsv() inserts a whole CSV file inside H2 with CSVREAD, without a JDBC round trip per batch
+ *
+ * Usage:
+ *   try (BulkLoader loader = new BulkLoader(connection)) {
+ *       try (BulkLoader.Inserter teams = loader.into("team", 6)) {
+ *           teams.add(1, "Manchester City", "Manchester", 1880, 55000, "SeniorTeam");
+ *       }
+ *   }   // close() commits, builds deferred indexes and re-checks the foreign keys
+ */
+public class BulkLoader implements AutoCloseable {
+    private final Connection connection;
+    private final boolean previousAutoCommit;
+    private final int batchSize;
+    private final long commitRows;
+    private final boolean deferForeignKeys;
+
+    private final Set<String> relaxedTables = new LinkedHashSet<>();
+    private final List<String> deferredIndexes = new ArrayList<>();
+    private long uncommittedRows = 0;
+    private long totalRows = 0;
+    private final long startNanos = System.nanoTime();
+    private boolean closed = false;
+
+    public BulkLoader(Connection connection) throws SQLException {
+        this(connection, AppConfig.BULK_LOAD_BATCH_SIZE, AppConfig.BULK_LOAD_COMMIT_ROWS);
+    }
+
+    public BulkLoader(Connection connection, int batchSize, long commitRows) throws SQLException {
+        this(connection, batchSize, commitRows, true);
+    }
+
+    /**
+     * @param deferForeignKeys false keeps foreign-key checks on while loading - needed when
+     *        several loaders write the same tables concurrently, since switching the checks
+     *        off is a DDL statement that locks the table
+     */
+    public BulkLoader(Connection connection, int batchSize, long commitRows, boolean deferForeignKeys) throws SQLException {
+        if (batchSize < 1 || commitRows < 1) {
+            throw new IllegalArgumentException("Batch size and commit interval must be positive");
+        }
+        this.connection = connection;
+        this.batchSize = batchSize;
+        this.commitRows = commitRows;
+        this.deferForeignKeys = deferForeignKeys;
+        this.previousAutoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+    }
+
+    /**
+     * Start batched inserts into a table, binding values to its columns in table order
+     */
+    public Inserter into(String table, int columnCount) throws SQLException {
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table).append(" VALUES (");
+        for (int i = 0; i < columnCount; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        return open(table, sql.append(')').toString(), columnCount);
+    }
+
+    /**
+     * Start batched inserts into the given columns of a table
+     */
+    public Inserter into(String table, String... columns) throws SQLException {
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table)
+            .append(" (").append(String.join(", ", columns)).append(") VALUES (");
+        for (int i = 0; i < columns.length; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        return open(table, sql.append(')').toString(), columns.length);
+    }
+
+    private Inserter open(String table, String sql, int columnCount) throws SQLException {
+        checkOpen();
+        relaxForeignKeys(table);
+        return new Inserter(connection.prepareStatement(sql), columnCount);
+    }
+
+    /**
+     * Insert all rows of a table
+     * @return number of rows inserted
+     */
+    public long load(String table, Iterable<Object[]> rows) throws SQLException {
+        Inserter inserter = null;
+        try {
+            for (Object[] row : rows) {
+                if (inserter == null) {
+                    inserter = into(table, row.length);
+                }
+                inserter.add(row);
+            }
+            return inserter == null ? 0 : inserter.getRowCount();
+        } finally {
+            if (inserter != null) {
+                inserter.close();
+            }
+        }
+    }
+
+    /**
+     * Insert all rows of a table into the given columns
+     * @return number of rows inserted
+     */
+    public long load(String table, Iterable<Object[]> rows, String... columns) throws SQLException {
+        try (Inserter inserter = into(table, columns)) {
+            for (Object[] row : rows) {
+                inserter.add(row);
+            }
+            return inserter.getRowCount();
+        }
+    }
+
+    /**
+     * Insert a CSV file (header row naming the table columns) with H2's CSVREAD.
+     * The file is read by the database process - with AUTO_SERVER that is the host JVM.
+     * @return number of rows inserted
+     */
+    public long loadCsv(String table, Path csvFile) throws SQLException {
+        checkOpen();
+        relaxForeignKeys(table);
+        long rows;
+        // CSVREAD needs its file name when the statement is prepared - it cannot be a parameter
+        String fileName = csvFile.toAbsolutePath().toString().replace("'", "''");
+        try (Statement stmt = connection.createStatement()) {
+            rows = stmt.executeLargeUpdate("INSERT INTO " + table
+                + " SELECT * FROM CSVREAD('" + fileName + "', NULL, 'charset=UTF-8')");
+        }
+        System.out.println("- " + table + ": " + rows + " rows from " + csvFile.getFileName());
+        rowsWritten(rows);
+        return rows;
+    }
+
+    /**
+     * Create an index once the load is finished instead of maintaining it row by row
+     */
+    public void deferIndex(String createIndexSql) {
+        checkOpen();
+        deferredIndexes.add(createIndexSql);
+    }
+
+    public long getTotalRows() {
+        return totalRows;
+    }
+
+    private void relaxForeignKeys(String table) throws SQLException {
+        if (deferForeignKeys && relaxedTables.add(table.toUpperCase())) {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("ALTER TABLE " + table + " SET REFERENTIAL_INTEGRITY FALSE");
+            }
+        }
+    }
+
+    private void rowsWritten(long rows) throws SQLException {
+        totalRows += rows;
+        uncommittedRows += rows;
+        if (uncommittedRows >= commitRows) {
+            connection.commit();
+            uncommittedRows = 0;
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Bulk loader already closed");
+        }
+    }
+
+    /**
+     * Commit, build deferred indexes and switch foreign-key checks back on, verifying
+     * every loaded row. Fails with an SQLException when a row references a missing parent;
+     * the rows stay committed and that table keeps its checks off until the row is fixed.
+     */
+    @Override
+    public void close() throws SQLException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            connection.commit();
+            SQLException failure = null;
+            try (Statement stmt = connection.createStatement()) {
+                for (String ddl : deferredIndexes) {
+                    stmt.execute(ddl);
+                }
+                for (String table : relaxedTables) {
+                    try {
+                        stmt.execute("ALTER TABLE " + table + " SET REFERENTIAL_INTEGRITY TRUE CHECK");
+                    } catch (SQLException e) {
+                        if (failure == null) {
+                            failure = e;
+                        } else {
+                            failure.addSuppressed(e);
+                        }
+                    }
+                }
+            }
+            connection.commit();
+            if (failure != null) {
+                throw failure;
+            }
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(previousAutoCommit);
+            // Statement triggers already moved the versions, but readers may have cached
+            // results between our batches and the final commit
+            TableChangeTrigger.bumpAll();
+        }
+
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        System.out.printf("Bulk load: %d rows in %.2fs (%.0f rows/s)%n", totalRows, seconds,
+            seconds > 0 ? totalRows / seconds : 0);
+    }
+
+    /**
+     * Batched INSERT into one table - close it to flush the last batch
+     */
+    public class Inserter implements AutoCloseable {
+        private final PreparedStatement stmt;
+        private final int columnCount;
+        private int pending = 0;
+        private long rowCount = 0;
+
+        private Inserter(PreparedStatement stmt, int columnCount) {
+            this.stmt = stmt;
+            this.columnCount = columnCount;
+        }
+
+        public void add(Object... values) throws SQLException {
+            if (values.length != columnCount) {
+                throw new IllegalArgumentException("Expected " + columnCount + " values, got " + values.length);
+            }
+            for (int i = 0; i < values.length; i++) {
+                stmt.setObject(i + 1, values[i]);
+            }
+            stmt.addBatch();
+            rowCount++;
+            if (++pending >= batchSize) {
+                flush();
+            }
+        }
+
+        private void flush() throws SQLException {
+            if (pending > 0) {
+                stmt.executeBatch();
+                rowsWritten(pending);
+                pending = 0;
+            }
+        }
+
+        public long getRowCount() {
+            return rowCount;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                flush();
+            } finally {
+                stmt.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,507 @@
+package database;
+
+import config.AppConfig;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded JDBC connection pool, shared by H2_SQLEngine and DatabaseConnect (DatabaseConnect.acquirePool).
+ *
+ * borrow() hands out a connection for one thread; close() on it returns it to the pool.
+ * → keeps between min and max physical connections (sizes from AppConfig.DB_POOL_*)
+ * → connections idle for more than a second are validated (isValid) before being handed out
+ * → a connection held longer than the leak threshold is reported with the stack that borrowed it
+ * → each physical connection keeps an LRU cache of PreparedStatements: prepareStatement(sql)
+ *   reuses a statement closed earlier with the same SQL, skipping H2's parse and plan
+ */
+public class ConnectionPool implements AutoCloseable {
+    private static final long VALIDATION_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private static final ScheduledThreadPoolExecutor LEAK_DETECTOR = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "connection-leak-detector");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        LEAK_DETECTOR.setRemoveOnCancelPolicy(true);
+    }
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int maxSize;
+    private final int statementCacheSize;
+    private final long leakThresholdNanos;
+
+    private final Semaphore permits;
+    private final Deque<PhysicalConnection> idle = new ArrayDeque<>();
+    private final Set<Lease> leases = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final ScheduledFuture<?> leakCheck;
+    private volatile boolean closed = false;
+
+    private final AtomicLong borrows = new AtomicLong();
+    private final AtomicLong connectionsCreated = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private final AtomicLong leaksDetected = new AtomicLong();
+    private final AtomicLong statementHits = new AtomicLong();
+    private final AtomicLong statementMisses = new AtomicLong();
+    private final AtomicLong statementEvictions = new AtomicLong();
+
+    public ConnectionPool(String url, String user, String password) throws SQLException {
+        this(url, user, password, AppConfig.DB_POOL_MIN_SIZE, AppConfig.DB_POOL_MAX_SIZE);
+    }
+
+    public ConnectionPool(String url, String user, String password, int minSize, int maxSize) throws SQLException {
+        if (maxSize < 1 || minSize < 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min " + minSize + ", max " + maxSize);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.statementCacheSize = AppConfig.DB_POOL_STATEMENT_CACHE_SIZE;
+        this.leakThresholdNanos = TimeUnit.SECONDS.toNanos(AppConfig.DB_POOL_LEAK_THRESHOLD_SECONDS);
+        this.permits = new Semaphore(maxSize, true);
+
+        try {
+            for (int i = 0; i < minSize; i++) {
+                idle.add(create());
+            }
+        } catch (SQLException e) {
+            close();
+            throw e;
+        }
+
+        if (leakThresholdNanos > 0) {
+            long period = Math.max(1, AppConfig.DB_POOL_LEAK_THRESHOLD_SECONDS / 2);
+            leakCheck = LEAK_DETECTOR.scheduleWithFixedDelay(this::detectLeaks, period, period, TimeUnit.SECONDS);
+        } else {
+            leakCheck = null;
+        }
+    }
+
+    /**
+     * Borrow a connection, waiting up to AppConfig.DB_POOL_BORROW_TIMEOUT_SECONDS while all are in use.
+     * Close it to return it to the pool.
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        try {
+            if (!permits.tryAcquire(AppConfig.DB_POOL_BORROW_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                throw new SQLException("No database connection available after "
+                    + AppConfig.DB_POOL_BORROW_TIMEOUT_SECONDS + "s (all " + maxSize + " in use)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            PhysicalConnection physical = takeValidIdle();
+            if (physical == null) {
+                physical = create();
+            }
+            borrows.incrementAndGet();
+            Lease lease = new Lease(physical);
+            leases.add(lease);
+            return lease.handle;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private PhysicalConnection takeValidIdle() {
+        while (true) {
+            PhysicalConnection physical;
+            synchronized (idle) {
+                physical = idle.pollFirst();
+            }
+            if (physical == null) {
+                return null;
+            }
+            if (physical.isUsable()) {
+                return physical;
+            }
+            validationFailures.incrementAndGet();
+            discard(physical);
+        }
+    }
+
+    private PhysicalConnection create() throws SQLException {
+        PhysicalConnection physical = new PhysicalConnection(DriverManager.getConnection(url, user, password));
+        totalConnections.incrementAndGet();
+        connectionsCreated.incrementAndGet();
+        return physical;
+    }
+
+    private void giveBack(Lease lease) {
+        if (!leases.remove(lease)) {
+            return;
+        }
+        PhysicalConnection physical = lease.physical;
+        if (!closed && physical.reset()) {
+            physical.lastUsed = System.nanoTime();
+            synchronized (idle) {
+                idle.addFirst(physical);
+            }
+        } else {
+            discard(physical);
+        }
+        permits.release();
+    }
+
+    private void discard(PhysicalConnection physical) {
+        totalConnections.decrementAndGet();
+        physical.closeQuietly();
+    }
+
+    private void detectLeaks() {
+        long now = System.nanoTime();
+        for (Lease lease : leases) {
+            if (!lease.reported && now - lease.borrowedAt > leakThresholdNanos) {
+                lease.reported = true;
+                leaksDetected.incrementAndGet();
+                System.err.println("Possible connection leak: connection borrowed "
+                    + TimeUnit.NANOSECONDS.toSeconds(now - lease.borrowedAt) + "s ago was not returned");
+                lease.origin.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Close idle connections and stop handing out new ones; borrowed connections are
+     * closed when they are returned
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (leakCheck != null) {
+            leakCheck.cancel(false);
+        }
+        synchronized (idle) {
+            for (PhysicalConnection physical : idle) {
+                discard(physical);
+            }
+            idle.clear();
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public int getActiveCount() {
+        return leases.size();
+    }
+
+    public int getIdleCount() {
+        synchronized (idle) {
+            return idle.size();
+        }
+    }
+
+    public int getTotalCount() {
+        return totalConnections.get();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getStatementCacheHits() {
+        return statementHits.get();
+    }
+
+    public long getStatementCacheMisses() {
+        return statementMisses.get();
+    }
+
+    public long getLeaksDetected() {
+        return leaksDetected.get();
+    }
+
+    public long getStatementCacheEvictions() {
+        return statementEvictions.get();
+    }
+
+    /**
+     * Share of prepareStatement calls served from the statement caches (0 before any call)
+     */
+    public double getStatementCacheHitRatio() {
+        long hits = getStatementCacheHits();
+        long total = hits + getStatementCacheMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Print pool statistics
+     */
+    public void printStats() {
+        System.out.printf("Connection pool: %d/%d connections (%d active, %d idle), %d borrows, %d created, "
+                + "%d failed validation, %d leaks%n",
+            getTotalCount(), maxSize, getActiveCount(), getIdleCount(), borrows.get(), connectionsCreated.get(),
+            validationFailures.get(), getLeaksDetected());
+        System.out.printf("Statement cache: %d hits, %d misses (%.1f%% hit ratio), %d evictions, %d per connection%n",
+            getStatementCacheHits(), getStatementCacheMisses(), getStatementCacheHitRatio() * 100,
+            getStatementCacheEvictions(), statementCacheSize);
+    }
+
+    // =============================================================================
+    // POOLED CONNECTIONS
+    // =============================================================================
+
+    /**
+     * A physical connection and its cache of idle prepared statements (LRU by SQL text)
+     */
+    private class PhysicalConnection {
+        final Connection raw;
+        final LinkedHashMap<String, PreparedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+        volatile long lastUsed = System.nanoTime();
+
+        PhysicalConnection(Connection raw) {
+            this.raw = raw;
+        }
+
+        boolean isUsable() {
+            try {
+                if (raw.isClosed()) {
+                    return false;
+                }
+                return System.nanoTime() - lastUsed < VALIDATION_INTERVAL_NANOS || raw.isValid(VALIDATION_TIMEOUT_SECONDS);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Undo what the last borrower may have changed
+         */
+        boolean reset() {
+            try {
+                if (raw.isClosed()) {
+                    return false;
+                }
+                if (!raw.getAutoCommit()) {
+                    raw.rollback();
+                    raw.setAutoCommit(true);
+                }
+                raw.clearWarnings();
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        synchronized PreparedStatement checkout(String sql) throws SQLException {
+            PreparedStatement cached = statements.remove(sql);
+            if (cached != null && !cached.isClosed()) {
+                statementHits.incrementAndGet();
+                return cached;
+            }
+            statementMisses.incrementAndGet();
+            return raw.prepareStatement(sql);
+        }
+
+        synchronized void checkin(String sql, PreparedStatement statement) {
+            try {
+                if (statement.isClosed()) {
+                    return;
+                }
+                if (statementCacheSize <= 0 || statements.containsKey(sql)) {
+                    statement.close();
+                    return;
+                }
+                statement.clearParameters();
+                statement.setQueryTimeout(0);
+                statement.setFetchSize(0);
+                statements.put(sql, statement);
+
+                Iterator<Map.Entry<String, PreparedStatement>> eldest = statements.entrySet().iterator();
+                while (statements.size() > statementCacheSize && eldest.hasNext()) {
+                    PreparedStatement evicted = eldest.next().getValue();
+                    eldest.remove();
+                    statementEvictions.incrementAndGet();
+                    evicted.close();
+                }
+            } catch (SQLException e) {
+                ConnectionPool.closeQuietly(statement);
+            }
+        }
+
+        synchronized void closeQuietly() {
+            for (PreparedStatement statement : statements.values()) {
+                ConnectionPool.closeQuietly(statement);
+            }
+            statements.clear();
+            try {
+                raw.close();
+            } catch (SQLException e) {
+                System.err.println("Could not close pooled connection: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * One borrow of a physical connection: the Connection handed out is a proxy whose
+     * close() returns the connection, and whose prepareStatement(sql) goes through the
+     * statement cache
+     */
+    private class Lease implements InvocationHandler {
+        final PhysicalConnection physical;
+        final Connection handle;
+        final long borrowedAt = System.nanoTime();
+        final Throwable origin;
+        volatile boolean returned = false;
+        volatile boolean reported = false;
+
+        Lease(PhysicalConnection physical) {
+            this.physical = physical;
+            this.origin = leakThresholdNanos > 0 ? new Throwable("Connection borrowed here") : null;
+            this.handle = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        giveBack(this);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || physical.raw.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + physical.raw;
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Connection was returned to the pool");
+            }
+            if (method.getName().equals("prepareStatement") && args.length == 1) {
+                String sql = (String) args[0];
+                return cachedStatement(sql, physical.checkout(sql));
+            }
+            return invokeOn(physical.raw, method, args);
+        }
+
+        private PreparedStatement cachedStatement(String sql, PreparedStatement statement) {
+            InvocationHandler handler = new InvocationHandler() {
+                private boolean statementClosed = false;
+
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    switch (method.getName()) {
+                        case "close":
+                            if (!statementClosed) {
+                                statementClosed = true;
+                                physical.checkin(sql, statement);
+                            }
+                            return null;
+                        case "isClosed":
+                            return statementClosed || statement.isClosed();
+                        case "getConnection":
+                            return handle;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+                    if (statementClosed) {
+                        throw new SQLException("Statement is closed");
+                    }
+                    return invokeOn(statement, method, args);
+                }
+            };
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[] { PreparedStatement.class }, handler);
+        }
+    }
+
+    private static Object invokeOn(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            // already broken - nothing to release
+        }
+    }
+
+    /**
+     * Tie a connection and statement to a result set: closing the result set (or its
+     * statement) closes the statement and returns the connection. Used to hand out a
+     * streaming ResultSet from a pooled connection.
+     */
+    public static ResultSet bindToResultSet(Connection connection, PreparedStatement statement, ResultSet rs) {
+        Runnable release = () -> {
+            closeQuietly(rs);
+            closeQuietly(statement);
+            closeQuietly(connection);
+        };
+        InvocationHandler statementHandler = (proxy, method, args) -> {
+            if (method.getName().equals("close")) {
+                release.run();
+                return null;
+            }
+            return invokeOn(statement, method, args);
+        };
+        PreparedStatement boundStatement = (PreparedStatement) Proxy.newProxyInstance(
+            PreparedStatement.class.getClassLoader(), new Class<?>[] { PreparedStatement.class }, statementHandler);
+
+        InvocationHandler resultHandler = (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "close":
+                    release.run();
+                    return null;
+                case "getStatement":
+                    return boundStatement;
+                default:
+                    return invokeOn(rs, method, args);
+            }
+        };
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+            new Class<?>[] { ResultSet.class }, resultHandler);
+    }
+}
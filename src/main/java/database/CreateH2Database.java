@@ -1,11 +1,17 @@
 package database;
 
 import java.sql.Connection;
+import java.sql.Date;
 import java.sql.DriverManager;
 import java.sql.Statement;
 import java.nio.file.*;
 
 public class CreateH2Database {
+    /**
+     * PERSON columns set when loading - AGE is filled in by PersonAgeTrigger
+     */
+    public static final String[] PERSON_COLUMNS = {"person_id", "full_name", "birth_date", "nationality", "height", "weight"};
+
     public static void main(String[] args) {
         // Allow custom database path via command line argument
         String customPath = null;
@@ -79,7 +85,8 @@ public class CreateH2Database {
                 "birth_date DATE, " +
                 "nationality VARCHAR(50), " +
                 "height DECIMAL(4,2), " +
-                "weight DECIMAL(5,2))");
+                "weight DECIMAL(5,2), " +
+                "age INTEGER)");   // maintained from birth_date by PersonAgeTrigger
             
             // Tabela: Player Role
             stmt.execute("CREATE TABLE player_role (" +
@@ -120,121 +127,132 @@ public class CreateH2Database {
                 "FOREIGN KEY (team_id) REFERENCES team(team_id))");
             
             System.out.println("Tabelas criadas com sucesso!");
+            
+            // Version counters used to invalidate cached query results
+            TableChangeTrigger.install(stmt);
+            PersonAgeTrigger.install(stmt);
             System.out.println("\nA inserir dados...");
             
-            // ========== INSERIR DADOS: TEAMS ==========
-            System.out.println("- Inserindo teams...");
-            
-            // Senior Teams
-            stmt.execute("INSERT INTO team VALUES (1, 'Manchester City', 'Manchester', 1880, 55000, 'SeniorTeam')");
-            stmt.execute("INSERT INTO team VALUES (2, 'Real Madrid', 'Madrid', 1902, 81000, 'SeniorTeam')");
-            stmt.execute("INSERT INTO team VALUES (3, 'Bayern Munich', 'Munich', 1900, 75000, 'SeniorTeam')");
-            stmt.execute("INSERT INTO team VALUES (4, 'Paris Saint-Germain', 'Paris', 1970, 48000, 'SeniorTeam')");
-            stmt.execute("INSERT INTO team VALUES (5, 'Barcelona', 'Barcelona', 1899, 99000, 'SeniorTeam')");
-            
-            // Youth Teams
-            stmt.execute("INSERT INTO team VALUES (6, 'Manchester City U21', 'Manchester', 1880, 7000, 'YouthTeam')");
-            stmt.execute("INSERT INTO team VALUES (7, 'Real Madrid Castilla', 'Madrid', 1902, 6000, 'YouthTeam')");
-            
-            // ========== INSERIR DADOS: PERSONS ==========
-            System.out.println("- Inserindo pessoas...");
-            
-            // Players
-            stmt.execute("INSERT INTO person VALUES (1, 'Erling Haaland', '2000-07-21', 'Norway', 1.95, 88.0)");
-            stmt.execute("INSERT INTO person VALUES (2, 'Kevin De Bruyne', '1991-06-28', 'Belgium', 1.81, 70.0)");
-            stmt.execute("INSERT INTO person VALUES (3, 'Vinicius Junior', '2000-07-12', 'Brazil', 1.76, 73.0)");
-            stmt.execute("INSERT INTO person VALUES (4, 'Jude Bellingham', '2003-06-29', 'England', 1.86, 75.0)");
-            stmt.execute("INSERT INTO person VALUES (5, 'Kylian Mbappe', '1998-12-20', 'France', 1.78, 73.0)");
-            stmt.execute("INSERT INTO person VALUES (6, 'Harry Kane', '1993-07-28', 'England', 1.88, 86.0)");
-            stmt.execute("INSERT INTO person VALUES (7, 'Ederson Moraes', '1993-08-17', 'Brazil', 1.88, 86.0)");
-            stmt.execute("INSERT INTO person VALUES (8, 'Thibaut Courtois', '1992-05-11', 'Belgium', 1.99, 96.0)");
-            stmt.execute("INSERT INTO person VALUES (9, 'Robert Lewandowski', '1988-08-21', 'Poland', 1.85, 81.0)");
-            stmt.execute("INSERT INTO person VALUES (10, 'Pedri Gonzalez', '2002-11-25', 'Spain', 1.74, 60.0)");
-            
-            // Youth Players
-            stmt.execute("INSERT INTO person VALUES (11, 'Rico Lewis', '2004-11-21', 'England', 1.69, 65.0)");
-            stmt.execute("INSERT INTO person VALUES (12, 'Nico Paz', '2004-09-14', 'Argentina', 1.81, 73.0)");
-            
-            // Coaches
-            stmt.execute("INSERT INTO person VALUES (20, 'Pep Guardiola', '1971-01-18', 'Spain', 1.80, 76.0)");
-            stmt.execute("INSERT INTO person VALUES (21, 'Carlo Ancelotti', '1959-06-10', 'Italy', 1.79, 78.0)");
-            stmt.execute("INSERT INTO person VALUES (22, 'Thomas Tuchel', '1973-08-29', 'Germany', 1.93, 85.0)");
-            stmt.execute("INSERT INTO person VALUES (23, 'Luis Enrique', '1970-05-08', 'Spain', 1.82, 75.0)");
-            stmt.execute("INSERT INTO person VALUES (24, 'Xavi Hernandez', '1980-01-25', 'Spain', 1.70, 68.0)");
-            
-            // Assistant Coaches
-            stmt.execute("INSERT INTO person VALUES (25, 'Juanma Lillo', '1965-11-03', 'Spain', 1.75, 70.0)");
-            stmt.execute("INSERT INTO person VALUES (26, 'Davide Ancelotti', '1989-07-22', 'Italy', 1.78, 73.0)");
-            
-            // ========== INSERIR DADOS: PLAYER ROLES ==========
-            System.out.println("- Inserindo player roles...");
-            
-            // Manchester City Players
-            stmt.execute("INSERT INTO player_role VALUES (1, 1, 1, 'Forward', 9, 180000000, '2022-07-01', NULL)");
-            stmt.execute("INSERT INTO player_role VALUES (2, 2, 1, 'Midfielder', 17, 85000000, '2015-08-30', NULL)");
-            stmt.execute("INSERT INTO player_role VALUES (3, 7, 1, 'Goalkeeper', 31, 40000000, '2017-07-01', NULL)");
-            
-            // Real Madrid Players
-            stmt.execute("INSERT INTO player_role VALUES (4, 3, 2, 'Forward', 7, 150000000, '2018-07-01', NULL)");
-            stmt.execute("INSERT INTO player_role VALUES (5, 4, 2, 'Midfielder', 5, 180000000, '2023-07-01', NULL)");
-            stmt.execute("INSERT INTO player_role VALUES (6, 8, 2, 'Goalkeeper', 1, 60000000, '2018-08-09', NULL)");
-            
-            // Bayern Munich Players
-            stmt.execute("INSERT INTO player_role VALUES (7, 6, 3, 'Forward', 9, 100000000, '2023-08-12', NULL)");
-            
-            // PSG Players
-            stmt.execute("INSERT INTO player_role VALUES (8, 5, 4, 'Forward', 7, 180000000, '2017-08-31', '2024-06-30')");
-            
-            // Barcelona Players
-            stmt.execute("INSERT INTO player_role VALUES (9, 9, 5, 'Forward', 9, 45000000, '2022-07-01', NULL)");
-            stmt.execute("INSERT INTO player_role VALUES (10, 10, 5, 'Midfielder', 8, 80000000, '2020-09-02', NULL)");
-            
-            // Youth Players
-            stmt.execute("INSERT INTO player_role VALUES (11, 11, 6, 'Defender', 82, 15000000, '2022-07-01', NULL)");
-            stmt.execute("INSERT INTO player_role VALUES (12, 12, 7, 'Midfielder', 27, 8000000, '2023-07-01', NULL)");
-            
-            // Historical role (player who moved)
-            stmt.execute("INSERT INTO player_role VALUES (13, 5, 2, 'Forward', 10, 160000000, '2024-07-01', NULL)");
-            
-            // ========== INSERIR DADOS: COACH ROLES ==========
-            System.out.println("- Inserindo coach roles...");
-            
-            // Head Coaches
-            stmt.execute("INSERT INTO coach_role VALUES (101, 20, 1, 'HeadCoach', 'UEFA Pro', '2016-07-01', NULL)");
-            stmt.execute("INSERT INTO coach_role VALUES (102, 21, 2, 'HeadCoach', 'UEFA Pro', '2021-06-01', NULL)");
-            stmt.execute("INSERT INTO coach_role VALUES (103, 22, 3, 'HeadCoach', 'UEFA Pro', '2024-07-01', NULL)");
-            stmt.execute("INSERT INTO coach_role VALUES (104, 23, 4, 'HeadCoach', 'UEFA Pro', '2023-07-05', NULL)");
-            stmt.execute("INSERT INTO coach_role VALUES (105, 24, 5, 'HeadCoach', 'UEFA Pro', '2021-11-08', NULL)");
-            
-            // Assistant Coaches
-            stmt.execute("INSERT INTO coach_role VALUES (106, 25, 1, 'AssistantCoach', 'UEFA Pro', '2016-07-01', NULL)");
-            stmt.execute("INSERT INTO coach_role VALUES (107, 26, 2, 'AssistantCoach', 'UEFA A', '2021-06-01', NULL)");
-            
-            // Historical coaching role
-            stmt.execute("INSERT INTO coach_role VALUES (108, 20, 5, 'HeadCoach', 'UEFA Pro', '2008-06-01', '2012-06-30')");
-            
-            // ========== INSERIR DADOS: CONTRACTS ==========
-            System.out.println("- Inserindo contratos...");
-            
-            // Active contracts - Players
-            stmt.execute("INSERT INTO contract VALUES (1, 1, 1, 'PermanentContract', '2022-07-01', '2027-06-30', 20000000, TRUE)");
-            stmt.execute("INSERT INTO contract VALUES (2, 2, 1, 'PermanentContract', '2021-04-01', '2025-06-30', 18000000, TRUE)");
-            stmt.execute("INSERT INTO contract VALUES (3, 3, 2, 'PermanentContract', '2018-07-01', '2027-06-30', 15000000, TRUE)");
-            stmt.execute("INSERT INTO contract VALUES (4, 4, 2, 'PermanentContract', '2023-07-01', '2029-06-30', 16000000, TRUE)");
-            stmt.execute("INSERT INTO contract VALUES (5, 5, 4, 'PermanentContract', '2022-05-01', '2025-06-30', 25000000, TRUE)");
-            stmt.execute("INSERT INTO contract VALUES (6, 6, 3, 'PermanentContract', '2023-08-12', '2027-06-30', 18000000, TRUE)");
-            
-            // Loan contract
-            stmt.execute("INSERT INTO contract VALUES (7, 11, 1, 'LoanContract', '2024-01-01', '2024-06-30', 1000000, FALSE)");
-            
-            // OWA vs CWA Test Case: Contract with uncertain active status (NULL)
-            stmt.execute("INSERT INTO contract VALUES (8, 9, 5, 'PermanentContract', '2022-07-01', '2027-06-30', 8000000, NULL)");
-            
-            // Active contracts - Coaches
-            stmt.execute("INSERT INTO contract VALUES (10, 20, 1, 'PermanentContract', '2023-07-01', '2025-06-30', 22000000, TRUE)");
-            stmt.execute("INSERT INTO contract VALUES (11, 21, 2, 'PermanentContract', '2024-01-01', '2026-06-30', 12000000, TRUE)");
-            stmt.execute("INSERT INTO contract VALUES (12, 22, 3, 'PermanentContract', '2024-07-01', '2026-06-30', 10000000, TRUE)");
+            // Batched inserts in one transaction, FK checks deferred to the end (see BulkLoader)
+            try (BulkLoader loader = new BulkLoader(conn)) {
+                // ========== INSERIR DADOS: TEAMS ==========
+                System.out.println("- Inserindo teams...");
+                try (BulkLoader.Inserter teams = loader.into("team", 6)) {
+                    // Senior Teams
+                    teams.add(1, "Manchester City", "Manchester", 1880, 55000, "SeniorTeam");
+                    teams.add(2, "Real Madrid", "Madrid", 1902, 81000, "SeniorTeam");
+                    teams.add(3, "Bayern Munich", "Munich", 1900, 75000, "SeniorTeam");
+                    teams.add(4, "Paris Saint-Germain", "Paris", 1970, 48000, "SeniorTeam");
+                    teams.add(5, "Barcelona", "Barcelona", 1899, 99000, "SeniorTeam");
+            
+                    // Youth Teams
+                    teams.add(6, "Manchester City U21", "Manchester", 1880, 7000, "YouthTeam");
+                    teams.add(7, "Real Madrid Castilla", "Madrid", 1902, 6000, "YouthTeam");
+                }
+            
+                // ========== INSERIR DADOS: PERSONS ==========
+                System.out.println("- Inserindo pessoas...");
+                try (BulkLoader.Inserter persons = loader.into("person", PERSON_COLUMNS)) {
+                    // Players
+                    persons.add(1, "Erling Haaland", date("2000-07-21"), "Norway", 1.95, 88.0);
+                    persons.add(2, "Kevin De Bruyne", date("1991-06-28"), "Belgium", 1.81, 70.0);
+                    persons.add(3, "Vinicius Junior", date("2000-07-12"), "Brazil", 1.76, 73.0);
+                    persons.add(4, "Jude Bellingham", date("2003-06-29"), "England", 1.86, 75.0);
+                    persons.add(5, "Kylian Mbappe", date("1998-12-20"), "France", 1.78, 73.0);
+                    persons.add(6, "Harry Kane", date("1993-07-28"), "England", 1.88, 86.0);
+                    persons.add(7, "Ederson Moraes", date("1993-08-17"), "Brazil", 1.88, 86.0);
+                    persons.add(8, "Thibaut Courtois", date("1992-05-11"), "Belgium", 1.99, 96.0);
+                    persons.add(9, "Robert Lewandowski", date("1988-08-21"), "Poland", 1.85, 81.0);
+                    persons.add(10, "Pedri Gonzalez", date("2002-11-25"), "Spain", 1.74, 60.0);
+            
+                    // Youth Players
+                    persons.add(11, "Rico Lewis", date("2004-11-21"), "England", 1.69, 65.0);
+                    persons.add(12, "Nico Paz", date("2004-09-14"), "Argentina", 1.81, 73.0);
+            
+                    // Coaches
+                    persons.add(20, "Pep Guardiola", date("1971-01-18"), "Spain", 1.80, 76.0);
+                    persons.add(21, "Carlo Ancelotti", date("1959-06-10"), "Italy", 1.79, 78.0);
+                    persons.add(22, "Thomas Tuchel", date("1973-08-29"), "Germany", 1.93, 85.0);
+                    persons.add(23, "Luis Enrique", date("1970-05-08"), "Spain", 1.82, 75.0);
+                    persons.add(24, "Xavi Hernandez", date("1980-01-25"), "Spain", 1.70, 68.0);
+            
+                    // Assistant Coaches
+                    persons.add(25, "Juanma Lillo", date("1965-11-03"), "Spain", 1.75, 70.0);
+                    persons.add(26, "Davide Ancelotti", date("1989-07-22"), "Italy", 1.78, 73.0);
+                }
+            
+                // ========== INSERIR DADOS: PLAYER ROLES ==========
+                System.out.println("- Inserindo player roles...");
+                try (BulkLoader.Inserter playerRoles = loader.into("player_role", 8)) {
+                    // Manchester City Players
+                    playerRoles.add(1, 1, 1, "Forward", 9, 180000000, date("2022-07-01"), null);
+                    playerRoles.add(2, 2, 1, "Midfielder", 17, 85000000, date("2015-08-30"), null);
+                    playerRoles.add(3, 7, 1, "Goalkeeper", 31, 40000000, date("2017-07-01"), null);
+            
+                    // Real Madrid Players
+                    playerRoles.add(4, 3, 2, "Forward", 7, 150000000, date("2018-07-01"), null);
+                    playerRoles.add(5, 4, 2, "Midfielder", 5, 180000000, date("2023-07-01"), null);
+                    playerRoles.add(6, 8, 2, "Goalkeeper", 1, 60000000, date("2018-08-09"), null);
+            
+                    // Bayern Munich Players
+                    playerRoles.add(7, 6, 3, "Forward", 9, 100000000, date("2023-08-12"), null);
+            
+                    // PSG Players
+                    playerRoles.add(8, 5, 4, "Forward", 7, 180000000, date("2017-08-31"), date("2024-06-30"));
+            
+                    // Barcelona Players
+                    playerRoles.add(9, 9, 5, "Forward", 9, 45000000, date("2022-07-01"), null);
+                    playerRoles.add(10, 10, 5, "Midfielder", 8, 80000000, date("2020-09-02"), null);
             
+                    // Youth Players
+                    playerRoles.add(11, 11, 6, "Defender", 82, 15000000, date("2022-07-01"), null);
+                    playerRoles.add(12, 12, 7, "Midfielder", 27, 8000000, date("2023-07-01"), null);
+            
+                    // Historical role (player who moved)
+                    playerRoles.add(13, 5, 2, "Forward", 10, 160000000, date("2024-07-01"), null);
+                }
+            
+                // ========== INSERIR DADOS: COACH ROLES ==========
+                System.out.println("- Inserindo coach roles...");
+                try (BulkLoader.Inserter coachRoles = loader.into("coach_role", 7)) {
+                    // Head Coaches
+                    coachRoles.add(101, 20, 1, "HeadCoach", "UEFA Pro", date("2016-07-01"), null);
+                    coachRoles.add(102, 21, 2, "HeadCoach", "UEFA Pro", date("2021-06-01"), null);
+                    coachRoles.add(103, 22, 3, "HeadCoach", "UEFA Pro", date("2024-07-01"), null);
+                    coachRoles.add(104, 23, 4, "HeadCoach", "UEFA Pro", date("2023-07-05"), null);
+                    coachRoles.add(105, 24, 5, "HeadCoach", "UEFA Pro", date("2021-11-08"), null);
+            
+                    // Assistant Coaches
+                    coachRoles.add(106, 25, 1, "AssistantCoach", "UEFA Pro", date("2016-07-01"), null);
+                    coachRoles.add(107, 26, 2, "AssistantCoach", "UEFA A", date("2021-06-01"), null);
+            
+                    // Historical coaching role
+                    coachRoles.add(108, 20, 5, "HeadCoach", "UEFA Pro", date("2008-06-01"), date("2012-06-30"));
+                }
+            
+                // ========== INSERIR DADOS: CONTRACTS ==========
+                System.out.println("- Inserindo contratos...");
+                try (BulkLoader.Inserter contracts = loader.into("contract", 8)) {
+                    // Active contracts - Players
+                    contracts.add(1, 1, 1, "PermanentContract", date("2022-07-01"), date("2027-06-30"), 20000000, true);
+                    contracts.add(2, 2, 1, "PermanentContract", date("2021-04-01"), date("2025-06-30"), 18000000, true);
+                    contracts.add(3, 3, 2, "PermanentContract", date("2018-07-01"), date("2027-06-30"), 15000000, true);
+                    contracts.add(4, 4, 2, "PermanentContract", date("2023-07-01"), date("2029-06-30"), 16000000, true);
+                    contracts.add(5, 5, 4, "PermanentContract", date("2022-05-01"), date("2025-06-30"), 25000000, true);
+                    contracts.add(6, 6, 3, "PermanentContract", date("2023-08-12"), date("2027-06-30"), 18000000, true);
+            
+                    // Loan contract
+                    contracts.add(7, 11, 1, "LoanContract", date("2024-01-01"), date("2024-06-30"), 1000000, false);
+            
+                    // OWA vs CWA Test Case: Contract with uncertain active status (NULL)
+                    contracts.add(8, 9, 5, "PermanentContract", date("2022-07-01"), date("2027-06-30"), 8000000, null);
+            
+                    // Active contracts - Coaches
+                    contracts.add(10, 20, 1, "PermanentContract", date("2023-07-01"), date("2025-06-30"), 22000000, true);
+                    contracts.add(11, 21, 2, "PermanentContract", date("2024-01-01"), date("2026-06-30"), 12000000, true);
+                    contracts.add(12, 22, 3, "PermanentContract", date("2024-07-01"), date("2026-06-30"), 10000000, true);
+                }
+            }
             System.out.println("Dados inseridos com sucesso!");
             
             // ========== ESTATÍSTICAS ==========
@@ -261,4 +279,8 @@ public class CreateH2Database {
             e.printStackTrace();
         }
     }
+
+    private static Date date(String isoDate) {
+        return Date.valueOf(isoDate);
+    }
 }
\ No newline at end of file
@@ -1,7 +1,6 @@
 package database;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 import config.AppConfig;
@@ -10,42 +9,85 @@ import config.AppConfig;
  * Database Configuration and Connection Management
  */
 public class DatabaseConnect {
-    
-    private static final String DB_URL = AppConfig.DB_URL;
+
+    private static final String DB_URL = AppConfig.getDatabaseUrlWithServer(9092);
     private static final String DB_USER = AppConfig.DB_USER;
     private static final String DB_PASSWORD = AppConfig.DB_PASSWORD;
-    
-    private static Connection connection;
-    
+
+    private static ConnectionPool pool;
+    // Engines holding the pool (acquirePool), and whether getConnection callers still use it
+    private static int engineReferences;
+    private static boolean sharedUse;
+
     /**
-     * Get database connection (singleton pattern)
+     * Borrow a database connection from the shared pool - close it to return it
      */
     public static Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
-        }
-        return connection;
+        return getPool().borrow();
+    }
+
+    /**
+     * Shared connection pool on the AUTO_SERVER URL, created on first use (and again after close).
+     * Stays open until closeConnection() and the last releasePool() of the engines sharing it.
+     */
+    public static synchronized ConnectionPool getPool() throws SQLException {
+        sharedUse = true;
+        return openPool();
+    }
+
+    /**
+     * Take a reference to the shared pool for an engine's lifetime - H2_SQLEngine borrows
+     * from this pool too, so the process holds a single set of connections.
+     * Give it back with releasePool; the pool is closed once nobody holds it.
+     */
+    public static synchronized ConnectionPool acquirePool() throws SQLException {
+        ConnectionPool acquired = openPool();
+        engineReferences++;
+        return acquired;
     }
-    
+
     /**
-     * Close database connection
+     * Drop a reference taken by acquirePool
      */
-    public static void closeConnection() throws SQLException {
-        if (connection != null && !connection.isClosed()) {
-            connection.close();
+    public static synchronized void releasePool(ConnectionPool released) {
+        if (released != pool || engineReferences == 0) {
+            return;
+        }
+        engineReferences--;
+        closeIfUnused();
+    }
+
+    private static ConnectionPool openPool() throws SQLException {
+        if (pool == null || pool.isClosed()) {
+            pool = new ConnectionPool(DB_URL, DB_USER, DB_PASSWORD);
+            engineReferences = 0;
+        }
+        return pool;
+    }
+
+    private static void closeIfUnused() {
+        if (pool != null && !pool.isClosed() && engineReferences == 0 && !sharedUse) {
+            pool.close();
         }
     }
-    
+
+    /**
+     * Stop using the shared pool through getConnection - it is closed now unless an engine still holds it
+     */
+    public static synchronized void closeConnection() throws SQLException {
+        sharedUse = false;
+        closeIfUnused();
+    }
+
     /**
      * Test database connectivity
      */
     public static boolean testConnection() {
-        try {
-            Connection conn = getConnection();
-            return conn != null && !conn.isClosed();
+        try (Connection conn = getConnection()) {
+            return conn.isValid(2);
         } catch (SQLException e) {
             System.err.println("Database connection test failed: " + e.getMessage());
             return false;
         }
     }
-}
\ No newline at end of file
+}
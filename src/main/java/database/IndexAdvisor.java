@@ -0,0 +1,448 @@
+package database;
+
+import config.AppConfig;
+import utils.R2RMLMapping;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Proposes and creates secondary indexes for the SQL the system actually runs: the
+ * rr:sqlQuery sources of the R2RML mapping (scanned by every SPARQL query Ontop unfolds)
+ * and the SQL query catalogs.
+ *
+ * For each query the advisor collects, per sport table:
+ * → equality predicates (col = literal, col IS NULL) - END_DATE IS NULL, POSITION, ROLE_TYPE, ...
+ * → one range predicate (col >= literal) - MARKET_VALUE, STADIUM_CAPACITY
+ * → join columns (a.col = b.col) - PERSON_ID, TEAM_ID
+ * → selected columns, for single-table sources
+ *
+ * and proposes an index of the equality columns (those shared by most queries first), then the
+ * range column, then the selected columns when that makes it covering. H2 has no partial
+ * indexes: an index leading with END_DATE is the equivalent of one filtered on END_DATE IS NULL,
+ * and serves every "current role" source at once. Proposals that are a prefix of another
+ * proposal or of an existing index (H2 indexes primary and foreign keys) are dropped.
+ *
+ * apply() creates the indexes and reports the EXPLAIN plans of every query before and after.
+ */
+public class IndexAdvisor {
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern TABLE_REF = Pattern.compile("\\b(?:FROM|JOIN)\\s+(\\w+)(?:\\s+(?:AS\\s+)?(\\w+))?");
+    private static final Pattern JOIN = Pattern.compile("\\b(\\w+)\\.(\\w+)\\s*=\\s*(\\w+)\\.(\\w+)\\b");
+    private static final Pattern IS_NULL = Pattern.compile("\\b(?:(\\w+)\\.)?(\\w+)\\s+IS\\s+NULL\\b");
+    private static final Pattern EQUALS = Pattern.compile("\\b(?:(\\w+)\\.)?(\\w+)\\s*=\\s*(?:'\\?'|-?\\d+(?:\\.\\d+)?|TRUE|FALSE)(?![\\w.])");
+    private static final Pattern RANGE = Pattern.compile("\\b(?:(\\w+)\\.)?(\\w+)\\s*(?:>=|<=|>|<)\\s*(?:'\\?'|-?\\d+(?:\\.\\d+)?)(?![\\w.])");
+    private static final Set<String> KEYWORDS = new LinkedHashSet<>(Arrays.asList("WHERE", "JOIN", "ON", "LEFT", "RIGHT",
+        "INNER", "OUTER", "CROSS", "FULL", "GROUP", "ORDER", "HAVING", "LIMIT", "UNION", "AND", "OR", "AS", "SELECT"));
+
+    private static final int MAX_INDEX_COLUMNS = 4;
+    private static final int MAX_INDEXES_PER_TABLE = 6;
+
+    private final Connection connection;
+    private final Set<String> queries = new LinkedHashSet<>();
+    private final Map<String, Set<String>> tableColumns = new HashMap<>();
+
+    public IndexAdvisor(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Advisor for the mapping sources of AppConfig.MAPPING_FILE
+     */
+    public static IndexAdvisor forMapping(Connection connection) throws IOException {
+        return new IndexAdvisor(connection).addMapping(AppConfig.MAPPING_FILE);
+    }
+
+    /**
+     * Add the rr:sqlQuery sources of an R2RML mapping
+     */
+    public IndexAdvisor addMapping(Path mappingFile) throws IOException {
+        for (String sql : R2RMLMapping.read(mappingFile).sqlQueries()) {
+            addQuery(sql);
+        }
+        return this;
+    }
+
+    /**
+     * Add the queries of a catalog file: statements separated by ';', with -- and /* *&#47; comments
+     */
+    public IndexAdvisor addQueryCatalog(Path sqlFile) throws IOException {
+        String text = new String(Files.readAllBytes(sqlFile), StandardCharsets.UTF_8)
+            .replaceAll("(?s)/\\*.*?\\*/", " ")
+            .replaceAll("(?m)--.*$", " ");
+        for (String statement : text.split(";")) {
+            if (!statement.isBlank()) {
+                addQuery(statement);
+            }
+        }
+        return this;
+    }
+
+    public IndexAdvisor addQuery(String sql) {
+        String normalized = sql.trim().replaceAll("\\s+", " ");
+        String upper = normalized.toUpperCase();
+        if (upper.startsWith("SELECT") || upper.startsWith("WITH")) {
+            queries.add(normalized);
+        }
+        return this;
+    }
+
+    public Set<String> getQueries() {
+        return Collections.unmodifiableSet(queries);
+    }
+
+    // =============================================================================
+    // PROPOSALS
+    // =============================================================================
+
+    /**
+     * Proposed index: table, key columns and the queries it was derived from
+     */
+    public static class Proposal {
+        public final String table;
+        public final List<String> columns;
+        public final Set<String> queries = new LinkedHashSet<>();
+
+        Proposal(String table, List<String> columns) {
+            this.table = table;
+            this.columns = Collections.unmodifiableList(new ArrayList<>(columns));
+        }
+
+        public String indexName() {
+            String name = "IDX_" + table + "_" + String.join("_", columns);
+            // Truncated names keep a hash of the full column list, so two long lists
+            // sharing a prefix do not collide under CREATE INDEX IF NOT EXISTS
+            return name.length() > 60 ? name.substring(0, 51) + "_" + String.format("%08X", name.hashCode()) : name;
+        }
+
+        public String toSql() {
+            return "CREATE INDEX IF NOT EXISTS " + indexName() + " ON " + table + " (" + String.join(", ", columns) + ")";
+        }
+
+        boolean isPrefixOf(List<String> other) {
+            return other.size() >= columns.size() && other.subList(0, columns.size()).equals(columns);
+        }
+
+        @Override
+        public String toString() {
+            return table + " (" + String.join(", ", columns) + ") - " + queries.size() + " queries";
+        }
+    }
+
+    /**
+     * Columns one query uses on one table
+     */
+    private static class TableUsage {
+        final Set<String> equality = new LinkedHashSet<>();
+        final Set<String> range = new LinkedHashSet<>();
+        final Set<String> join = new LinkedHashSet<>();
+        final Set<String> output = new LinkedHashSet<>();
+    }
+
+    /**
+     * Derive index proposals from the collected queries, minus those already covered
+     */
+    public List<Proposal> propose() throws SQLException {
+        Map<String, Map<String, TableUsage>> usages = new LinkedHashMap<>();
+        Map<String, Integer> equalityFrequency = new HashMap<>();
+        for (String sql : queries) {
+            Map<String, TableUsage> usage = analyze(sql);
+            usages.put(sql, usage);
+            usage.forEach((table, columns) -> columns.equality.forEach(
+                column -> equalityFrequency.merge(table + "." + column, 1, Integer::sum)));
+        }
+
+        Map<String, Proposal> proposals = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, TableUsage>> query : usages.entrySet()) {
+            boolean singleTable = query.getValue().size() == 1;
+            for (Map.Entry<String, TableUsage> entry : query.getValue().entrySet()) {
+                String table = entry.getKey();
+                TableUsage usage = entry.getValue();
+
+                List<String> key = new ArrayList<>(usage.equality);
+                key.sort((a, b) -> {
+                    int byFrequency = equalityFrequency.get(table + "." + b) - equalityFrequency.get(table + "." + a);
+                    return byFrequency != 0 ? byFrequency : a.compareTo(b);
+                });
+                for (String column : usage.range) {
+                    if (!key.contains(column)) {
+                        key.add(column);
+                        break;
+                    }
+                }
+                if (!key.isEmpty()) {
+                    List<String> covering = new ArrayList<>(key);
+                    if (singleTable) {
+                        for (String column : usage.output) {
+                            if (!covering.contains(column)) {
+                                covering.add(column);
+                            }
+                        }
+                    }
+                    addProposal(proposals, table, covering.size() <= MAX_INDEX_COLUMNS ? covering : key, query.getKey());
+                }
+                for (String column : usage.join) {
+                    addProposal(proposals, table, Collections.singletonList(column), query.getKey());
+                }
+            }
+        }
+
+        // Keep the widest index of every prefix chain, skip what existing indexes already cover
+        Map<String, List<List<String>>> existing = existingIndexes();
+        List<Proposal> result = new ArrayList<>();
+        for (Proposal proposal : proposals.values()) {
+            Proposal wider = null;
+            for (Proposal other : proposals.values()) {
+                if (other != proposal && proposal.isPrefixOf(other.columns)
+                        && other.table.equals(proposal.table) && other.columns.size() > proposal.columns.size()) {
+                    wider = other;
+                    break;
+                }
+            }
+            if (wider != null) {
+                wider.queries.addAll(proposal.queries);
+                continue;
+            }
+            boolean covered = false;
+            for (List<String> index : existing.getOrDefault(proposal.table, Collections.emptyList())) {
+                covered |= proposal.isPrefixOf(index);
+            }
+            if (!covered) {
+                result.add(proposal);
+            }
+        }
+
+        // Most useful first, bounded per table - every index slows down writes
+        result.sort((a, b) -> b.queries.size() - a.queries.size());
+        Map<String, Integer> perTable = new HashMap<>();
+        result.removeIf(p -> perTable.merge(p.table, 1, Integer::sum) > MAX_INDEXES_PER_TABLE);
+        return result;
+    }
+
+    private static void addProposal(Map<String, Proposal> proposals, String table, List<String> columns, String sql) {
+        proposals.computeIfAbsent(table + columns, k -> new Proposal(table, columns)).queries.add(sql);
+    }
+
+    /**
+     * Predicate, join and output columns of a query, per sport table
+     */
+    private Map<String, TableUsage> analyze(String sql) throws SQLException {
+        String upper = STRING_LITERAL.matcher(sql).replaceAll("'?'").toUpperCase();
+
+        Map<String, String> aliases = new HashMap<>();
+        Set<String> tables = new LinkedHashSet<>();
+        Matcher ref = TABLE_REF.matcher(upper);
+        while (ref.find()) {
+            String table = ref.group(1);
+            if (!columnsOf(table).isEmpty()) {
+                tables.add(table);
+                aliases.put(table, table);
+                if (ref.group(2) != null && !KEYWORDS.contains(ref.group(2))) {
+                    aliases.put(ref.group(2), table);
+                }
+            }
+        }
+
+        Map<String, TableUsage> usage = new LinkedHashMap<>();
+        Matcher join = JOIN.matcher(upper);
+        while (join.find()) {
+            addColumn(usage, aliases, tables, join.group(1), join.group(2), u -> u.join);
+            addColumn(usage, aliases, tables, join.group(3), join.group(4), u -> u.join);
+        }
+        for (Pattern pattern : new Pattern[]{IS_NULL, EQUALS}) {
+            Matcher matcher = pattern.matcher(upper);
+            while (matcher.find()) {
+                addColumn(usage, aliases, tables, matcher.group(1), matcher.group(2), u -> u.equality);
+            }
+        }
+        Matcher range = RANGE.matcher(upper);
+        while (range.find()) {
+            addColumn(usage, aliases, tables, range.group(1), range.group(2), u -> u.range);
+        }
+
+        // Selected plain columns, for covering indexes of single-table sources
+        int from = upper.indexOf(" FROM ");
+        if (upper.startsWith("SELECT ") && from > 0 && tables.size() == 1) {
+            for (String item : upper.substring(7, from).split(",")) {
+                String column = item.trim().replaceAll("^(\\w+\\.)?(\\w+)(\\s+(AS\\s+)?\\w+)?$", "$2");
+                if (column.matches("\\w+")) {
+                    addColumn(usage, aliases, tables, null, column, u -> u.output);
+                }
+            }
+        }
+        return usage;
+    }
+
+    private interface UsageSet {
+        Set<String> of(TableUsage usage);
+    }
+
+    private void addColumn(Map<String, TableUsage> usage, Map<String, String> aliases, Set<String> tables,
+                           String qualifier, String column, UsageSet set) throws SQLException {
+        String table = null;
+        if (qualifier != null) {
+            table = aliases.get(qualifier);
+        } else {
+            for (String candidate : tables) {
+                if (columnsOf(candidate).contains(column)) {
+                    if (table != null) {
+                        return;   // ambiguous without a qualifier
+                    }
+                    table = candidate;
+                }
+            }
+        }
+        if (table != null && columnsOf(table).contains(column)) {
+            set.of(usage.computeIfAbsent(table, t -> new TableUsage())).add(column);
+        }
+    }
+
+    /**
+     * Columns of a sport table, empty for anything else
+     */
+    private Set<String> columnsOf(String table) throws SQLException {
+        Set<String> columns = tableColumns.get(table);
+        if (columns == null) {
+            columns = new LinkedHashSet<>();
+            if (Arrays.asList(TableChangeTrigger.TABLES).contains(table)) {
+                try (ResultSet rs = connection.getMetaData().getColumns(null, "PUBLIC", table, null)) {
+                    while (rs.next()) {
+                        columns.add(rs.getString("COLUMN_NAME").toUpperCase());
+                    }
+                }
+            }
+            tableColumns.put(table, columns);
+        }
+        return columns;
+    }
+
+    /**
+     * Column lists of the indexes that already exist, per table
+     */
+    private Map<String, List<List<String>>> existingIndexes() throws SQLException {
+        Map<String, Map<String, List<String>>> byName = new HashMap<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT TABLE_NAME, INDEX_NAME, COLUMN_NAME FROM INFORMATION_SCHEMA.INDEX_COLUMNS "
+                 + "WHERE TABLE_SCHEMA = 'PUBLIC' ORDER BY TABLE_NAME, INDEX_NAME, ORDINAL_POSITION")) {
+            while (rs.next()) {
+                byName.computeIfAbsent(rs.getString(1), t -> new LinkedHashMap<>())
+                    .computeIfAbsent(rs.getString(2), i -> new ArrayList<>()).add(rs.getString(3));
+            }
+        }
+        Map<String, List<List<String>>> existing = new HashMap<>();
+        byName.forEach((table, indexes) -> existing.put(table, new ArrayList<>(indexes.values())));
+        return existing;
+    }
+
+    // =============================================================================
+    // APPLY AND REPORT
+    // =============================================================================
+
+    /**
+     * Created indexes with the plan of every query before and after
+     */
+    public static class Report {
+        public final List<Proposal> created = new ArrayList<>();
+        public final Map<String, String> plansBefore = new LinkedHashMap<>();
+        public final Map<String, String> plansAfter = new LinkedHashMap<>();
+
+        /**
+         * Queries whose plan still had a full table scan before and no longer has one after
+         */
+        public int getScansRemoved() {
+            int removed = 0;
+            for (Map.Entry<String, String> before : plansBefore.entrySet()) {
+                String after = plansAfter.get(before.getKey());
+                if (after != null && tableScans(before.getValue()) > tableScans(after)) {
+                    removed++;
+                }
+            }
+            return removed;
+        }
+
+        private static int tableScans(String plan) {
+            return plan.split("tableScan", -1).length - 1;
+        }
+
+        public void print(boolean withPlans) {
+            System.out.println("Index advisor: " + created.size() + " indexes created, " + getScansRemoved()
+                + " of " + plansBefore.size() + " queries no longer scan a whole table");
+            for (Proposal proposal : created) {
+                System.out.println("   " + proposal.toSql() + "   -- " + proposal.queries.size() + " queries");
+            }
+            if (withPlans) {
+                for (Map.Entry<String, String> before : plansBefore.entrySet()) {
+                    String after = plansAfter.get(before.getKey());
+                    if (!before.getValue().equals(after)) {
+                        System.out.println("\n" + before.getKey());
+                        System.out.println("  before: " + before.getValue().replaceAll("\\s+", " "));
+                        System.out.println("  after:  " + String.valueOf(after).replaceAll("\\s+", " "));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Create the proposed indexes and capture EXPLAIN plans around them
+     */
+    public Report apply() throws SQLException {
+        Report report = new Report();
+        explainAll(report.plansBefore);
+        try (Statement stmt = connection.createStatement()) {
+            for (Proposal proposal : propose()) {
+                stmt.execute(proposal.toSql());
+                report.created.add(proposal);
+            }
+        }
+        explainAll(report.plansAfter);
+        return report;
+    }
+
+    private void explainAll(Map<String, String> plans) {
+        for (String sql : queries) {
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery("EXPLAIN " + sql)) {
+                StringBuilder plan = new StringBuilder();
+                while (rs.next()) {
+                    plan.append(rs.getString(1));
+                }
+                plans.put(sql, plan.toString());
+            } catch (SQLException e) {
+                // query of another dialect or schema version - nothing to compare
+            }
+        }
+    }
+
+    /**
+     * Print proposals and before/after plans for the mapping and the given query catalogs:
+     * IndexAdvisor [catalog.sql ...]
+     */
+    public static void main(String[] args) throws Exception {
+        try (ConnectionPool pool = new ConnectionPool(AppConfig.getDatabaseUrl(), AppConfig.DB_USER, AppConfig.DB_PASSWORD, 1, 1);
+             Connection connection = pool.borrow()) {
+            IndexAdvisor advisor = forMapping(connection);
+            for (String catalog : args) {
+                advisor.addQueryCatalog(Path.of(catalog));
+            }
+            advisor.apply().print(true);
+        }
+    }
+}
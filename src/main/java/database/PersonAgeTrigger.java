@@ -0,0 +1,85 @@
+package database;
+
+import org.h2.api.Trigger;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+
+/**
+ * Maintains PERSON.AGE, the persisted and indexed form of
+ * TIMESTAMPDIFF('YEAR', BIRTH_DATE, CURRENT_DATE) the mappings used to compute for every row.
+ * With the column the age-based sources (Person, YoungPlayer, ExperiencedPlayer,
+ * VeteranPlayer, TopCoach, ...) become index range lookups on IDX_PERSON_AGE.
+ *
+ * → row trigger: sets AGE on every INSERT and UPDATE of PERSON
+ * → refresh(): recomputes the rows whose age moved since - run daily (see H2_SQLEngine)
+ *
+ * H2 counts year boundaries crossed, so ages only move on January 1st; refreshing daily keeps
+ * that true even when the database sits closed across the new year.
+ */
+public class PersonAgeTrigger implements Trigger {
+    public static final String AGE_EXPRESSION = "TIMESTAMPDIFF('YEAR', BIRTH_DATE, CURRENT_DATE)";
+
+    private int birthDateIndex = -1;
+    private int ageIndex = -1;
+
+    @Override
+    public void init(Connection conn, String schemaName, String triggerName, String tableName,
+                     boolean before, int type) throws SQLException {
+        try (ResultSet rs = conn.getMetaData().getColumns(null, schemaName, tableName, null)) {
+            while (rs.next()) {
+                String column = rs.getString("COLUMN_NAME");
+                if ("BIRTH_DATE".equalsIgnoreCase(column)) {
+                    birthDateIndex = rs.getInt("ORDINAL_POSITION") - 1;
+                } else if ("AGE".equalsIgnoreCase(column)) {
+                    ageIndex = rs.getInt("ORDINAL_POSITION") - 1;
+                }
+            }
+        }
+        if (birthDateIndex < 0 || ageIndex < 0) {
+            throw new SQLException("Table " + tableName + " has no BIRTH_DATE and AGE columns");
+        }
+    }
+
+    @Override
+    public void fire(Connection conn, Object[] oldRow, Object[] newRow) {
+        newRow[ageIndex] = ageOf(newRow[birthDateIndex], LocalDate.now());
+    }
+
+    /**
+     * Same value as AGE_EXPRESSION: calendar years between the birth date and today
+     */
+    static Integer ageOf(Object birthDate, LocalDate today) {
+        if (birthDate instanceof Date) {
+            return today.getYear() - ((Date) birthDate).toLocalDate().getYear();
+        }
+        if (birthDate instanceof LocalDate) {
+            return today.getYear() - ((LocalDate) birthDate).getYear();
+        }
+        return null;
+    }
+
+    /**
+     * Create the AGE index and trigger on PERSON - call after (re)creating the schema
+     */
+    public static void install(Statement stmt) throws SQLException {
+        stmt.execute("CREATE INDEX IF NOT EXISTS IDX_PERSON_AGE ON PERSON (AGE)");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS PERSON_AGE BEFORE INSERT, UPDATE ON PERSON"
+            + " FOR EACH ROW CALL '" + PersonAgeTrigger.class.getName() + "'");
+    }
+
+    /**
+     * Recompute the ages that changed since the last refresh
+     * @return number of persons whose age moved
+     */
+    public static int refresh(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            return stmt.executeUpdate("UPDATE PERSON SET AGE = " + AGE_EXPRESSION
+                + " WHERE AGE IS DISTINCT FROM " + AGE_EXPRESSION);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package database;
+
+import org.h2.engine.Constants;
+import utils.OntologyFingerprint;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reuses the seeded sport database across process starts instead of rebuilding it.
+ *
+ * → SEED_METADATA records the seed fingerprint (hash of the schema and seed code) and a
+ *   checksum of every row of the sport tables, taken right after seeding
+ * → matching fingerprint and checksum: the database is reused as it is
+ * → otherwise the tables are restored with RUNSCRIPT from a gzip SCRIPT snapshot of the
+ *   seeded tables (&lt;db&gt;-seed-&lt;fingerprint&gt;.sql.gz next to the database file)
+ * → no snapshot for this fingerprint yet: CreateH2Database seeds the tables and the snapshot is written
+ *
+ * Tests that write to the sport tables change the checksum, so the next start restores them.
+ */
+public class SeedSnapshot {
+    private static final String METADATA_TABLE = "SEED_METADATA";
+    private static final Class<?>[] SEED_CODE = {CreateH2Database.class, BulkLoader.class, BulkLoader.Inserter.class,
+        TableChangeTrigger.class, PersonAgeTrigger.class};
+
+    private final Path dbPath;
+    private final String url;
+    private final String fingerprint;
+
+    public SeedSnapshot(String dbPath) {
+        this.dbPath = Paths.get(dbPath);
+        this.url = "jdbc:h2:" + dbPath + ";DATABASE_TO_UPPER=true;CASE_INSENSITIVE_IDENTIFIERS=true";
+        this.fingerprint = seedFingerprint();
+    }
+
+    public enum Outcome { REUSED, RESTORED, SEEDED }
+
+    /**
+     * Make the database hold exactly the seed data - reused, restored or rebuilt
+     */
+    public Outcome ensureSeeded() throws SQLException {
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.SEEDED;
+        try (Connection conn = DriverManager.getConnection(url, "sa", "")) {
+            if (isCurrent(conn)) {
+                outcome = Outcome.REUSED;
+            } else if (Files.exists(snapshotFile())) {
+                restore(conn);
+                outcome = Outcome.RESTORED;
+            }
+        }
+        if (outcome == Outcome.SEEDED) {
+            CreateH2Database.main(new String[]{dbPath.toString()});
+            try (Connection conn = DriverManager.getConnection(url, "sa", "")) {
+                writeSnapshot(conn);
+            }
+        }
+        System.out.printf("Seed database %s in %.0f ms (snapshot %s)%n", outcome.name().toLowerCase(),
+            (System.nanoTime() - start) / 1e6, snapshotFile().getFileName());
+        return outcome;
+    }
+
+    public Path snapshotFile() {
+        return dbPath.resolveSibling(dbPath.getFileName() + "-seed-" + fingerprint.substring(0, 12) + ".sql.gz");
+    }
+
+    private boolean isCurrent(Connection conn) throws SQLException {
+        if (!tableExists(conn, METADATA_TABLE)) {
+            return false;
+        }
+        String storedFingerprint = null;
+        String storedChecksum = null;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT NAME, VAL FROM " + METADATA_TABLE)) {
+            while (rs.next()) {
+                if ("fingerprint".equals(rs.getString(1))) {
+                    storedFingerprint = rs.getString(2);
+                } else if ("checksum".equals(rs.getString(1))) {
+                    storedChecksum = rs.getString(2);
+                }
+            }
+        }
+        if (!fingerprint.equals(storedFingerprint)) {
+            return false;
+        }
+        for (String table : TableChangeTrigger.TABLES) {
+            if (!tableExists(conn, table)) {
+                return false;
+            }
+        }
+        if (!checksum(conn).equals(storedChecksum)) {
+            return false;
+        }
+        // The database may have sat closed across the new year
+        PersonAgeTrigger.refresh(conn);
+        return true;
+    }
+
+    private void restore(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (int i = TableChangeTrigger.TABLES.length - 1; i >= 0; i--) {
+                stmt.execute("DROP TABLE IF EXISTS " + TableChangeTrigger.TABLES[i] + " CASCADE");
+            }
+            stmt.execute("RUNSCRIPT FROM '" + sqlPath(snapshotFile()) + "' COMPRESSION GZIP");
+        }
+        PersonAgeTrigger.refresh(conn);
+        writeMetadata(conn);
+        // Cached results were computed against the replaced tables
+        TableChangeTrigger.bumpAll();
+    }
+
+    private void writeSnapshot(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("SCRIPT TO '" + sqlPath(snapshotFile()) + "' COMPRESSION GZIP TABLE "
+                + String.join(", ", TableChangeTrigger.TABLES));
+        }
+        writeMetadata(conn);
+        deleteStaleSnapshots();
+    }
+
+    private void writeMetadata(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS " + METADATA_TABLE + " (NAME VARCHAR(50) PRIMARY KEY, VAL VARCHAR(100))");
+        }
+        try (PreparedStatement stmt = conn.prepareStatement("MERGE INTO " + METADATA_TABLE + " KEY (NAME) VALUES (?, ?)")) {
+            stmt.setString(1, "fingerprint");
+            stmt.setString(2, fingerprint);
+            stmt.addBatch();
+            stmt.setString(1, "checksum");
+            stmt.setString(2, checksum(conn));
+            stmt.addBatch();
+            stmt.executeBatch();
+        }
+    }
+
+    /**
+     * Row count and sum of row hashes of every sport table. AGE is left out: it is derived
+     * from BIRTH_DATE and moves with the calendar, not with the data.
+     */
+    static String checksum(Connection conn) throws SQLException {
+        StringBuilder checksum = new StringBuilder();
+        try (Statement stmt = conn.createStatement()) {
+            for (String table : TableChangeTrigger.TABLES) {
+                List<String> columns = new ArrayList<>();
+                try (ResultSet rs = conn.getMetaData().getColumns(null, "PUBLIC", table, null)) {
+                    while (rs.next()) {
+                        if ("AGE".equals(rs.getString("COLUMN_NAME"))) {
+                            continue;
+                        }
+                        columns.add("COALESCE(CAST(" + rs.getString("COLUMN_NAME") + " AS VARCHAR), '~')");
+                    }
+                }
+                try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*), COALESCE(SUM(CAST(ORA_HASH(CONCAT_WS('|', "
+                        + String.join(", ", columns) + ")) AS BIGINT)), 0) FROM " + table)) {
+                    rs.next();
+                    checksum.append(rs.getLong(1)).append(':').append(rs.getLong(2)).append(';');
+                }
+            }
+        }
+        return checksum.toString();
+    }
+
+    private static boolean tableExists(Connection conn, String table) throws SQLException {
+        try (ResultSet rs = conn.getMetaData().getTables(null, "PUBLIC", table, null)) {
+            return rs.next();
+        }
+    }
+
+    private void deleteStaleSnapshots() {
+        Path dir = dbPath.toAbsolutePath().getParent();
+        try (DirectoryStream<Path> snapshots = Files.newDirectoryStream(dir, dbPath.getFileName() + "-seed-*.sql.gz")) {
+            for (Path snapshot : snapshots) {
+                if (!snapshot.getFileName().equals(snapshotFile().getFileName())) {
+                    Files.deleteIfExists(snapshot);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Could not delete old seed snapshots: " + e.getMessage());
+        }
+    }
+
+    private static String sqlPath(Path file) {
+        return file.toAbsolutePath().toString().replace("\\", "/").replace("'", "''");
+    }
+
+    /**
+     * Hash of the code that defines the seed schema and data, and of the H2 version that
+     * writes the snapshot - any change makes the existing database and snapshot stale
+     */
+    static String seedFingerprint() {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(Constants.FULL_VERSION.getBytes());
+            for (Class<?> cls : SEED_CODE) {
+                String classFile = cls.getName().substring(cls.getName().lastIndexOf('.') + 1) + ".class";
+                try (InputStream in = cls.getResourceAsStream(classFile)) {
+                    if (in == null) {
+                        throw new IOException("No class file for " + cls.getName());
+                    }
+                    digest.update(in.readAllBytes());
+                }
+            }
+            return OntologyFingerprint.toHex(digest.digest());
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new RuntimeException("Could not fingerprint seed code: " + e.getMessage(), e);
+        }
+    }
+}
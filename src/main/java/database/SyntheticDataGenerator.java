@@ -0,0 +1,401 @@
+package database;
+
+import config.AppConfig;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Deterministic synthetic league data for benchmarking Ontop, H2 and HermiT at scale.
+ *
+ * Scale factor 1 is 10 leagues of 20 clubs (TPC style - rows grow linearly with it):
+ * → ~200 senior teams, ~100 youth teams, ~7,600 persons, ~13,400 player roles, ~13,700 contracts
+ * → each club has a senior squad of 22-28 players, head and assistant coaches and, for
+ *   about half of the clubs, a youth team of 16-20 players aged 16-21 (YoungPlayer)
+ * → positions roughly 10% goalkeepers, 35% defenders, 35% midfielders, 20% forwards
+ * → market values are log-normal by league strength, so a few percent of the players cross
+ *   the TopPlayer (50M) and StarPlayer (100M) thresholds; stadiums cross EliteTeam (50,000)
+ * → players carry past roles at other clubs (END_DATE set), as the seed's transferred player
+ * → about 2% of active contracts have IS_ACTIVE = NULL, the open-world case of OWA-04
+ *
+ * Every club is generated from its own random stream derived from the seed, so the output
+ * is identical for the same seed and scale factor regardless of thread count. Clubs are
+ * written in parallel, each worker with its own pooled connection and BulkLoader.
+ * IDs start at ID_BASE so the generated rows sit next to the CreateH2Database seed.
+ *
+ * Run: mvn exec:java@synthetic_data -Dexec.args="[scaleFactor] [seed]"
+ */
+public class SyntheticDataGenerator {
+    public static final int ID_BASE = 1_000_000;
+
+    private static final int CLUBS_PER_LEAGUE = 20;
+    private static final int CLUBS_PER_SCALE_FACTOR = 10 * CLUBS_PER_LEAGUE;
+    private static final int CLUBS_PER_TASK = 32;
+
+    // ID space per club - generous upper bounds of what one club produces
+    private static final int PERSON_STRIDE = 64;
+    private static final int PLAYER_ROLE_STRIDE = 192;
+    private static final int COACH_ROLE_STRIDE = 16;
+    private static final int CONTRACT_STRIDE = 256;
+
+    private static final LocalDate REFERENCE_DATE = LocalDate.of(2025, 7, 1);
+
+    private static final String[] FIRST_NAMES = {"James", "Lucas", "Mateo", "Leon", "Noah", "Luca", "Hugo", "Liam",
+        "Diego", "Tomas", "Jonas", "Rafael", "Kenji", "Ahmed", "Youssef", "Ivan", "Marco", "Pedro", "Sven", "Oliver",
+        "Gabriel", "Kofi", "Andrei", "Felix", "Milan", "Arthur", "Emil", "Samuel", "Nikola", "Bruno"};
+    private static final String[] LAST_NAMES = {"Silva", "Smith", "Garcia", "Muller", "Rossi", "Dubois", "Novak",
+        "Jensen", "Costa", "Fernandez", "Kowalski", "Yilmaz", "Santos", "Petrov", "Martin", "Bianchi", "Schmidt",
+        "Lopez", "Haddad", "Mensah", "Tanaka", "Ivanovic", "Berg", "Moreau", "Pereira", "Walker", "Romero", "Weber"};
+    private static final String[] NATIONALITIES = {"Portugal", "Spain", "England", "France", "Germany", "Italy",
+        "Brazil", "Argentina", "Netherlands", "Belgium", "Croatia", "Norway", "Poland", "Ghana", "Japan", "Morocco"};
+    private static final String[] CITIES = {"Lisbon", "Porto", "Madrid", "Seville", "London", "Leeds", "Paris", "Lyon",
+        "Munich", "Hamburg", "Milan", "Naples", "Amsterdam", "Brussels", "Zagreb", "Oslo", "Warsaw", "Accra", "Osaka"};
+    private static final String[] CLUB_SUFFIXES = {"FC", "United", "Athletic", "City", "Sporting", "Rovers", "Olympic"};
+    private static final String[] POSITIONS = {"Goalkeeper", "Defender", "Midfielder", "Forward"};
+    private static final double[] POSITION_SHARES = {0.10, 0.35, 0.35, 0.20};
+
+    private final double scaleFactor;
+    private final long seed;
+    private final int clubs;
+
+    public SyntheticDataGenerator(double scaleFactor, long seed) {
+        if (scaleFactor <= 0) {
+            throw new IllegalArgumentException("Scale factor must be positive: " + scaleFactor);
+        }
+        this.scaleFactor = scaleFactor;
+        this.seed = seed;
+        this.clubs = Math.max(2, (int) Math.round(CLUBS_PER_SCALE_FACTOR * scaleFactor));
+    }
+
+    public int getClubCount() {
+        return clubs;
+    }
+
+    /**
+     * Write all generated rows into the sport schema through the pool, using up to
+     * the pool's size in parallel workers
+     * @return number of rows written
+     */
+    public long generate(ConnectionPool pool) throws SQLException {
+        long start = System.nanoTime();
+        System.out.printf("Generating synthetic data: scale factor %s, seed %d, %d clubs%n", scaleFactor, seed, clubs);
+
+        // Teams first - roles of any club may point to any other team
+        long rows;
+        try (Connection connection = pool.borrow(); BulkLoader loader = new BulkLoader(connection)) {
+            List<Object[]> teams = new ArrayList<>();
+            for (int club = 0; club < clubs; club++) {
+                addTeams(club, teams);
+            }
+            rows = loader.load("team", teams);
+        }
+
+        int workers = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), pool.getMaxSize()));
+        ExecutorService executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "synthetic-data-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Long>> tasks = new ArrayList<>();
+            for (int first = 0; first < clubs; first += CLUBS_PER_TASK) {
+                int from = first;
+                int to = Math.min(clubs, first + CLUBS_PER_TASK);
+                tasks.add(executor.submit(() -> writeClubs(pool, from, to)));
+            }
+            for (Future<Long> task : tasks) {
+                rows += task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Synthetic data generation interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            throw new SQLException("Synthetic data generation failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Synthetic data: %d rows in %.2fs with %d writers (%.0f rows/s)%n",
+            rows, seconds, workers, rows / Math.max(seconds, 1e-9));
+        return rows;
+    }
+
+    /**
+     * Persons, roles and contracts of a range of clubs, in FK order. Foreign keys stay
+     * checked because other workers write the same tables at the same time.
+     */
+    private long writeClubs(ConnectionPool pool, int from, int to) throws SQLException {
+        ClubRows rows = new ClubRows();
+        for (int club = from; club < to; club++) {
+            generateClub(club, rows);
+        }
+        try (Connection connection = pool.borrow();
+             BulkLoader loader = new BulkLoader(connection, AppConfig.BULK_LOAD_BATCH_SIZE,
+                 AppConfig.BULK_LOAD_COMMIT_ROWS, false)) {
+            return loader.load("person", rows.persons, CreateH2Database.PERSON_COLUMNS)
+                + loader.load("player_role", rows.playerRoles)
+                + loader.load("coach_role", rows.coachRoles)
+                + loader.load("contract", rows.contracts);
+        }
+    }
+
+    private static class ClubRows {
+        final List<Object[]> persons = new ArrayList<>();
+        final List<Object[]> playerRoles = new ArrayList<>();
+        final List<Object[]> coachRoles = new ArrayList<>();
+        final List<Object[]> contracts = new ArrayList<>();
+    }
+
+    // =============================================================================
+    // TEAMS
+    // =============================================================================
+
+    static int seniorTeamId(int club) {
+        return ID_BASE + 2 * club;
+    }
+
+    static int youthTeamId(int club) {
+        return ID_BASE + 2 * club + 1;
+    }
+
+    private boolean hasYouthTeam(int club) {
+        return random(club, 0).nextDouble() < 0.5;
+    }
+
+    /**
+     * League strength: the first league is about 2.5x the median market value, the last 0.6x
+     */
+    private double strength(int club) {
+        int leagues = Math.max(1, (clubs + CLUBS_PER_LEAGUE - 1) / CLUBS_PER_LEAGUE);
+        int league = club / CLUBS_PER_LEAGUE;
+        return leagues == 1 ? 1.5 : 2.5 - 1.9 * league / (leagues - 1);
+    }
+
+    private void addTeams(int club, List<Object[]> teams) {
+        Random rng = random(club, 1);
+        String city = pick(rng, CITIES);
+        String name = city + " " + pick(rng, CLUB_SUFFIXES) + " " + (club + 1);
+        int founded = 1870 + rng.nextInt(140);
+        int capacity = (int) clamp(lognormal(rng, 28_000 * Math.sqrt(strength(club)), 0.5), 5_000, 100_000);
+        teams.add(new Object[]{seniorTeamId(club), name, city, founded, capacity, "SeniorTeam"});
+        if (hasYouthTeam(club)) {
+            teams.add(new Object[]{youthTeamId(club), name + " U21", city, founded, 1_000 + rng.nextInt(9_000), "YouthTeam"});
+        }
+    }
+
+    // =============================================================================
+    // PERSONS, ROLES AND CONTRACTS
+    // =============================================================================
+
+    private void generateClub(int club, ClubRows rows) {
+        Random rng = random(club, 2);
+        Ids ids = new Ids(club);
+        double strength = strength(club);
+
+        int squad = 22 + rng.nextInt(7);
+        boolean[] jerseys = new boolean[100];
+        for (int i = 0; i < squad; i++) {
+            int age = (int) clamp(Math.round(26 + 4 * rng.nextGaussian()), 17, 38);
+            int person = addPerson(rng, ids, age, rows);
+            double value = roundValue(clamp(lognormal(rng, 6_000_000 * strength, 1.3), 100_000, 200_000_000));
+            addPlayerCareer(rng, ids, club, person, seniorTeamId(club), pickPosition(rng), jersey(rng, jerseys),
+                value, age, false, rows);
+        }
+
+        if (hasYouthTeam(club)) {
+            int youthSquad = 16 + rng.nextInt(5);
+            jerseys = new boolean[100];
+            for (int i = 0; i < youthSquad; i++) {
+                int age = 16 + rng.nextInt(6);
+                int person = addPerson(rng, ids, age, rows);
+                double value = roundValue(clamp(lognormal(rng, 800_000, 1.0), 50_000, 40_000_000));
+                addPlayerCareer(rng, ids, club, person, youthTeamId(club), pickPosition(rng), jersey(rng, jerseys),
+                    value, age, true, rows);
+            }
+            addCoach(rng, ids, club, youthTeamId(club), "HeadCoach", "UEFA A", rows);
+        }
+
+        addCoach(rng, ids, club, seniorTeamId(club), "HeadCoach", "UEFA Pro", rows);
+        int assistants = 1 + rng.nextInt(2);
+        for (int i = 0; i < assistants; i++) {
+            addCoach(rng, ids, club, seniorTeamId(club), "AssistantCoach", rng.nextDouble() < 0.4 ? "UEFA Pro" : "UEFA A", rows);
+        }
+    }
+
+    private int addPerson(Random rng, Ids ids, int age, ClubRows rows) {
+        int person = ids.nextPerson();
+        LocalDate birth = REFERENCE_DATE.minusYears(age).minusDays(1 + rng.nextInt(364));
+        double height = clamp(1.81 + 0.07 * rng.nextGaussian(), 1.60, 2.05);
+        double weight = clamp(75 + 95 * (height - 1.81) + 5 * rng.nextGaussian(), 55, 105);
+        rows.persons.add(new Object[]{person, pick(rng, FIRST_NAMES) + " " + pick(rng, LAST_NAMES),
+            Date.valueOf(birth), pick(rng, NATIONALITIES), decimal(height), decimal(weight)});
+        return person;
+    }
+
+    /**
+     * Current role (END_DATE NULL) at the given team plus up to three earlier roles at other clubs,
+     * each with its contract
+     */
+    private void addPlayerCareer(Random rng, Ids ids, int club, int person, int team, String position,
+                                 int jersey, double value, int age, boolean youth, ClubRows rows) {
+        LocalDate start = REFERENCE_DATE.minusDays(rng.nextInt(Math.max(1, Math.min(6, age - 15)) * 365));
+        rows.playerRoles.add(new Object[]{ids.nextPlayerRole(), person, team, position, jersey,
+            decimal(value), Date.valueOf(start), null});
+
+        boolean loan = rng.nextDouble() < (youth ? 0.20 : 0.08);
+        LocalDate end = start.plusYears(loan ? 1 : 1 + rng.nextInt(5));
+        Boolean active = !end.isBefore(REFERENCE_DATE);
+        if (rng.nextDouble() < 0.02) {
+            active = null;   // uncertain status - open-world test case
+        }
+        rows.contracts.add(new Object[]{ids.nextContract(), person, team, loan ? "LoanContract" : "PermanentContract",
+            Date.valueOf(start), Date.valueOf(end), decimal(roundValue(value * (0.05 + 0.1 * rng.nextDouble()))), active});
+
+        int pastRoles = youth ? 0 : (int) clamp(Math.round((age - 20) / 5.0 + rng.nextGaussian()), 0, 3);
+        LocalDate roleEnd = start.minusDays(1);
+        for (int i = 0; i < pastRoles && clubs > 1; i++) {
+            LocalDate roleStart = roleEnd.minusDays(365 + rng.nextInt(3 * 365));
+            int other = rng.nextInt(clubs - 1);
+            int pastTeam = seniorTeamId(other >= club ? other + 1 : other);
+            double pastValue = roundValue(value * (0.3 + 0.6 * rng.nextDouble()));
+            rows.playerRoles.add(new Object[]{ids.nextPlayerRole(), person, pastTeam, position, 1 + rng.nextInt(99),
+                decimal(pastValue), Date.valueOf(roleStart), Date.valueOf(roleEnd)});
+            rows.contracts.add(new Object[]{ids.nextContract(), person, pastTeam, "PermanentContract",
+                Date.valueOf(roleStart), Date.valueOf(roleEnd), decimal(roundValue(pastValue * 0.08)), false});
+            roleEnd = roleStart.minusDays(1);
+        }
+    }
+
+    private void addCoach(Random rng, Ids ids, int club, int team, String roleType, String license, ClubRows rows) {
+        int age = 35 + rng.nextInt(30);
+        int person = addPerson(rng, ids, age, rows);
+        LocalDate start = REFERENCE_DATE.minusDays(rng.nextInt(8 * 365));
+        rows.coachRoles.add(new Object[]{ids.nextCoachRole(), person, team, roleType, license, Date.valueOf(start), null});
+        if (roleType.equals("HeadCoach")) {
+            rows.contracts.add(new Object[]{ids.nextContract(), person, team, "PermanentContract", Date.valueOf(start),
+                Date.valueOf(start.plusYears(2 + rng.nextInt(3))), decimal(roundValue(lognormal(rng, 3_000_000, 0.8))), true});
+            if (clubs > 1 && rng.nextDouble() < 0.5) {
+                int other = rng.nextInt(clubs - 1);
+                LocalDate pastStart = start.minusYears(2 + rng.nextInt(4));
+                rows.coachRoles.add(new Object[]{ids.nextCoachRole(), person, seniorTeamId(other >= club ? other + 1 : other),
+                    roleType, license, Date.valueOf(pastStart), Date.valueOf(start.minusDays(1))});
+            }
+        }
+    }
+
+    /**
+     * Sequential IDs inside the club's reserved ranges
+     */
+    private static class Ids {
+        private final int club;
+        private int persons = 0;
+        private int playerRoles = 0;
+        private int coachRoles = 0;
+        private int contracts = 0;
+
+        Ids(int club) {
+            this.club = club;
+        }
+
+        int nextPerson() {
+            return next(PERSON_STRIDE, persons++);
+        }
+
+        int nextPlayerRole() {
+            return next(PLAYER_ROLE_STRIDE, playerRoles++);
+        }
+
+        int nextCoachRole() {
+            return next(COACH_ROLE_STRIDE, coachRoles++);
+        }
+
+        int nextContract() {
+            return next(CONTRACT_STRIDE, contracts++);
+        }
+
+        private int next(int stride, int index) {
+            if (index >= stride) {
+                throw new IllegalStateException("Club " + club + " exceeded its ID range of " + stride);
+            }
+            return Math.addExact(ID_BASE, Math.addExact(Math.multiplyExact(club, stride), index));
+        }
+    }
+
+    // =============================================================================
+    // DISTRIBUTIONS
+    // =============================================================================
+
+    private Random random(int club, int stream) {
+        long x = seed * 0x9E3779B97F4A7C15L + club * 0xBF58476D1CE4E5B9L + stream * 0x94D049BB133111EBL;
+        return new Random(x);
+    }
+
+    private static double lognormal(Random rng, double median, double sigma) {
+        return median * Math.exp(sigma * rng.nextGaussian());
+    }
+
+    private static String pickPosition(Random rng) {
+        double r = rng.nextDouble();
+        for (int i = 0; i < POSITIONS.length - 1; i++) {
+            r -= POSITION_SHARES[i];
+            if (r < 0) {
+                return POSITIONS[i];
+            }
+        }
+        return POSITIONS[POSITIONS.length - 1];
+    }
+
+    private static int jersey(Random rng, boolean[] taken) {
+        int number = 1 + rng.nextInt(99);
+        while (taken[number]) {
+            number = number % 99 + 1;
+        }
+        taken[number] = true;
+        return number;
+    }
+
+    private static String pick(Random rng, String[] values) {
+        return values[rng.nextInt(values.length)];
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private static double roundValue(double value) {
+        return Math.round(value / 100_000) * 100_000.0;
+    }
+
+    private static BigDecimal decimal(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Recreate the schema with its seed data and add the synthetic rows:
+     * SyntheticDataGenerator [scaleFactor=1] [seed=42]
+     */
+    public static void main(String[] args) throws Exception {
+        double scaleFactor = args.length > 0 ? Double.parseDouble(args[0]) : 1.0;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42L;
+
+        CreateH2Database.main(new String[]{AppConfig.DATABASE_FILE.toString()});
+        try (ConnectionPool pool = new ConnectionPool(AppConfig.getDatabaseUrl(), AppConfig.DB_USER, AppConfig.DB_PASSWORD)) {
+            new SyntheticDataGenerator(scaleFactor, seed).generate(pool);
+        }
+    }
+}
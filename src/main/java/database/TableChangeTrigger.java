@@ -0,0 +1,95 @@
+package database;
+
+import org.h2.api.Trigger;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * H2 statement trigger that bumps an in-memory version counter for its table on every
+ * INSERT, UPDATE or DELETE (MERGE fires as insert/update).
+ * Result caches record the versions of the tables a query reads and treat the entry as
+ * stale once any of them moves.
+ *
+ * Triggers run in the JVM that owns the database (the AUTO_SERVER host), which is the
+ * application itself in every setup of this project. Versions move when the statement
+ * runs, not at commit - call bumpAll() after committing a long explicit transaction.
+ */
+public class TableChangeTrigger implements Trigger {
+    /**
+     * Tables of the sport schema, in dependency order
+     */
+    public static final String[] TABLES = {"TEAM", "PERSON", "PLAYER_ROLE", "COACH_ROLE", "CONTRACT"};
+
+    private static final Map<String, AtomicLong> VERSIONS = new ConcurrentHashMap<>();
+    private static final Set<String> TRACKED = ConcurrentHashMap.newKeySet();
+
+    static {
+        TRACKED.addAll(Arrays.asList(TABLES));
+    }
+
+    private String tableName;
+
+    @Override
+    public void init(Connection conn, String schemaName, String triggerName, String tableName,
+                     boolean before, int type) {
+        this.tableName = tableName.toUpperCase();
+    }
+
+    @Override
+    public void fire(Connection conn, Object[] oldRow, Object[] newRow) {
+        bump(tableName);
+    }
+
+    /**
+     * Create the change triggers on all sport tables - call after (re)creating the schema
+     */
+    public static void install(Statement stmt) throws SQLException {
+        for (String table : TABLES) {
+            install(stmt, table);
+        }
+        // Tables were dropped and recreated - nothing cached before this point is valid
+        bumpAll();
+    }
+
+    /**
+     * Create the change trigger on one table and track it from now on. The trigger is dropped
+     * with the table, so a table recreated under the same name needs install again.
+     */
+    public static void install(Statement stmt, String table) throws SQLException {
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS " + table + "_CHANGES AFTER INSERT, UPDATE, DELETE ON " + table
+            + " FOR EACH STATEMENT CALL '" + TableChangeTrigger.class.getName() + "'");
+        TRACKED.add(table.toUpperCase());
+        bump(table);
+    }
+
+    /**
+     * Whether changes to a table move its version - the sport tables, and those installed on since startup
+     */
+    public static boolean isTracked(String table) {
+        return TRACKED.contains(table.toUpperCase());
+    }
+
+    /**
+     * Current version of a table (0 until its first change)
+     */
+    public static long version(String table) {
+        AtomicLong version = VERSIONS.get(table.toUpperCase());
+        return version == null ? 0 : version.get();
+    }
+
+    public static void bump(String table) {
+        VERSIONS.computeIfAbsent(table.toUpperCase(), t -> new AtomicLong()).incrementAndGet();
+    }
+
+    public static void bumpAll() {
+        for (String table : TABLES) {
+            bump(table);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package engines;
+
+import config.AppConfig;
+import org.semanticweb.owlapi.model.AddAxiom;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDataPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.RemoveAxiom;
+import org.semanticweb.owlapi.model.parameters.Imports;
+import org.semanticweb.owlapi.vocab.OWL2Datatype;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Buffered ABox changes for ReasoningEngine.apply - individuals and assertions are added
+ * or removed here and reach the reasoner together, in one flush.
+ *
+ * Usage (a transfer):
+ *   ABoxUpdate update = engine.newABoxUpdate()
+ *       .removeObjectPropertyAssertion("ABox_Harry_Kane", "playsFor", "ABox_Bayern_Munich")
+ *       .addObjectPropertyAssertion("ABox_Harry_Kane", "playsFor", "ABox_Real_Madrid");
+ *   ABoxUpdate.MembershipChanges changes = engine.apply(update);
+ *
+ * Individual names are ABox local names (AppConfig.createABoxIRI), class and property
+ * names ontology local names (AppConfig.createOntologyIRI).
+ */
+public class ABoxUpdate {
+    private final OWLOntology ontology;
+    private final OWLDataFactory factory;
+    private final List<OWLOntologyChange> changes = new ArrayList<>();
+    private final Set<OWLNamedIndividual> touched = new LinkedHashSet<>();
+
+    ABoxUpdate(OWLOntology ontology, OWLDataFactory factory) {
+        this.ontology = ontology;
+        this.factory = factory;
+    }
+
+    public ABoxUpdate addIndividual(String individual, String className) {
+        return addClassAssertion(individual, className);
+    }
+
+    /**
+     * Remove an individual with every assertion about or pointing to it
+     */
+    public ABoxUpdate removeIndividual(String individual) {
+        OWLNamedIndividual ind = individual(individual);
+        touched.add(ind);
+        for (OWLAxiom axiom : ontology.getReferencingAxioms(ind, Imports.EXCLUDED)) {
+            changes.add(new RemoveAxiom(ontology, axiom));
+        }
+        return this;
+    }
+
+    public ABoxUpdate addClassAssertion(String individual, String className) {
+        return add(factory.getOWLClassAssertionAxiom(owlClass(className), touch(individual)));
+    }
+
+    public ABoxUpdate removeClassAssertion(String individual, String className) {
+        return remove(factory.getOWLClassAssertionAxiom(owlClass(className), touch(individual)));
+    }
+
+    public ABoxUpdate addObjectPropertyAssertion(String subject, String property, String object) {
+        return add(factory.getOWLObjectPropertyAssertionAxiom(
+            factory.getOWLObjectProperty(ontologyIRI(property)), touch(subject), touch(object)));
+    }
+
+    public ABoxUpdate removeObjectPropertyAssertion(String subject, String property, String object) {
+        return remove(factory.getOWLObjectPropertyAssertionAxiom(
+            factory.getOWLObjectProperty(ontologyIRI(property)), touch(subject), touch(object)));
+    }
+
+    /**
+     * @param value Integer/Long (xsd:integer), BigDecimal (xsd:decimal), Double, Boolean or String
+     */
+    public ABoxUpdate addDataPropertyAssertion(String subject, String property, Object value) {
+        return add(factory.getOWLDataPropertyAssertionAxiom(
+            factory.getOWLDataProperty(ontologyIRI(property)), touch(subject), literal(value)));
+    }
+
+    /**
+     * Remove every value of a data property, e.g. before asserting a new market value
+     */
+    public ABoxUpdate removeDataPropertyAssertions(String subject, String property) {
+        OWLNamedIndividual ind = touch(subject);
+        IRI propertyIRI = ontologyIRI(property);
+        for (OWLDataPropertyAssertionAxiom axiom : ontology.getDataPropertyAssertionAxioms(ind)) {
+            if (!axiom.getProperty().isAnonymous() && axiom.getProperty().asOWLDataProperty().getIRI().equals(propertyIRI)) {
+                changes.add(new RemoveAxiom(ontology, axiom));
+            }
+        }
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    List<OWLOntologyChange> getChanges() {
+        return Collections.unmodifiableList(changes);
+    }
+
+    /**
+     * Individuals named by the buffered changes
+     */
+    Set<OWLNamedIndividual> getTouched() {
+        return Collections.unmodifiableSet(touched);
+    }
+
+    private ABoxUpdate add(OWLAxiom axiom) {
+        changes.add(new AddAxiom(ontology, axiom));
+        return this;
+    }
+
+    private ABoxUpdate remove(OWLAxiom axiom) {
+        changes.add(new RemoveAxiom(ontology, axiom));
+        return this;
+    }
+
+    private OWLNamedIndividual touch(String name) {
+        OWLNamedIndividual ind = individual(name);
+        touched.add(ind);
+        return ind;
+    }
+
+    private OWLNamedIndividual individual(String name) {
+        return factory.getOWLNamedIndividual(IRI.create(AppConfig.createABoxIRI(name)));
+    }
+
+    private OWLClass owlClass(String name) {
+        return factory.getOWLClass(ontologyIRI(name));
+    }
+
+    private static IRI ontologyIRI(String name) {
+        return IRI.create(AppConfig.createOntologyIRI(name));
+    }
+
+    private OWLLiteral literal(Object value) {
+        if (value instanceof Integer || value instanceof Long) {
+            return factory.getOWLLiteral(value.toString(), OWL2Datatype.XSD_INTEGER);
+        } else if (value instanceof BigDecimal) {
+            return factory.getOWLLiteral(((BigDecimal) value).toPlainString(), OWL2Datatype.XSD_DECIMAL);
+        } else if (value instanceof Double) {
+            return factory.getOWLLiteral((Double) value);
+        } else if (value instanceof Boolean) {
+            return factory.getOWLLiteral((Boolean) value);
+        }
+        return factory.getOWLLiteral(String.valueOf(value));
+    }
+
+    /**
+     * Inferred class memberships that changed, by individual short name
+     */
+    public static class MembershipChanges {
+        private final Map<String, Set<String>> added = new TreeMap<>();
+        private final Map<String, Set<String>> removed = new TreeMap<>();
+        private final int reRealized;
+
+        MembershipChanges(int reRealized) {
+            this.reRealized = reRealized;
+        }
+
+        void record(String individual, Set<String> before, Set<String> after) {
+            for (String cls : after) {
+                if (!before.contains(cls)) {
+                    added.computeIfAbsent(individual, k -> new TreeSet<>()).add(cls);
+                }
+            }
+            for (String cls : before) {
+                if (!after.contains(cls)) {
+                    removed.computeIfAbsent(individual, k -> new TreeSet<>()).add(cls);
+                }
+            }
+        }
+
+        public Map<String, Set<String>> getAdded() {
+            return Collections.unmodifiableMap(added);
+        }
+
+        public Map<String, Set<String>> getRemoved() {
+            return Collections.unmodifiableMap(removed);
+        }
+
+        public Set<String> addedFor(String individual) {
+            return added.getOrDefault(individual, Collections.emptySet());
+        }
+
+        public Set<String> removedFor(String individual) {
+            return removed.getOrDefault(individual, Collections.emptySet());
+        }
+
+        /**
+         * Individuals whose types were recomputed
+         */
+        public int getReRealized() {
+            return reRealized;
+        }
+
+        public boolean isEmpty() {
+            return added.isEmpty() && removed.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return "added " + added + ", removed " + removed + " (" + reRealized + " individuals re-realized)";
+        }
+    }
+}
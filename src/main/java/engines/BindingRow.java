@@ -0,0 +1,124 @@
+package engines;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * One SPARQL solution - the value bound to each result variable, with typed accessors.
+ * Values are the lexical forms Ontop returns (IRI string or literal value); unbound is null.
+ * The RDF term type of each value (IRI, blank node, literal datatype) is known unless the
+ * results came as plain CSV, which does not carry it.
+ */
+public class BindingRow {
+    private final List<String> variables;
+    private final String[] values;
+    private final TermType[] types;
+
+    public BindingRow(List<String> variables, String[] values) {
+        this(variables, values, null);
+    }
+
+    /**
+     * @param types term type of each value, or null when unknown
+     */
+    public BindingRow(List<String> variables, String[] values, TermType[] types) {
+        this.variables = variables;
+        this.values = values;
+        this.types = types;
+    }
+
+    public List<String> getVariables() {
+        return variables;
+    }
+
+    public String getString(int index) {
+        return index < values.length ? values[index] : null;
+    }
+
+    public String getString(String variable) {
+        return getString(indexOf(variable));
+    }
+
+    /**
+     * Term type of a bound value - null when unbound or when the backend did not report it
+     */
+    public TermType getType(int index) {
+        return types != null && index < types.length && getString(index) != null ? types[index] : null;
+    }
+
+    public TermType getType(String variable) {
+        return getType(indexOf(variable));
+    }
+
+    /**
+     * Whether the term types were reported by the backend
+     */
+    public boolean hasTypes() {
+        return types != null;
+    }
+
+    public boolean isBound(String variable) {
+        return getString(variable) != null;
+    }
+
+    public long getLong(String variable) {
+        String value = required(variable);
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            // Ontop may render integer aggregates as decimals, e.g. "12.0"
+            return new BigDecimal(value).longValue();
+        }
+    }
+
+    public int getInt(String variable) {
+        return (int) getLong(variable);
+    }
+
+    public double getDouble(String variable) {
+        return Double.parseDouble(required(variable));
+    }
+
+    public BigDecimal getDecimal(String variable) {
+        return new BigDecimal(required(variable));
+    }
+
+    public boolean getBoolean(String variable) {
+        String value = required(variable);
+        return "true".equalsIgnoreCase(value) || "1".equals(value);
+    }
+
+    /**
+     * Format the row as one line of SPARQL CSV output
+     */
+    public String toCsvLine() {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < variables.size(); i++) {
+            if (i > 0) line.append(',');
+            line.append(OntopEmbeddedEngine.csvField(getString(i)));
+        }
+        return line.toString();
+    }
+
+    private String required(String variable) {
+        String value = getString(variable);
+        if (value == null) {
+            throw new IllegalStateException("Variable ?" + variable + " is unbound");
+        }
+        return value;
+    }
+
+    private int indexOf(String variable) {
+        String name = variable.startsWith("?") ? variable.substring(1) : variable;
+        int index = variables.indexOf(name);
+        if (index < 0) {
+            throw new IllegalArgumentException("Unknown result variable: " + variable);
+        }
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return toCsvLine();
+    }
+}
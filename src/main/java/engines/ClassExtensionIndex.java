@@ -0,0 +1,241 @@
+package engines;
+
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Class extensions of a classified ontology as bitmaps over dense individual IDs.
+ *
+ * Every individual gets an int ID (0..n-1, ordered by IRI so IDs are stable for the same
+ * ontology); a class extension is a long[] with bit i set when individual i is an instance.
+ * Counts, intersections, unions and membership checks are then word-parallel bit operations
+ * (Long.bitCount) instead of HashSet copies of the reasoner's NodeSets.
+ *
+ * Extensions are loaded from the reasoner the first time a class is asked for and kept
+ * until the index is discarded. Queries on different classes may load them concurrently, so
+ * the instances function must be thread-safe (ReasoningEngine serializes the reasoner calls
+ * behind it). After an ABox update, update() patches the loaded
+ * extensions for the re-realized individuals; individuals new to the ontology get the
+ * next free ID, so IDs are only IRI-ordered up to the first update.
+ */
+public class ClassExtensionIndex {
+    private final List<OWLNamedIndividual> individuals;
+    private final Map<OWLNamedIndividual, Integer> ids;
+    private final Map<OWLClass, Bitmap> extensions = new ConcurrentHashMap<>();
+    private final Function<OWLClass, ? extends Iterable<OWLNamedIndividual>> instances;
+
+    /**
+     * @param individuals all named individuals of the ontology
+     * @param instances   instances (direct and inferred) of a class, typically from the reasoner
+     */
+    public ClassExtensionIndex(Collection<OWLNamedIndividual> individuals,
+                               Function<OWLClass, ? extends Iterable<OWLNamedIndividual>> instances) {
+        this.individuals = new ArrayList<>(individuals);
+        this.individuals.sort(Comparator.comparing(individual -> individual.getIRI().toString()));
+        this.ids = new HashMap<>(this.individuals.size() * 2);
+        for (int id = 0; id < this.individuals.size(); id++) {
+            ids.put(this.individuals.get(id), id);
+        }
+        this.instances = instances;
+    }
+
+    /**
+     * Dense ID of an individual, -1 if it was not in the ontology when the index was built
+     */
+    public int idOf(OWLNamedIndividual individual) {
+        Integer id = ids.get(individual);
+        return id == null ? -1 : id;
+    }
+
+    public OWLNamedIndividual individual(int id) {
+        return individuals.get(id);
+    }
+
+    public int size() {
+        return individuals.size();
+    }
+
+    /**
+     * Extension of a class, loaded from the reasoner on first use
+     */
+    public Bitmap extension(OWLClass owlClass) {
+        Bitmap bitmap = extensions.get(owlClass);
+        if (bitmap != null) {
+            return bitmap;
+        }
+        // Loaded outside computeIfAbsent, so a reasoner call never runs under the map's bin
+        // lock; a class asked for twice at once is loaded twice and the first result kept
+        Bitmap loaded = load(owlClass);
+        bitmap = extensions.putIfAbsent(owlClass, loaded);
+        return bitmap != null ? bitmap : loaded;
+    }
+
+    private Bitmap load(OWLClass owlClass) {
+        Bitmap bitmap = new Bitmap(individuals.size());
+        for (OWLNamedIndividual individual : instances.apply(owlClass)) {
+            Integer id = ids.get(individual);
+            if (id != null) {
+                bitmap.set(id);
+            }
+        }
+        return bitmap.trimmed();
+    }
+
+    /**
+     * Individuals of a bitmap, in ID order
+     */
+    public List<OWLNamedIndividual> individuals(Bitmap bitmap) {
+        List<OWLNamedIndividual> result = new ArrayList<>(bitmap.cardinality());
+        for (int id = bitmap.nextSetBit(0); id >= 0; id = bitmap.nextSetBit(id + 1)) {
+            result.add(individuals.get(id));
+        }
+        return result;
+    }
+
+    /**
+     * Re-set an individual's bit in every loaded extension after its types changed.
+     * Not thread-safe - callers hold exclusive access (ReasoningSessionManager.update)
+     *
+     * @param member whether the individual is now an instance of a class; false for all
+     *               classes when the individual was removed
+     */
+    void update(OWLNamedIndividual individual, Predicate<OWLClass> member) {
+        Integer id = ids.get(individual);
+        if (id == null) {
+            id = individuals.size();
+            individuals.add(individual);
+            ids.put(individual, id);
+        }
+        for (Map.Entry<OWLClass, Bitmap> entry : extensions.entrySet()) {
+            if (member.test(entry.getKey())) {
+                entry.getValue().set(id);
+            } else {
+                entry.getValue().clear(id);
+            }
+        }
+    }
+
+    /**
+     * Set of dense IDs packed 64 per long - read-only for queries, changed only through
+     * ClassExtensionIndex.update. Trailing empty words are dropped, so small classes over
+     * low IDs stay short.
+     */
+    public static final class Bitmap {
+        private long[] words;
+
+        Bitmap(int bits) {
+            this.words = new long[(bits + 63) >>> 6];
+        }
+
+        private Bitmap(long[] words) {
+            this.words = words;
+        }
+
+        void set(int id) {
+            int word = id >>> 6;
+            if (word >= words.length) {
+                words = Arrays.copyOf(words, word + 1);
+            }
+            words[word] |= 1L << id;
+        }
+
+        void clear(int id) {
+            int word = id >>> 6;
+            if (word < words.length) {
+                words[word] &= ~(1L << id);
+            }
+        }
+
+        Bitmap trimmed() {
+            int length = words.length;
+            while (length > 0 && words[length - 1] == 0) {
+                length--;
+            }
+            if (length < words.length) {
+                words = Arrays.copyOf(words, length);
+            }
+            return this;
+        }
+
+        public boolean contains(int id) {
+            int word = id >>> 6;
+            return id >= 0 && word < words.length && (words[word] & (1L << id)) != 0;
+        }
+
+        public int cardinality() {
+            int count = 0;
+            for (long word : words) {
+                count += Long.bitCount(word);
+            }
+            return count;
+        }
+
+        /**
+         * |this ∩ other| without materializing the intersection
+         */
+        public int andCardinality(Bitmap other) {
+            int length = Math.min(words.length, other.words.length);
+            int count = 0;
+            for (int i = 0; i < length; i++) {
+                count += Long.bitCount(words[i] & other.words[i]);
+            }
+            return count;
+        }
+
+        /**
+         * |this ∪ other| without materializing the union
+         */
+        public int orCardinality(Bitmap other) {
+            return cardinality() + other.cardinality() - andCardinality(other);
+        }
+
+        public Bitmap and(Bitmap other) {
+            long[] result = new long[Math.min(words.length, other.words.length)];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = words[i] & other.words[i];
+            }
+            return new Bitmap(result).trimmed();
+        }
+
+        public Bitmap or(Bitmap other) {
+            long[] longer = words.length >= other.words.length ? words : other.words;
+            long[] shorter = longer == words ? other.words : words;
+            long[] result = longer.clone();
+            for (int i = 0; i < shorter.length; i++) {
+                result[i] |= shorter[i];
+            }
+            return new Bitmap(result);
+        }
+
+        /**
+         * First ID at or after from, -1 if none
+         */
+        public int nextSetBit(int from) {
+            int word = from >>> 6;
+            if (from < 0 || word >= words.length) {
+                return -1;
+            }
+            long bits = words[word] & (-1L << from);
+            while (true) {
+                if (bits != 0) {
+                    return (word << 6) + Long.numberOfTrailingZeros(bits);
+                }
+                if (++word == words.length) {
+                    return -1;
+                }
+                bits = words[word];
+            }
+        }
+    }
+}
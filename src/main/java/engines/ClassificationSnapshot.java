@@ -0,0 +1,378 @@
+package engines;
+
+import config.AppConfig;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.parameters.Imports;
+import org.semanticweb.owlapi.reasoner.Node;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import utils.OntologyFingerprint;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inferred class hierarchy and realized individual types of a classified ontology, saved
+ * to a compact binary file so ReasoningEngine can start without parsing the ontology or
+ * running the reasoner.
+ *
+ * → key: SHA-256 of the ontology file, the backend and its reasoner jar, the namespaces
+ *   and the file format version - any change gives a new file (cache/classification-&lt;key&gt;.bin)
+ * → file: the class nodes (equivalent classes), each node's direct parent nodes and each
+ *   individual's direct type nodes, all as dense int IDs
+ * → load: types are closed over the hierarchy once, then instances and types are map lookups
+ */
+public class ClassificationSnapshot {
+    private static final int MAGIC = 0x53504F43;
+    private static final int FORMAT_VERSION = 1;
+
+    private final Encoded encoded;
+    private final Map<OWLNamedIndividual, Set<OWLClass>> types = new HashMap<>();
+    private final Map<OWLClass, Set<OWLNamedIndividual>> instances = new HashMap<>();
+    private final Map<OWLClass, Set<OWLClass>> superClasses = new HashMap<>();
+
+    /**
+     * Close each node over its ancestors, then each individual over its type nodes
+     */
+    private ClassificationSnapshot(Encoded encoded, OWLDataFactory factory) {
+        this.encoded = encoded;
+        OWLClass[] classes = new OWLClass[encoded.classes.size()];
+        for (int i = 0; i < classes.length; i++) {
+            classes[i] = factory.getOWLClass(IRI.create(encoded.classes.get(i)));
+        }
+        List<Set<OWLClass>> closed = new ArrayList<>(Collections.nCopies(encoded.nodes.size(), null));
+        for (int node = 0; node < encoded.nodes.size(); node++) {
+            Set<OWLClass> ancestors = new HashSet<>(closure(node, classes, closed));
+            for (int id : encoded.nodes.get(node)) {
+                ancestors.remove(classes[id]);
+            }
+            for (int id : encoded.nodes.get(node)) {
+                superClasses.put(classes[id], ancestors);
+            }
+        }
+        for (int i = 0; i < encoded.individuals.size(); i++) {
+            OWLNamedIndividual individual = factory.getOWLNamedIndividual(IRI.create(encoded.individuals.get(i)));
+            Set<OWLClass> all = new HashSet<>();
+            for (int node : encoded.directTypes.get(i)) {
+                all.addAll(closure(node, classes, closed));
+            }
+            types.put(individual, all);
+            for (OWLClass type : all) {
+                instances.computeIfAbsent(type, cls -> new HashSet<>()).add(individual);
+            }
+        }
+    }
+
+    private Set<OWLClass> closure(int node, OWLClass[] classes, List<Set<OWLClass>> closed) {
+        Set<OWLClass> result = closed.get(node);
+        if (result == null) {
+            result = new HashSet<>();
+            for (int id : encoded.nodes.get(node)) {
+                result.add(classes[id]);
+            }
+            for (int parent : encoded.parents.get(node)) {
+                result.addAll(closure(parent, classes, closed));
+            }
+            closed.set(node, result);
+        }
+        return result;
+    }
+
+    // =============================================================================
+    // KEY AND LOCATION
+    // =============================================================================
+
+    /**
+     * Snapshot key for the current ontology file classified by a backend
+     */
+    public static String keyFor(ReasonerBackend backend) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            update(digest, "format " + FORMAT_VERSION);
+            update(digest, new OntologyFingerprint(AppConfig.ONTOLOGY_FILE).current());
+            update(digest, backend.name());
+            Class<?> factory = backend.createFactory().getClass();
+            update(digest, factory.getName());
+            CodeSource source = factory.getProtectionDomain().getCodeSource();
+            update(digest, source == null ? "" : source.getLocation().toString());
+            update(digest, AppConfig.ONTOLOGY_NAMESPACE);
+            update(digest, AppConfig.ABOX_NAMESPACE);
+            return OntologyFingerprint.toHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("Could not compute classification snapshot key: " + e.getMessage(), e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    public static Path fileFor(Path directory, String key) {
+        return directory.resolve("classification-" + key.substring(0, 12) + ".bin");
+    }
+
+    // =============================================================================
+    // CAPTURE, WRITE, READ
+    // =============================================================================
+
+    /**
+     * Snapshot of a reasoner that has precomputed the class hierarchy and class assertions
+     */
+    public static ClassificationSnapshot capture(OWLOntology ontology, OWLReasoner reasoner, OWLDataFactory factory) {
+        Encoder encoder = new Encoder(reasoner);
+        encoder.nodeOf(reasoner.getTopClassNode());
+        for (OWLClass owlClass : ontology.getClassesInSignature(Imports.INCLUDED)) {
+            Node<OWLClass> node = reasoner.getEquivalentClasses(owlClass);
+            if (!node.isBottomNode()) {
+                encoder.nodeOf(node);
+            }
+        }
+        for (OWLNamedIndividual individual : ontology.getIndividualsInSignature(Imports.INCLUDED)) {
+            encoder.individual(individual);
+        }
+        return new ClassificationSnapshot(encoder.encoded, factory);
+    }
+
+    /**
+     * Write the snapshot under a key - to a temp file first, so readers never see a partial file
+     */
+    public void write(Path file, String key) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(key);
+                encoded.writeTo(out);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        deleteStale(file);
+    }
+
+    /**
+     * Snapshot saved under this key, null when there is none or it is unreadable
+     */
+    public static ClassificationSnapshot read(Path file, String key, OWLDataFactory factory) {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || !in.readUTF().equals(key)) {
+                return null;
+            }
+            return new ClassificationSnapshot(Encoded.readFrom(in), factory);
+        } catch (IOException e) {
+            System.out.println("Ignoring unreadable classification snapshot " + file.getFileName() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Snapshots of older ontology versions are never read again
+     */
+    private static void deleteStale(Path current) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(current.getParent(), "classification-*.bin")) {
+            for (Path file : files) {
+                if (!file.getFileName().equals(current.getFileName())) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    // =============================================================================
+    // LOOKUPS
+    // =============================================================================
+
+    public Set<OWLNamedIndividual> getIndividuals() {
+        return Collections.unmodifiableSet(types.keySet());
+    }
+
+    /**
+     * Inferred types of an individual, owl:Thing included (as OWLReasoner.getTypes(ind, false))
+     */
+    public Set<OWLClass> getTypes(OWLNamedIndividual individual) {
+        return Collections.unmodifiableSet(types.getOrDefault(individual, Collections.emptySet()));
+    }
+
+    /**
+     * Direct and inferred instances of a class
+     */
+    public Set<OWLNamedIndividual> getInstances(OWLClass owlClass) {
+        return Collections.unmodifiableSet(instances.getOrDefault(owlClass, Collections.emptySet()));
+    }
+
+    /**
+     * Strict inferred superclasses of a class, owl:Thing included
+     */
+    public Set<OWLClass> getSuperClasses(OWLClass owlClass) {
+        return Collections.unmodifiableSet(superClasses.getOrDefault(owlClass, Collections.emptySet()));
+    }
+
+    // =============================================================================
+    // DENSE ENCODING
+    // =============================================================================
+
+    /**
+     * The file contents: class IRIs, nodes of class IDs, parent node IDs per node,
+     * individual IRIs with their direct type node IDs
+     */
+    private static final class Encoded {
+        final List<String> classes = new ArrayList<>();
+        final List<int[]> nodes = new ArrayList<>();
+        final List<int[]> parents = new ArrayList<>();
+        final List<String> individuals = new ArrayList<>();
+        final List<int[]> directTypes = new ArrayList<>();
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(classes.size());
+            for (String iri : classes) {
+                out.writeUTF(iri);
+            }
+            out.writeInt(nodes.size());
+            for (int i = 0; i < nodes.size(); i++) {
+                writeIds(out, nodes.get(i));
+                writeIds(out, parents.get(i));
+            }
+            out.writeInt(individuals.size());
+            for (int i = 0; i < individuals.size(); i++) {
+                out.writeUTF(individuals.get(i));
+                writeIds(out, directTypes.get(i));
+            }
+        }
+
+        static Encoded readFrom(DataInputStream in) throws IOException {
+            Encoded encoded = new Encoded();
+            int classCount = in.readInt();
+            for (int i = 0; i < classCount; i++) {
+                encoded.classes.add(in.readUTF());
+            }
+            int nodeCount = in.readInt();
+            for (int i = 0; i < nodeCount; i++) {
+                encoded.nodes.add(readIds(in));
+                encoded.parents.add(readIds(in));
+            }
+            int individualCount = in.readInt();
+            for (int i = 0; i < individualCount; i++) {
+                encoded.individuals.add(in.readUTF());
+                encoded.directTypes.add(readIds(in));
+            }
+            return encoded;
+        }
+
+        /**
+         * IDs as 7-bit varints - almost all node and class IDs fit in one byte
+         */
+        private static void writeIds(DataOutputStream out, int[] ids) throws IOException {
+            writeVarInt(out, ids.length);
+            for (int id : ids) {
+                writeVarInt(out, id);
+            }
+        }
+
+        private static int[] readIds(DataInputStream in) throws IOException {
+            int[] ids = new int[readVarInt(in)];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = readVarInt(in);
+            }
+            return ids;
+        }
+
+        private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                out.writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.writeByte(value);
+        }
+
+        private static int readVarInt(DataInputStream in) throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int b = in.readUnsignedByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed ID in classification snapshot");
+        }
+    }
+
+    /**
+     * Builds the dense encoding from a classified reasoner - a class or node gets the next
+     * ID the first time it is seen
+     */
+    private static final class Encoder {
+        private final OWLReasoner reasoner;
+        private final Encoded encoded = new Encoded();
+        private final Map<OWLClass, Integer> classIds = new HashMap<>();
+        private final Map<Node<OWLClass>, Integer> nodeIds = new HashMap<>();
+
+        Encoder(OWLReasoner reasoner) {
+            this.reasoner = reasoner;
+        }
+
+        int nodeOf(Node<OWLClass> node) {
+            Integer id = nodeIds.get(node);
+            if (id != null) {
+                return id;
+            }
+            id = encoded.nodes.size();
+            nodeIds.put(node, id);
+            int[] members = new int[node.getSize()];
+            int i = 0;
+            for (OWLClass owlClass : node) {
+                members[i++] = classIds.computeIfAbsent(owlClass, cls -> {
+                    encoded.classes.add(cls.getIRI().toString());
+                    return encoded.classes.size() - 1;
+                });
+            }
+            encoded.nodes.add(members);
+            encoded.parents.add(null);
+            encoded.parents.set(id, nodesOf(reasoner.getSuperClasses(node.getRepresentativeElement(), true).getNodes()));
+            return id;
+        }
+
+        void individual(OWLNamedIndividual individual) {
+            encoded.individuals.add(individual.getIRI().toString());
+            encoded.directTypes.add(nodesOf(reasoner.getTypes(individual, true).getNodes()));
+        }
+
+        private int[] nodesOf(Set<Node<OWLClass>> nodes) {
+            List<Integer> ids = new ArrayList<>(nodes.size());
+            for (Node<OWLClass> node : nodes) {
+                if (!node.isBottomNode()) {
+                    ids.add(nodeOf(node));
+                }
+            }
+            return ids.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package engines;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Streaming RFC 4180 CSV reader used for SPARQL CSV results.
+ * Scans a char buffer directly instead of going through readLine/split, so the only
+ * allocations per record are the field strings and the returned array.
+ * Quoted fields may contain delimiters, doubled quotes and line breaks; an empty unquoted
+ * field is returned as null (unbound variable) and blank lines are skipped.
+ */
+public class CsvRecordReader implements Closeable {
+    private final Reader in;
+    private final char delimiter;
+    private final char[] buffer = new char[8192];
+    private int position = 0;
+    private int limit = 0;
+
+    private final StringBuilder field = new StringBuilder(64);
+    private String[] fields = new String[16];
+
+    public CsvRecordReader(Reader in) {
+        this(in, ',');
+    }
+
+    public CsvRecordReader(Reader in, char delimiter) {
+        this.in = in;
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * Read the next record
+     * @return the record's fields, or null at end of input
+     */
+    public String[] readRecord() throws IOException {
+        int count = 0;
+        boolean inQuotes = false;
+        boolean quoted = false;
+        field.setLength(0);
+
+        while (true) {
+            int c = read();
+            if (c < 0) {
+                if (count == 0 && field.length() == 0 && !quoted) {
+                    return null;
+                }
+                break;
+            }
+
+            if (inQuotes) {
+                if (c == '"') {
+                    if (peek() == '"') {
+                        position++;
+                        field.append('"');
+                    } else {
+                        inQuotes = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                inQuotes = true;
+                quoted = true;
+            } else if (c == delimiter) {
+                count = add(count, quoted);
+                quoted = false;
+            } else if (c == '\n') {
+                if (count == 0 && field.length() == 0 && !quoted) {
+                    continue; // blank line
+                }
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+        }
+
+        count = add(count, quoted);
+        return Arrays.copyOf(fields, count);
+    }
+
+    private int add(int count, boolean quoted) {
+        if (count == fields.length) {
+            fields = Arrays.copyOf(fields, count * 2);
+        }
+        fields[count] = quoted || field.length() > 0 ? field.toString() : null;
+        field.setLength(0);
+        return count + 1;
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        int n;
+        do {
+            n = in.read(buffer, 0, buffer.length);
+        } while (n == 0);
+        if (n < 0) {
+            return false;
+        }
+        position = 0;
+        limit = n;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,408 @@
+package engines;
+
+import config.AppConfig;
+import utils.OntologyFingerprint;
+
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Fast path for simple SPARQL patterns: answers them with SQL built from the mapping index
+ * instead of a full Ontop reformulation.
+ *
+ * Handled shapes (one triple pattern, no modifiers):
+ *   SELECT (COUNT([DISTINCT] ?x|*) AS ?n) WHERE { ?x a :Class }
+ *   SELECT [DISTINCT] ?x WHERE { ?x a :Class }
+ *   the same two with a property pattern { ?s :property ?o }
+ *
+ * Everything else, and patterns whose mapping the index cannot model exactly,
+ * is left to Ontop (rewrite returns null). The index is rebuilt when the ontology
+ * or mapping files change.
+ */
+public class DirectSQLRouter {
+    private static final String RDF_TYPE = "http://www.w3.org/1999/02/22-rdf-syntax-ns#type";
+    private static final String XSD = "http://www.w3.org/2001/XMLSchema#";
+
+    // Not a valid SPARQL variable name, so it cannot clash with a projected variable
+    private static final String DATATYPE_COLUMN = "#datatype";
+
+    private static final Pattern PREFIX_DECL = Pattern.compile("(?i)^\\s*PREFIX\\s+([\\w\\-]*):\\s*<([^>\\s]*)>");
+    private static final String TERM = "(\\?\\w+|<[^>\\s]*>|[A-Za-z][\\w\\-]*:[\\w\\-]*|:[\\w\\-]*|a)";
+    private static final Pattern SIMPLE_QUERY = Pattern.compile(
+        "(?is)^SELECT\\s+(DISTINCT\\s+)?(.+?)\\s*(?:WHERE\\s*)?\\{\\s*" + TERM + "\\s+" + TERM + "\\s+" + TERM
+            + "\\s*\\.?\\s*\\}\\s*$");
+    private static final Pattern COUNT_PROJECTION = Pattern.compile(
+        "(?is)^\\(\\s*COUNT\\s*\\(\\s*(DISTINCT\\s+)?(\\*|\\?\\w+)\\s*\\)\\s+AS\\s+\\?(\\w+)\\s*\\)$");
+    private static final Pattern VARIABLE_PROJECTION = Pattern.compile("^(\\?\\w+)(\\s+\\?\\w+)*$");
+
+    private final H2_SQLEngine dbEngine;
+    private final OntologyFingerprint fingerprint;
+    private final Path mappingFile;
+    private final Path ontologyFile;
+
+    private MappingIndex index;
+    private String indexFingerprint;
+    private final Map<String, Integer> columnTypes = new ConcurrentHashMap<>();
+
+    private final AtomicLong directQueries = new AtomicLong();
+    private final AtomicLong ontopQueries = new AtomicLong();
+
+    public DirectSQLRouter(H2_SQLEngine dbEngine, OntologyFingerprint fingerprint) {
+        this(dbEngine, fingerprint, AppConfig.MAPPING_FILE, AppConfig.ONTOLOGY_FILE);
+    }
+
+    public DirectSQLRouter(H2_SQLEngine dbEngine, OntologyFingerprint fingerprint, Path mappingFile, Path ontologyFile) {
+        this.dbEngine = dbEngine;
+        this.fingerprint = fingerprint;
+        this.mappingFile = mappingFile;
+        this.ontologyFile = ontologyFile;
+    }
+
+    /**
+     * Rewrite a SPARQL query into SQL over the mapping views.
+     * @return the SQL with its variables and result columns, or null if Ontop must answer it
+     */
+    public ReformulatedQuery rewrite(String sparqlQuery) {
+        MappingIndex current = currentIndex();
+        if (current == null) {
+            return null;
+        }
+
+        Map<String, String> prefixes = new HashMap<>();
+        String body = stripPrefixes(sparqlQuery, prefixes);
+        Matcher query = body == null ? null : SIMPLE_QUERY.matcher(body.trim());
+        if (query == null || !query.matches()) {
+            return null;
+        }
+
+        String subject = query.group(3);
+        String predicate = expand(query.group(4), prefixes);
+        String object = query.group(5);
+        if (!subject.startsWith("?") || predicate == null) {
+            return null;
+        }
+
+        boolean classPattern = predicate.equals(RDF_TYPE);
+        List<String> patternVariables = new ArrayList<>();
+        patternVariables.add(subject.substring(1));
+        List<MappingIndex.Source> sources;
+        if (classPattern) {
+            String classIri = expand(object, prefixes);
+            if (classIri == null) {
+                return null;
+            }
+            sources = current.getClassSources(classIri);
+        } else {
+            if (!object.startsWith("?") || object.equals(subject)) {
+                return null;
+            }
+            patternVariables.add(object.substring(1));
+            sources = current.getPropertySources(predicate);
+        }
+        if (sources == null) {
+            return null;
+        }
+
+        boolean literalObjects = !classPattern && !sources.isEmpty() && sources.get(0).isLiteral();
+        for (MappingIndex.Source source : sources) {
+            if (!classPattern && source.isLiteral() != literalObjects) {
+                return null;
+            }
+        }
+
+        String inner = unionOf(sources, classPattern, literalObjects);
+        boolean distinct = query.group(1) != null;
+        String projection = query.group(2).trim();
+
+        Matcher count = COUNT_PROJECTION.matcher(projection);
+        if (count.matches()) {
+            return countQuery(inner, patternVariables, count.group(2), count.group(1) != null, count.group(3),
+                literalObjects);
+        }
+
+        List<String> variables = new ArrayList<>();
+        if (projection.equals("*")) {
+            variables.addAll(patternVariables);
+        } else if (VARIABLE_PROJECTION.matcher(projection).matches()) {
+            for (String variable : projection.split("\\s+")) {
+                variables.add(variable.substring(1));
+            }
+        } else {
+            return null;
+        }
+        if (!patternVariables.containsAll(variables) || !hasExactLexicalForms(sources, classPattern)) {
+            return null;
+        }
+        return selectQuery(inner, patternVariables, variables, distinct, literalObjects);
+    }
+
+    /**
+     * Record that a query was not served by the fast path
+     */
+    public void recordOntopQuery() {
+        ontopQueries.incrementAndGet();
+    }
+
+    public void recordDirectQuery() {
+        directQueries.incrementAndGet();
+    }
+
+    public long getDirectQueryCount() {
+        return directQueries.get();
+    }
+
+    public long getOntopQueryCount() {
+        return ontopQueries.get();
+    }
+
+    /**
+     * Print how many queries each path served
+     */
+    public void printStats() {
+        System.out.printf("SPARQL query paths: %d direct SQL, %d Ontop%n", getDirectQueryCount(), getOntopQueryCount());
+    }
+
+    // =============================================================================
+    // SQL GENERATION
+    // =============================================================================
+
+    /**
+     * Distinct (S[, O, T]) rows of all sources - RDF has set semantics, so a triple
+     * produced by several sources counts once. T is the literal datatype.
+     */
+    private static String unionOf(List<MappingIndex.Source> sources, boolean classPattern, boolean literalObjects) {
+        if (sources.isEmpty()) {
+            return "SELECT CAST(NULL AS VARCHAR) AS S, CAST(NULL AS VARCHAR) AS O, CAST(NULL AS VARCHAR) AS T WHERE FALSE";
+        }
+
+        StringBuilder sql = new StringBuilder();
+        for (MappingIndex.Source source : sources) {
+            if (sql.length() > 0) {
+                sql.append(" UNION ");
+            }
+            sql.append("SELECT ").append(templateExpression(source.subjectTemplate)).append(" AS S");
+            if (!classPattern) {
+                if (literalObjects) {
+                    sql.append(", CAST(m.").append(source.objectColumn).append(" AS VARCHAR) AS O, ")
+                        .append(sqlString(source.datatype != null ? source.datatype : "")).append(" AS T");
+                } else {
+                    sql.append(", ").append(templateExpression(source.objectTemplate)).append(" AS O");
+                }
+            }
+            sql.append(" FROM (").append(source.viewSql).append(") m WHERE ");
+
+            // Ontop produces no triple when a column used by a term map is NULL
+            List<String> conditions = new ArrayList<>();
+            for (String column : columnsOf(source)) {
+                conditions.add("m." + column + " IS NOT NULL");
+            }
+            sql.append(String.join(" AND ", conditions));
+        }
+        return sql.toString();
+    }
+
+    private static ReformulatedQuery countQuery(String inner, List<String> patternVariables, String counted,
+                                                boolean countDistinct, String alias, boolean literalObjects) {
+        String from;
+        if (counted.equals("*") || !countDistinct) {
+            if (!counted.equals("*") && !patternVariables.contains(counted.substring(1))) {
+                return null;
+            }
+            from = "(" + inner + ") q";
+        } else {
+            String variable = counted.substring(1);
+            int position = patternVariables.indexOf(variable);
+            if (position < 0) {
+                return null;
+            }
+            String columns = position == 0 ? "q.S" : literalObjects ? "q.O, q.T" : "q.O";
+            from = "(SELECT DISTINCT " + columns + " FROM (" + inner + ") q) d";
+        }
+        String sql = "SELECT COUNT(*) AS " + quoted(alias) + " FROM " + from;
+        return new ReformulatedQuery(sql, Collections.singletonList(alias), Collections.singletonList(alias),
+            Collections.singletonList(TermType.literal(XSD + "integer")));
+    }
+
+    private static ReformulatedQuery selectQuery(String inner, List<String> patternVariables, List<String> variables,
+                                                 boolean distinct, boolean literalObjects) {
+        List<String> columns = new ArrayList<>();
+        List<TermType> types = new ArrayList<>();
+        for (String variable : variables) {
+            boolean subject = patternVariables.indexOf(variable) == 0;
+            columns.add((subject ? "q.S" : "q.O") + " AS " + quoted(variable));
+            types.add(subject || !literalObjects ? TermType.IRI : TermType.literalFromColumn(DATATYPE_COLUMN));
+        }
+        if (literalObjects && variables.contains(patternVariables.get(1))) {
+            // literals with different datatypes are different values, and the datatype is reported
+            columns.add("q.T AS " + quoted(DATATYPE_COLUMN));
+        }
+        String sql = "SELECT " + (distinct ? "DISTINCT " : "") + String.join(", ", columns) + " FROM (" + inner + ") q";
+        return new ReformulatedQuery(sql, variables, variables, types);
+    }
+
+    /**
+     * 'prefix' || CAST(m.COL AS VARCHAR) || 'suffix' for an R2RML template
+     */
+    private static String templateExpression(String template) {
+        List<String> parts = new ArrayList<>();
+        int last = 0;
+        int open;
+        while ((open = template.indexOf('{', last)) >= 0) {
+            int close = template.indexOf('}', open);
+            if (open > last) {
+                parts.add(sqlString(template.substring(last, open)));
+            }
+            parts.add("CAST(m." + template.substring(open + 1, close) + " AS VARCHAR)");
+            last = close + 1;
+        }
+        if (last < template.length()) {
+            parts.add(sqlString(template.substring(last)));
+        }
+        return parts.isEmpty() ? "''" : String.join(" || ", parts);
+    }
+
+    private static List<String> columnsOf(MappingIndex.Source source) {
+        List<String> columns = new ArrayList<>(templateColumns(source.subjectTemplate));
+        if (source.objectTemplate != null) {
+            columns.addAll(templateColumns(source.objectTemplate));
+        }
+        if (source.objectColumn != null) {
+            columns.add(source.objectColumn);
+        }
+        return columns;
+    }
+
+    private static List<String> templateColumns(String template) {
+        List<String> columns = new ArrayList<>();
+        int open;
+        int last = 0;
+        while ((open = template.indexOf('{', last)) >= 0) {
+            int close = template.indexOf('}', open);
+            columns.add(template.substring(open + 1, close));
+            last = close + 1;
+        }
+        return columns;
+    }
+
+    private static String sqlString(String value) {
+        return "'" + value.replace("'", "''") + "'";
+    }
+
+    private static String quoted(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+
+    // =============================================================================
+    // LEXICAL FORMS
+    // =============================================================================
+
+    /**
+     * Returned values must read exactly as Ontop prints them: IRIs built from integer columns
+     * (other values may be percent-encoded by Ontop) and string or integer literals.
+     */
+    private boolean hasExactLexicalForms(List<MappingIndex.Source> sources, boolean classPattern) {
+        for (MappingIndex.Source source : sources) {
+            List<String> iriColumns = new ArrayList<>(templateColumns(source.subjectTemplate));
+            if (!classPattern && source.objectTemplate != null) {
+                iriColumns.addAll(templateColumns(source.objectTemplate));
+            }
+            for (String column : iriColumns) {
+                if (!isIntegral(columnType(source.viewSql, column))) {
+                    return false;
+                }
+            }
+            if (!classPattern && source.isLiteral()) {
+                int type = columnType(source.viewSql, source.objectColumn);
+                boolean stringLiteral = (source.datatype == null || source.datatype.equals(XSD + "string")) && isCharacter(type);
+                boolean integerLiteral = XSD.concat("integer").equals(source.datatype) && isIntegral(type);
+                if (!stringLiteral && !integerLiteral) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * JDBC type of a column of a mapping view (Types.OTHER when it cannot be determined)
+     */
+    @SuppressWarnings("try") // stmt is only held to be closed with the result set
+    private int columnType(String viewSql, String column) {
+        return columnTypes.computeIfAbsent(viewSql + "\u0000" + column, key -> {
+            try (ResultSet rs = dbEngine.openPreparedQuery("SELECT m." + column + " FROM (" + viewSql + ") m WHERE 1=0",
+                    QueryDeadline.none());
+                 Statement stmt = rs.getStatement()) {
+                ResultSetMetaData metaData = rs.getMetaData();
+                return metaData.getColumnType(1);
+            } catch (Exception e) {
+                return Types.OTHER;
+            }
+        });
+    }
+
+    private static boolean isIntegral(int type) {
+        return type == Types.INTEGER || type == Types.BIGINT || type == Types.SMALLINT || type == Types.TINYINT;
+    }
+
+    private static boolean isCharacter(int type) {
+        return type == Types.VARCHAR || type == Types.CHAR || type == Types.LONGVARCHAR
+            || type == Types.NVARCHAR || type == Types.NCHAR || type == Types.CLOB;
+    }
+
+    // =============================================================================
+    // INDEX AND SPARQL PARSING
+    // =============================================================================
+
+    private synchronized MappingIndex currentIndex() {
+        String currentFingerprint = fingerprint.current();
+        if (!currentFingerprint.equals(indexFingerprint)) {
+            indexFingerprint = currentFingerprint;
+            columnTypes.clear();
+            try {
+                long start = System.currentTimeMillis();
+                index = MappingIndex.load(mappingFile, ontologyFile);
+                System.out.println("Mapping index built in " + (System.currentTimeMillis() - start) + "ms");
+            } catch (Exception e) {
+                System.err.println("Could not build mapping index, using Ontop for all queries: " + e.getMessage());
+                index = null;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Remove PREFIX declarations, collecting them; null if the query uses BASE
+     */
+    private static String stripPrefixes(String sparqlQuery, Map<String, String> prefixes) {
+        String rest = sparqlQuery.trim();
+        Matcher prefix;
+        while ((prefix = PREFIX_DECL.matcher(rest)).find()) {
+            prefixes.put(prefix.group(1), prefix.group(2));
+            rest = rest.substring(prefix.end()).trim();
+        }
+        return rest.regionMatches(true, 0, "BASE", 0, 4) ? null : rest;
+    }
+
+    private static String expand(String term, Map<String, String> prefixes) {
+        if (term.equals("a")) {
+            return RDF_TYPE;
+        }
+        if (term.startsWith("<")) {
+            return term.substring(1, term.length() - 1);
+        }
+        if (term.startsWith("?")) {
+            return null;
+        }
+        int colon = term.indexOf(':');
+        String namespace = prefixes.get(term.substring(0, colon));
+        return namespace == null ? null : namespace + term.substring(colon + 1);
+    }
+}
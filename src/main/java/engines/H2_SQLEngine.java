@@ -1,23 +1,67 @@
 package engines;
 
 import config.AppConfig;
+import database.ConnectionPool;
 import database.CreateH2Database;
+import database.DatabaseConnect;
+import database.IndexAdvisor;
+import database.PersonAgeTrigger;
+import database.SeedSnapshot;
+import database.TableChangeTrigger;
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.ResultSet;
 import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetProvider;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Manages H2 database lifecycle and SQL operations
  * Uses centralized configuration from AppConfig for cross-platform compatibility
+ * Every operation borrows a connection from the shared pool (DatabaseConnect.acquirePool), so concurrent callers
+ * (async executors, Ontop streaming, templates) never share a JDBC connection.
  */
 public class H2_SQLEngine {
-    private Connection connection;
+    private ConnectionPool pool;
     private String dbPath;
     private String dbUrl;
     private boolean isStarted = false;
+    private ScheduledExecutorService ageRefresh;
+    private final QueryResultCache<CachedRowSet> resultCache = AppConfig.RESULT_CACHE_ENABLED
+        ? new QueryResultCache<>("SQL", AppConfig.SQL_RESULT_CACHE_MAX_CELLS, H2_SQLEngine::cellCount)
+        : null;
+
+    private static final Object[] NO_PARAMS = new Object[0];
+
+    private static final Pattern TABLE_LIST_START = Pattern.compile("\\b(?:FROM|JOIN)\\s+", Pattern.CASE_INSENSITIVE);
+    // One table of a FROM list: [schema.]name, an optional alias, and the comma before the next one
+    private static final Pattern TABLE_NAME = Pattern.compile(
+        "([A-Za-z_\"][\\w\"]*(?:\\.[A-Za-z_\"][\\w\"]*)?)"
+            + "(?:\\s+(?:AS\\s+)?(?!(?:WHERE|JOIN|INNER|LEFT|RIGHT|FULL|CROSS|NATURAL|ON|USING|GROUP|ORDER|HAVING|LIMIT|OFFSET|FETCH|UNION|EXCEPT|INTERSECT|MINUS|WINDOW|QUALIFY|FOR)\\b)[A-Za-z_]\\w*)?"
+            + "\\s*(,)?\\s*",
+        Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern VOLATILE_SQL = Pattern.compile(
+        "\\b(RAND|RANDOM|RANDOM_UUID|UUID|NOW|CURRENT_TIME|CURRENT_TIMESTAMP|LOCALTIME|LOCALTIMESTAMP|NEXTVAL)\\b|NEXT VALUE FOR");
 
     public H2_SQLEngine() {
         // Use centralized configuration from AppConfig
@@ -46,10 +90,18 @@ public class H2_SQLEngine {
 
         try {
             System.out.println("Starting H2 Database Engine");
-            CreateH2Database.main(new String[]{dbPath});
-            connection = DriverManager.getConnection(dbUrl, "sa", "");
+            if (AppConfig.DB_REUSE_SEED) {
+                new SeedSnapshot(dbPath).ensureSeeded();
+            } else {
+                CreateH2Database.main(new String[]{dbPath});
+            }
+            pool = DatabaseConnect.acquirePool();
 
             if (testConnection()) {
+                if (AppConfig.DB_INDEX_ADVISOR) {
+                    adviseIndexes();
+                }
+                scheduleAgeRefresh();
                 isStarted = true;
                 System.out.println("Database Engine started successfully");
                 System.out.println("Location: " + dbPath);
@@ -60,17 +112,61 @@ public class H2_SQLEngine {
 
         } catch (Exception e) {
             System.err.println("Failed to start Database Engine: " + e.getMessage());
-            if (connection != null) {
-                try {
-                    connection.close();
-                } catch (SQLException ex) {
-                    System.err.println("Failed to close connection during cleanup");
-                }
+            if (pool != null) {
+                DatabaseConnect.releasePool(pool);
+                pool = null;
             }
             throw new SQLException("Database engine startup failed", e);
         }
     }
 
+    /**
+     * Index the columns the mapping sources filter and join on. Without these indexes every
+     * "current role" source scans PLAYER_ROLE - not fatal, so failures are only reported.
+     */
+    private void adviseIndexes() {
+        try (Connection conn = pool.borrow()) {
+            IndexAdvisor.forMapping(conn).apply().print(false);
+        } catch (Exception e) {
+            System.err.println("Index advisor failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Refresh PERSON.AGE every day just after midnight, so age-based mapping sources
+     * never read a stale age (see PersonAgeTrigger)
+     */
+    private void scheduleAgeRefresh() {
+        ageRefresh = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "person-age-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long untilMidnight = Duration.between(LocalDateTime.now(),
+            LocalDate.now().plusDays(1).atStartOfDay()).toMillis();
+        ageRefresh.scheduleAtFixedRate(() -> {
+            try {
+                refreshAges();
+            } catch (SQLException e) {
+                System.err.println("Age refresh failed: " + e.getMessage());
+            }
+        }, untilMidnight, TimeUnit.DAYS.toMillis(1), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Recompute PERSON.AGE where it moved since the last refresh
+     * @return number of persons updated
+     */
+    public int refreshAges() throws SQLException {
+        try (Connection conn = getConnection()) {
+            int updated = PersonAgeTrigger.refresh(conn);
+            if (updated > 0) {
+                System.out.println("Age refresh: " + updated + " persons updated");
+            }
+            return updated;
+        }
+    }
+
     /**
      * Stop the database engine
      */
@@ -80,83 +176,425 @@ public class H2_SQLEngine {
             return;
         }
 
-        try {
-            System.out.println("Stopping Database Engine");
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-                System.out.println("Connection closed");
-            }
-            isStarted = false;
-            System.out.println("Database Engine stopped successfully");
-
-        } catch (SQLException e) {
-            System.err.println("Error stopping Database Engine: " + e.getMessage());
-            throw e;
+        System.out.println("Stopping Database Engine");
+        if (resultCache != null) {
+            resultCache.printStats();
+        }
+        if (ageRefresh != null) {
+            ageRefresh.shutdownNow();
+            ageRefresh = null;
         }
+        if (pool != null) {
+            pool.printStats();
+            // Other engines and DatabaseConnect callers may still use the shared pool
+            DatabaseConnect.releasePool(pool);
+            pool = null;
+            System.out.println("Connection pool released");
+        }
+        isStarted = false;
+        System.out.println("Database Engine stopped successfully");
     }
 
     /**
      * Check if database connection is healthy
      */
     public boolean isConnectionHealthy() {
-        try {
-            return connection != null && !connection.isClosed() && connection.isValid(2);
+        if (pool == null || pool.isClosed()) {
+            return false;
+        }
+        try (Connection connection = pool.borrow()) {
+            return connection.isValid(2);
         } catch (SQLException e) {
             return false;
         }
     }
 
     /**
-     * Get the database connection
+     * Borrow a pooled database connection - close it to return it to the pool
      */
-    public Connection getConnection() {
-        if (!isStarted || connection == null) {
+    public Connection getConnection() throws SQLException {
+        if (!isStarted || pool == null) {
             throw new IllegalStateException("Database engine not started or connection not available");
         }
-        return connection;
+        return pool.borrow();
+    }
+
+    /**
+     * Connection pool statistics holder - null before start
+     */
+    public ConnectionPool getConnectionPool() {
+        return pool;
     }
 
     /**
-     * Execute a SQL query
+     * Execute a SQL query.
+     * Repeated read-only queries over the tracked tables are answered from the result cache
+     * until one of the tables they read changes. Either way the result is a detached
+     * CachedRowSet: the connection is back in the pool before this returns. Use stream or
+     * forEachRow to read large results without materializing them.
      */
     public ResultSet executeQuery(String sql) throws SQLException {
+        return executeQuery(sql, QueryDeadline.none());
+    }
+
+    /**
+     * Execute a SQL query that is cancelled (Statement.cancel) when the deadline passes
+     * or the token is cancelled - the call then fails with a CancellationException
+     */
+    public ResultSet executeQuery(String sql, QueryDeadline deadline) throws SQLException {
+        return runQuery(sql, deadline, NO_PARAMS);
+    }
+
+    /**
+     * Execute a parameterized SQL query - values bind to the '?' placeholders in order.
+     * The statement is prepared once per pooled connection and reused from its statement
+     * cache, so repeated calls skip H2's parsing and planning.
+     */
+    public ResultSet executeQuery(String sql, Object... params) throws SQLException {
+        return runQuery(sql, QueryDeadline.none(), params);
+    }
+
+    private ResultSet runQuery(String sql, QueryDeadline deadline, Object[] params) throws SQLException {
+        if (!isStarted) {
+            throw new IllegalStateException("Database engine not started");
+        }
+
+        List<String> tables = resultCache != null && isCacheable(sql) ? tablesReadBy(sql) : null;
+        if (tables == null) {
+            // The connection goes back to the pool, so the result is returned materialized
+            return loadRowSet(sql, deadline, params);
+        }
+
+        CachedRowSet cached;
+        String key = params.length == 0 ? sql : sql + '\u0000' + Arrays.deepToString(params);
+        try {
+            cached = resultCache.get(key, tables, () -> loadRowSet(sql, deadline, params));
+        } catch (SQLException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new SQLException(e.getMessage(), e);
+        }
+        // Each caller gets its own copy - closing a row set clears its data
+        synchronized (cached) {
+            return cached.createCopy();
+        }
+    }
+
+    /**
+     * JDBC call whose statement is cancelled when the deadline passes
+     */
+    private interface StatementCall<T> {
+        T run() throws SQLException;
+    }
+
+    @SuppressWarnings("try") // the registration is only held to be closed
+    private static <T> T runCancellable(Statement stmt, QueryDeadline deadline, StatementCall<T> call) throws SQLException {
+        deadline.check();
+        stmt.setQueryTimeout(deadline.remainingSecondsForJdbc());
+        try (QueryDeadline.Registration registration = deadline.onAbort(() -> cancelQuietly(stmt))) {
+            return call.run();
+        } catch (SQLException e) {
+            if (deadline.isDone()) {
+                throw deadline.toException();
+            }
+            throw e;
+        }
+    }
+
+    private static void cancelQuietly(Statement stmt) {
+        try {
+            stmt.cancel();
+        } catch (SQLException e) {
+            System.err.println("Could not cancel SQL statement: " + e.getMessage());
+        }
+    }
+
+    private CachedRowSet loadRowSet(String sql, QueryDeadline deadline, Object[] params) throws SQLException {
+        logStatement("Executing SQL: ", sql, params);
+        try (Connection connection = pool.borrow();
+             PreparedStatement stmt = prepare(connection, sql, params);
+             ResultSet rs = runCancellable(stmt, deadline, stmt::executeQuery)) {
+            CachedRowSet rowSet = RowSetProvider.newFactory().createCachedRowSet();
+            rowSet.populate(rs);
+            return rowSet;
+        }
+    }
+
+    /**
+     * Only plain SELECTs without time- or sequence-dependent functions are cached
+     */
+    private static boolean isCacheable(String sql) {
+        String normalized = ReformulationCache.normalize(sql).toUpperCase();
+        return (normalized.startsWith("SELECT") || normalized.startsWith("WITH"))
+            && !VOLATILE_SQL.matcher(normalized).find();
+    }
+
+    /**
+     * Tables a query reads (every name after FROM or JOIN, comma lists included) when all of
+     * them are tracked by TableChangeTrigger - null otherwise, as writes to any other table
+     * would never invalidate the cached result
+     */
+    private static List<String> tablesReadBy(String sql) {
+        List<String> tables = new ArrayList<>();
+        Matcher from = TABLE_LIST_START.matcher(sql);
+        while (from.find()) {
+            Matcher name = TABLE_NAME.matcher(sql).region(from.end(), sql.length());
+            boolean more = true;
+            while (more && name.lookingAt()) {
+                String table = name.group(1).replace("\"", "").toUpperCase();
+                if (table.startsWith("PUBLIC.")) {
+                    table = table.substring("PUBLIC.".length());
+                }
+                if (!TableChangeTrigger.isTracked(table)) {
+                    return null;
+                }
+                if (!tables.contains(table)) {
+                    tables.add(table);
+                }
+                more = name.group(2) != null;
+                name.region(name.end(), sql.length());
+            }
+        }
+        return tables.isEmpty() ? null : tables;
+    }
+
+    private static long cellCount(CachedRowSet rowSet) {
+        try {
+            return (long) rowSet.size() * rowSet.getMetaData().getColumnCount();
+        } catch (SQLException e) {
+            return rowSet.size();
+        }
+    }
+
+    /**
+     * Result cache statistics holder - null when caching is disabled
+     */
+    public QueryResultCache<CachedRowSet> getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * Execute a SQL query as a prepared statement and return the open result set.
+     * Used to stream cached Ontop reformulations directly from H2. The result set holds a
+     * pooled connection: closing it (or its statement) returns the connection.
+     */
+    public ResultSet openPreparedQuery(String sql) throws SQLException {
+        return openPreparedQuery(sql, QueryDeadline.none());
+    }
+
+    public ResultSet openPreparedQuery(String sql, QueryDeadline deadline, Object... params) throws SQLException {
+        if (!isStarted) {
+            throw new IllegalStateException("Database engine not started");
+        }
+
+        Connection connection = pool.borrow();
+        PreparedStatement stmt = null;
+        try {
+            stmt = prepare(connection, sql, params);
+            PreparedStatement prepared = stmt;
+            ResultSet rs = runCancellable(prepared, deadline, prepared::executeQuery);
+            return ConnectionPool.bindToResultSet(connection, prepared, rs);
+        } catch (SQLException | RuntimeException e) {
+            if (stmt != null) {
+                stmt.close();
+            }
+            connection.close();
+            throw e;
+        }
+    }
+
+    // =============================================================================
+    // STREAMING ROW API
+    // =============================================================================
+
+    /**
+     * Run a query and map every row - the statement, result set and connection are
+     * closed before returning. Parameters bind to the '?' placeholders in order.
+     */
+    public <T> List<T> query(String sql, RowMapper<T> mapper, Object... params) throws SQLException {
+        List<T> rows = new ArrayList<>();
+        forEachRow(sql, new RowCallback() {
+            private int rowNum = 0;
+
+            @Override
+            public void processRow(ResultSet rs) throws SQLException {
+                rows.add(mapper.mapRow(rs, rowNum++));
+            }
+        }, params);
+        return rows;
+    }
+
+    /**
+     * Run a query and hand every row to the callback, fetching AppConfig.SQL_FETCH_SIZE rows
+     * at a time. Nothing is materialized, so large results run in constant memory.
+     */
+    public void forEachRow(String sql, RowCallback callback, Object... params) throws SQLException {
+        forEachRow(sql, QueryDeadline.none(), callback, params);
+    }
+
+    public void forEachRow(String sql, QueryDeadline deadline, RowCallback callback, Object... params) throws SQLException {
         if (!isStarted) {
             throw new IllegalStateException("Database engine not started");
         }
 
-        System.out.println("Executing SQL: " + sql);
-        Statement stmt = connection.createStatement();
-        ResultSet rs = stmt.executeQuery(sql);
-        return rs;
+        logStatement("Executing SQL: ", sql, params);
+        try (Connection connection = pool.borrow();
+             PreparedStatement stmt = prepare(connection, sql, params);
+             ResultSet rs = runCancellable(stmt, deadline, stmt::executeQuery)) {
+            while (rs.next()) {
+                callback.processRow(rs);
+            }
+        }
+    }
+
+    /**
+     * Single numeric value (first column of the first row), read without boxing - 0 when
+     * the query returns no row or NULL
+     */
+    public long queryForLong(String sql, Object... params) throws SQLException {
+        long[] value = new long[1];
+        forEachRow(sql, rs -> {
+            if (rs.getRow() == 1) {
+                value[0] = rs.getLong(1);
+            }
+        }, params);
+        return value[0];
+    }
+
+    /**
+     * Lazily mapped rows. The stream holds a pooled connection until it is closed - use it
+     * in try-with-resources; it is also released when the last row has been read.
+     */
+    public <T> Stream<T> stream(String sql, RowMapper<T> mapper, Object... params) throws SQLException {
+        QueryDeadline deadline = QueryDeadline.none();
+        ResultSet rs = openPreparedQuery(sql, deadline, params);
+        Spliterator<T> rows = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            private int rowNum = 0;
+            private boolean done = false;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                if (done) {
+                    return false;
+                }
+                try {
+                    if (!rs.next()) {
+                        done = true;
+                        rs.close();
+                        return false;
+                    }
+                    action.accept(mapper.mapRow(rs, rowNum++));
+                    return true;
+                } catch (SQLException e) {
+                    done = true;
+                    closeQuietly(rs);
+                    if (deadline.isDone()) {
+                        throw deadline.toException();
+                    }
+                    throw new IllegalStateException("Streaming query failed: " + e.getMessage(), e);
+                }
+            }
+        };
+        return StreamSupport.stream(rows, false).onClose(() -> closeQuietly(rs));
+    }
+
+    private static PreparedStatement prepare(Connection connection, String sql, Object... params) throws SQLException {
+        PreparedStatement stmt = connection.prepareStatement(sql);
+        try {
+            stmt.setFetchSize(AppConfig.SQL_FETCH_SIZE);
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            return stmt;
+        } catch (SQLException e) {
+            stmt.close();
+            throw e;
+        }
+    }
+
+    private static void closeQuietly(ResultSet rs) {
+        try {
+            rs.close();
+        } catch (SQLException e) {
+            System.err.println("Could not close result set: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Execute a SQL query asynchronously on the SQL executor (see QueryExecutors).
+     * Same contract as executeQuery - the caller closes the returned result set.
+     */
+    public CompletableFuture<ResultSet> executeQueryAsync(String sql) {
+        return QueryExecutors.SQL.submit(() -> executeQuery(sql));
+    }
+
+    /**
+     * Asynchronous executeQuery with a deadline - cancelling the future cancels the query
+     */
+    public CompletableFuture<ResultSet> executeQueryAsync(String sql, QueryDeadline deadline) {
+        return QueryExecutors.SQL.submit(() -> executeQuery(sql, deadline), deadline);
+    }
+
+    /**
+     * Run EXPLAIN ANALYZE for a query - executes it and returns H2's plan with actual row counts
+     */
+    public String explainAnalyze(String sql) throws SQLException {
+        if (!isStarted) {
+            throw new IllegalStateException("Database engine not started");
+        }
+
+        StringBuilder plan = new StringBuilder();
+        try (Connection connection = pool.borrow();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("EXPLAIN ANALYZE " + sql)) {
+            while (rs.next()) {
+                plan.append(rs.getString(1)).append('\n');
+            }
+        }
+        return plan.toString();
     }
 
     /**
      * Execute a SQL update/insert/delete statement
      */
     public int executeUpdate(String sql) throws SQLException {
+        return executeUpdate(sql, NO_PARAMS);
+    }
+
+    /**
+     * Execute a parameterized SQL update/insert/delete statement through the statement cache
+     */
+    public int executeUpdate(String sql, Object... params) throws SQLException {
         if (!isStarted) {
             throw new IllegalStateException("Database engine not started");
         }
 
-        System.out.println("Executing SQL Update: " + sql);
-        Statement stmt = connection.createStatement();
-        int rowsAffected = stmt.executeUpdate(sql);
-        stmt.close();
-        return rowsAffected;
+        logStatement("Executing SQL Update: ", sql, params);
+        try (Connection connection = pool.borrow();
+             PreparedStatement stmt = prepare(connection, sql, params)) {
+            return runCancellable(stmt, QueryDeadline.none(), stmt::executeUpdate);
+        }
+    }
+
+    private static void logStatement(String prefix, String sql, Object[] params) {
+        System.out.println(prefix + sql + (params.length > 0 ? " " + Arrays.deepToString(params) : ""));
+    }
+
+    /**
+     * Execute a SQL update/insert/delete statement asynchronously on the SQL executor
+     */
+    public CompletableFuture<Integer> executeUpdateAsync(String sql) {
+        return QueryExecutors.SQL.submit(() -> executeUpdate(sql));
     }
 
     /**
      * Test database connectivity
      */
     private boolean testConnection() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                ResultSet rs = connection.createStatement().executeQuery("SELECT 1");
-                boolean hasResult = rs.next();
-                rs.close();
-                return hasResult;
-            }
-            return false;
+        try (Connection connection = pool.borrow();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT 1")) {
+            return rs.next();
         } catch (SQLException e) {
             System.err.println("Connection test failed: " + e.getMessage());
             return false;
@@ -185,12 +623,8 @@ public class H2_SQLEngine {
 
         for (String table : tables) {
             try {
-                ResultSet rs = executeQuery("SELECT COUNT(*) FROM " + table);
-                if (rs.next()) {
-                    int count = rs.getInt(1);
-                    System.out.println(table + ": " + count + " records");
-                }
-                rs.close();
+                long count = queryForLong("SELECT COUNT(*) FROM " + table);
+                System.out.println(table + ": " + count + " records");
             } catch (SQLException e) {
                 System.out.println(table + ": Error reading table - " + e.getMessage());
             }
@@ -0,0 +1,60 @@
+package engines;
+
+/**
+ * The SPARQL query itself was rejected (syntax error, unknown prefix, unsupported construct)
+ * rather than failing while it ran - retrying it cannot succeed.
+ */
+public class InvalidQueryException extends IllegalArgumentException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Ontop and RDF4J exceptions raised for queries that cannot be parsed or translated.
+     * Matched by simple name: the embedded engine loads them in its own class loader, and
+     * the Ontop CLI only reports them in its output.
+     */
+    private static final String[] QUERY_ERRORS = {
+        "MalformedQueryException",
+        "OntopInvalidKGQueryException",
+        "OntopInvalidInputQueryException",
+        "OntopUnsupportedKGQueryException",
+        "OntopUnsupportedInputQueryException"
+    };
+
+    public InvalidQueryException(String message) {
+        super(message);
+    }
+
+    public InvalidQueryException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    /**
+     * Whether an exception, or one of its causes, is a query error
+     */
+    public static boolean isQueryError(Throwable error) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            if (current instanceof InvalidQueryException || mentionsQueryError(current.getClass().getSimpleName())) {
+                return true;
+            }
+            if (current.getCause() == current) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether process output or a message names a query error
+     */
+    public static boolean mentionsQueryError(String text) {
+        if (text == null) {
+            return false;
+        }
+        for (String name : QUERY_ERRORS) {
+            if (text.contains(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
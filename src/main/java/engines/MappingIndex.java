@@ -0,0 +1,454 @@
+package engines;
+
+import org.eclipse.rdf4j.model.Resource;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+import utils.R2RMLMapping;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * In-memory index from ontology class/property to the R2RML sources that produce it.
+ *
+ * Built from the mapping (.ttl) and the ontology (.owl) the way Ontop saturates its mappings:
+ * the instances of a class are those of its mapped subclasses, of the subjects of properties
+ * with it as domain and of the objects of properties with it as range (following sub-properties
+ * and inverses). Only the OWL 2 QL part of the ontology is used, as Ontop does; assertions in
+ * the ontology file are ignored.
+ *
+ * Lookups return null when the answer may not match Ontop's: mapping constructs the index does
+ * not model (joins, constants, language tags...) or non-QL axioms Ontop may keep or drop.
+ */
+public class MappingIndex {
+    private static final String RDF_TYPE = "http://www.w3.org/1999/02/22-rdf-syntax-ns#type";
+    private static final List<String> UNSUPPORTED_TERMS = Arrays.asList(
+        "constant", "object", "parentTriplesMap", "language", "graphMap", "graph", "predicateMap");
+
+    /**
+     * One mapping assertion: a SQL view and the term maps built from its columns.
+     * Object fields are null for class assertions; a literal object has objectColumn set.
+     */
+    public static class Source {
+        public final String viewSql;
+        public final String subjectTemplate;
+        public final String objectTemplate;
+        public final String objectColumn;
+        public final String datatype;
+
+        Source(String viewSql, String subjectTemplate, String objectTemplate, String objectColumn, String datatype) {
+            this.viewSql = viewSql;
+            this.subjectTemplate = subjectTemplate;
+            this.objectTemplate = objectTemplate;
+            this.objectColumn = objectColumn;
+            this.datatype = datatype;
+        }
+
+        public boolean isLiteral() {
+            return objectColumn != null;
+        }
+
+        /**
+         * Same assertion read in the other direction (for inverse properties)
+         */
+        Source inverse() {
+            return new Source(viewSql, objectTemplate, subjectTemplate, null, null);
+        }
+    }
+
+    private final Map<String, List<Source>> classSources = new HashMap<>();
+    private final Map<String, List<Source>> propertySources = new HashMap<>();
+    private final Set<String> unsupported = new HashSet<>();
+    private boolean incomplete = false;
+
+    // Saturated TBox: concept keys "C:<iri>" (class) and "E:<role>" (exists role), role keys "<iri>" or "^<iri>"
+    private final Map<String, Set<String>> subConcepts = new HashMap<>();
+    private final Map<String, Set<String>> uncertainSubConcepts = new HashMap<>();
+    private final Map<String, Set<String>> subRoles = new HashMap<>();
+
+    private MappingIndex() {
+    }
+
+    /**
+     * Build the index from the mapping and ontology files
+     */
+    public static MappingIndex load(Path mappingFile, Path ontologyFile) throws IOException, OWLOntologyCreationException {
+        MappingIndex index = new MappingIndex();
+        index.parseMapping(R2RMLMapping.read(mappingFile));
+
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLOntology ontology = manager.loadOntologyFromOntologyDocument(new File(ontologyFile.toString()));
+        index.saturate(ontology);
+        return index;
+    }
+
+    // =============================================================================
+    // LOOKUPS
+    // =============================================================================
+
+    /**
+     * Sources of the instances of a class (their subjects), or null if the answer may differ from Ontop's
+     */
+    public List<Source> getClassSources(String classIri) {
+        Set<String> concepts = closure("C:" + classIri, new HashSet<>());
+        return concepts == null ? null : sourcesOf(concepts);
+    }
+
+    /**
+     * Sources of the (subject, object) pairs of a property, or null if the answer may differ from Ontop's
+     */
+    public List<Source> getPropertySources(String propertyIri) {
+        if (incomplete) {
+            return null;
+        }
+        List<Source> result = new ArrayList<>();
+        for (String role : roleClosure(propertyIri)) {
+            List<Source> roleSources = roleSources(role);
+            if (roleSources == null) {
+                return null;
+            }
+            result.addAll(roleSources);
+        }
+        return result;
+    }
+
+    /**
+     * All concepts whose instances are instances of the given one, following only the axioms
+     * Ontop is sure to use. Returns null when an uncertain axiom could add instances.
+     */
+    private Set<String> closure(String concept, Set<String> inProgress) {
+        if (incomplete || !inProgress.add(concept)) {
+            return incomplete ? null : new HashSet<>();
+        }
+
+        Set<String> result = new LinkedHashSet<>();
+        Deque<String> queue = new ArrayDeque<>();
+        queue.add(concept);
+        while (!queue.isEmpty()) {
+            String current = queue.poll();
+            if (!result.add(current)) {
+                continue;
+            }
+            queue.addAll(subConcepts.getOrDefault(current, Collections.emptySet()));
+            if (current.startsWith("E:")) {
+                for (String role : roleClosure(current.substring(2))) {
+                    queue.add("E:" + role);
+                }
+            }
+        }
+
+        for (String current : new ArrayList<>(result)) {
+            for (String uncertain : uncertainSubConcepts.getOrDefault(current, Collections.emptySet())) {
+                if (result.contains(uncertain)) {
+                    continue;
+                }
+                Set<String> branch = closure(uncertain, inProgress);
+                if (branch == null) {
+                    return null;
+                }
+                branch.removeAll(result);
+                List<Source> branchSources = sourcesOf(branch);
+                if (branchSources == null || !branchSources.isEmpty()) {
+                    return null;
+                }
+            }
+        }
+        return result;
+    }
+
+    private Set<String> roleClosure(String role) {
+        Set<String> result = new LinkedHashSet<>();
+        Deque<String> queue = new ArrayDeque<>();
+        queue.add(role);
+        while (!queue.isEmpty()) {
+            String current = queue.poll();
+            if (result.add(current)) {
+                queue.addAll(subRoles.getOrDefault(current, Collections.emptySet()));
+            }
+        }
+        return result;
+    }
+
+    private List<Source> sourcesOf(Set<String> concepts) {
+        List<Source> result = new ArrayList<>();
+        for (String concept : concepts) {
+            if (concept.startsWith("C:")) {
+                String iri = concept.substring(2);
+                if (unsupported.contains(iri)) {
+                    return null;
+                }
+                result.addAll(classSources.getOrDefault(iri, Collections.emptyList()));
+            } else {
+                List<Source> roleSources = roleSources(concept.substring(2));
+                if (roleSources == null) {
+                    return null;
+                }
+                // The subject of each assertion is an instance of the exists-concept
+                result.addAll(roleSources);
+            }
+        }
+        return result;
+    }
+
+    private List<Source> roleSources(String role) {
+        boolean inverse = role.startsWith("^");
+        String iri = inverse ? role.substring(1) : role;
+        if (unsupported.contains(iri)) {
+            return null;
+        }
+        List<Source> sources = propertySources.getOrDefault(iri, Collections.emptyList());
+        if (!inverse) {
+            return sources;
+        }
+        List<Source> inverted = new ArrayList<>();
+        for (Source source : sources) {
+            if (source.isLiteral()) {
+                return null;
+            }
+            inverted.add(source.inverse());
+        }
+        return inverted;
+    }
+
+    // =============================================================================
+    // R2RML PARSING
+    // =============================================================================
+
+    private void parseMapping(R2RMLMapping mapping) {
+        for (Resource triplesMap : mapping.triplesMaps()) {
+            parseTriplesMap(mapping, triplesMap);
+        }
+    }
+
+    private void parseTriplesMap(R2RMLMapping mapping, Resource triplesMap) {
+        Resource table = mapping.resource(triplesMap, "logicalTable");
+        String sqlQuery = table != null ? mapping.string(table, "sqlQuery") : null;
+        String tableName = table != null ? mapping.string(table, "tableName") : null;
+        String viewSql;
+        if (sqlQuery != null) {
+            viewSql = sqlQuery;
+        } else if (tableName != null) {
+            viewSql = "SELECT * FROM " + tableName;
+        } else {
+            incomplete = true;
+            return;
+        }
+
+        Resource subjectMap = mapping.resource(triplesMap, "subjectMap");
+        List<String> classes = subjectMap != null ? mapping.iris(subjectMap, "class") : Collections.emptyList();
+        boolean subjectSupported = subjectMap != null && isModelled(mapping, subjectMap) && !mapping.has(subjectMap, "column");
+        String subject = subjectSupported ? mapping.string(subjectMap, "template") : null;
+
+        for (String classIri : classes) {
+            if (subject == null) {
+                unsupported.add(classIri);
+            } else {
+                classSources.computeIfAbsent(classIri, k -> new ArrayList<>())
+                    .add(new Source(viewSql, subject, null, null, null));
+            }
+        }
+
+        for (Resource pom : mapping.resources(triplesMap, "predicateObjectMap")) {
+            List<String> predicates = mapping.iris(pom, "predicate");
+            if (predicates.isEmpty() || predicates.contains(RDF_TYPE)) {
+                // Predicate given by a term map, or an rdf:type assertion we do not model
+                incomplete = true;
+                continue;
+            }
+            Resource objectMap = mapping.resource(pom, "objectMap");
+            Source source = subject == null || objectMap == null || !isModelled(mapping, pom) || !isModelled(mapping, objectMap)
+                ? null : objectSource(mapping, viewSql, subject, objectMap);
+            for (String predicate : predicates) {
+                if (source == null) {
+                    unsupported.add(predicate);
+                } else {
+                    propertySources.computeIfAbsent(predicate, k -> new ArrayList<>()).add(source);
+                }
+            }
+        }
+    }
+
+    private static Source objectSource(R2RMLMapping mapping, String viewSql, String subject, Resource objectMap) {
+        String template = mapping.string(objectMap, "template");
+        if (template != null) {
+            return new Source(viewSql, subject, template, null, null);
+        }
+        String column = mapping.string(objectMap, "column");
+        if (column != null && !mapping.has(objectMap, "termType")) {
+            return new Source(viewSql, subject, null, column, mapping.iri(objectMap, "datatype"));
+        }
+        return null;
+    }
+
+    /**
+     * Whether a term map (or predicate-object map) only uses the constructs the index models:
+     * no constants, joins, language tags, graphs, predicate maps or blank node/literal term types
+     */
+    private static boolean isModelled(R2RMLMapping mapping, Resource termMap) {
+        for (String property : UNSUPPORTED_TERMS) {
+            if (mapping.has(termMap, property)) {
+                return false;
+            }
+        }
+        String termType = mapping.iri(termMap, "termType");
+        return termType == null || termType.equals(R2RMLMapping.RR + "IRI");
+    }
+
+    // =============================================================================
+    // ONTOLOGY SATURATION (OWL 2 QL)
+    // =============================================================================
+
+    private void saturate(OWLOntology ontology) {
+        for (OWLAxiom axiom : ontology.getAxioms()) {
+            if (axiom instanceof OWLSubClassOfAxiom) {
+                OWLSubClassOfAxiom sub = (OWLSubClassOfAxiom) axiom;
+                addSubClass(sub.getSubClass(), sub.getSuperClass());
+            } else if (axiom instanceof OWLEquivalentClassesAxiom) {
+                List<OWLClassExpression> classes = ((OWLEquivalentClassesAxiom) axiom).getClassExpressionsAsList();
+                for (OWLClassExpression a : classes) {
+                    for (OWLClassExpression b : classes) {
+                        if (a != b) {
+                            addSubClass(a, b);
+                        }
+                    }
+                }
+            } else if (axiom instanceof OWLObjectPropertyDomainAxiom) {
+                OWLObjectPropertyDomainAxiom domain = (OWLObjectPropertyDomainAxiom) axiom;
+                addSubConcept("E:" + roleKey(domain.getProperty()), domain.getDomain(), false);
+            } else if (axiom instanceof OWLObjectPropertyRangeAxiom) {
+                OWLObjectPropertyRangeAxiom range = (OWLObjectPropertyRangeAxiom) axiom;
+                addSubConcept("E:" + inverse(roleKey(range.getProperty())), range.getRange(), false);
+            } else if (axiom instanceof OWLDataPropertyDomainAxiom) {
+                OWLDataPropertyDomainAxiom domain = (OWLDataPropertyDomainAxiom) axiom;
+                addSubConcept("E:" + domain.getProperty().asOWLDataProperty().getIRI(), domain.getDomain(), false);
+            } else if (axiom instanceof OWLSubObjectPropertyOfAxiom) {
+                OWLSubObjectPropertyOfAxiom sub = (OWLSubObjectPropertyOfAxiom) axiom;
+                addSubRole(roleKey(sub.getSubProperty()), roleKey(sub.getSuperProperty()));
+            } else if (axiom instanceof OWLEquivalentObjectPropertiesAxiom) {
+                List<String> roles = new ArrayList<>();
+                for (OWLObjectPropertyExpression property : ((OWLEquivalentObjectPropertiesAxiom) axiom).getProperties()) {
+                    roles.add(roleKey(property));
+                }
+                addEquivalentRoles(roles);
+            } else if (axiom instanceof OWLInverseObjectPropertiesAxiom) {
+                OWLInverseObjectPropertiesAxiom inverses = (OWLInverseObjectPropertiesAxiom) axiom;
+                addEquivalentRoles(Arrays.asList(roleKey(inverses.getFirstProperty()),
+                    inverse(roleKey(inverses.getSecondProperty()))));
+            } else if (axiom instanceof OWLSymmetricObjectPropertyAxiom) {
+                String role = roleKey(((OWLSymmetricObjectPropertyAxiom) axiom).getProperty());
+                addEquivalentRoles(Arrays.asList(role, inverse(role)));
+            } else if (axiom instanceof OWLSubDataPropertyOfAxiom) {
+                OWLSubDataPropertyOfAxiom sub = (OWLSubDataPropertyOfAxiom) axiom;
+                addSubRole(sub.getSubProperty().asOWLDataProperty().getIRI().toString(),
+                    sub.getSuperProperty().asOWLDataProperty().getIRI().toString());
+            } else if (axiom instanceof OWLEquivalentDataPropertiesAxiom) {
+                List<String> roles = new ArrayList<>();
+                for (OWLDataPropertyExpression property : ((OWLEquivalentDataPropertiesAxiom) axiom).getProperties()) {
+                    roles.add(property.asOWLDataProperty().getIRI().toString());
+                }
+                addEquivalentRoles(roles);
+            }
+        }
+    }
+
+    /**
+     * sub ⊑ sup: only a basic concept on the left is OWL 2 QL. An exists-restriction with a
+     * filler on the left is not, but Ontop may still read it as the plain exists-concept.
+     */
+    private void addSubClass(OWLClassExpression sub, OWLClassExpression sup) {
+        if (sub instanceof OWLClass && !sub.isOWLThing() && !sub.isOWLNothing()) {
+            addSubConcept("C:" + ((OWLClass) sub).getIRI(), sup, false);
+        } else if (sub instanceof OWLObjectSomeValuesFrom) {
+            OWLObjectSomeValuesFrom some = (OWLObjectSomeValuesFrom) sub;
+            addSubConcept("E:" + roleKey(some.getProperty()), sup, !some.getFiller().isOWLThing());
+        } else if (sub instanceof OWLDataSomeValuesFrom) {
+            OWLDataSomeValuesFrom some = (OWLDataSomeValuesFrom) sub;
+            boolean literal = some.getFiller().isDatatype() && some.getFiller().asOWLDatatype().isTopDatatype();
+            addSubConcept("E:" + some.getProperty().asOWLDataProperty().getIRI(), sup, !literal);
+        }
+        // Anything else on the left (intersections, unions...) is outside OWL 2 QL and ignored
+    }
+
+    /**
+     * Record sub ⊑ each basic concept implied by sup. When sup contains a non-QL part, Ontop
+     * may drop the whole axiom, so its edges are only "uncertain".
+     */
+    private void addSubConcept(String sub, OWLClassExpression sup, boolean uncertain) {
+        List<String> supers = new ArrayList<>();
+        boolean nonQL = collectSuperConcepts(sup, supers);
+        Map<String, Set<String>> target = uncertain || nonQL ? uncertainSubConcepts : subConcepts;
+        for (String concept : supers) {
+            if (!concept.equals(sub)) {
+                target.computeIfAbsent(concept, k -> new HashSet<>()).add(sub);
+            }
+        }
+    }
+
+    /**
+     * Basic concepts implied by a superclass expression
+     * @return true if part of the expression is outside OWL 2 QL
+     */
+    private static boolean collectSuperConcepts(OWLClassExpression sup, List<String> supers) {
+        if (sup instanceof OWLClass) {
+            if (!sup.isOWLThing()) {
+                supers.add("C:" + ((OWLClass) sup).getIRI());
+            }
+            return false;
+        }
+        if (sup instanceof OWLObjectIntersectionOf) {
+            boolean nonQL = false;
+            for (OWLClassExpression operand : ((OWLObjectIntersectionOf) sup).getOperands()) {
+                nonQL |= collectSuperConcepts(operand, supers);
+            }
+            return nonQL;
+        }
+        if (sup instanceof OWLObjectSomeValuesFrom) {
+            OWLObjectSomeValuesFrom some = (OWLObjectSomeValuesFrom) sup;
+            supers.add("E:" + roleKey(some.getProperty()));
+            return some.getFiller().isAnonymous();
+        }
+        if (sup instanceof OWLDataSomeValuesFrom) {
+            OWLDataSomeValuesFrom some = (OWLDataSomeValuesFrom) sup;
+            supers.add("E:" + some.getProperty().asOWLDataProperty().getIRI());
+            return !some.getFiller().isDatatype();
+        }
+        return true;
+    }
+
+    private void addSubRole(String sub, String sup) {
+        subRoles.computeIfAbsent(sup, k -> new HashSet<>()).add(sub);
+        if (!isDataRole(sub) && !isDataRole(sup)) {
+            subRoles.computeIfAbsent(inverse(sup), k -> new HashSet<>()).add(inverse(sub));
+        }
+    }
+
+    private void addEquivalentRoles(List<String> roles) {
+        for (String a : roles) {
+            for (String b : roles) {
+                if (!a.equals(b)) {
+                    addSubRole(a, b);
+                }
+            }
+        }
+    }
+
+    private boolean isDataRole(String role) {
+        for (Source source : propertySources.getOrDefault(role, Collections.emptyList())) {
+            if (source.isLiteral()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String roleKey(OWLObjectPropertyExpression property) {
+        String iri = property.getNamedProperty().getIRI().toString();
+        return property.isAnonymous() ? "^" + iri : iri;
+    }
+
+    private static String inverse(String role) {
+        return role.startsWith("^") ? role.substring(1) : "^" + role;
+    }
+}
@@ -0,0 +1,503 @@
+package engines;
+
+import config.AppConfig;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * In-process Ontop engine - loads ontology, R2RML mapping and properties once
+ * and keeps the reformulation state on the heap between SPARQL queries.
+ *
+ * Ontop is loaded from the CLI distribution (tools/ontop/lib) through an isolated
+ * class loader: Ontop ships its own OWL API 5 and RDF4J, which must not clash with
+ * the OWL API used by HermiT in ReasoningEngine. All calls therefore go through
+ * reflection on Ontop's public API (OntopSQLOWLAPIConfiguration, SimpleOntopOWLEngine).
+ *
+ * Open cursors and running calls are counted: retire() stops the engine once the last of
+ * them finishes, so SPARQLEngine can swap in a reloaded engine without breaking them.
+ */
+public class OntopEmbeddedEngine {
+    private static final String CONFIGURATION_CLASS = "it.unibz.inf.ontop.injection.OntopSQLOWLAPIConfiguration";
+    private static final String ENGINE_CLASS = "it.unibz.inf.ontop.owlapi.impl.SimpleOntopOWLEngine";
+    private static final String SPARQL_PARSER_CLASS = "org.eclipse.rdf4j.query.parser.sparql.SPARQLParser";
+    private static final String XSD = "http://www.w3.org/2001/XMLSchema#";
+
+    /**
+     * Literal datatypes whose SQL column value is already the SPARQL lexical form
+     * (decimals are excluded: H2 and Ontop format their scale differently)
+     */
+    private static final Set<String> DIRECT_DATATYPES = new HashSet<>(Arrays.asList(
+        XSD + "integer", XSD + "long", XSD + "int", XSD + "short", XSD + "string"));
+
+    private URLClassLoader ontopClassLoader;
+    private Object engine;
+    private Object connection;
+    private volatile boolean isStarted = false;
+    private int inFlight;
+    private boolean retiring;
+
+    /**
+     * Thrown by calls made after retire() - the caller should use the engine that replaced this one
+     */
+    public static class RetiredException extends IllegalStateException {
+        private static final long serialVersionUID = 1L;
+
+        RetiredException() {
+            super("Embedded Ontop engine was replaced by a reloaded one");
+        }
+    }
+
+    /**
+     * Check if the Ontop distribution is available for in-process loading
+     */
+    public static boolean isAvailable() {
+        // The JDBC directory alone (filled by the build) is not an Ontop distribution
+        return Files.isDirectory(AppConfig.ONTOP_LIB_DIR) && !findOntopJars().isEmpty();
+    }
+
+    /**
+     * Load ontology, mapping and properties and build the Ontop engine.
+     * This is the expensive step (mapping saturation) that the CLI repeats on every query.
+     */
+    public void start(String ontologyPath, String mappingPath, String propertiesPath) throws Exception {
+        if (isStarted) {
+            return;
+        }
+
+        List<URL> jars = findOntopJars();
+        if (jars.isEmpty()) {
+            throw new IllegalStateException("Ontop libraries not found in " + AppConfig.ONTOP_LIB_DIR);
+        }
+
+        long startTime = System.currentTimeMillis();
+        ontopClassLoader = new URLClassLoader(jars.toArray(new URL[0]), ClassLoader.getPlatformClassLoader());
+
+        withOntopClassLoader(() -> {
+            Object builder = ontopClassLoader.loadClass(CONFIGURATION_CLASS)
+                .getMethod("defaultBuilder").invoke(null);
+            call(builder, "ontologyFile", ontologyPath);
+            call(builder, "r2rmlMappingFile", mappingPath);
+            call(builder, "propertyFile", propertiesPath);
+            Object configuration = call(builder, "build");
+
+            engine = findConstructorFor(ontopClassLoader.loadClass(ENGINE_CLASS), configuration)
+                .newInstance(configuration);
+            connection = call(engine, "getConnection");
+            return null;
+        });
+
+        isStarted = true;
+        System.out.println("Embedded Ontop engine started in " + (System.currentTimeMillis() - startTime) + "ms");
+    }
+
+    /**
+     * Execute a SELECT query and stream its bindings.
+     * Rows are decoded one at a time as the cursor is iterated; closing it closes the Ontop statement.
+     */
+    public SPARQLResultCursor openCursor(String sparqlQuery) throws Exception {
+        return openCursor(sparqlQuery, QueryDeadline.none());
+    }
+
+    /**
+     * Execute a SELECT query whose Ontop statement is cancelled when the deadline passes
+     */
+    public SPARQLResultCursor openCursor(String sparqlQuery, QueryDeadline deadline) throws Exception {
+        use();
+        Object statement;
+        try {
+            statement = withOntopClassLoader(() -> call(connection, "createStatement"));
+        } catch (Exception e) {
+            done();
+            throw e;
+        }
+        QueryDeadline.Registration abortRegistration = deadline.onAbort(() -> cancelQuietly(statement));
+        try {
+            Object resultSet = withOntopClassLoader(() -> call(statement, "executeSelectQuery", sparqlQuery));
+            @SuppressWarnings("unchecked")
+            List<String> signature = (List<String>) withOntopClassLoader(() -> call(resultSet, "getSignature"));
+
+            return new SPARQLResultCursor(signature) {
+                private TermType[] types;
+
+                @Override
+                protected String[] fetchRow() throws Exception {
+                    return withOntopClassLoader(() -> {
+                        if (!(Boolean) call(resultSet, "hasNext")) {
+                            return null;
+                        }
+                        Object bindingSet = call(resultSet, "next");
+                        String[] values = new String[signature.size()];
+                        types = new TermType[signature.size()];
+                        for (int i = 0; i < values.length; i++) {
+                            Object owlObject = call(bindingSet, "getOWLObject", signature.get(i));
+                            values[i] = toLexicalValue(owlObject);
+                            types[i] = toTermType(owlObject);
+                        }
+                        return values;
+                    });
+                }
+
+                @Override
+                protected TermType[] fetchTypes() {
+                    return types;
+                }
+
+                @Override
+                protected void release() throws Exception {
+                    withOntopClassLoader(() -> {
+                        try {
+                            call(resultSet, "close");
+                        } finally {
+                            try {
+                                call(statement, "close");
+                            } finally {
+                                done();
+                            }
+                        }
+                        return null;
+                    });
+                }
+            }.guardedBy(deadline, abortRegistration);
+        } catch (Exception e) {
+            abortRegistration.close();
+            try {
+                withOntopClassLoader(() -> call(statement, "close"));
+            } finally {
+                done();
+            }
+            throw e;
+        }
+    }
+
+    private void cancelQuietly(Object statement) {
+        try {
+            withOntopClassLoader(() -> call(statement, "cancel"));
+        } catch (Exception e) {
+            System.err.println("Could not cancel Ontop statement: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reformulate a SPARQL query into the SQL Ontop sends to H2.
+     * Returns null unless that SQL result can be used as-is: the plan must be a single native
+     * query under one projection, and every result variable an integer or string literal read
+     * from one column (IRIs and decimals need Ontop's own result decoding).
+     */
+    public ReformulatedQuery reformulate(String sparqlQuery) throws Exception {
+        return counted(() -> {
+            Object statement = call(connection, "createStatement");
+            try {
+                Object iq = call(statement, "getExecutableQuery", sparqlQuery);
+                Object tree = call(iq, "getTree");
+                Object root = call(tree, "getRootNode");
+                List<?> children = (List<?>) call(tree, "getChildren");
+                if (!isNode(root, "ConstructionNode") || children.size() != 1 || !isNode(children.get(0), "NativeNode")) {
+                    return null;
+                }
+
+                Object nativeNode = children.get(0);
+                Map<?, ?> columnNames = (Map<?, ?>) call(nativeNode, "getColumnNames");
+                Object substitution = call(root, "getSubstitution");
+
+                List<String> variables = new ArrayList<>();
+                List<String> columns = new ArrayList<>();
+                List<TermType> types = new ArrayList<>();
+                for (Object variable : (List<?>) call(call(iq, "getProjectionAtom"), "getArguments")) {
+                    Object term = call(substitution, "get", variable);
+                    String column = literalColumn(term, columnNames);
+                    if (column == null) {
+                        return null;
+                    }
+                    variables.add((String) call(variable, "getName"));
+                    columns.add(column);
+                    types.add(TermType.literal(literalDatatype(term)));
+                }
+                return new ReformulatedQuery((String) call(nativeNode, "getNativeQueryString"), variables, columns, types);
+            } finally {
+                call(statement, "close");
+            }
+        });
+    }
+
+    /**
+     * Parse a query with the SPARQL parser Ontop itself uses (RDF4J) - timed by explain
+     */
+    public void parse(String sparqlQuery) throws Exception {
+        counted(() -> {
+            Object parser = ontopClassLoader.loadClass(SPARQL_PARSER_CLASS).getConstructor().newInstance();
+            return call(parser, "parseQuery", sparqlQuery, null);
+        });
+    }
+
+    /**
+     * Unfold a query into the SQL Ontop would send to the database
+     * @return the native SQL, or null if the plan is not a single SQL query
+     */
+    public String unfoldToSql(String sparqlQuery) throws Exception {
+        return counted(() -> {
+            Object statement = call(connection, "createStatement");
+            try {
+                Object iq = call(statement, "getExecutableQuery", sparqlQuery);
+                return findNativeQuery(call(iq, "getTree"));
+            } finally {
+                call(statement, "close");
+            }
+        });
+    }
+
+    private static String findNativeQuery(Object tree) throws Exception {
+        if (isNode(tree, "NativeNode")) {
+            return (String) call(tree, "getNativeQueryString");
+        }
+        List<?> children = (List<?>) call(tree, "getChildren");
+        if (children.size() != 1) {
+            return null;
+        }
+        return findNativeQuery(children.get(0));
+    }
+
+    /**
+     * Stop the engine once its open cursors and running calls finish; new calls fail with
+     * RetiredException from now on
+     */
+    public synchronized void retire() {
+        retiring = true;
+        if (inFlight == 0) {
+            stop();
+        }
+    }
+
+    /**
+     * Count a call or cursor against this engine until done()
+     */
+    private synchronized void use() {
+        if (retiring) {
+            throw new RetiredException();
+        }
+        if (!isStarted) {
+            throw new IllegalStateException("Embedded Ontop engine not started");
+        }
+        inFlight++;
+    }
+
+    private synchronized void done() {
+        if (--inFlight == 0 && retiring) {
+            stop();
+        }
+    }
+
+    private <T> T counted(Callable<T> action) throws Exception {
+        use();
+        try {
+            return withOntopClassLoader(action);
+        } finally {
+            done();
+        }
+    }
+
+    /**
+     * Release the Ontop engine and its class loader
+     */
+    public synchronized void stop() {
+        if (!isStarted) {
+            return;
+        }
+
+        try {
+            withOntopClassLoader(() -> {
+                call(connection, "close");
+                call(engine, "close");
+                return null;
+            });
+            ontopClassLoader.close();
+        } catch (Exception e) {
+            System.err.println("Error stopping embedded Ontop engine: " + e.getMessage());
+        }
+        isStarted = false;
+        System.out.println("Embedded Ontop engine stopped");
+    }
+
+    public boolean isStarted() {
+        return isStarted;
+    }
+
+    /**
+     * Find the SQL column behind a projected term of the form RDF(lexical(column), literal datatype)
+     */
+    private static String literalColumn(Object term, Map<?, ?> columnNames) throws Exception {
+        if (term == null || !hasMethod(term, "getTerms")) {
+            return null;
+        }
+        List<?> arguments = (List<?>) call(term, "getTerms");
+        if (arguments.size() != 2 || !hasMethod(arguments.get(1), "getRDFTermType")) {
+            return null;
+        }
+        if (!DIRECT_DATATYPES.contains(literalDatatype(term))) {
+            return null;
+        }
+
+        List<?> lexicalVariables = ((Stream<?>) call(arguments.get(0), "getVariableStream"))
+            .distinct()
+            .collect(Collectors.toList());
+        if (lexicalVariables.size() != 1) {
+            return null;
+        }
+        Object columnId = columnNames.get(lexicalVariables.get(0));
+        return columnId == null ? null : (String) call(columnId, "getName");
+    }
+
+    /**
+     * Datatype IRI of a projected term RDF(lexical, literal datatype) - null when it has none
+     */
+    private static String literalDatatype(Object term) throws Exception {
+        Object termType = call(((List<?>) call(term, "getTerms")).get(1), "getRDFTermType");
+        return hasMethod(termType, "getIRI") ? (String) call(call(termType, "getIRI"), "getIRIString") : null;
+    }
+
+    private static boolean isNode(Object node, String simpleName) {
+        return node.getClass().getSimpleName().startsWith(simpleName);
+    }
+
+    /**
+     * Convert an OWL API binding (literal, named or anonymous individual) to its lexical value
+     */
+    private static String toLexicalValue(Object owlObject) throws Exception {
+        if (owlObject == null) {
+            return null;
+        }
+        if (hasMethod(owlObject, "getLiteral")) {
+            return (String) call(owlObject, "getLiteral");
+        }
+        if (hasMethod(owlObject, "getIRI")) {
+            return call(owlObject, "getIRI").toString();
+        }
+        return owlObject.toString();
+    }
+
+    /**
+     * Term type of an OWL API binding: OWLLiteral (datatype or language tag), named
+     * individual (IRI) or anonymous individual (blank node)
+     */
+    private static TermType toTermType(Object owlObject) throws Exception {
+        if (owlObject == null) {
+            return null;
+        }
+        if (hasMethod(owlObject, "getLiteral")) {
+            String language = (String) call(owlObject, "getLang");
+            if (language != null && !language.isEmpty()) {
+                return TermType.languageLiteral(language);
+            }
+            return TermType.literal(call(call(owlObject, "getDatatype"), "getIRI").toString());
+        }
+        if (hasMethod(owlObject, "getIRI")) {
+            return TermType.IRI;
+        }
+        return TermType.BNODE;
+    }
+
+    /**
+     * Quote a CSV field when it contains separators, quotes or line breaks
+     */
+    static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    /**
+     * Collect Ontop jars and the JDBC driver jars shipped next to the CLI
+     */
+    private static List<URL> findOntopJars() {
+        List<URL> jars = new ArrayList<>();
+        for (Path dir : new Path[]{AppConfig.ONTOP_LIB_DIR, AppConfig.ONTOP_JDBC_DIR}) {
+            if (!Files.isDirectory(dir)) {
+                continue;
+            }
+            try (Stream<Path> files = Files.list(dir)) {
+                for (Path jar : (Iterable<Path>) files.filter(p -> p.toString().endsWith(".jar"))::iterator) {
+                    jars.add(jar.toUri().toURL());
+                }
+            } catch (Exception e) {
+                System.err.println("Could not list Ontop jars in " + dir + ": " + e.getMessage());
+            }
+        }
+        return jars;
+    }
+
+    /**
+     * Run Ontop code with its own class loader as context loader (Guice and ServiceLoader rely on it)
+     */
+    private <T> T withOntopClassLoader(Callable<T> action) throws Exception {
+        Thread thread = Thread.currentThread();
+        ClassLoader previous = thread.getContextClassLoader();
+        thread.setContextClassLoader(ontopClassLoader);
+        try {
+            return action.call();
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : new RuntimeException(cause);
+        } finally {
+            thread.setContextClassLoader(previous);
+        }
+    }
+
+    /**
+     * Invoke a public method by name - implementation classes behind Ontop interfaces may be package-private
+     */
+    static Object call(Object target, String methodName, Object... args) throws Exception {
+        for (Method method : target.getClass().getMethods()) {
+            if (method.getName().equals(methodName) && accepts(method.getParameterTypes(), args)) {
+                method.setAccessible(true);
+                return method.invoke(target, args);
+            }
+        }
+        throw new NoSuchMethodException(target.getClass().getName() + "." + methodName);
+    }
+
+    private static boolean hasMethod(Object target, String methodName) {
+        for (Method method : target.getClass().getMethods()) {
+            if (method.getName().equals(methodName) && method.getParameterCount() == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean accepts(Class<?>[] parameterTypes, Object[] args) {
+        if (parameterTypes.length != args.length) {
+            return false;
+        }
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] != null && !parameterTypes[i].isInstance(args[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static java.lang.reflect.Constructor<?> findConstructorFor(Class<?> type, Object argument) throws NoSuchMethodException {
+        for (java.lang.reflect.Constructor<?> constructor : type.getConstructors()) {
+            if (accepts(constructor.getParameterTypes(), new Object[]{argument})) {
+                return constructor;
+            }
+        }
+        throw new NoSuchMethodException(type.getName() + "(" + argument.getClass().getName() + ")");
+    }
+}
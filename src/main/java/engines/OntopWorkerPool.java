@@ -0,0 +1,347 @@
+package engines;
+
+import config.AppConfig;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool of long-lived Ontop worker processes.
+ * Each worker is an "ontop endpoint" process listening on a local port, so the JVM
+ * startup and mapping saturation are paid once per worker instead of once per query,
+ * while Ontop itself stays out of our JVM heap.
+ *
+ * Workers are health-checked, recycled after a configurable number of queries,
+ * and callers queue when every worker is busy.
+ */
+public class OntopWorkerPool {
+    private final String ontopPath;
+    private final String ontologyPath;
+    private final String mappingPath;
+    private final String propertiesPath;
+    private final int poolSize;
+    private final int basePort;
+    private final int maxQueriesPerWorker;
+
+    private final LinkedBlockingQueue<Worker> idleWorkers = new LinkedBlockingQueue<>();
+    private final List<Worker> allWorkers = new ArrayList<>();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+    private ScheduledExecutorService healthChecker;
+    private volatile boolean isStarted = false;
+
+    public OntopWorkerPool(String ontopPath, String ontologyPath, String mappingPath, String propertiesPath) {
+        this(ontopPath, ontologyPath, mappingPath, propertiesPath, AppConfig.ONTOP_POOL_SIZE,
+            AppConfig.ONTOP_POOL_BASE_PORT, AppConfig.ONTOP_POOL_MAX_QUERIES_PER_WORKER);
+    }
+
+    OntopWorkerPool(String ontopPath, String ontologyPath, String mappingPath, String propertiesPath,
+                    int poolSize, int basePort, int maxQueriesPerWorker) {
+        this.ontopPath = ontopPath;
+        this.ontologyPath = ontologyPath;
+        this.mappingPath = mappingPath;
+        this.propertiesPath = propertiesPath;
+        this.poolSize = poolSize;
+        this.basePort = basePort;
+        this.maxQueriesPerWorker = maxQueriesPerWorker;
+    }
+
+    /**
+     * Start all workers and wait until each endpoint answers
+     */
+    public void start() throws Exception {
+        if (isStarted) {
+            return;
+        }
+
+        System.out.println("Starting Ontop worker pool (" + poolSize + " workers)...");
+        for (int i = 0; i < poolSize; i++) {
+            Worker worker = new Worker(basePort + i);
+            allWorkers.add(worker);
+        }
+        try {
+            for (Worker worker : allWorkers) {
+                worker.launch();
+            }
+            for (Worker worker : allWorkers) {
+                worker.awaitReady();
+                idleWorkers.add(worker);
+            }
+        } catch (Exception e) {
+            // Do not orphan the endpoints that were already launched
+            stop();
+            throw e;
+        }
+
+        healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ontop-pool-health");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = AppConfig.ONTOP_POOL_HEALTH_CHECK_SECONDS;
+        healthChecker.scheduleWithFixedDelay(this::checkIdleWorkers, interval, interval, TimeUnit.SECONDS);
+
+        isStarted = true;
+        System.out.println("Ontop worker pool ready on ports " + basePort + "-" + (basePort + poolSize - 1));
+    }
+
+    /**
+     * Execute a SPARQL query on the next free worker - blocks while all workers are busy.
+     * The worker stays assigned to the cursor until it is exhausted or closed, so results
+     * stream from the endpoint as they are consumed.
+     */
+    public SPARQLResultCursor openCursor(String sparqlQuery) throws Exception {
+        return openCursor(sparqlQuery, QueryDeadline.none());
+    }
+
+    /**
+     * Execute a SPARQL query bound to a deadline. Waiting for a worker counts against it, and
+     * when it passes the worker's process tree is killed; the worker is relaunched on release.
+     */
+    public SPARQLResultCursor openCursor(String sparqlQuery, QueryDeadline deadline) throws Exception {
+        if (!isStarted) {
+            throw new IllegalStateException("Ontop worker pool not started");
+        }
+
+        long acquireMillis = Math.min(TimeUnit.SECONDS.toMillis(AppConfig.ONTOP_POOL_ACQUIRE_TIMEOUT_SECONDS),
+            deadline.remainingMillis());
+        Worker worker = idleWorkers.poll(acquireMillis, TimeUnit.MILLISECONDS);
+        if (worker == null) {
+            deadline.check();
+            throw new RuntimeException("No Ontop worker available after "
+                + AppConfig.ONTOP_POOL_ACQUIRE_TIMEOUT_SECONDS + "s (all " + poolSize + " busy)");
+        }
+
+        QueryDeadline.Registration abortRegistration = null;
+        try {
+            if (!worker.isAlive()) {
+                worker.restart();
+            }
+            abortRegistration = deadline.onAbort(worker::kill);
+            InputStreamReader reader = new InputStreamReader(worker.query(sparqlQuery, deadline), StandardCharsets.UTF_8);
+            return SPARQLResultCursor.fromTsv(reader, () -> release(worker, !deadline.isDone()))
+                .guardedBy(deadline, abortRegistration);
+        } catch (IOException e) {
+            // Connection-level failure: the endpoint is gone or wedged (or was killed by the deadline)
+            closeQuietly(abortRegistration);
+            release(worker, false);
+            deadline.check();
+            throw new RuntimeException("Ontop worker on port " + worker.port + " failed: " + e.getMessage(), e);
+        } catch (Exception e) {
+            closeQuietly(abortRegistration);
+            release(worker, !deadline.isDone());
+            throw e;
+        }
+    }
+
+    private static void closeQuietly(QueryDeadline.Registration registration) {
+        if (registration != null) {
+            registration.close();
+        }
+    }
+
+    /**
+     * Return a worker to the pool, recycling it when unhealthy or past its query budget
+     */
+    private void release(Worker worker, boolean healthy) {
+        if (!isStarted) {
+            worker.stop();
+            return;
+        }
+        try {
+            if (!healthy || worker.queryCount >= maxQueriesPerWorker) {
+                System.out.println("Recycling Ontop worker on port " + worker.port
+                    + " after " + worker.queryCount + " queries");
+                worker.restart();
+            }
+        } catch (Exception e) {
+            System.err.println("Could not recycle Ontop worker on port " + worker.port + ": " + e.getMessage());
+        }
+        idleWorkers.add(worker);
+    }
+
+    /**
+     * Periodic health check: ping idle workers and restart those that stopped answering
+     */
+    private void checkIdleWorkers() {
+        int count = idleWorkers.size();
+        for (int i = 0; i < count; i++) {
+            Worker worker = idleWorkers.poll();
+            if (worker == null) {
+                return;
+            }
+            release(worker, worker.isAlive() && worker.ping());
+        }
+    }
+
+    /**
+     * Stop all worker processes - also those launched by a start() that failed
+     */
+    public void stop() {
+        if (!isStarted && allWorkers.isEmpty()) {
+            return;
+        }
+        isStarted = false;
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+            healthChecker = null;
+        }
+        for (Worker worker : allWorkers) {
+            worker.stop();
+        }
+        allWorkers.clear();
+        idleWorkers.clear();
+        System.out.println("Ontop worker pool stopped");
+    }
+
+    public boolean isStarted() {
+        return isStarted;
+    }
+
+    public int getIdleWorkerCount() {
+        return idleWorkers.size();
+    }
+
+    /**
+     * One "ontop endpoint" process bound to a local port
+     */
+    private class Worker {
+        private final int port;
+        private final URI endpoint;
+        private Process process;
+        private int queryCount;
+
+        Worker(int port) {
+            this.port = port;
+            this.endpoint = URI.create("http://localhost:" + port + "/sparql");
+        }
+
+        void launch() throws IOException {
+            List<String> command = new ArrayList<>();
+            if (AppConfig.isWindows()) {
+                command.addAll(Arrays.asList("cmd", "/c"));
+            }
+            command.addAll(Arrays.asList(ontopPath, "endpoint",
+                "--ontology", ontologyPath,
+                "--mapping", mappingPath,
+                "--properties", propertiesPath,
+                "--port", String.valueOf(port)));
+
+            ProcessBuilder pb = new ProcessBuilder(command);
+            pb.directory(AppConfig.PROJECT_ROOT.toFile());
+            pb.redirectErrorStream(true);
+            pb.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+            process = pb.start();
+            queryCount = 0;
+        }
+
+        void awaitReady() throws Exception {
+            long deadline = System.currentTimeMillis() + AppConfig.ONTOP_POOL_STARTUP_TIMEOUT_SECONDS * 1000L;
+            while (System.currentTimeMillis() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Ontop worker on port " + port
+                        + " exited during startup (exit code " + process.exitValue() + ")");
+                }
+                if (ping()) {
+                    return;
+                }
+                Thread.sleep(250);
+            }
+            stop();
+            throw new IllegalStateException("Ontop worker on port " + port + " did not start within "
+                + AppConfig.ONTOP_POOL_STARTUP_TIMEOUT_SECONDS + "s");
+        }
+
+        InputStream query(String sparqlQuery, QueryDeadline deadline) throws Exception {
+            String form = "query=" + URLEncoder.encode(sparqlQuery, StandardCharsets.UTF_8);
+            long timeoutMillis = Math.min(TimeUnit.SECONDS.toMillis(AppConfig.ONTOP_POOL_QUERY_TIMEOUT_SECONDS),
+                deadline.remainingMillis());
+            HttpRequest request = HttpRequest.newBuilder(endpoint)
+                .timeout(Duration.ofMillis(Math.max(1, timeoutMillis)))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                // TSV rather than CSV: it keeps IRIs, blank nodes and literal datatypes apart
+                .header("Accept", "text/tab-separated-values")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+
+            HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            queryCount++;
+            if (response.statusCode() != 200) {
+                try (InputStream body = response.body()) {
+                    String message = "Ontop endpoint returned HTTP " + response.statusCode()
+                        + ": " + new String(body.readAllBytes(), StandardCharsets.UTF_8);
+                    // The endpoint answers 400 Bad Request for queries it cannot parse
+                    throw response.statusCode() == 400 ? new InvalidQueryException(message) : new RuntimeException(message);
+                }
+            }
+            return response.body();
+        }
+
+        boolean ping() {
+            try {
+                HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/"))
+                    .timeout(Duration.ofSeconds(2))
+                    .GET()
+                    .build();
+                return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 500;
+            } catch (Exception e) {
+                return false;
+            }
+        }
+
+        boolean isAlive() {
+            return process != null && process.isAlive();
+        }
+
+        /**
+         * Kill the process tree right away - used to abort a running query, the worker
+         * is relaunched when it is released
+         */
+        void kill() {
+            Process current = process;
+            if (current != null) {
+                current.descendants().forEach(ProcessHandle::destroyForcibly);
+                current.destroyForcibly();
+            }
+        }
+
+        void restart() throws Exception {
+            stop();
+            launch();
+            awaitReady();
+        }
+
+        void stop() {
+            if (process == null) {
+                return;
+            }
+            // The ontop script forks the actual JVM - stop the whole process tree
+            process.descendants().forEach(ProcessHandle::destroy);
+            process.destroy();
+            try {
+                if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                    process.descendants().forEach(ProcessHandle::destroyForcibly);
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            process = null;
+        }
+    }
+}
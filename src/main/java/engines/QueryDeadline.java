@@ -0,0 +1,205 @@
+package engines;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cancellation token with an optional deadline, shared by the SQL, SPARQL and reasoning engines.
+ *
+ * Engines register an abort action while a query runs (Statement.cancel, killing the Ontop
+ * process tree, OWLReasoner.interrupt); it fires as soon as the token is cancelled or the
+ * deadline passes, so a runaway query frees its thread and connection. The engine then
+ * reports the query as failed with a CancellationException.
+ */
+public class QueryDeadline {
+    private static final ScheduledThreadPoolExecutor TIMER = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "query-deadline-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        TIMER.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Registered abort action - close it once the guarded operation is over
+     */
+    public interface Registration extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * Thrown instead of a plain CancellationException when the query ran out of time
+     * rather than being cancelled
+     */
+    public static class DeadlineExceededException extends CancellationException {
+        private static final long serialVersionUID = 1L;
+
+        DeadlineExceededException(String message) {
+            super(message);
+        }
+    }
+
+    private final long timeoutMillis;
+    private final long deadlineNanos;
+    private final List<Runnable> actions = new ArrayList<>();
+    private ScheduledFuture<?> timer;
+    private String reason;
+    private boolean expired;
+
+    private QueryDeadline(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+        this.deadlineNanos = timeoutMillis > 0
+            ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis)
+            : Long.MAX_VALUE;
+    }
+
+    /**
+     * Token that expires after the given time
+     */
+    public static QueryDeadline afterMillis(long timeoutMillis) {
+        if (timeoutMillis <= 0) {
+            throw new IllegalArgumentException("Timeout must be positive: " + timeoutMillis);
+        }
+        return new QueryDeadline(timeoutMillis);
+    }
+
+    public static QueryDeadline afterSeconds(long timeoutSeconds) {
+        return afterMillis(TimeUnit.SECONDS.toMillis(timeoutSeconds));
+    }
+
+    /**
+     * Token without deadline - only an explicit cancel() stops the query.
+     * Used by the engine methods that take no token
+     */
+    public static QueryDeadline none() {
+        return new QueryDeadline(0);
+    }
+
+    /**
+     * Cancel the query now
+     */
+    public void cancel() {
+        abort("query cancelled");
+    }
+
+    private void abort(String why) {
+        abort(why, false);
+    }
+
+    private void abort(String why, boolean deadlinePassed) {
+        List<Runnable> toRun;
+        synchronized (this) {
+            if (reason != null) {
+                return;
+            }
+            reason = why;
+            expired = deadlinePassed;
+            toRun = new ArrayList<>(actions);
+            actions.clear();
+            if (timer != null) {
+                timer.cancel(false);
+            }
+        }
+        for (Runnable action : toRun) {
+            runQuietly(action);
+        }
+    }
+
+    /**
+     * Register an abort action; it runs immediately if the token is already done.
+     * The deadline timer only runs while actions are registered.
+     */
+    public Registration onAbort(Runnable action) {
+        if (!isDone()) {
+            synchronized (this) {
+                if (reason == null) {
+                    actions.add(action);
+                    if (timer == null && deadlineNanos != Long.MAX_VALUE) {
+                        timer = TIMER.schedule(this::expire, deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    }
+                    return () -> {
+                        synchronized (QueryDeadline.this) {
+                            actions.remove(action);
+                            if (actions.isEmpty() && timer != null) {
+                                timer.cancel(false);
+                                timer = null;
+                            }
+                        }
+                    };
+                }
+            }
+        }
+        runQuietly(action);
+        return () -> { };
+    }
+
+    private void expire() {
+        abort("deadline of " + timeoutMillis + "ms exceeded", true);
+    }
+
+    public boolean isDone() {
+        synchronized (this) {
+            if (reason != null) {
+                return true;
+            }
+        }
+        if (System.nanoTime() - deadlineNanos >= 0 && deadlineNanos != Long.MAX_VALUE) {
+            expire();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Time left before the deadline, Long.MAX_VALUE without one and 0 once done
+     */
+    public long remainingMillis() {
+        if (isDone()) {
+            return 0;
+        }
+        if (deadlineNanos == Long.MAX_VALUE) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+    }
+
+    /**
+     * Remaining time rounded up to whole seconds, for JDBC setQueryTimeout (0 = no limit)
+     */
+    public int remainingSecondsForJdbc() {
+        long remaining = remainingMillis();
+        if (remaining == Long.MAX_VALUE) {
+            return 0;
+        }
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, (remaining + 999) / 1000));
+    }
+
+    /**
+     * Throw if the query was cancelled or its deadline passed
+     */
+    public void check() {
+        if (isDone()) {
+            throw toException();
+        }
+    }
+
+    public synchronized CancellationException toException() {
+        String message = "Query aborted: " + (reason != null ? reason : "query cancelled");
+        return expired ? new DeadlineExceededException(message) : new CancellationException(message);
+    }
+
+    private static void runQuietly(Runnable action) {
+        try {
+            action.run();
+        } catch (Exception e) {
+            System.err.println("Query abort action failed: " + e.getMessage());
+        }
+    }
+}
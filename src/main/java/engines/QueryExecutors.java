@@ -0,0 +1,127 @@
+package engines;
+
+import config.AppConfig;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors behind the asynchronous engine APIs - one per layer (SQL, SPARQL, reasoning),
+ * each with its own concurrency limit so a burst of slow reasoning or OBDA calls cannot
+ * starve fast SQL lookups.
+ *
+ * Runs tasks on virtual threads when the JVM supports them (JDK 21+, detected at runtime
+ * since the project compiles for Java 11), otherwise on a fixed pool of daemon threads.
+ */
+public class QueryExecutors {
+    public static final QueryExecutors SQL = new QueryExecutors("sql", AppConfig.SQL_MAX_CONCURRENCY);
+    public static final QueryExecutors SPARQL = new QueryExecutors("sparql", AppConfig.SPARQL_MAX_CONCURRENCY);
+    public static final QueryExecutors REASONING = new QueryExecutors("reasoning", AppConfig.REASONING_MAX_CONCURRENCY);
+
+    private final String layer;
+    private final int maxConcurrency;
+    private final Semaphore permits;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+
+    private QueryExecutors(String layer, int maxConcurrency) {
+        this.layer = layer;
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency);
+
+        ExecutorService virtual = newVirtualThreadExecutor();
+        this.virtualThreads = virtual != null;
+        this.executor = virtual != null ? virtual : newDaemonPool(layer, maxConcurrency);
+    }
+
+    /**
+     * Run a task on this layer; at most maxConcurrency tasks of the layer run at once,
+     * the rest wait for a permit. A task whose future is cancelled before it starts is skipped.
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            if (future.isDone()) {
+                // Cancelled while queued - do not run the task at all
+                return;
+            }
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.completeExceptionally(e);
+                return;
+            }
+            try {
+                if (future.isDone()) {
+                    return;
+                }
+                future.complete(task.call());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            } finally {
+                permits.release();
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Run a task bound to a deadline: it fails fast if the deadline passed while it was
+     * queued, and cancelling the returned future cancels the deadline (aborting the query)
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task, QueryDeadline deadline) {
+        CompletableFuture<T> future = submit(() -> {
+            deadline.check();
+            return task.call();
+        });
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                deadline.cancel();
+            }
+        });
+        return future;
+    }
+
+    public String getLayer() {
+        return layer;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Number of tasks currently running on this layer
+     */
+    public int getActiveCount() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Executors.newVirtualThreadPerTaskExecutor() via reflection - null before JDK 21
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static ExecutorService newDaemonPool(String layer, int size) {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(size, runnable -> {
+            Thread thread = new Thread(runnable, layer + "-query-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
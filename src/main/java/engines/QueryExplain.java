@@ -0,0 +1,62 @@
+package engines;
+
+/**
+ * Explain report for one SPARQL query (see SPARQLEngine.explainSPARQL):
+ * the SQL Ontop unfolds the query into, H2's EXPLAIN ANALYZE plan for it and
+ * per-phase timings in nanoseconds.
+ *
+ * Phases that cannot be observed in the current SPARQL mode are -1, and sql/sqlPlan
+ * are null when the query was not unfolded into a single SQL query.
+ */
+public class QueryExplain {
+    public final String sparql;
+    public final String mode;
+    public final String sql;
+    public final String sqlPlan;
+    public final long parseNanos;
+    public final long reformulationNanos;
+    public final long sqlExecutionNanos;
+    public final long decodingNanos;
+    public final long totalNanos;
+    public final int resultRows;
+
+    public QueryExplain(String sparql, String mode, String sql, String sqlPlan,
+                        long parseNanos, long reformulationNanos, long sqlExecutionNanos,
+                        long decodingNanos, long totalNanos, int resultRows) {
+        this.sparql = sparql;
+        this.mode = mode;
+        this.sql = sql;
+        this.sqlPlan = sqlPlan;
+        this.parseNanos = parseNanos;
+        this.reformulationNanos = reformulationNanos;
+        this.sqlExecutionNanos = sqlExecutionNanos;
+        this.decodingNanos = decodingNanos;
+        this.totalNanos = totalNanos;
+        this.resultRows = resultRows;
+    }
+
+    /**
+     * Print the report
+     */
+    public void print() {
+        System.out.println(this);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("SPARQL explain (").append(mode).append(", ").append(resultRows).append(" rows)\n");
+        sb.append("  parse:          ").append(formatNanos(parseNanos)).append('\n');
+        sb.append("  reformulation:  ").append(formatNanos(reformulationNanos)).append('\n');
+        sb.append("  SQL execution:  ").append(formatNanos(sqlExecutionNanos)).append('\n');
+        sb.append("  decoding:       ").append(formatNanos(decodingNanos)).append('\n');
+        sb.append("  total:          ").append(formatNanos(totalNanos)).append('\n');
+        sb.append("SQL:\n  ").append(sql != null ? sql.trim().replace("\n", "\n  ") : "(not available)").append('\n');
+        sb.append("H2 plan:\n  ").append(sqlPlan != null ? sqlPlan.trim().replace("\n", "\n  ") : "(not available)");
+        return sb.toString();
+    }
+
+    private static String formatNanos(long nanos) {
+        return nanos < 0 ? "n/a" : String.format("%.3f ms", nanos / 1_000_000.0);
+    }
+}
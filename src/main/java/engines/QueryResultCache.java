@@ -0,0 +1,184 @@
+package engines;
+
+import database.TableChangeTrigger;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Result cache keyed by normalized query text and invalidated per table.
+ * Each entry remembers the version of every table the query reads (see TableChangeTrigger);
+ * a lookup only hits if none of those tables changed since the result was loaded.
+ * Entries also expire when the date changes, since mapped values such as ages are
+ * computed from CURRENT_DATE.
+ *
+ * Bounded by total weight (an estimate of the result size) with least-recently-used eviction,
+ * so a few huge results cannot push out many small aggregate ones unnoticed.
+ */
+public class QueryResultCache<V> {
+
+    /**
+     * Runs the query on a miss
+     */
+    public interface Loader<V> {
+        V load() throws Exception;
+    }
+
+    /**
+     * Estimated size of a cached value, in arbitrary units (e.g. characters or cells)
+     */
+    public interface Weigher<V> {
+        long weigh(V value);
+    }
+
+    private static class Entry<V> {
+        final V value;
+        final String[] tables;
+        final long[] versions;
+        final long weight;
+        final LocalDate loadedOn = LocalDate.now();
+
+        Entry(V value, String[] tables, long[] versions, long weight) {
+            this.value = value;
+            this.tables = tables;
+            this.versions = versions;
+            this.weight = weight;
+        }
+
+        boolean isCurrent() {
+            if (!loadedOn.equals(LocalDate.now())) {
+                return false;
+            }
+            for (int i = 0; i < tables.length; i++) {
+                if (TableChangeTrigger.version(tables[i]) != versions[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private final String name;
+    private final long maxWeight;
+    private final Weigher<V> weigher;
+    private final LinkedHashMap<String, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalWeight = 0;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public QueryResultCache(String name, long maxWeight, Weigher<V> weigher) {
+        this.name = name;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    /**
+     * Get the cached result of a query, loading it on a miss or when one of its tables changed
+     * @param tables the tables the query reads
+     */
+    public V get(String query, Collection<String> tables, Loader<V> loader) throws Exception {
+        String key = ReformulationCache.normalize(query);
+
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                if (entry.isCurrent()) {
+                    hits.incrementAndGet();
+                    return entry.value;
+                }
+                remove(key);
+                invalidations.incrementAndGet();
+            }
+        }
+        misses.incrementAndGet();
+
+        // Versions are read before the query runs, so a concurrent write marks the result stale
+        String[] tableArray = tables.toArray(new String[0]);
+        long[] versions = new long[tableArray.length];
+        for (int i = 0; i < tableArray.length; i++) {
+            versions[i] = TableChangeTrigger.version(tableArray[i]);
+        }
+
+        V value = loader.load();
+        long weight = Math.max(1, weigher.weigh(value));
+        if (weight > maxWeight) {
+            return value; // too big to be worth caching
+        }
+
+        synchronized (entries) {
+            remove(key);
+            entries.put(key, new Entry<>(value, tableArray, versions, weight));
+            totalWeight += weight;
+            evictToFit();
+        }
+        return value;
+    }
+
+    /**
+     * Drop every entry
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+            totalWeight = 0;
+        }
+    }
+
+    private void remove(String key) {
+        Entry<V> removed = entries.remove(key);
+        if (removed != null) {
+            totalWeight -= removed.weight;
+        }
+    }
+
+    private void evictToFit() {
+        Iterator<Map.Entry<String, Entry<V>>> eldest = entries.entrySet().iterator();
+        while (totalWeight > maxWeight && eldest.hasNext()) {
+            totalWeight -= eldest.next().getValue().weight;
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getWeight() {
+        synchronized (entries) {
+            return totalWeight;
+        }
+    }
+
+    /**
+     * Print cache statistics
+     */
+    public void printStats() {
+        System.out.printf("%s result cache: %d entries (weight %d/%d), %d hits, %d misses, %d invalidated, %d evicted%n",
+            name, size(), getWeight(), maxWeight, getHits(), getMisses(), getInvalidations(), getEvictions());
+    }
+}
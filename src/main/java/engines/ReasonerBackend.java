@@ -0,0 +1,111 @@
+package engines;
+
+import org.semanticweb.HermiT.ReasonerFactory;
+import org.semanticweb.owlapi.reasoner.OWLReasonerFactory;
+import org.semanticweb.owlapi.reasoner.structural.StructuralReasonerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.function.Supplier;
+
+/**
+ * Reasoner backend SPI - supplies the OWLReasonerFactory ReasoningEngine classifies with.
+ *
+ * Built in:
+ * → hermit: HermiT, complete for OWL 2 DL
+ * → structural: OWL API StructuralReasoner, told axioms only - a baseline for benchmarks
+ * → elk: ELK (EL profile, consequence-based), loaded by class name when its jar is on the classpath
+ *
+ * Other backends register through ServiceLoader (META-INF/services/engines.ReasonerBackend),
+ * or are named directly by their OWLReasonerFactory class.
+ */
+public interface ReasonerBackend {
+    String ELK_FACTORY = "org.semanticweb.elk.owlapi.ElkReasonerFactory";
+
+    String name();
+
+    OWLReasonerFactory createFactory();
+
+    /**
+     * Backend by name: built in, ServiceLoader-registered, or an OWLReasonerFactory class name
+     */
+    static ReasonerBackend named(String name) {
+        for (ReasonerBackend backend : builtIn()) {
+            if (backend.name().equalsIgnoreCase(name)) {
+                return backend;
+            }
+        }
+        for (ReasonerBackend backend : ServiceLoader.load(ReasonerBackend.class)) {
+            if (backend.name().equalsIgnoreCase(name)) {
+                return backend;
+            }
+        }
+        return ofClass(name, name);
+    }
+
+    /**
+     * Backends usable in this JVM - ELK and ServiceLoader backends only when present
+     */
+    static List<ReasonerBackend> available() {
+        List<ReasonerBackend> backends = new ArrayList<>();
+        for (ReasonerBackend backend : builtIn()) {
+            if (isAvailable(backend)) {
+                backends.add(backend);
+            }
+        }
+        for (ReasonerBackend backend : ServiceLoader.load(ReasonerBackend.class)) {
+            backends.add(backend);
+        }
+        return backends;
+    }
+
+    static boolean isAvailable(ReasonerBackend backend) {
+        try {
+            backend.createFactory();
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    static List<ReasonerBackend> builtIn() {
+        List<ReasonerBackend> backends = new ArrayList<>();
+        backends.add(of("hermit", ReasonerFactory::new));
+        backends.add(of("structural", StructuralReasonerFactory::new));
+        backends.add(ofClass("elk", ELK_FACTORY));
+        return backends;
+    }
+
+    static ReasonerBackend of(String name, Supplier<OWLReasonerFactory> factory) {
+        return new ReasonerBackend() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public OWLReasonerFactory createFactory() {
+                return factory.get();
+            }
+        };
+    }
+
+    /**
+     * Backend instantiating an OWLReasonerFactory by class name
+     * @throws IllegalArgumentException from createFactory() when the class is not on the classpath
+     */
+    static ReasonerBackend ofClass(String name, String factoryClass) {
+        return of(name, () -> {
+            try {
+                return (OWLReasonerFactory) Class.forName(factoryClass).getDeclaredConstructor().newInstance();
+            } catch (ClassNotFoundException e) {
+                throw new IllegalArgumentException("Reasoner backend '" + name + "' not available: "
+                    + factoryClass + " is not on the classpath", e);
+            } catch (ReflectiveOperationException | ClassCastException e) {
+                throw new IllegalArgumentException("Reasoner backend '" + name + "': cannot create "
+                    + factoryClass + " - " + e.getMessage(), e);
+            }
+        });
+    }
+}
@@ -0,0 +1,169 @@
+package engines;
+
+import config.AppConfig;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.parameters.Imports;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.semanticweb.owlapi.util.OWLObjectDuplicator;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compares reasoner backends on sport-ontology.owl: load (reasoner creation), consistency,
+ * classification (class hierarchy) and realization (class assertions) time, on the ontology
+ * as it is and on ABoxes scaled by copying every individual and its assertions N times.
+ *
+ * Usage: ReasonerBenchmark [scale ...]   e.g. 1 10 100, backends with -Dreasoner.benchmark=hermit,elk
+ */
+public class ReasonerBenchmark {
+
+    /**
+     * Timings of one backend on one ABox scale, in milliseconds
+     */
+    public static class Result {
+        public final String backend;
+        public final int scale;
+        public final int individuals;
+        public final double loadMillis;
+        public final double consistencyMillis;
+        public final double classificationMillis;
+        public final double realizationMillis;
+        public final boolean consistent;
+
+        Result(String backend, int scale, int individuals, double loadMillis, double consistencyMillis,
+               double classificationMillis, double realizationMillis, boolean consistent) {
+            this.backend = backend;
+            this.scale = scale;
+            this.individuals = individuals;
+            this.loadMillis = loadMillis;
+            this.consistencyMillis = consistencyMillis;
+            this.classificationMillis = classificationMillis;
+            this.realizationMillis = realizationMillis;
+            this.consistent = consistent;
+        }
+
+        public double totalMillis() {
+            return loadMillis + consistencyMillis + classificationMillis + realizationMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-12s %6d %12d %10.1f %12.1f %15.1f %12.1f %10.1f%s", backend, scale, individuals,
+                loadMillis, consistencyMillis, classificationMillis, realizationMillis, totalMillis(),
+                consistent ? "" : "  INCONSISTENT");
+        }
+    }
+
+    /**
+     * Run one backend on an ontology (left unchanged)
+     */
+    public static Result run(ReasonerBackend backend, OWLOntology ontology, int scale) {
+        long start = System.nanoTime();
+        OWLReasoner reasoner = backend.createFactory().createReasoner(ontology);
+        try {
+            double load = millisSince(start);
+
+            start = System.nanoTime();
+            boolean consistent = reasoner.isConsistent();
+            double consistency = millisSince(start);
+
+            start = System.nanoTime();
+            reasoner.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+            double classification = millisSince(start);
+
+            start = System.nanoTime();
+            reasoner.precomputeInferences(InferenceType.CLASS_ASSERTIONS);
+            double realization = millisSince(start);
+
+            return new Result(backend.name(), scale, ontology.getIndividualsInSignature().size(),
+                load, consistency, classification, realization, consistent);
+        } finally {
+            reasoner.dispose();
+        }
+    }
+
+    /**
+     * Copy of an ontology whose ABox is repeated scale times - copy k renames every
+     * individual to &lt;iri&gt;_k, so the copies are disjoint and the TBox is shared
+     */
+    public static OWLOntology scaled(OWLOntology ontology, int scale) throws OWLOntologyCreationException {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory factory = manager.getOWLDataFactory();
+        OWLOntology copy = manager.createOntology();
+        manager.addAxioms(copy, ontology.getAxioms());
+
+        Set<OWLAxiom> abox = ontology.getABoxAxioms(Imports.EXCLUDED);
+        for (int k = 1; k < scale; k++) {
+            Map<IRI, IRI> renames = new HashMap<>();
+            for (OWLNamedIndividual individual : ontology.getIndividualsInSignature()) {
+                renames.put(individual.getIRI(), IRI.create(individual.getIRI() + "_" + k));
+            }
+            OWLObjectDuplicator duplicator = new OWLObjectDuplicator(factory, renames);
+            Set<OWLAxiom> renamed = new HashSet<>();
+            for (OWLAxiom axiom : abox) {
+                renamed.add(duplicator.duplicateObject(axiom));
+            }
+            manager.addAxioms(copy, renamed);
+        }
+        return copy;
+    }
+
+    /**
+     * Every backend on every scale, printing a row per run
+     */
+    public static List<Result> compare(List<ReasonerBackend> backends, OWLOntology ontology, int... scales)
+            throws OWLOntologyCreationException {
+        List<Result> results = new ArrayList<>();
+        System.out.printf("%-12s %6s %12s %10s %12s %15s %12s %10s%n", "backend", "scale", "individuals",
+            "load ms", "consistency", "classification", "realization", "total");
+        for (int scale : scales) {
+            OWLOntology scaled = scale == 1 ? ontology : scaled(ontology, scale);
+            for (ReasonerBackend backend : backends) {
+                Result result = run(backend, scaled, scale);
+                System.out.println(result);
+                results.add(result);
+            }
+        }
+        return results;
+    }
+
+    private static double millisSince(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1e6;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int[] scales = args.length == 0 ? new int[]{1, 10, 50} : new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            scales[i] = Integer.parseInt(args[i]);
+        }
+        List<ReasonerBackend> backends = new ArrayList<>();
+        String selected = System.getProperty("reasoner.benchmark");
+        if (selected == null) {
+            backends.addAll(ReasonerBackend.available());
+        } else {
+            for (String name : selected.split(",")) {
+                backends.add(ReasonerBackend.named(name.trim()));
+            }
+        }
+
+        OWLOntology ontology = OWLManager.createOWLOntologyManager()
+            .loadOntologyFromOntologyDocument(new File(AppConfig.getOntologyAbsolutePath()));
+        System.out.println("Ontology: " + ontology.getAxiomCount() + " axioms, "
+            + ontology.getIndividualsInSignature().size() + " individuals");
+        compare(backends, ontology, scales);
+    }
+}
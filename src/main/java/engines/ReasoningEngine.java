@@ -3,27 +3,69 @@ package engines;
 import config.AppConfig;
 import org.semanticweb.owlapi.apibinding.OWLManager;
 import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.reasoner.InferenceType;
 import org.semanticweb.owlapi.reasoner.OWLReasoner;
 import org.semanticweb.owlapi.reasoner.OWLReasonerFactory;
-import org.semanticweb.HermiT.ReasonerFactory;
-import org.semanticweb.owlapi.reasoner.NodeSet;
-import org.semanticweb.owlapi.reasoner.Node;
+import org.semanticweb.owlapi.reasoner.ReasonerInterruptedException;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Set;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 
 /**
- * HermiT Reasoning Engine - Performs OWL reasoning with ontology and data
+ * Reasoning Engine - Performs OWL reasoning with ontology and data
+ * Runs on the backend named by AppConfig.REASONER_BACKEND (HermiT by default, see ReasonerBackend)
+ * Starts from a ClassificationSnapshot when one matches the ontology; the ontology is then
+ * only parsed and the reasoner created when a change is applied
+ * HermiT is not thread-safe: every call that reaches the reasoner holds reasonerLock, while
+ * lookups answered by the class extension bitmaps or the snapshot run concurrently
  * Uses centralized configuration from AppConfig for cross-platform compatibility
  */
 public class ReasoningEngine {
+    private final ReasonerBackend backend;
+    private final Path snapshotDir;
+    private final Object reasonerLock = new Object();
     private OWLOntologyManager manager;
     private OWLOntology ontology;
-    private OWLReasoner reasoner;
+    private volatile OWLReasoner reasoner;
     private OWLDataFactory dataFactory;
+    private volatile ClassExtensionIndex extensions;
+    private ClassificationSnapshot snapshot;
+    private String snapshotKey;
     private boolean isSetup = false;
 
+    public ReasoningEngine() {
+        this(ReasonerBackend.named(AppConfig.REASONER_BACKEND));
+    }
+
+    public ReasoningEngine(ReasonerBackend backend) {
+        this(backend, AppConfig.REASONER_SNAPSHOT);
+    }
+
+    /**
+     * @param useSnapshot start from, and save, the backend's classification snapshot
+     */
+    public ReasoningEngine(ReasonerBackend backend, boolean useSnapshot) {
+        this(backend, useSnapshot ? AppConfig.CACHE_DIR : null);
+    }
+
+    /**
+     * @param snapshotDir directory of the classification snapshots, null to always classify
+     */
+    public ReasoningEngine(ReasonerBackend backend, Path snapshotDir) {
+        this.backend = backend;
+        this.snapshotDir = snapshotDir;
+    }
+
     /**
      * Setup the reasoning engine with ontology
      */
@@ -33,33 +75,76 @@ public class ReasoningEngine {
             return;
         }
 
-        System.out.println("Setting up HermiT Reasoning Engine");
+        System.out.println("Setting up Reasoning Engine (" + backend.name() + ")");
+        long start = System.nanoTime();
+        dataFactory = OWLManager.getOWLDataFactory();
 
-        manager = OWLManager.createOWLOntologyManager();
-        dataFactory = manager.getOWLDataFactory();
+        if (snapshotDir != null) {
+            snapshotKey = ClassificationSnapshot.keyFor(backend);
+            snapshot = ClassificationSnapshot.read(ClassificationSnapshot.fileFor(snapshotDir, snapshotKey),
+                snapshotKey, dataFactory);
+        }
+        if (snapshot == null) {
+            loadReasoner();
+        }
+
+        isSetup = true;
+        System.out.printf("Reasoning Engine setup completed (%s%s) in %.0f ms%n", backend.name(),
+            snapshot != null ? ", from classification snapshot" : "", (System.nanoTime() - start) / 1e6);
+    }
 
-        // Use centralized path configuration (absolute path for file operations)
-        String ontologyPath = AppConfig.getOntologyAbsolutePath();
-        File ontologyFile = new File(ontologyPath);
-        if (!ontologyFile.exists()) {
-            throw new RuntimeException("Ontology file not found: " + ontologyPath);
+    /**
+     * Parse the ontology and create a consistent reasoner - at setup, or on the first
+     * change when the engine started from a snapshot
+     */
+    private void loadReasoner() {
+        synchronized (reasonerLock) {
+            if (reasoner == null) {
+                reasoner = createReasoner();
+            }
         }
+    }
 
-        ontology = manager.loadOntologyFromOntologyDocument(ontologyFile);
-        System.out.println("Loaded ontology with " + ontology.getAxiomCount() + " axioms");
+    /**
+     * Parse the ontology without creating a reasoner - enough for callers that only read axioms
+     */
+    private void loadOntology() {
+        synchronized (reasonerLock) {
+            if (ontology != null) {
+                return;
+            }
+            manager = OWLManager.createOWLOntologyManager();
+
+            // Use centralized path configuration (absolute path for file operations)
+            String ontologyPath = AppConfig.getOntologyAbsolutePath();
+            File ontologyFile = new File(ontologyPath);
+            if (!ontologyFile.exists()) {
+                throw new RuntimeException("Ontology file not found: " + ontologyPath);
+            }
+
+            try {
+                ontology = manager.loadOntologyFromOntologyDocument(ontologyFile);
+            } catch (OWLOntologyCreationException e) {
+                throw new RuntimeException("Could not load ontology " + ontologyPath + ": " + e.getMessage(), e);
+            }
+            System.out.println("Loaded ontology with " + ontology.getAxiomCount() + " axioms");
+        }
+    }
+
+    private OWLReasoner createReasoner() {
+        loadOntology();
 
-        OWLReasonerFactory reasonerFactory = new ReasonerFactory();
-        reasoner = reasonerFactory.createReasoner(ontology);
+        OWLReasonerFactory reasonerFactory = backend.createFactory();
+        OWLReasoner created = reasonerFactory.createReasoner(ontology);
 
-        boolean isConsistent = reasoner.isConsistent();
+        boolean isConsistent = created.isConsistent();
         System.out.println("Ontology consistency: " + (isConsistent ? "CONSISTENT" : "INCONSISTENT"));
 
         if (!isConsistent) {
+            created.dispose();
             throw new RuntimeException("Ontology is inconsistent - cannot perform reasoning");
         }
-
-        isSetup = true;
-        System.out.println("HermiT Reasoning Engine setup completed");
+        return created;
     }
 
     /**
@@ -72,11 +157,18 @@ public class ReasoningEngine {
 
         System.out.println("Loading ABox data for reasoning");
 
-        reasoner.flush();
-        reasoner.precomputeInferences();
-        System.out.println("Reasoning precomputation completed");
+        if (snapshot != null) {
+            System.out.println("Reasoning precomputation loaded from classification snapshot");
+        } else {
+            synchronized (reasonerLock) {
+                reasoner.flush();
+                precomputeInferences();
+                saveSnapshot();
+            }
+            System.out.println("Reasoning precomputation completed");
+        }
 
-        Set<OWLNamedIndividual> individuals = ontology.getIndividualsInSignature();
+        Set<OWLNamedIndividual> individuals = individuals();
         System.out.println("Total individuals in ontology: " + individuals.size());
 
         int aboxCount = 0;
@@ -91,62 +183,270 @@ public class ReasoningEngine {
     }
 
     /**
-     * Count individuals that belong to both classes
+     * Classify and realize: the class hierarchy and every individual's types are computed
+     * now, so instance and type lookups read HermiT's caches instead of reasoning.
+     * (The no-argument precomputeInferences() precomputes nothing in HermiT.) reasonerLock held
      */
-    public int countIndividualsOfBothClasses(String className1, String className2) throws Exception {
+    private void precomputeInferences() {
+        reasoner.precomputeInferences(InferenceType.CLASS_HIERARCHY, InferenceType.CLASS_ASSERTIONS);
+    }
+
+    /**
+     * Save the reasoner's precomputed hierarchy and types for the next start - failures only
+     * cost the next start a classification
+     */
+    private void saveSnapshot() {
+        if (snapshotKey == null) {
+            return;
+        }
+        Path file = ClassificationSnapshot.fileFor(snapshotDir, snapshotKey);
+        try {
+            long start = System.nanoTime();
+            ClassificationSnapshot.capture(ontology, reasoner, dataFactory).write(file, snapshotKey);
+            System.out.printf("Classification snapshot saved to %s (%d bytes) in %.0f ms%n", file.getFileName(),
+                Files.size(file), (System.nanoTime() - start) / 1e6);
+        } catch (IOException e) {
+            System.out.println("Could not save classification snapshot: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Apply ontology changes (ABox assertions) and re-run the inferences on the new state.
+     * Not safe while other threads query this engine - see ReasoningSessionManager.update
+     */
+    public void applyChanges(List<? extends OWLOntologyChange> changes) {
         if (!isSetup) {
             throw new IllegalStateException("Reasoning engine not setup");
         }
+        synchronized (reasonerLock) {
+            loadReasoner();
+            manager.applyChanges(changes);
+            discardSnapshot();
+            reasoner.flush();
+            precomputeInferences();
+            extensions = null;
+        }
+    }
 
-        Set<OWLNamedIndividual> class1Individuals = getIndividualsOfClass(className1);
-        Set<OWLNamedIndividual> class2Individuals = getIndividualsOfClass(className2);
+    /**
+     * Empty buffer of ABox changes for apply()
+     */
+    public ABoxUpdate newABoxUpdate() {
+        if (!isSetup) {
+            throw new IllegalStateException("Reasoning engine not setup");
+        }
+        loadReasoner();
+        return new ABoxUpdate(ontology, dataFactory);
+    }
 
-        Set<OWLNamedIndividual> intersection = new HashSet<>(class1Individuals);
-        intersection.retainAll(class2Individuals);
+    /**
+     * Apply buffered ABox changes incrementally and report the inferred class memberships
+     * that changed. Instead of precomputeInferences over the whole ABox:
+     * → the changes reach the reasoner in one flush; for pure ABox changes HermiT keeps its
+     *   class hierarchy and re-clausifies only the assertions, but drops its realization
+     * → only the touched individuals and their direct object-property neighbours, before
+     *   and after the change, are re-realized (getTypes each) and diffed
+     * → loaded class extensions are patched for those individuals instead of rebuilt
+     *
+     * On sport-ontology.owl's small ABox the flush and re-realization take about as long as
+     * applyChanges (tens of ms either way); what apply saves is the extension index rebuild,
+     * and the re-realization cost stays with the touched individuals as the ABox grows.
+     *
+     * Memberships that depend on individuals more than one property assertion away (none in
+     * sport-ontology.owl) are not diffed; use applyChanges for a full re-realization.
+     * Not safe while other threads query this engine - see ReasoningSessionManager.update
+     */
+    public ABoxUpdate.MembershipChanges apply(ABoxUpdate update) {
+        if (!isSetup) {
+            throw new IllegalStateException("Reasoning engine not setup");
+        }
+        synchronized (reasonerLock) {
+            long start = System.nanoTime();
+
+            Set<OWLNamedIndividual> affected = new LinkedHashSet<>(update.getTouched());
+            affected.addAll(neighboursOf(update.getTouched()));
+            Map<OWLNamedIndividual, Set<OWLClass>> before = new HashMap<>();
+            for (OWLNamedIndividual individual : affected) {
+                before.put(individual, typesOf(individual));
+            }
 
-        System.out.println(className1 + " individuals: " + class1Individuals.size());
-        System.out.println(className2 + " individuals: " + class2Individuals.size());
-        System.out.println("Intersection: " + intersection.size());
+            manager.applyChanges(update.getChanges());
+            discardSnapshot();
+            reasoner.flush();
+            affected.addAll(neighboursOf(update.getTouched()));
+
+            ABoxUpdate.MembershipChanges changes = new ABoxUpdate.MembershipChanges(affected.size());
+            ClassExtensionIndex index = extensions;
+            for (OWLNamedIndividual individual : affected) {
+                Set<OWLClass> after = typesOf(individual);
+                changes.record(individual.getIRI().getShortForm(),
+                    shortForms(before.getOrDefault(individual, new HashSet<>())), shortForms(after));
+                if (index != null) {
+                    index.update(individual, after::contains);
+                }
+            }
 
-        return intersection.size();
+            System.out.printf("ABox update: %d changes, %d individuals re-realized in %.1f ms%n",
+                update.getChanges().size(), affected.size(), (System.nanoTime() - start) / 1e6);
+            return changes;
+        }
     }
 
     /**
-     * Helper: Get all individuals of a specific class
+     * Individuals linked to any of the given ones by an object property assertion, either direction
      */
-    private Set<OWLNamedIndividual> getIndividualsOfClass(String className) throws Exception {
-        IRI classIRI = IRI.create(AppConfig.createOntologyIRI(className));
-        OWLClass owlClass = dataFactory.getOWLClass(classIRI);
+    private Set<OWLNamedIndividual> neighboursOf(Set<OWLNamedIndividual> individuals) {
+        Set<OWLNamedIndividual> neighbours = new HashSet<>();
+        for (OWLNamedIndividual individual : individuals) {
+            for (OWLAxiom axiom : ontology.getReferencingAxioms(individual)) {
+                if (axiom instanceof OWLObjectPropertyAssertionAxiom) {
+                    neighbours.addAll(axiom.getIndividualsInSignature());
+                }
+            }
+        }
+        return neighbours;
+    }
+
+    /**
+     * Inferred named types of an individual without owl:Thing, empty when it is not in the ontology
+     */
+    private Set<OWLClass> typesOf(OWLNamedIndividual individual) {
+        Set<OWLClass> types = new HashSet<>();
+        if (individuals().contains(individual)) {
+            types.addAll(inferredTypes(individual));
+            types.remove(dataFactory.getOWLThing());
+        }
+        return types;
+    }
+
+    /**
+     * The ontology no longer matches the snapshot - answer from the reasoner from now on,
+     * and do not save this state as the ontology's snapshot
+     */
+    private void discardSnapshot() {
+        snapshot = null;
+        snapshotKey = null;
+    }
+
+    /**
+     * Helpers: named individuals, instances and types - from the snapshot while it is current
+     */
+    private Set<OWLNamedIndividual> individuals() {
+        ClassificationSnapshot current = snapshot;
+        return current != null ? current.getIndividuals() : ontology.getIndividualsInSignature();
+    }
 
-        NodeSet<OWLNamedIndividual> individuals = reasoner.getInstances(owlClass, false);
-        Set<OWLNamedIndividual> result = new HashSet<>();
+    private Set<OWLNamedIndividual> instancesOf(OWLClass owlClass) {
+        ClassificationSnapshot current = snapshot;
+        if (current != null) {
+            return current.getInstances(owlClass);
+        }
+        synchronized (reasonerLock) {
+            return reasoner.getInstances(owlClass, false).getFlattened();
+        }
+    }
 
-        for (Node<OWLNamedIndividual> node : individuals) {
-            result.addAll(node.getEntities());
+    private Set<OWLClass> inferredTypes(OWLNamedIndividual individual) {
+        ClassificationSnapshot current = snapshot;
+        if (current != null) {
+            return current.getTypes(individual);
         }
+        synchronized (reasonerLock) {
+            return reasoner.getTypes(individual, false).getFlattened();
+        }
+    }
 
-        return result;
+    private static Set<String> shortForms(Set<OWLClass> classes) {
+        Set<String> names = new HashSet<>();
+        for (OWLClass owlClass : classes) {
+            names.add(owlClass.getIRI().getShortForm());
+        }
+        return names;
+    }
+
+    public OWLOntology getOntology() {
+        loadOntology();
+        return ontology;
+    }
+
+    public OWLDataFactory getDataFactory() {
+        return dataFactory;
     }
 
     /**
-     * Count individuals of a specific class
+     * Count individuals that belong to both classes
      */
-    public int countIndividualsOfClass(String className) throws Exception {
+    public int countIndividualsOfBothClasses(String className1, String className2) throws Exception {
         if (!isSetup) {
             throw new IllegalStateException("Reasoning engine not setup");
         }
 
+        ClassExtensionIndex.Bitmap class1Individuals = extensionOf(className1);
+        ClassExtensionIndex.Bitmap class2Individuals = extensionOf(className2);
+        int intersection = class1Individuals.andCardinality(class2Individuals);
+
+        System.out.println(className1 + " individuals: " + class1Individuals.cardinality());
+        System.out.println(className2 + " individuals: " + class2Individuals.cardinality());
+        System.out.println("Intersection: " + intersection);
+
+        return intersection;
+    }
+
+    /**
+     * Count individuals that belong to at least one of the classes
+     */
+    public int countIndividualsOfAnyClass(String... classNames) throws Exception {
+        if (!isSetup) {
+            throw new IllegalStateException("Reasoning engine not setup");
+        }
+        if (classNames.length == 0) {
+            return 0;
+        }
+        if (classNames.length == 2) {
+            return extensionOf(classNames[0]).orCardinality(extensionOf(classNames[1]));
+        }
+        ClassExtensionIndex.Bitmap union = extensionOf(classNames[0]);
+        for (int i = 1; i < classNames.length; i++) {
+            union = union.or(extensionOf(classNames[i]));
+        }
+        return union.cardinality();
+    }
+
+    /**
+     * Helper: extension bitmap of a class over the dense individual IDs
+     */
+    private ClassExtensionIndex.Bitmap extensionOf(String className) {
         IRI classIRI = IRI.create(AppConfig.createOntologyIRI(className));
-        OWLClass owlClass = dataFactory.getOWLClass(classIRI);
+        return extensions().extension(dataFactory.getOWLClass(classIRI));
+    }
 
-        NodeSet<OWLNamedIndividual> individuals = reasoner.getInstances(owlClass, false);
+    /**
+     * Class extension index of the current reasoner state, built on first use after
+     * setup and after every applyChanges
+     */
+    private ClassExtensionIndex extensions() {
+        ClassExtensionIndex index = extensions;
+        if (index == null) {
+            synchronized (reasonerLock) {
+                index = extensions;
+                if (index == null) {
+                    index = new ClassExtensionIndex(individuals(), this::instancesOf);
+                    extensions = index;
+                }
+            }
+        }
+        return index;
+    }
 
-        Set<OWLNamedIndividual> uniqueIndividuals = new HashSet<>();
-        for (Node<OWLNamedIndividual> node : individuals) {
-            uniqueIndividuals.addAll(node.getEntities());
+    /**
+     * Count individuals of a specific class
+     */
+    public int countIndividualsOfClass(String className) throws Exception {
+        if (!isSetup) {
+            throw new IllegalStateException("Reasoning engine not setup");
         }
 
-        return uniqueIndividuals.size();
+        return extensionOf(className).cardinality();
     }
 
     /**
@@ -163,15 +463,13 @@ public class ReasoningEngine {
         OWLNamedIndividual individual = dataFactory.getOWLNamedIndividual(individualIRI);
         OWLClass owlClass = dataFactory.getOWLClass(classIRI);
 
-        NodeSet<OWLClass> types = reasoner.getTypes(individual, false);
-
-        for (Node<OWLClass> node : types) {
-            if (node.contains(owlClass)) {
-                return true;
-            }
+        int id = extensions().idOf(individual);
+        if (id >= 0) {
+            return extensions().extension(owlClass).contains(id);
         }
 
-        return false;
+        // Not in the ontology's signature - ask the reasoner (or snapshot) directly
+        return inferredTypes(individual).contains(owlClass);
     }
 
     /**
@@ -185,26 +483,112 @@ public class ReasoningEngine {
         IRI individualIRI = IRI.create(AppConfig.createABoxIRI(individualName));
         OWLNamedIndividual individual = dataFactory.getOWLNamedIndividual(individualIRI);
 
-        NodeSet<OWLClass> types = reasoner.getTypes(individual, false);
-        Set<String> classNames = new HashSet<>();
+        return shortForms(inferredTypes(individual));
+    }
+
+    // =============================================================================
+    // ASYNC API - runs on the reasoning executor (see QueryExecutors); calls that reach
+    // the reasoner are serialized on reasonerLock whatever its concurrency limit
+    // =============================================================================
+
+    public CompletableFuture<Integer> countIndividualsOfClassAsync(String className) {
+        return QueryExecutors.REASONING.submit(() -> countIndividualsOfClass(className));
+    }
+
+    public CompletableFuture<Integer> countIndividualsOfBothClassesAsync(String className1, String className2) {
+        return QueryExecutors.REASONING.submit(() -> countIndividualsOfBothClasses(className1, className2));
+    }
+
+    public CompletableFuture<Boolean> isIndividualOfClassAsync(String individualName, String className) {
+        return QueryExecutors.REASONING.submit(() -> isIndividualOfClass(individualName, className));
+    }
+
+    public CompletableFuture<Set<String>> getInferredClassesForIndividualAsync(String individualName) {
+        return QueryExecutors.REASONING.submit(() -> getInferredClassesForIndividual(individualName));
+    }
+
+    // =============================================================================
+    // DEADLINE API - HermiT is interrupted (ReasonerInterruptedException) when the
+    // deadline passes or the token is cancelled; the call fails with a CancellationException.
+    // These calls hold reasonerLock throughout, snapshot lookups included
+    // =============================================================================
+
+    public int countIndividualsOfClass(String className, QueryDeadline deadline) throws Exception {
+        return withDeadline(deadline, () -> countIndividualsOfClass(className));
+    }
+
+    public int countIndividualsOfBothClasses(String className1, String className2, QueryDeadline deadline) throws Exception {
+        return withDeadline(deadline, () -> countIndividualsOfBothClasses(className1, className2));
+    }
+
+    public boolean isIndividualOfClass(String individualName, String className, QueryDeadline deadline) throws Exception {
+        return withDeadline(deadline, () -> isIndividualOfClass(individualName, className));
+    }
 
-        for (Node<OWLClass> node : types) {
-            for (OWLClass owlClass : node.getEntities()) {
-                classNames.add(owlClass.getIRI().getShortForm());
+    public Set<String> getInferredClassesForIndividual(String individualName, QueryDeadline deadline) throws Exception {
+        return withDeadline(deadline, () -> getInferredClassesForIndividual(individualName));
+    }
+
+    public CompletableFuture<Integer> countIndividualsOfClassAsync(String className, QueryDeadline deadline) {
+        return QueryExecutors.REASONING.submit(() -> countIndividualsOfClass(className, deadline), deadline);
+    }
+
+    /**
+     * Run a reasoner call that is interrupted when the deadline passes.
+     * The abort hook is registered only once reasonerLock is held, so an expired deadline
+     * interrupts this call and never another thread's call on the shared reasoner
+     */
+    @SuppressWarnings("try") // the registration is only held to be closed
+    private <T> T withDeadline(QueryDeadline deadline, Callable<T> operation) throws Exception {
+        if (!isSetup) {
+            throw new IllegalStateException("Reasoning engine not setup");
+        }
+        deadline.check();
+        synchronized (reasonerLock) {
+            deadline.check();
+            try (QueryDeadline.Registration registration = deadline.onAbort(this::interruptReasoner)) {
+                return operation.call();
+            } catch (ReasonerInterruptedException e) {
+                if (deadline.isDone()) {
+                    throw deadline.toException();
+                }
+                throw e;
             }
         }
+    }
 
-        return classNames;
+    /**
+     * Snapshot lookups finish on their own; only a running reasoner call can be interrupted.
+     * Called by the deadline of the thread holding reasonerLock
+     */
+    private void interruptReasoner() {
+        OWLReasoner current = reasoner;
+        if (current != null) {
+            current.interrupt();
+        }
     }
 
     /**
      * Cleanup resources
      */
     public void cleanup() {
-        if (reasoner != null) {
-            reasoner.dispose();
+        synchronized (reasonerLock) {
+            if (reasoner != null) {
+                reasoner.dispose();
+            }
         }
-        System.out.println("HermiT Reasoning Engine cleanup completed");
+        System.out.println("Reasoning Engine cleanup completed (" + backend.name() + ")");
+    }
+
+    public ReasonerBackend getBackend() {
+        return backend;
+    }
+
+    /**
+     * Whether queries are currently answered from a classification snapshot
+     */
+    public boolean isFromSnapshot() {
+        return snapshot != null;
     }
 
     public boolean isSetup() {
@@ -0,0 +1,158 @@
+package engines;
+
+import config.AppConfig;
+import utils.OntologyFingerprint;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * One long-lived, classified HermiT session per ontology version, shared by every caller
+ * instead of a ReasoningEngine (ontology load, consistency check, precomputeInferences,
+ * dispose) per query.
+ *
+ * → query(): runs under the read lock - any number of readers share the classified reasoner
+ * → update(): runs under the write lock - ABox changes wait for running queries and block new ones
+ * → the session is rebuilt when the ontology file's fingerprint changes; in-memory updates
+ *   made through update() are dropped with it
+ *
+ * A session classifies and realizes the ontology once (class hierarchy and class assertions).
+ * Class counts and membership checks are then answered from the engine's class extension
+ * bitmaps and run concurrently; calls that still reach HermiT, which is not thread-safe,
+ * are serialized inside ReasoningEngine.
+ */
+public class ReasoningSessionManager {
+    private static final ReasoningSessionManager SHARED = new ReasoningSessionManager(new OntologyFingerprint(AppConfig.ONTOLOGY_FILE));
+
+    private final OntologyFingerprint fingerprint;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private ReasoningEngine engine;
+    private String sessionFingerprint;
+
+    private final AtomicLong sessionsCreated = new AtomicLong();
+    private final AtomicLong queriesServed = new AtomicLong();
+    private final AtomicLong updatesApplied = new AtomicLong();
+
+    /**
+     * Work done against the session's reasoning engine
+     */
+    public interface ReasoningTask<T> {
+        T run(ReasoningEngine engine) throws Exception;
+    }
+
+    public ReasoningSessionManager(OntologyFingerprint fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Process-wide session for AppConfig.ONTOLOGY_FILE
+     */
+    public static ReasoningSessionManager shared() {
+        return SHARED;
+    }
+
+    /**
+     * Run a read-only reasoning query on the current session
+     */
+    public <T> T query(ReasoningTask<T> task) throws Exception {
+        lock.readLock().lock();
+        try {
+            if (!isCurrent()) {
+                // Upgrade: a read lock cannot be upgraded, so release it and rebuild under the
+                // write lock, then downgrade before running the query
+                lock.readLock().unlock();
+                lock.writeLock().lock();
+                try {
+                    ensureCurrent();
+                } finally {
+                    lock.readLock().lock();
+                    lock.writeLock().unlock();
+                }
+            }
+            queriesServed.incrementAndGet();
+            return task.run(engine);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Run an ABox update with exclusive access to the session
+     */
+    public <T> T update(ReasoningTask<T> task) throws Exception {
+        lock.writeLock().lock();
+        try {
+            ensureCurrent();
+            updatesApplied.incrementAndGet();
+            return task.run(engine);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean isCurrent() {
+        return engine != null && fingerprint.current().equals(sessionFingerprint);
+    }
+
+    /**
+     * Classify the ontology if there is no session for its current version - write lock held
+     */
+    private void ensureCurrent() throws Exception {
+        if (isCurrent()) {
+            return;
+        }
+        if (engine != null) {
+            System.out.println("Ontology changed - rebuilding reasoning session");
+            engine.cleanup();
+            engine = null;
+        }
+        String version = fingerprint.current();
+        long start = System.nanoTime();
+        ReasoningEngine fresh = new ReasoningEngine();
+        try {
+            fresh.setup();
+            fresh.addABoxData();
+        } catch (Exception e) {
+            fresh.cleanup();
+            throw e;
+        }
+        engine = fresh;
+        sessionFingerprint = version;
+        sessionsCreated.incrementAndGet();
+        System.out.printf("Reasoning session ready in %.0f ms (ontology %s)%n",
+            (System.nanoTime() - start) / 1e6, version.substring(0, 12));
+    }
+
+    /**
+     * Dispose the reasoner; the next query starts a new session
+     */
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            if (engine != null) {
+                engine.cleanup();
+                engine = null;
+                sessionFingerprint = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long getSessionsCreated() {
+        return sessionsCreated.get();
+    }
+
+    public long getQueriesServed() {
+        return queriesServed.get();
+    }
+
+    public long getUpdatesApplied() {
+        return updatesApplied.get();
+    }
+
+    public void printStats() {
+        System.out.println("Reasoning sessions: " + sessionsCreated.get() + " created, "
+            + queriesServed.get() + " queries, " + updatesApplied.get() + " updates");
+    }
+}
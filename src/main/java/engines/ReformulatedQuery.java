@@ -0,0 +1,30 @@
+package engines;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * SQL produced by Ontop for a SPARQL query, ready to run directly on H2.
+ * Each SPARQL result variable is read from one column of the SQL result.
+ */
+public class ReformulatedQuery {
+    public final String sql;
+    public final List<String> variables;
+    public final List<String> columns;
+    /** RDF term type of each variable's values - null when unknown */
+    public final List<TermType> types;
+
+    public ReformulatedQuery(String sql, List<String> variables, List<String> columns) {
+        this(sql, variables, columns, null);
+    }
+
+    public ReformulatedQuery(String sql, List<String> variables, List<String> columns, List<TermType> types) {
+        if (variables.size() != columns.size() || (types != null && types.size() != variables.size())) {
+            throw new IllegalArgumentException("Each SPARQL variable needs exactly one SQL column");
+        }
+        this.sql = sql;
+        this.variables = Collections.unmodifiableList(variables);
+        this.columns = Collections.unmodifiableList(columns);
+        this.types = types == null ? null : Collections.unmodifiableList(types);
+    }
+}
@@ -0,0 +1,184 @@
+package engines;
+
+import utils.OntologyFingerprint;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of SPARQL → SQL reformulations produced by Ontop.
+ * Keyed by the normalized query text plus the fingerprint of the .owl/.ttl/.obda files,
+ * so any change to the ontology or mappings invalidates every entry.
+ *
+ * Queries whose reformulation cannot run directly on H2 are remembered too,
+ * so Ontop is not asked to reformulate them again just to find out.
+ */
+public class ReformulationCache {
+    private static final int MAX_ENTRIES = 1000;
+
+    /**
+     * Produces the directly executable SQL for a query, or null when the query needs Ontop's result decoding
+     */
+    public interface Reformulator {
+        ReformulatedQuery reformulate(String sparqlQuery) throws Exception;
+    }
+
+    private final OntologyFingerprint fingerprint;
+    private final Map<String, Optional<ReformulatedQuery>> entries =
+        new LinkedHashMap<String, Optional<ReformulatedQuery>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Optional<ReformulatedQuery>> eldest) {
+                return size() > MAX_ENTRIES;
+            }
+        };
+    private volatile String cachedFingerprint;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong bypasses = new AtomicLong();
+
+    public ReformulationCache(OntologyFingerprint fingerprint) {
+        this.fingerprint = fingerprint;
+        this.cachedFingerprint = fingerprint.current();
+    }
+
+    /**
+     * Get the cached reformulation for a query, reformulating it on a miss
+     * @return the directly executable query, or null if the query must go through Ontop
+     */
+    public ReformulatedQuery getOrReformulate(String sparqlQuery, Reformulator reformulator) throws Exception {
+        String key = cachedFingerprint + "|" + normalize(sparqlQuery);
+
+        Optional<ReformulatedQuery> cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+        }
+        if (cached != null) {
+            (cached.isPresent() ? hits : bypasses).incrementAndGet();
+            return cached.orElse(null);
+        }
+
+        misses.incrementAndGet();
+        ReformulatedQuery reformulated = reformulator.reformulate(sparqlQuery);
+        synchronized (entries) {
+            entries.put(key, Optional.ofNullable(reformulated));
+        }
+        return reformulated;
+    }
+
+    /**
+     * Drop all entries if the ontology, mapping or OBDA files changed since they were cached
+     * @return true if the cache was invalidated
+     */
+    public boolean invalidateIfChanged() {
+        String changed = changedFingerprint();
+        if (changed == null) {
+            return false;
+        }
+        invalidate(changed);
+        return true;
+    }
+
+    /**
+     * Fingerprint of the files on disk when it differs from the one the entries were cached
+     * under, otherwise null. Nothing is dropped - see invalidate.
+     */
+    public String changedFingerprint() {
+        String current = fingerprint.current();
+        return current.equals(cachedFingerprint) ? null : current;
+    }
+
+    /**
+     * Drop all entries and cache from now on under the given fingerprint - call once the
+     * engine that reformulates has been reloaded from the files with that fingerprint
+     */
+    public void invalidate(String newFingerprint) {
+        synchronized (entries) {
+            entries.clear();
+            cachedFingerprint = newFingerprint;
+        }
+        System.out.println("Reformulation cache invalidated (ontology or mapping files changed)");
+    }
+
+    /**
+     * Normalize query text so formatting and comments do not create separate entries:
+     * comment lines are dropped and whitespace runs collapse to one space.
+     * Quoted literals are kept verbatim - whitespace inside them is significant.
+     */
+    public static String normalize(String query) {
+        StringBuilder sb = new StringBuilder(query.length());
+        char quote = 0;
+        boolean pendingSpace = false;
+        boolean lineStart = true;
+
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (quote != 0) {
+                sb.append(c);
+                if (c == quote) {
+                    quote = 0;
+                }
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                pendingSpace = sb.length() > 0;
+                if (c == '\n') {
+                    lineStart = true;
+                }
+                continue;
+            }
+            if (lineStart && (c == '#' || query.startsWith("--", i))) {
+                // Comment line: skip to its end
+                while (i + 1 < query.length() && query.charAt(i + 1) != '\n') {
+                    i++;
+                }
+                continue;
+            }
+            lineStart = false;
+            if (pendingSpace) {
+                sb.append(' ');
+                pendingSpace = false;
+            }
+            if (c == '\'' || c == '"') {
+                quote = c;
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getBypasses() {
+        return bypasses.get();
+    }
+
+    /**
+     * Fraction of lookups answered with a cached direct SQL plan
+     */
+    public double getHitRate() {
+        long total = hits.get() + misses.get() + bypasses.get();
+        return total == 0 ? 0.0 : (double) hits.get() / total;
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Print cache statistics
+     */
+    public void printStats() {
+        System.out.printf("Reformulation cache: %d entries, %d hits, %d misses, %d via Ontop (hit rate %.1f%%)%n",
+            size(), getHits(), getMisses(), getBypasses(), getHitRate() * 100);
+    }
+}
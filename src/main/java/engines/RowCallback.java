@@ -0,0 +1,14 @@
+package engines;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Handles the current row of a result set without producing an object per row
+ * (see H2_SQLEngine.forEachRow). Read columns with getInt/getLong/getDouble to
+ * aggregate numbers without boxing. The result set is owned by the engine.
+ */
+@FunctionalInterface
+public interface RowCallback {
+    void processRow(ResultSet rs) throws SQLException;
+}
@@ -0,0 +1,13 @@
+package engines;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the current row of a result set to an object (see H2_SQLEngine.query and stream).
+ * The result set is positioned on the row and owned by the engine - do not advance or close it.
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+    T mapRow(ResultSet rs, int rowNum) throws SQLException;
+}
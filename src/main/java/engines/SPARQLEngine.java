@@ -1,21 +1,40 @@
 package engines;
 
 import config.AppConfig;
+import database.TableChangeTrigger;
 import utils.ObdaToTtlConverter;
+import utils.OntologyFingerprint;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 /**
- * SPARQL Engine - Manages Ontop CLI execution for SPARQL queries.
+ * SPARQL Engine - Manages Ontop execution for SPARQL queries.
  * Handles the full OBDA stack: SPARQL → Ontop → R2RML → SQL → H2.
+ * Runs Ontop in-process or on a pool of warm Ontop workers (see AppConfig.SPARQL_MODE),
+ * otherwise through the Ontop CLI.
  */
 public class SPARQLEngine {
     private H2_SQLEngine dbEngine;
     private String ontologyPath;
-    private String mappingPath; 
+    private String mappingPath;
     private String propertiesPath;
+    private volatile OntopEmbeddedEngine embeddedEngine;
+    private OntopWorkerPool workerPool;
+    private ReformulationCache reformulationCache;
+    private DirectSQLRouter directRouter;
+    private final OntologyFingerprint resultFingerprint = new OntologyFingerprint();
+    private final Map<String, SPARQLTemplate> templates = new ConcurrentHashMap<>();
+    private final QueryResultCache<List<String>> resultCache = AppConfig.RESULT_CACHE_ENABLED
+        ? new QueryResultCache<>("SPARQL", AppConfig.SPARQL_RESULT_CACHE_MAX_CHARS, SPARQLEngine::charCount)
+        : null;
     private boolean isSetup = false;
     
     public SPARQLEngine(H2_SQLEngine dbEngine) {
@@ -28,7 +47,7 @@ public class SPARQLEngine {
     /**
      * Setup SPARQL engine - validates dependencies and creates properties file.
      */
-    public void setup() throws Exception {
+    public synchronized void setup() throws Exception {
         if (isSetup) {
             System.out.println("SPARQL engine already setup");
             return;
@@ -42,86 +61,452 @@ public class SPARQLEngine {
         
         validateFiles();
         createPropertiesFile();
-        
+        startEmbeddedEngine();
+        startWorkerPool();
+        if (AppConfig.SPARQL_DIRECT_SQL) {
+            directRouter = new DirectSQLRouter(dbEngine, resultFingerprint);
+        }
+
         isSetup = true;
         System.out.println("SPARQL Engine setup completed");
+        System.out.println("Mode: " + getMode());
         System.out.println("Ontology: " + ontologyPath);
         System.out.println("Mappings: " + mappingPath);
         System.out.println("Properties: " + propertiesPath);
     }
-    
+
     /**
-     * Execute SPARQL query using Ontop CLI.
+     * Execute SPARQL query and collect all results as CSV lines (header first).
+     * Convenience wrapper over executeSPARQLCursor for small result sets.
+     * Results are cached until a database table or the ontology/mapping files change.
      */
     public List<String> executeSPARQL(String sparqlQuery) throws Exception {
+        return executeSPARQL(sparqlQuery, QueryDeadline.none());
+    }
+
+    /**
+     * Execute SPARQL query, aborting it (and the Ontop work behind it) when the deadline
+     * passes or the token is cancelled - the call then fails with a CancellationException
+     */
+    public List<String> executeSPARQL(String sparqlQuery, QueryDeadline deadline) throws Exception {
+        if (resultCache == null) {
+            return loadSPARQL(sparqlQuery, deadline);
+        }
+
+        // Mappings can read any table, so every SPARQL result depends on all of them
+        List<String> cached = resultCache.get(resultFingerprint.current() + "|" + sparqlQuery,
+            Arrays.asList(TableChangeTrigger.TABLES), () -> Collections.unmodifiableList(loadSPARQL(sparqlQuery, deadline)));
+        return new ArrayList<>(cached);
+    }
+
+    private List<String> loadSPARQL(String sparqlQuery, QueryDeadline deadline) throws Exception {
+        try (SPARQLResultCursor cursor = executeSPARQLCursor(sparqlQuery, deadline)) {
+            List<String> results = cursor.toCsvLines();
+            System.out.println("Query executed successfully (" + results.size() + " lines)");
+            return results;
+        }
+    }
+
+    private static long charCount(List<String> lines) {
+        long chars = 0;
+        for (String line : lines) {
+            chars += line.length() + 1;
+        }
+        return chars;
+    }
+
+    /**
+     * Result cache statistics holder - null when caching is disabled
+     */
+    public QueryResultCache<List<String>> getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * Execute SPARQL query asynchronously on the SPARQL executor (see QueryExecutors),
+     * so several OBDA calls can be fanned out and joined with CompletableFuture.allOf
+     */
+    public CompletableFuture<List<String>> executeSPARQLAsync(String sparqlQuery) {
+        return QueryExecutors.SPARQL.submit(() -> executeSPARQL(sparqlQuery));
+    }
+
+    /**
+     * Asynchronous executeSPARQL with a deadline - cancelling the future cancels the query
+     */
+    public CompletableFuture<List<String>> executeSPARQLAsync(String sparqlQuery, QueryDeadline deadline) {
+        return QueryExecutors.SPARQL.submit(() -> executeSPARQL(sparqlQuery, deadline), deadline);
+    }
+
+    /**
+     * Register a parameterized query (see SPARQLTemplate) - compiled once into a prepared
+     * H2 statement when the embedded engine can reformulate it directly
+     */
+    public SPARQLTemplate registerTemplate(String name, String sparqlTemplate) throws Exception {
         if (!isSetup) {
             setup();
         }
-        
-        List<String> results = new ArrayList<>();
-        Path tempQueryFile = null;
-        Path tempResultFile = null;
-        
+
+        SPARQLTemplate template = new SPARQLTemplate(name, sparqlTemplate);
+        SPARQLTemplate previous = templates.put(name, template);
+        if (previous != null) {
+            previous.invalidate();
+        }
+        compileTemplate(template);
+        return template;
+    }
+
+    /**
+     * Execute a registered template with the given parameter values
+     * @return CSV lines (header first), as executeSPARQL
+     */
+    public List<String> executeTemplate(String name, Map<String, ?> values) throws Exception {
+        SPARQLTemplate template = templates.get(name);
+        if (template == null) {
+            throw new IllegalArgumentException("Unknown SPARQL template: " + name);
+        }
+
+        String fingerprint = resultFingerprint.current();
+        List<String> results;
+        try (Connection connection = dbEngine.getConnection()) {
+            results = template.executeCompiled(values, fingerprint, connection);
+        }
+        if (results == null && template.isCompiled()) {
+            // Ontology or mapping changed - compile again
+            compileTemplate(template);
+            try (Connection connection = dbEngine.getConnection()) {
+                results = template.executeCompiled(values, fingerprint, connection);
+            }
+        }
+        if (results != null) {
+            return results;
+        }
+        return executeSPARQL(template.bind(values));
+    }
+
+    private void compileTemplate(SPARQLTemplate template) {
+        template.invalidate();
+        if (embeddedEngine == null) {
+            return;
+        }
         try {
-            System.out.println("Executing SPARQL Query via Ontop CLI:");
-            System.out.println("Query: " + sparqlQuery.replaceAll("\\s+", " ").trim());
-            
-            tempQueryFile = Files.createTempFile("sparql_query_", ".sparql");
-            tempResultFile = Files.createTempFile("sparql_result_", ".csv");
-            
-            Files.write(tempQueryFile, sparqlQuery.getBytes());
-            
-            String ontopCommand = buildOntopCommand(tempQueryFile, tempResultFile);
-            
-            List<String> command = new ArrayList<>();
-            command.add("cmd");
-            command.add("/c");
-            command.add(ontopCommand);
-            
-            ProcessBuilder pb = new ProcessBuilder(command);
-            pb.directory(new File(System.getProperty("user.dir")));
-            pb.redirectErrorStream(true);
-            
-            Process process = pb.start();
-            
-            StringBuilder processOutput = new StringBuilder();
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    processOutput.append(line).append("\n");
+            ReformulatedQuery plan = onEmbeddedEngine(engine -> engine.reformulate(template.withSentinels()));
+            if (plan != null) {
+                try (Connection connection = dbEngine.getConnection()) {
+                    if (template.compile(plan, connection, resultFingerprint.current())) {
+                        System.out.println("SPARQL template '" + template.getName() + "' compiled to prepared SQL");
+                        return;
+                    }
                 }
             }
-            
-            boolean finished = process.waitFor(30, TimeUnit.SECONDS);
-            
-            if (finished && process.exitValue() == 0) {
-                System.out.println("Process output: " + processOutput.toString().trim());
-                
-                if (Files.exists(tempResultFile)) {
-                    results = Files.readAllLines(tempResultFile);
-                    System.out.println("Query executed successfully (" + results.size() + " lines)");
-                } else {
-                    System.out.println("Query completed but no result file generated");
+        } catch (Exception e) {
+            System.err.println("Could not compile SPARQL template '" + template.getName() + "': " + e.getMessage());
+        }
+        System.out.println("SPARQL template '" + template.getName() + "' runs by substitution");
+    }
+
+    /**
+     * Explain a SPARQL query: the SQL Ontop unfolds it into, H2's EXPLAIN ANALYZE plan for
+     * that SQL and nanosecond timings per phase (see QueryExplain). The query really runs,
+     * bypassing the result cache.
+     *
+     * The breakdown needs the embedded engine; other modes only report the total time.
+     * Decoding is measured as the full Ontop execution (its reformulation is then served from
+     * Ontop's own query cache) minus the raw SQL execution.
+     */
+    public QueryExplain explainSPARQL(String sparqlQuery) throws Exception {
+        if (!isSetup) {
+            setup();
+        }
+
+        if (directRouter != null) {
+            long start = System.nanoTime();
+            ReformulatedQuery direct = directRouter.rewrite(sparqlQuery);
+            long rewriteNanos = System.nanoTime() - start;
+            if (direct != null) {
+                String sqlPlan = dbEngine.explainAnalyze(direct.sql);
+                long executionStart = System.nanoTime();
+                int rows = drain(executeSPARQLCursor(sparqlQuery));
+                long executionNanos = System.nanoTime() - executionStart;
+                return new QueryExplain(sparqlQuery, "direct-sql", direct.sql, sqlPlan, -1, rewriteNanos,
+                    executionNanos, -1, rewriteNanos + executionNanos, rows);
+            }
+        }
+
+        if (embeddedEngine == null) {
+            long start = System.nanoTime();
+            int rows = drain(executeSPARQLCursor(sparqlQuery));
+            return new QueryExplain(sparqlQuery, getMode(), null, null, -1, -1, -1, -1,
+                System.nanoTime() - start, rows);
+        }
+
+        long phaseStart = System.nanoTime();
+        onEmbeddedEngine(engine -> {
+            engine.parse(sparqlQuery);
+            return null;
+        });
+        long parseNanos = System.nanoTime() - phaseStart;
+
+        // Ontop parses again while reformulating - subtract the measured parse time
+        phaseStart = System.nanoTime();
+        String sql = onEmbeddedEngine(engine -> engine.unfoldToSql(sparqlQuery));
+        long reformulationNanos = Math.max(0, System.nanoTime() - phaseStart - parseNanos);
+
+        String sqlPlan = null;
+        long sqlNanos = -1;
+        if (sql != null) {
+            sqlPlan = dbEngine.explainAnalyze(sql);
+
+            phaseStart = System.nanoTime();
+            ResultSet rs = dbEngine.openPreparedQuery(sql);
+            Statement stmt = rs.getStatement();
+            try {
+                while (rs.next()) {
+                    // fetch every row, as Ontop does
                 }
-            } else {
-                throw new RuntimeException("Ontop CLI execution failed. Process output: " + processOutput.toString());
+            } finally {
+                rs.close();
+                stmt.close();
             }
-            
+            sqlNanos = System.nanoTime() - phaseStart;
+        }
+
+        phaseStart = System.nanoTime();
+        int rows = drain(onEmbeddedEngine(engine -> engine.openCursor(sparqlQuery)));
+        long executionNanos = System.nanoTime() - phaseStart;
+        long decodingNanos = sqlNanos >= 0 ? Math.max(0, executionNanos - sqlNanos) : -1;
+
+        return new QueryExplain(sparqlQuery, getMode(), sql, sqlPlan, parseNanos, reformulationNanos,
+            sqlNanos, decodingNanos, parseNanos + reformulationNanos + executionNanos, rows);
+    }
+
+    private static int drain(SPARQLResultCursor cursor) {
+        int rows = 0;
+        try (SPARQLResultCursor results = cursor) {
+            while (results.hasNext()) {
+                results.next();
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Execute SPARQL query and stream its results using the embedded Ontop engine or the
+     * worker pool, or Ontop CLI as fallback. Close the cursor to stop reading early.
+     */
+    public SPARQLResultCursor executeSPARQLCursor(String sparqlQuery) throws Exception {
+        return executeSPARQLCursor(sparqlQuery, QueryDeadline.none());
+    }
+
+    /**
+     * Stream a SPARQL query bound to a deadline. When it passes, the running work is aborted:
+     * the H2 statement or Ontop statement is cancelled, or the Ontop process tree is killed.
+     * The deadline covers reading the cursor too.
+     */
+    public SPARQLResultCursor executeSPARQLCursor(String sparqlQuery, QueryDeadline deadline) throws Exception {
+        if (!isSetup) {
+            setup();
+        }
+        deadline.check();
+
+        try {
+            ReformulatedQuery direct = directRouter != null ? directRouter.rewrite(sparqlQuery) : null;
+            if (direct != null) {
+                directRouter.recordDirectQuery();
+                System.out.println("Executing SPARQL Query via direct SQL (mapping index):");
+                System.out.println("SQL: " + direct.sql);
+                return SPARQLResultCursor.fromResultSet(direct.variables, direct.columns, direct.types,
+                    dbEngine.openPreparedQuery(direct.sql, deadline)).guardedBy(deadline, () -> { });
+            }
+            if (directRouter != null) {
+                directRouter.recordOntopQuery();
+            }
+
+            if (embeddedEngine != null) {
+                return openEmbeddedCursor(sparqlQuery, deadline);
+            }
+            if (workerPool != null) {
+                System.out.println("Executing SPARQL Query via Ontop worker pool:");
+                System.out.println("Query: " + sparqlQuery.replaceAll("\\s+", " ").trim());
+                return workerPool.openCursor(sparqlQuery, deadline);
+            }
+            return openCLICursor(sparqlQuery, deadline);
+
         } catch (Exception e) {
+            if (deadline.isDone()) {
+                throw deadline.toException();
+            }
+            if (InvalidQueryException.isQueryError(e)) {
+                throw new InvalidQueryException("Invalid SPARQL query: " + e.getMessage(), e);
+            }
             throw new RuntimeException("OBDA stack failure: " + e.getMessage());
-            
+        }
+    }
+
+    /**
+     * Execute SPARQL query on the warm in-process Ontop engine.
+     * Queries with a cached directly executable reformulation skip Ontop and run on H2.
+     */
+    private SPARQLResultCursor openEmbeddedCursor(String sparqlQuery, QueryDeadline deadline) throws Exception {
+        ReformulatedQuery reformulated = onEmbeddedEngine(
+            engine -> reformulationCache.getOrReformulate(sparqlQuery, engine::reformulate));
+        if (reformulated != null) {
+            System.out.println("Executing cached SPARQL reformulation on H2:");
+            System.out.println("SQL: " + reformulated.sql.replaceAll("\\s+", " ").trim());
+            return SPARQLResultCursor.fromResultSet(reformulated.variables, reformulated.columns, reformulated.types,
+                dbEngine.openPreparedQuery(reformulated.sql, deadline)).guardedBy(deadline, () -> { });
+        }
+
+        System.out.println("Executing SPARQL Query via embedded Ontop:");
+        System.out.println("Query: " + sparqlQuery.replaceAll("\\s+", " ").trim());
+        return onEmbeddedEngine(engine -> engine.openCursor(sparqlQuery, deadline));
+    }
+
+    /**
+     * Work done on the embedded Ontop engine
+     */
+    private interface EmbeddedCall<T> {
+        T run(OntopEmbeddedEngine engine) throws Exception;
+    }
+
+    /**
+     * Run a call on the current embedded engine, reloading it first when the ontology or
+     * mapping files changed. A call that raced a reload and reached the retired engine is
+     * retried on the new one. When the reload fails the call fails, and the next call
+     * tries the reload again - the old engine never answers for the changed files.
+     */
+    private <T> T onEmbeddedEngine(EmbeddedCall<T> call) throws Exception {
+        while (true) {
+            synchronized (this) {
+                ReformulationCache cache = reformulationCache;
+                if (cache == null) {
+                    throw new IllegalStateException("Embedded Ontop engine was cleaned up");
+                }
+                String changed = cache.changedFingerprint();
+                if (changed != null) {
+                    restartEmbeddedEngine(cache, changed);
+                }
+            }
+            OntopEmbeddedEngine engine = embeddedEngine;
+            if (engine == null) {
+                throw new IllegalStateException("Embedded Ontop engine was cleaned up");
+            }
+            try {
+                return call.run(engine);
+            } catch (OntopEmbeddedEngine.RetiredException e) {
+                // replaced while this call started - use the reloaded engine
+            }
+        }
+    }
+
+    /**
+     * Execute SPARQL query using Ontop CLI (one process per query).
+     * The query is piped to the CLI on stdin and the CSV results are streamed from its stdout,
+     * so no temp files are written (Windows has no /dev/stdin - there the query still goes
+     * through one temp file). Closing the cursor early or reaching the deadline stops the process.
+     */
+    private SPARQLResultCursor openCLICursor(String sparqlQuery, QueryDeadline deadline) throws Exception {
+        System.out.println("Executing SPARQL Query via Ontop CLI:");
+        System.out.println("Query: " + sparqlQuery.replaceAll("\\s+", " ").trim());
+
+        Path queryFile = null;
+        if (AppConfig.isWindows()) {
+            queryFile = Files.createTempFile("sparql_query_", ".sparql");
+            Files.write(queryFile, sparqlQuery.getBytes(StandardCharsets.UTF_8));
+        }
+
+        ProcessBuilder pb = new ProcessBuilder(buildOntopCommand(queryFile));
+        pb.directory(AppConfig.PROJECT_ROOT.toFile());
+        Process process;
+        try {
+            process = pb.start();
+        } catch (IOException e) {
+            deleteTempFiles(queryFile);
+            throw e;
+        }
+
+        // Drain stderr in the background so CLI logging can never fill the pipe and block it
+        StringBuilder errorOutput = new StringBuilder();
+        Thread errorDrainer = new Thread(() -> {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getErrorStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    synchronized (errorOutput) {
+                        errorOutput.append(line).append("\n");
+                    }
+                }
+            } catch (IOException e) {
+                // Process was stopped
+            }
+        }, "ontop-cli-stderr");
+        errorDrainer.setDaemon(true);
+        errorDrainer.start();
+
+        Path cleanupFile = queryFile;
+        QueryDeadline.Registration abortRegistration = deadline.onAbort(() -> stopCLIProcess(process, cleanupFile));
+        SPARQLResultCursor cursor = null;
+        boolean handedOver = false;
+        try {
+            try (OutputStream stdin = process.getOutputStream()) {
+                if (queryFile == null) {
+                    stdin.write(sparqlQuery.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+
+            cursor = SPARQLResultCursor.fromCsv(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8),
+                () -> stopCLIProcess(process, cleanupFile)).guardedBy(deadline, abortRegistration);
+
+            if (cursor.getVariables().isEmpty()) {
+                // Nothing on stdout - either an empty result or a failure, the exit code tells
+                boolean finished = process.waitFor(Math.min(deadline.remainingMillis(), Long.MAX_VALUE / 2),
+                    TimeUnit.MILLISECONDS);
+                if (!finished || process.exitValue() != 0) {
+                    errorDrainer.join(1000);
+                    synchronized (errorOutput) {
+                        if (InvalidQueryException.mentionsQueryError(errorOutput.toString())) {
+                            throw new InvalidQueryException("Ontop CLI rejected the query. Process output: " + errorOutput);
+                        }
+                        throw new RuntimeException("Ontop CLI execution failed. Process output: " + errorOutput);
+                    }
+                }
+            }
+            handedOver = true;
+            return cursor;
+
         } finally {
-            if (tempQueryFile != null) {
-                try { Files.deleteIfExists(tempQueryFile); } catch (Exception e) { }
+            if (!handedOver) {
+                if (cursor != null) {
+                    cursor.close();
+                } else {
+                    abortRegistration.close();
+                    stopCLIProcess(process, cleanupFile);
+                }
             }
-            if (tempResultFile != null) {
-                try { Files.deleteIfExists(tempResultFile); } catch (Exception e) { }
+        }
+    }
+
+    /**
+     * Stop the CLI process (and the JVM its launcher script forked) once its output is no
+     * longer read, then delete the query file if one was needed
+     */
+    private static void stopCLIProcess(Process process, Path queryFile) {
+        if (process.isAlive()) {
+            process.descendants().forEach(ProcessHandle::destroyForcibly);
+            process.destroyForcibly();
+        }
+        deleteTempFiles(queryFile);
+    }
+
+    private static void deleteTempFiles(Path... files) {
+        for (Path file : files) {
+            if (file != null) {
+                try { Files.deleteIfExists(file); } catch (Exception e) { }
             }
         }
-        
-        return results;
     }
-    
+
     /**
      * Run SPARQL test queries.
      */
@@ -223,27 +608,117 @@ public class SPARQLEngine {
         
         System.out.println("Properties file created/updated");
     }
+
+    /**
+     * Start the in-process Ontop engine when configured and available.
+     * Falls back to the Ontop CLI if the Ontop libraries are missing or fail to load.
+     */
+    private void startEmbeddedEngine() {
+        if (!"embedded".equalsIgnoreCase(AppConfig.SPARQL_MODE)) {
+            return;
+        }
+        if (!OntopEmbeddedEngine.isAvailable()) {
+            System.out.println("Ontop libraries not found in " + AppConfig.ONTOP_LIB_DIR + " - using Ontop CLI");
+            return;
+        }
+
+        OntopEmbeddedEngine engine = new OntopEmbeddedEngine();
+        try {
+            engine.start(ontologyPath, mappingPath, propertiesPath);
+            embeddedEngine = engine;
+            reformulationCache = new ReformulationCache(new OntologyFingerprint());
+        } catch (Exception e) {
+            System.err.println("Embedded Ontop engine failed to start, using Ontop CLI: " + e.getMessage());
+            engine.stop();
+        }
+    }
+
+    /**
+     * Reload the embedded engine after the ontology or mapping files changed on disk.
+     * The new engine is started before it replaces the old one, which stops once the
+     * cursors still open on it are closed. The cache moves to the new fingerprint only
+     * after a successful start, and only once the old engine refuses new reformulations,
+     * so none of its results are cached for the changed files. Caller holds this.
+     */
+    private void restartEmbeddedEngine(ReformulationCache cache, String fingerprint) throws Exception {
+        System.out.println("Ontology or mapping files changed - reloading embedded Ontop engine");
+        validateFiles();
+        OntopEmbeddedEngine reloaded = new OntopEmbeddedEngine();
+        try {
+            reloaded.start(ontologyPath, mappingPath, propertiesPath);
+        } catch (Exception e) {
+            reloaded.stop();
+            System.err.println("Embedded Ontop engine reload failed, retrying on the next query: " + e.getMessage());
+            throw e;
+        }
+        OntopEmbeddedEngine previous = embeddedEngine;
+        if (previous != null) {
+            // Calls racing the swap get RetiredException and wait for the lock to retry
+            previous.retire();
+        }
+        cache.invalidate(fingerprint);
+        embeddedEngine = reloaded;
+    }
+
+    /**
+     * Start the pool of warm Ontop worker processes when configured.
+     * Falls back to the Ontop CLI if the workers cannot be started.
+     */
+    private void startWorkerPool() {
+        if (!"pool".equalsIgnoreCase(AppConfig.SPARQL_MODE)) {
+            return;
+        }
+        String ontopPath = findOntopCLI();
+        if (ontopPath == null) {
+            System.out.println("Ontop CLI not found - worker pool not started");
+            return;
+        }
+
+        OntopWorkerPool pool = new OntopWorkerPool(ontopPath, ontologyPath, mappingPath, propertiesPath);
+        try {
+            pool.start();
+            workerPool = pool;
+        } catch (Exception e) {
+            System.err.println("Ontop worker pool failed to start, using Ontop CLI: " + e.getMessage());
+            pool.stop();
+        }
+    }
+
+    /**
+     * Describe how SPARQL queries are currently executed
+     */
+    public String getMode() {
+        if (embeddedEngine != null) {
+            return "embedded Ontop";
+        }
+        if (workerPool != null) {
+            return "Ontop worker pool";
+        }
+        return "Ontop CLI";
+    }
     
     /**
      * Build Ontop CLI command.
      */
-    private String buildOntopCommand(Path queryFile, Path resultFile) {
+    private List<String> buildOntopCommand(Path queryFile) {
         String ontopPath = findOntopCLI();
         if (ontopPath == null) {
             throw new RuntimeException("Ontop CLI not found. Please install Ontop CLI.");
         }
         
-        StringBuilder cmd = new StringBuilder();
-        cmd.append(ontopPath)
-           .append(" query")
-           .append(" --ontology \"").append(ontologyPath).append("\"")
-           .append(" --mapping \"").append(mappingPath).append("\"")
-           .append(" --properties \"").append(propertiesPath).append("\"")
-           .append(" --query \"").append(queryFile.toString()).append("\"")
-           .append(" --output \"").append(resultFile.toString()).append("\"");
+        List<String> command = new ArrayList<>();
+        if (AppConfig.isWindows()) {
+            command.addAll(Arrays.asList("cmd", "/c"));
+        }
+        // No --output: results are written to stdout
+        command.addAll(Arrays.asList(ontopPath, "query",
+            "--ontology", ontologyPath,
+            "--mapping", mappingPath,
+            "--properties", propertiesPath,
+            "--query", queryFile != null ? queryFile.toString() : "/dev/stdin"));
         
-        System.out.println("Full OBDA Command: " + cmd.toString());
-        return cmd.toString();
+        System.out.println("Full OBDA Command: " + String.join(" ", command));
+        return command;
     }
     
     /**
@@ -278,6 +753,20 @@ public class SPARQLEngine {
         return null;
     }
     
+    /**
+     * Fast-path router for simple patterns - null when disabled or before setup
+     */
+    public DirectSQLRouter getDirectSQLRouter() {
+        return directRouter;
+    }
+
+    /**
+     * Get the SPARQL → SQL reformulation cache (embedded mode only, null otherwise).
+     */
+    public ReformulationCache getReformulationCache() {
+        return reformulationCache;
+    }
+
     /**
      * Check if engine is setup.
      */
@@ -289,6 +778,29 @@ public class SPARQLEngine {
      * Cleanup resources.
      */
     public void cleanup() {
+        for (SPARQLTemplate template : templates.values()) {
+            template.invalidate();
+        }
+        if (resultCache != null) {
+            resultCache.printStats();
+        }
+        if (directRouter != null) {
+            directRouter.printStats();
+        }
+        synchronized (this) {
+            // Under the lock a reload holds, so a reload in progress cannot publish its engine afterwards
+            if (embeddedEngine != null) {
+                reformulationCache.printStats();
+                embeddedEngine.retire();
+                embeddedEngine = null;
+                reformulationCache = null;
+            }
+        }
+        if (workerPool != null) {
+            workerPool.stop();
+            workerPool = null;
+        }
+        isSetup = false;
         System.out.println("SPARQL Engine cleanup completed");
     }
 }
@@ -0,0 +1,286 @@
+package engines;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Streaming cursor over SPARQL results.
+ * Rows are pulled from the backend one at a time as the caller iterates, so memory stays
+ * flat regardless of result size and a slow consumer throttles the producer (backpressure).
+ * Closing the cursor early stops the query and frees the backend (statement, worker, process).
+ *
+ * Always use in try-with-resources:
+ *   try (SPARQLResultCursor cursor = sparqlEngine.executeSPARQLCursor(query)) { ... }
+ */
+public abstract class SPARQLResultCursor implements Iterator<BindingRow>, AutoCloseable {
+    private final List<String> variables;
+    private BindingRow nextRow;
+    private boolean finished = false;
+    private boolean closed = false;
+    private QueryDeadline deadline;
+    private QueryDeadline.Registration abortRegistration;
+
+    protected SPARQLResultCursor(List<String> variables) {
+        this.variables = Collections.unmodifiableList(new ArrayList<>(variables));
+    }
+
+    /**
+     * Fetch the next row of values from the backend
+     * @return values in variable order, or null when the results are exhausted
+     */
+    protected abstract String[] fetchRow() throws Exception;
+
+    /**
+     * Term types of the row fetchRow just returned, in variable order - null when the
+     * backend does not report them
+     */
+    protected TermType[] fetchTypes() throws Exception {
+        return null;
+    }
+
+    /**
+     * Release backend resources - called once, on exhaustion or close
+     */
+    protected abstract void release() throws Exception;
+
+    public List<String> getVariables() {
+        return variables;
+    }
+
+    /**
+     * Tie the cursor to a deadline: reading fails with a CancellationException once it is
+     * done, and the abort action registration is released when the cursor closes
+     */
+    public SPARQLResultCursor guardedBy(QueryDeadline deadline, QueryDeadline.Registration abortRegistration) {
+        this.deadline = deadline;
+        this.abortRegistration = abortRegistration;
+        return this;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextRow != null) {
+            return true;
+        }
+        if (finished || closed) {
+            return false;
+        }
+
+        if (deadline != null && deadline.isDone()) {
+            close();
+            throw deadline.toException();
+        }
+
+        try {
+            String[] values = fetchRow();
+            if (values == null) {
+                finished = true;
+                close();
+                return false;
+            }
+            nextRow = new BindingRow(variables, values, fetchTypes());
+            return true;
+        } catch (Exception e) {
+            close();
+            if (deadline != null && deadline.isDone()) {
+                throw deadline.toException();
+            }
+            throw new RuntimeException("SPARQL result streaming failed: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public BindingRow next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        BindingRow row = nextRow;
+        nextRow = null;
+        return row;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        nextRow = null;
+        if (abortRegistration != null) {
+            abortRegistration.close();
+        }
+        try {
+            release();
+        } catch (Exception e) {
+            System.err.println("Could not release SPARQL result cursor: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Drain the remaining rows into CSV lines (header first), the layout of Ontop CLI output
+     */
+    public List<String> toCsvLines() {
+        List<String> lines = new ArrayList<>();
+        if (!variables.isEmpty()) {
+            lines.add(String.join(",", variables));
+        }
+        while (hasNext()) {
+            lines.add(next().toCsvLine());
+        }
+        return lines;
+    }
+
+    /**
+     * Cursor with no results
+     */
+    public static SPARQLResultCursor empty() {
+        return new SPARQLResultCursor(Collections.emptyList()) {
+            @Override
+            protected String[] fetchRow() {
+                return null;
+            }
+
+            @Override
+            protected void release() {
+            }
+        };
+    }
+
+    /**
+     * Cursor over SPARQL CSV results (header line + one line per row) read lazily from a stream
+     * @param onClose backend cleanup to run after the reader is closed (may be null)
+     */
+    public static SPARQLResultCursor fromCsv(Reader reader, Runnable onClose) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        String[] header = csv.readRecord();
+        List<String> variables = new ArrayList<>();
+        if (header != null) {
+            for (String variable : header) {
+                if (variable != null) {
+                    variables.add(variable.startsWith("?") ? variable.substring(1) : variable);
+                }
+            }
+        }
+
+        return new SPARQLResultCursor(variables) {
+            @Override
+            protected String[] fetchRow() throws IOException {
+                return csv.readRecord();
+            }
+
+            @Override
+            protected void release() throws IOException {
+                try {
+                    csv.close();
+                } finally {
+                    if (onClose != null) {
+                        onClose.run();
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Cursor over SPARQL TSV results: header line, then one line per row with each value
+     * in RDF term syntax, so IRIs, blank nodes and literal datatypes are kept
+     * @param onClose backend cleanup to run after the reader is closed (may be null)
+     */
+    public static SPARQLResultCursor fromTsv(Reader reader, Runnable onClose) throws IOException {
+        TsvTermReader tsv = new TsvTermReader(reader);
+        List<String> variables = new ArrayList<>();
+        String[] header = tsv.readHeader();
+        if (header != null) {
+            for (String variable : header) {
+                variables.add(variable.startsWith("?") ? variable.substring(1) : variable);
+            }
+        }
+
+        return new SPARQLResultCursor(variables) {
+            @Override
+            protected String[] fetchRow() throws IOException {
+                return tsv.readRecord() ? tsv.getValues() : null;
+            }
+
+            @Override
+            protected TermType[] fetchTypes() {
+                return tsv.getTypes();
+            }
+
+            @Override
+            protected void release() throws IOException {
+                try {
+                    tsv.close();
+                } finally {
+                    if (onClose != null) {
+                        onClose.run();
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Cursor over an open JDBC result set - each SPARQL variable is read from one column.
+     * The result set and its statement are closed with the cursor.
+     */
+    public static SPARQLResultCursor fromResultSet(List<String> variables, List<String> columns, ResultSet rs) {
+        return fromResultSet(variables, columns, null, rs);
+    }
+
+    /**
+     * Cursor over an open JDBC result set whose columns hold terms of the given types
+     * (null when unknown); literal datatypes may be read per row from another column
+     */
+    public static SPARQLResultCursor fromResultSet(List<String> variables, List<String> columns,
+                                                   List<TermType> types, ResultSet rs) {
+        return new SPARQLResultCursor(variables) {
+            @Override
+            protected String[] fetchRow() throws Exception {
+                if (!rs.next()) {
+                    return null;
+                }
+                String[] values = new String[columns.size()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = rs.getString(columns.get(i));
+                }
+                return values;
+            }
+
+            @Override
+            protected TermType[] fetchTypes() throws Exception {
+                if (types == null) {
+                    return null;
+                }
+                TermType[] row = new TermType[types.size()];
+                for (int i = 0; i < row.length; i++) {
+                    TermType type = types.get(i);
+                    row[i] = type != null && type.getDatatypeColumn() != null
+                        ? TermType.literal(rs.getString(type.getDatatypeColumn()))
+                        : type;
+                }
+                return row;
+            }
+
+            @Override
+            protected void release() throws Exception {
+                // A closed result set no longer hands out its statement
+                Statement stmt = rs.getStatement();
+                try {
+                    rs.close();
+                } finally {
+                    if (stmt != null) {
+                        stmt.close();
+                    }
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,287 @@
+package engines;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * SPARQL query with named parameters, written as {{name}}:
+ *
+ *   SELECT ?name WHERE {
+ *     ?p :playsFor <http://www.semanticweb.org/sports/data#team/{{team}}> ;
+ *        :hasName ?name ; :hasMarketValue ?value .
+ *     FILTER(?value > {{min}})
+ *   }
+ *
+ * A parameter inside quotes ("{{name}}") is a string; elsewhere it is a number or an
+ * IRI fragment. Registered through SPARQLEngine.registerTemplate.
+ *
+ * Compilation reformulates the template once with sentinel values in place of the
+ * parameters, finds those sentinels in Ontop's SQL and turns them into JDBC parameters.
+ * Each execution prepares that SQL on a pooled connection, whose statement cache keeps
+ * the parsed statement between executions. When that is not possible (sentinel
+ * folded away, result needs Ontop decoding, no embedded engine) the template is executed
+ * by substituting the values into the query text.
+ */
+public class SPARQLTemplate {
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{\\{\\s*(\\w+)\\s*\\}\\}");
+    private static final Pattern SAFE_TOKEN = Pattern.compile("[A-Za-z0-9_.:\\-]+");
+    private static final long NUMERIC_SENTINEL_BASE = 987654321000L;
+
+    private final String name;
+    private final String sparql;
+    private final List<String> parameters;
+
+    // Compiled plan - guarded by this
+    private ReformulatedQuery plan;
+    private int[] bindOrder;
+    private String fingerprint;
+
+    public SPARQLTemplate(String name, String sparql) {
+        this.name = name;
+        this.sparql = sparql;
+
+        Set<String> names = new LinkedHashSet<>();
+        Matcher matcher = PLACEHOLDER.matcher(sparql);
+        while (matcher.find()) {
+            names.add(matcher.group(1));
+        }
+        this.parameters = Collections.unmodifiableList(new ArrayList<>(names));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSparql() {
+        return sparql;
+    }
+
+    public List<String> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * The query with every parameter replaced by its sentinel value, for reformulation
+     */
+    String withSentinels() {
+        return substitute(null);
+    }
+
+    /**
+     * The query with the given values substituted into the text (uncompiled execution).
+     * Values outside quotes must be numbers or plain tokens, so they cannot change the query shape.
+     */
+    public String bind(Map<String, ?> values) {
+        checkValues(values);
+        return substitute(values);
+    }
+
+    private String substitute(Map<String, ?> values) {
+        StringBuilder sb = new StringBuilder(sparql.length());
+        Matcher matcher = PLACEHOLDER.matcher(sparql);
+        int last = 0;
+        while (matcher.find()) {
+            sb.append(sparql, last, matcher.start());
+            String parameter = matcher.group(1);
+            boolean quoted = isQuoted(matcher.start(), matcher.end());
+            if (values == null) {
+                sb.append(sentinel(parameters.indexOf(parameter), quoted));
+            } else if (quoted) {
+                sb.append(String.valueOf(values.get(parameter)).replace("\\", "\\\\").replace("\"", "\\\""));
+            } else {
+                String value = String.valueOf(values.get(parameter));
+                if (!(values.get(parameter) instanceof Number) && !SAFE_TOKEN.matcher(value).matches()) {
+                    throw new IllegalArgumentException("Parameter '" + parameter + "' of template " + name
+                        + " must be a number or a plain token, got: " + value);
+                }
+                sb.append(value);
+            }
+            last = matcher.end();
+        }
+        sb.append(sparql, last, sparql.length());
+        return sb.toString();
+    }
+
+    private boolean isQuoted(int start, int end) {
+        return start > 0 && end < sparql.length()
+            && sparql.charAt(start - 1) == '"' && sparql.charAt(end) == '"';
+    }
+
+    private static String sentinel(int index, boolean quoted) {
+        return quoted ? "__sparql_param_" + index + "__" : String.valueOf(NUMERIC_SENTINEL_BASE + index);
+    }
+
+    /**
+     * Turn the reformulated SQL of withSentinels() into parameterized SQL, checked by preparing it.
+     * @return false if some parameter cannot be mapped to a JDBC parameter
+     */
+    synchronized boolean compile(ReformulatedQuery sentinelPlan, Connection connection, String fingerprint) {
+        invalidate();
+
+        List<Integer> order = new ArrayList<>();
+        String sql = parameterize(sentinelPlan.sql, order);
+        if (sql == null || !order.containsAll(indices())) {
+            return false;
+        }
+
+        try {
+            // prepared once to validate - and to warm the connection's statement cache
+            connection.prepareStatement(sql).close();
+        } catch (SQLException e) {
+            // e.g. a sentinel rendered in a form we cannot turn into a parameter
+            return false;
+        }
+        this.plan = new ReformulatedQuery(sql, sentinelPlan.variables, sentinelPlan.columns, sentinelPlan.types);
+        this.bindOrder = order.stream().mapToInt(Integer::intValue).toArray();
+        this.fingerprint = fingerprint;
+        return true;
+    }
+
+    /**
+     * Replace sentinel literals and numbers in the SQL by '?', recording which parameter each one binds.
+     * Returns null when a sentinel only occurs inside a larger string literal.
+     */
+    private String parameterize(String sql, List<Integer> order) {
+        StringBuilder out = new StringBuilder(sql.length());
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                StringBuilder literal = new StringBuilder();
+                int end = i + 1;
+                while (end < sql.length()) {
+                    char d = sql.charAt(end);
+                    if (d == '\'') {
+                        if (end + 1 < sql.length() && sql.charAt(end + 1) == '\'') {
+                            literal.append('\'');
+                            end += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    literal.append(d);
+                    end++;
+                }
+                int index = sentinelIndex(literal.toString());
+                if (index >= 0) {
+                    out.append('?');
+                    order.add(index);
+                } else if (containsSentinel(literal.toString())) {
+                    return null;
+                } else {
+                    out.append(sql, i, Math.min(end + 1, sql.length()));
+                }
+                i = end + 1;
+            } else if (Character.isDigit(c) && (i == 0 || !Character.isLetterOrDigit(sql.charAt(i - 1)) && sql.charAt(i - 1) != '_')) {
+                int end = i;
+                while (end < sql.length() && Character.isDigit(sql.charAt(end))) {
+                    end++;
+                }
+                int index = sentinelIndex(sql.substring(i, end));
+                if (index >= 0) {
+                    out.append('?');
+                    order.add(index);
+                } else {
+                    out.append(sql, i, end);
+                }
+                i = end;
+            } else {
+                out.append(c);
+                i++;
+            }
+        }
+        return out.toString();
+    }
+
+    private int sentinelIndex(String token) {
+        for (int index = 0; index < parameters.size(); index++) {
+            if (token.equals(sentinel(index, true)) || token.equals(sentinel(index, false))) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private boolean containsSentinel(String text) {
+        for (int index = 0; index < parameters.size(); index++) {
+            if (text.contains(sentinel(index, true)) || text.contains(sentinel(index, false))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<Integer> indices() {
+        List<Integer> indices = new ArrayList<>();
+        for (int index = 0; index < parameters.size(); index++) {
+            indices.add(index);
+        }
+        return indices;
+    }
+
+    /**
+     * Run the compiled SQL with the given values on the given connection
+     * @return CSV lines (header first), or null if the template is not compiled for this fingerprint
+     */
+    List<String> executeCompiled(Map<String, ?> values, String currentFingerprint, Connection connection) throws SQLException {
+        ReformulatedQuery plan;
+        int[] bindOrder;
+        synchronized (this) {
+            if (this.plan == null || !currentFingerprint.equals(fingerprint)) {
+                return null;
+            }
+            plan = this.plan;
+            bindOrder = this.bindOrder;
+        }
+        checkValues(values);
+
+        List<String> lines = new ArrayList<>();
+        lines.add(String.join(",", plan.variables));
+        try (PreparedStatement statement = connection.prepareStatement(plan.sql)) {
+            for (int i = 0; i < bindOrder.length; i++) {
+                statement.setObject(i + 1, values.get(parameters.get(bindOrder[i])));
+            }
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    String[] row = new String[plan.columns.size()];
+                    for (int i = 0; i < row.length; i++) {
+                        row[i] = rs.getString(plan.columns.get(i));
+                    }
+                    lines.add(new BindingRow(plan.variables, row).toCsvLine());
+                }
+            }
+        }
+        return lines;
+    }
+
+    public synchronized boolean isCompiled() {
+        return plan != null;
+    }
+
+    /**
+     * Drop the compiled plan
+     */
+    synchronized void invalidate() {
+        plan = null;
+        bindOrder = null;
+        fingerprint = null;
+    }
+
+    private void checkValues(Map<String, ?> values) {
+        for (String parameter : parameters) {
+            if (values.get(parameter) == null) {
+                throw new IllegalArgumentException("Missing value for parameter '" + parameter + "' of template " + name);
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package engines;
+
+/**
+ * Kind of RDF term bound to a SPARQL variable: IRI, blank node or literal with its datatype
+ * (or language tag). Carried next to the lexical values in BindingRow so results can be
+ * written in formats that need it, such as SPARQL JSON.
+ *
+ * For results read straight from SQL, a literal's datatype may instead come from a column
+ * of the result (literalFromColumn) - SPARQLResultCursor.fromResultSet resolves it per row.
+ */
+public final class TermType {
+    public static final String XSD = "http://www.w3.org/2001/XMLSchema#";
+    public static final String XSD_STRING = XSD + "string";
+    public static final String RDF_LANG_STRING = "http://www.w3.org/1999/02/22-rdf-syntax-ns#langString";
+
+    public enum Kind { IRI, BNODE, LITERAL }
+
+    public static final TermType IRI = new TermType(Kind.IRI, null, null, null);
+    public static final TermType BNODE = new TermType(Kind.BNODE, null, null, null);
+    public static final TermType STRING = new TermType(Kind.LITERAL, XSD_STRING, null, null);
+
+    private final Kind kind;
+    private final String datatype;
+    private final String language;
+    private final String datatypeColumn;
+
+    private TermType(Kind kind, String datatype, String language, String datatypeColumn) {
+        this.kind = kind;
+        this.datatype = datatype;
+        this.language = language;
+        this.datatypeColumn = datatypeColumn;
+    }
+
+    /**
+     * Literal of the given datatype - xsd:string when null or empty
+     */
+    public static TermType literal(String datatype) {
+        if (datatype == null || datatype.isEmpty() || datatype.equals(XSD_STRING)) {
+            return STRING;
+        }
+        return new TermType(Kind.LITERAL, datatype, null, null);
+    }
+
+    /**
+     * Language-tagged string literal
+     */
+    public static TermType languageLiteral(String language) {
+        return new TermType(Kind.LITERAL, RDF_LANG_STRING, language, null);
+    }
+
+    /**
+     * Literal whose datatype IRI is read per row from a SQL result column (empty = xsd:string)
+     */
+    public static TermType literalFromColumn(String column) {
+        return new TermType(Kind.LITERAL, null, null, column);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public boolean isIri() {
+        return kind == Kind.IRI;
+    }
+
+    public boolean isLiteral() {
+        return kind == Kind.LITERAL;
+    }
+
+    /**
+     * Datatype IRI of a literal, null for IRIs and blank nodes
+     */
+    public String getDatatype() {
+        return datatype;
+    }
+
+    /**
+     * Language tag of a language-tagged literal, otherwise null
+     */
+    public String getLanguage() {
+        return language;
+    }
+
+    /**
+     * Result column holding the datatype, null when the type is fixed
+     */
+    public String getDatatypeColumn() {
+        return datatypeColumn;
+    }
+
+    @Override
+    public String toString() {
+        if (kind != Kind.LITERAL) {
+            return kind.name();
+        }
+        if (datatypeColumn != null) {
+            return "LITERAL(datatype from " + datatypeColumn + ")";
+        }
+        return language != null ? "LITERAL@" + language : "LITERAL^^" + datatype;
+    }
+}
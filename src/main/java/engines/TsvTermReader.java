@@ -0,0 +1,182 @@
+package engines;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.regex.Pattern;
+
+/**
+ * Streaming reader for SPARQL 1.1 TSV results.
+ * Unlike CSV, each value is written in RDF term syntax (<iri>, _:bnode, "lexical"^^<datatype>,
+ * "lexical"@lang, or a bare number or boolean), so the term type survives the transport.
+ * Every row is one line: tabs and line breaks inside literals are escaped. An empty field
+ * is an unbound variable.
+ */
+public class TsvTermReader implements Closeable {
+    private static final Pattern INTEGER = Pattern.compile("[+-]?\\d+");
+    private static final Pattern DECIMAL = Pattern.compile("[+-]?\\d*\\.\\d+");
+
+    private final BufferedReader in;
+    private int width = -1;
+    private String[] values;
+    private TermType[] types;
+
+    public TsvTermReader(Reader in) {
+        this.in = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+    }
+
+    /**
+     * Read the header line
+     * @return the variable names as written (with '?'), or null for empty input
+     */
+    public String[] readHeader() throws IOException {
+        String line = nextLine();
+        if (line == null) {
+            return null;
+        }
+        String[] header = line.split("\t", -1);
+        width = header.length;
+        return header;
+    }
+
+    /**
+     * Read the next row into getValues / getTypes
+     * @return false at end of input
+     */
+    public boolean readRecord() throws IOException {
+        String line = nextLine();
+        if (line == null) {
+            return false;
+        }
+        String[] fields = line.split("\t", -1);
+        int count = Math.max(width, fields.length);
+        values = new String[count];
+        types = new TermType[count];
+        for (int i = 0; i < fields.length; i++) {
+            parseTerm(fields[i], i);
+        }
+        return true;
+    }
+
+    /**
+     * Lexical values of the current row - IRIs without brackets, blank node labels without '_:'
+     */
+    public String[] getValues() {
+        return values;
+    }
+
+    public TermType[] getTypes() {
+        return types;
+    }
+
+    private String nextLine() throws IOException {
+        String line;
+        do {
+            line = in.readLine();
+        } while (line != null && line.isEmpty() && width == -1);
+        return line;
+    }
+
+    private void parseTerm(String term, int index) throws IOException {
+        if (term.isEmpty()) {
+            return;
+        }
+        if (term.startsWith("<") && term.endsWith(">")) {
+            values[index] = unescape(term.substring(1, term.length() - 1));
+            types[index] = TermType.IRI;
+        } else if (term.startsWith("_:")) {
+            values[index] = term.substring(2);
+            types[index] = TermType.BNODE;
+        } else if (term.startsWith("\"")) {
+            int close = closingQuote(term);
+            values[index] = unescape(term.substring(1, close));
+            String suffix = term.substring(close + 1);
+            if (suffix.startsWith("^^<") && suffix.endsWith(">")) {
+                types[index] = TermType.literal(suffix.substring(3, suffix.length() - 1));
+            } else if (suffix.startsWith("@")) {
+                types[index] = TermType.languageLiteral(suffix.substring(1));
+            } else if (suffix.isEmpty()) {
+                types[index] = TermType.STRING;
+            } else {
+                throw new IOException("Malformed TSV literal: " + term);
+            }
+        } else {
+            // Turtle shorthand for numbers and booleans
+            values[index] = term;
+            types[index] = TermType.literal(TermType.XSD + shorthandDatatype(term));
+        }
+    }
+
+    private static String shorthandDatatype(String term) throws IOException {
+        if (term.equals("true") || term.equals("false")) {
+            return "boolean";
+        }
+        if (INTEGER.matcher(term).matches()) {
+            return "integer";
+        }
+        if (DECIMAL.matcher(term).matches()) {
+            return "decimal";
+        }
+        try {
+            Double.parseDouble(term);
+            return "double";
+        } catch (NumberFormatException e) {
+            throw new IOException("Unrecognised TSV term: " + term);
+        }
+    }
+
+    private static int closingQuote(String term) throws IOException {
+        for (int i = 1; i < term.length(); i++) {
+            char c = term.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '"') {
+                return i;
+            }
+        }
+        throw new IOException("Unterminated TSV literal: " + term);
+    }
+
+    /**
+     * Resolve the string escapes of Turtle: \t \n \r \b \f \" \' \\ \\uXXXX \\UXXXXXXXX
+     */
+    private static String unescape(String value) throws IOException {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder out = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '\\' || i + 1 == value.length()) {
+                out.append(c);
+                continue;
+            }
+            char escaped = value.charAt(++i);
+            switch (escaped) {
+                case 't': out.append('\t'); break;
+                case 'n': out.append('\n'); break;
+                case 'r': out.append('\r'); break;
+                case 'b': out.append('\b'); break;
+                case 'f': out.append('\f'); break;
+                case 'u':
+                case 'U':
+                    int digits = escaped == 'u' ? 4 : 8;
+                    if (i + digits >= value.length()) {
+                        throw new IOException("Truncated escape in TSV term: " + value);
+                    }
+                    out.appendCodePoint(Integer.parseInt(value.substring(i + 1, i + 1 + digits), 16));
+                    i += digits;
+                    break;
+                default:
+                    out.append(escaped);
+            }
+        }
+        return out.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -38,7 +38,7 @@ public class SportSpecificObdaConverter {
             // Person Mapping with Age calculation
             obdaMappings.append("mappingId\tperson-mapping\n");
             obdaMappings.append("target\t\tdata:person/{PERSON_ID} a :Person ; :hasName {FULL_NAME}^^xsd:string ; :hasNationality {NATIONALITY}^^xsd:string ; :hasAge {AGE}^^xsd:integer .\n");
-            obdaMappings.append("source\t\tSELECT PERSON_ID, FULL_NAME, NATIONALITY, TIMESTAMPDIFF('YEAR', BIRTH_DATE, CURRENT_DATE) as AGE FROM PERSON\n");
+            obdaMappings.append("source\t\tSELECT PERSON_ID, FULL_NAME, NATIONALITY, AGE FROM PERSON\n");
             obdaMappings.append("\n");
             
             // Team Mapping
@@ -188,7 +188,7 @@ public class SportSpecificObdaConverter {
             // YoungPlayer Mapping (under 23)
             obdaMappings.append("mappingId\tyoung-player-mapping\n");
             obdaMappings.append("target\t\tdata:person/{PERSON_ID} a :YoungPlayer .\n");
-            obdaMappings.append("source\t\tSELECT pr.PERSON_ID FROM PLAYER_ROLE pr JOIN PERSON p ON pr.PERSON_ID = p.PERSON_ID WHERE pr.END_DATE IS NULL AND TIMESTAMPDIFF('YEAR', p.BIRTH_DATE, CURRENT_DATE) < 23\n");
+            obdaMappings.append("source\t\tSELECT pr.PERSON_ID FROM PLAYER_ROLE pr JOIN PERSON p ON pr.PERSON_ID = p.PERSON_ID WHERE pr.END_DATE IS NULL AND p.AGE < 23\n");
             obdaMappings.append("\n");
             
             // TopPlayer Mapping (market value >= 50M)
@@ -206,13 +206,13 @@ public class SportSpecificObdaConverter {
             // VeteranPlayer Mapping (age >= 33)
             obdaMappings.append("mappingId\tveteran-player-mapping\n");
             obdaMappings.append("target\t\tdata:person/{PERSON_ID} a :VeteranPlayer .\n");
-            obdaMappings.append("source\t\tSELECT pr.PERSON_ID FROM PLAYER_ROLE pr JOIN PERSON p ON pr.PERSON_ID = p.PERSON_ID WHERE pr.END_DATE IS NULL AND TIMESTAMPDIFF('YEAR', p.BIRTH_DATE, CURRENT_DATE) >= 33\n");
+            obdaMappings.append("source\t\tSELECT pr.PERSON_ID FROM PLAYER_ROLE pr JOIN PERSON p ON pr.PERSON_ID = p.PERSON_ID WHERE pr.END_DATE IS NULL AND p.AGE >= 33\n");
             obdaMappings.append("\n");
             
             // ExperiencedPlayer Mapping (age >= 28)
             obdaMappings.append("mappingId\texperienced-player-mapping\n");
             obdaMappings.append("target\t\tdata:person/{PERSON_ID} a :ExperiencedPlayer .\n");
-            obdaMappings.append("source\t\tSELECT pr.PERSON_ID FROM PLAYER_ROLE pr JOIN PERSON p ON pr.PERSON_ID = p.PERSON_ID WHERE pr.END_DATE IS NULL AND TIMESTAMPDIFF('YEAR', p.BIRTH_DATE, CURRENT_DATE) >= 28\n");
+            obdaMappings.append("source\t\tSELECT pr.PERSON_ID FROM PLAYER_ROLE pr JOIN PERSON p ON pr.PERSON_ID = p.PERSON_ID WHERE pr.END_DATE IS NULL AND p.AGE >= 28\n");
             obdaMappings.append("\n");
             
             // HomegrownPlayer Mapping (all active players - simplified)
@@ -234,7 +234,7 @@ public class SportSpecificObdaConverter {
             // TopCoach Mapping (experienced head coaches, age >= 50)
             obdaMappings.append("mappingId\ttop-coach-mapping\n");
             obdaMappings.append("target\t\tdata:person/{PERSON_ID} a :TopCoach .\n");
-            obdaMappings.append("source\t\tSELECT cr.PERSON_ID FROM COACH_ROLE cr JOIN PERSON p ON cr.PERSON_ID = p.PERSON_ID WHERE cr.END_DATE IS NULL AND cr.ROLE_TYPE = 'HeadCoach' AND TIMESTAMPDIFF('YEAR', p.BIRTH_DATE, CURRENT_DATE) >= 50\n");
+            obdaMappings.append("source\t\tSELECT cr.PERSON_ID FROM COACH_ROLE cr JOIN PERSON p ON cr.PERSON_ID = p.PERSON_ID WHERE cr.END_DATE IS NULL AND cr.ROLE_TYPE = 'HeadCoach' AND p.AGE >= 50\n");
             obdaMappings.append("\n");
             
             // ========================================================================
@@ -250,13 +250,13 @@ public class SportSpecificObdaConverter {
             // Years Experience Mapping (age-based calculation)
             obdaMappings.append("mappingId\tyears-experience-mapping\n");
             obdaMappings.append("target\t\tdata:person/{PERSON_ID} :hasYearsExperience {EXPERIENCE}^^xsd:integer .\n");
-            obdaMappings.append("source\t\tSELECT pr.PERSON_ID, GREATEST(0, TIMESTAMPDIFF('YEAR', p.BIRTH_DATE, CURRENT_DATE) - 18) as EXPERIENCE FROM PLAYER_ROLE pr JOIN PERSON p ON pr.PERSON_ID = p.PERSON_ID WHERE pr.END_DATE IS NULL\n");
+            obdaMappings.append("source\t\tSELECT pr.PERSON_ID, GREATEST(0, p.AGE - 18) as EXPERIENCE FROM PLAYER_ROLE pr JOIN PERSON p ON pr.PERSON_ID = p.PERSON_ID WHERE pr.END_DATE IS NULL\n");
             obdaMappings.append("\n");
             
             // Coach Experience Mapping (coaching years and trophies)
             obdaMappings.append("mappingId\tcoach-experience-mapping\n");
             obdaMappings.append("target\t\tdata:person/{PERSON_ID} :hasYearsCoaching {COACHING_YEARS}^^xsd:integer ; :hasTrophiesWon {TROPHIES}^^xsd:integer .\n");
-            obdaMappings.append("source\t\tSELECT cr.PERSON_ID, GREATEST(0, TIMESTAMPDIFF('YEAR', p.BIRTH_DATE, CURRENT_DATE) - 35) as COACHING_YEARS, CASE WHEN cr.ROLE_TYPE = 'HeadCoach' THEN 5 ELSE 2 END as TROPHIES FROM COACH_ROLE cr JOIN PERSON p ON cr.PERSON_ID = p.PERSON_ID WHERE cr.END_DATE IS NULL\n");
+            obdaMappings.append("source\t\tSELECT cr.PERSON_ID, GREATEST(0, p.AGE - 35) as COACHING_YEARS, CASE WHEN cr.ROLE_TYPE = 'HeadCoach' THEN 5 ELSE 2 END as TROPHIES FROM COACH_ROLE cr JOIN PERSON p ON cr.PERSON_ID = p.PERSON_ID WHERE cr.END_DATE IS NULL\n");
             obdaMappings.append("\n");
             
             System.out.println("   → [SPORT-SPECIFIC] Converted comprehensive R2RML mappings to OBDA format");
@@ -0,0 +1,83 @@
+package utils;
+
+import config.AppConfig;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Content fingerprint of the ontology (.owl), mapping (.ttl) and OBDA (.obda) files.
+ * Used to key and invalidate caches derived from those files.
+ *
+ * The SHA-256 hash is only recomputed when a file's size or modification time changes,
+ * so checking the fingerprint on every query costs three file stats.
+ */
+public class OntologyFingerprint {
+    private final Path[] files;
+    private String lastStamp;
+    private String fingerprint;
+
+    public OntologyFingerprint() {
+        this(AppConfig.ONTOLOGY_FILE, AppConfig.MAPPING_FILE, AppConfig.OBDA_FILE);
+    }
+
+    public OntologyFingerprint(Path... files) {
+        this.files = files;
+    }
+
+    /**
+     * Get the current fingerprint, rehashing the files only if they changed on disk
+     */
+    public synchronized String current() {
+        String stamp = stamp();
+        if (!stamp.equals(lastStamp)) {
+            fingerprint = hash();
+            lastStamp = stamp;
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Cheap change detector: size and modification time of each file
+     */
+    private String stamp() {
+        StringBuilder sb = new StringBuilder();
+        for (Path file : files) {
+            try {
+                sb.append(Files.size(file)).append(':').append(Files.getLastModifiedTime(file).toMillis());
+            } catch (IOException e) {
+                sb.append("missing");
+            }
+            sb.append('|');
+        }
+        return sb.toString();
+    }
+
+    private String hash() {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Path file : files) {
+                digest.update(file.getFileName().toString().getBytes());
+                if (Files.exists(file)) {
+                    digest.update(Files.readAllBytes(file));
+                }
+            }
+            return toHex(digest.digest());
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new RuntimeException("Could not fingerprint ontology files: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Hex-encode a byte array (lowercase)
+     */
+    public static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,135 @@
+package utils;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFParseException;
+import org.eclipse.rdf4j.rio.Rio;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An R2RML mapping (.ttl) parsed by RDF4J Rio into an RDF model, read through the rr: vocabulary.
+ *
+ * Term maps are addressed as Resources (usually blank nodes) and properties by their rr: local
+ * name, e.g. string(logicalTable, "sqlQuery") or resources(triplesMap, "predicateObjectMap").
+ * The model keeps the file's statement order, so triples maps come back in file order.
+ */
+public class R2RMLMapping {
+    public static final String RR = "http://www.w3.org/ns/r2rml#";
+    private static final ValueFactory VALUES = SimpleValueFactory.getInstance();
+
+    private final Model model;
+
+    private R2RMLMapping(Model model) {
+        this.model = model;
+    }
+
+    public static R2RMLMapping read(Path mappingFile) throws IOException {
+        try (InputStream in = Files.newInputStream(mappingFile)) {
+            return new R2RMLMapping(Rio.parse(in, "", RDFFormat.TURTLE));
+        } catch (RDFParseException e) {
+            throw new IOException("Invalid R2RML mapping " + mappingFile + ": " + e.getMessage(), e);
+        }
+    }
+
+    public static R2RMLMapping parse(String ttl) throws IOException {
+        try {
+            return new R2RMLMapping(Rio.parse(new StringReader(ttl), "", RDFFormat.TURTLE));
+        } catch (RDFParseException e) {
+            throw new IOException("Invalid R2RML mapping: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Triples maps - every resource with an rr:logicalTable
+     */
+    public List<Resource> triplesMaps() {
+        return new ArrayList<>(model.filter(null, rr("logicalTable"), null).subjects());
+    }
+
+    /**
+     * The rr:sqlQuery of every logical table
+     */
+    public List<String> sqlQueries() {
+        List<String> queries = new ArrayList<>();
+        for (Resource triplesMap : triplesMaps()) {
+            Resource table = resource(triplesMap, "logicalTable");
+            String sql = table == null ? null : string(table, "sqlQuery");
+            if (sql != null) {
+                queries.add(sql);
+            }
+        }
+        return queries;
+    }
+
+    public boolean has(Resource subject, String property) {
+        return model.contains(subject, rr(property), null);
+    }
+
+    /**
+     * The single resource object of an rr: property, null when it has none or several
+     */
+    public Resource resource(Resource subject, String property) {
+        List<Resource> values = resources(subject, property);
+        return values.size() == 1 ? values.get(0) : null;
+    }
+
+    public List<Resource> resources(Resource subject, String property) {
+        List<Resource> values = new ArrayList<>();
+        for (Value value : model.filter(subject, rr(property), null).objects()) {
+            if (value instanceof Resource) {
+                values.add((Resource) value);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * IRIs of an rr: property (rr:class, rr:predicate, ...)
+     */
+    public List<String> iris(Resource subject, String property) {
+        List<String> values = new ArrayList<>();
+        for (Value value : model.filter(subject, rr(property), null).objects()) {
+            if (value instanceof IRI) {
+                values.add(value.stringValue());
+            }
+        }
+        return values;
+    }
+
+    /**
+     * The single IRI of an rr: property (rr:termType, rr:datatype), null when it has none or several
+     */
+    public String iri(Resource subject, String property) {
+        List<String> values = iris(subject, property);
+        return values.size() == 1 ? values.get(0) : null;
+    }
+
+    /**
+     * Lexical form of a literal rr: property (rr:sqlQuery, rr:template, rr:column), null if absent
+     */
+    public String string(Resource subject, String property) {
+        for (Value value : model.filter(subject, rr(property), null).objects()) {
+            if (value instanceof Literal) {
+                return value.stringValue();
+            }
+        }
+        return null;
+    }
+
+    private static IRI rr(String localName) {
+        return VALUES.createIRI(RR, localName);
+    }
+}
@@ -0,0 +1,107 @@
+package database;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * BulkLoader - batched inserts, CSVREAD loads, deferred indexes and the foreign-key check
+ * at close, against a private in-memory database with a parent and a child table
+ */
+public class BulkLoaderTest {
+    private static final int ROWS = 50_000;
+
+    @TempDir
+    Path tempDir;
+
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:h2:mem:bulk_loader_" + System.nanoTime(), "sa", "");
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE TEAM (TEAM_ID INTEGER PRIMARY KEY)");
+            stmt.execute("INSERT INTO TEAM SELECT X FROM SYSTEM_RANGE(1, 7)");
+            stmt.execute("CREATE TABLE SCORE (ID INTEGER PRIMARY KEY, TEAM_ID INTEGER REFERENCES TEAM(TEAM_ID), SCORE DOUBLE)");
+            stmt.execute("CREATE TABLE SCORE_COPY (ID INTEGER PRIMARY KEY, TEAM_ID INTEGER REFERENCES TEAM(TEAM_ID), SCORE DOUBLE)");
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        connection.close();
+    }
+
+    @Test
+    @DisplayName("Batched inserts commit every row and build deferred indexes at close")
+    void testBatchedInsert() throws Exception {
+        try (BulkLoader loader = new BulkLoader(connection, 1000, 10_000)) {
+            loadScores(loader);
+            loader.deferIndex("CREATE INDEX SCORE_TEAM ON SCORE(TEAM_ID)");
+            assertEquals(0, count("SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE INDEX_NAME = 'SCORE_TEAM'"),
+                "The index is built once the load is finished");
+        }
+        assertEquals(ROWS, count("SELECT COUNT(*) FROM SCORE"));
+        assertTrue(connection.getAutoCommit(), "Loader should restore autocommit");
+        assertEquals(1, count("SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE INDEX_NAME = 'SCORE_TEAM'"));
+    }
+
+    @Test
+    @DisplayName("A CSV file is inserted inside H2 with CSVREAD")
+    void testLoadCsv() throws Exception {
+        try (BulkLoader loader = new BulkLoader(connection)) {
+            loadScores(loader);
+        }
+        Path csv = tempDir.resolve("scores.csv");
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CALL CSVWRITE('" + csv.toAbsolutePath() + "', 'SELECT * FROM SCORE')");
+        }
+
+        try (BulkLoader loader = new BulkLoader(connection)) {
+            assertEquals(ROWS, loader.loadCsv("SCORE_COPY", csv));
+        }
+        assertEquals(count("SELECT SUM(SCORE) FROM SCORE"), count("SELECT SUM(SCORE) FROM SCORE_COPY"));
+    }
+
+    @Test
+    @DisplayName("Deferred foreign keys are still verified when the load finishes")
+    void testForeignKeysVerifiedAtClose() throws Exception {
+        BulkLoader loader = new BulkLoader(connection);
+        try (BulkLoader.Inserter inserter = loader.into("SCORE", 3)) {
+            inserter.add(1, 1, 0.5);
+            inserter.add(2, 424242, 0.0);
+        }
+        assertThrows(SQLException.class, loader::close);
+        assertTrue(connection.getAutoCommit());
+    }
+
+    @Test
+    @DisplayName("Rows must match the column count of the inserter")
+    void testColumnCountChecked() throws Exception {
+        try (BulkLoader loader = new BulkLoader(connection);
+             BulkLoader.Inserter inserter = loader.into("SCORE", 3)) {
+            assertThrows(IllegalArgumentException.class, () -> inserter.add(1, 1));
+        }
+    }
+
+    private static void loadScores(BulkLoader loader) throws SQLException {
+        try (BulkLoader.Inserter inserter = loader.into("SCORE", 3)) {
+            for (int i = 0; i < ROWS; i++) {
+                inserter.add(i, 1 + i % 7, i * 0.5);
+            }
+        }
+    }
+
+    private long count(String sql) throws SQLException {
+        try (Statement stmt = connection.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package database;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import java.sql.Connection;
+
+/**
+ * DatabaseConnect - the shared pool stays open while any engine or getConnection caller holds it
+ */
+public class DatabaseConnectTest {
+
+    @BeforeEach
+    void setUp() throws Exception {
+        DatabaseConnect.closeConnection();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        DatabaseConnect.closeConnection();
+    }
+
+    @Test
+    @DisplayName("Releasing one engine's reference keeps the pool open for the others")
+    void testEngineReferences() throws Exception {
+        ConnectionPool first = DatabaseConnect.acquirePool();
+        ConnectionPool second = DatabaseConnect.acquirePool();
+        assertSame(first, second, "Engines share one pool");
+
+        DatabaseConnect.releasePool(first);
+        assertFalse(second.isClosed());
+        try (Connection connection = second.borrow()) {
+            assertTrue(connection.isValid(2));
+        }
+
+        DatabaseConnect.releasePool(second);
+        assertTrue(second.isClosed(), "The last release closes the pool");
+    }
+
+    @Test
+    @DisplayName("getConnection callers keep the pool open until closeConnection")
+    void testSharedUse() throws Exception {
+        ConnectionPool engine = DatabaseConnect.acquirePool();
+        try (Connection lease = DatabaseConnect.getConnection()) {
+            DatabaseConnect.releasePool(engine);
+            assertFalse(engine.isClosed(), "A lease in flight must survive the engine stopping");
+            assertTrue(lease.isValid(2));
+        }
+        DatabaseConnect.closeConnection();
+        assertTrue(engine.isClosed());
+        assertFalse(DatabaseConnect.getPool().isClosed(), "The pool is reopened on next use");
+    }
+}
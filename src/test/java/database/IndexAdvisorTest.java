@@ -0,0 +1,92 @@
+package database;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * IndexAdvisor - collecting the mapping sources, proposing and applying indexes,
+ * against a freshly seeded database that only has its primary keys and seed indexes
+ */
+public class IndexAdvisorTest {
+    private static final String GOALKEEPERS = "SELECT PERSON_ID FROM PLAYER_ROLE WHERE POSITION = 'Goalkeeper' AND END_DATE IS NULL";
+
+    @TempDir
+    Path tempDir;
+
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String path = tempDir.resolve("sport_db").toString();
+        CreateH2Database.main(new String[]{path});
+        connection = DriverManager.getConnection("jdbc:h2:" + path
+            + ";DATABASE_TO_UPPER=true;CASE_INSENSITIVE_IDENTIFIERS=true", "sa", "");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        connection.close();
+    }
+
+    @Test
+    @DisplayName("Applying the mapping's proposals takes the current-role filter off a table scan")
+    void testApplyMapping() throws Exception {
+        IndexAdvisor advisor = IndexAdvisor.forMapping(connection);
+        assertTrue(advisor.getQueries().contains(GOALKEEPERS), "Mapping sources should be collected");
+
+        IndexAdvisor.Report report = advisor.apply();
+        assertFalse(report.created.isEmpty());
+        assertTrue(report.getScansRemoved() > 0);
+        assertTrue(advisor.propose().isEmpty(), "Nothing is left to propose once the indexes exist");
+
+        String plan = explain(GOALKEEPERS);
+        assertTrue(plan.contains("IDX_PLAYER_ROLE_END_DATE"), "Current-role filter should use an index: " + plan);
+        assertFalse(plan.contains("tableScan"), plan);
+    }
+
+    @Test
+    @DisplayName("A new filter column gets a covering proposal")
+    void testProposeForQuery() throws Exception {
+        List<IndexAdvisor.Proposal> proposals = new IndexAdvisor(connection)
+            .addQuery("SELECT FULL_NAME FROM PERSON WHERE NATIONALITY = 'Portugal'")
+            .propose();
+        assertEquals(1, proposals.size(), String.valueOf(proposals));
+        assertEquals("PERSON", proposals.get(0).table);
+        assertEquals(List.of("NATIONALITY", "FULL_NAME"), proposals.get(0).columns);
+    }
+
+    @Test
+    @DisplayName("A query catalog contributes its SELECT statements without comments")
+    void testQueryCatalog() throws Exception {
+        Path catalog = tempDir.resolve("queries.sql");
+        Files.writeString(catalog, String.join("\n",
+            "-- Current players of a team",
+            "SELECT PERSON_ID FROM PLAYER_ROLE",
+            "  WHERE TEAM_ID = 1 /* senior team */ AND END_DATE IS NULL;",
+            "UPDATE PERSON SET AGE = 0;",
+            ""));
+
+        IndexAdvisor advisor = new IndexAdvisor(connection).addQueryCatalog(catalog);
+        assertEquals(1, advisor.getQueries().size(), String.valueOf(advisor.getQueries()));
+        assertEquals("SELECT PERSON_ID FROM PLAYER_ROLE WHERE TEAM_ID = 1 AND END_DATE IS NULL",
+            advisor.getQueries().iterator().next());
+    }
+
+    private String explain(String sql) throws Exception {
+        StringBuilder plan = new StringBuilder();
+        try (Statement stmt = connection.createStatement(); ResultSet rs = stmt.executeQuery("EXPLAIN " + sql)) {
+            while (rs.next()) {
+                plan.append(rs.getString(1));
+            }
+        }
+        return plan.toString();
+    }
+}
@@ -0,0 +1,96 @@
+package database;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * SeedSnapshot - seeding once, reusing the database while its checksum matches and
+ * restoring it from the snapshot once the sport tables were changed
+ */
+public class SeedSnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    private String url;
+    private SeedSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        String path = tempDir.resolve("seed_db").toString();
+        url = "jdbc:h2:" + path + ";DATABASE_TO_UPPER=true;CASE_INSENSITIVE_IDENTIFIERS=true";
+        snapshot = new SeedSnapshot(path);
+    }
+
+    @Test
+    @DisplayName("The first start seeds and writes the snapshot, the next one reuses the database")
+    void testSeedThenReuse() throws Exception {
+        Path stale = tempDir.resolve("seed_db-seed-000000000000.sql.gz");
+        Files.createFile(stale);
+
+        assertEquals(SeedSnapshot.Outcome.SEEDED, snapshot.ensureSeeded());
+        assertTrue(Files.exists(snapshot.snapshotFile()), "Seeding should write the snapshot");
+        assertFalse(Files.exists(stale), "Snapshots of another seed fingerprint are deleted");
+        assertEquals(SeedSnapshot.Outcome.REUSED, snapshot.ensureSeeded());
+    }
+
+    @Test
+    @DisplayName("Changed seed data is restored from the snapshot, with its triggers")
+    void testRestoreChangedData() throws Exception {
+        assertEquals(SeedSnapshot.Outcome.SEEDED, snapshot.ensureSeeded());
+        execute("UPDATE TEAM SET NAME = 'Changed' WHERE TEAM_ID = 1");
+
+        assertEquals(SeedSnapshot.Outcome.RESTORED, snapshot.ensureSeeded());
+        assertEquals(0, scalar("SELECT COUNT(*) FROM TEAM WHERE NAME = 'Changed'"));
+        assertEquals(7, scalar("SELECT COUNT(*) FROM TEAM"));
+        assertTrue(scalar("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TRIGGERS WHERE TRIGGER_NAME = 'PERSON_AGE'") > 0,
+            "Triggers should be restored with the tables");
+        assertEquals(SeedSnapshot.Outcome.REUSED, snapshot.ensureSeeded());
+    }
+
+    @Test
+    @DisplayName("A dropped sport table is restored from the snapshot")
+    void testRestoreDroppedTable() throws Exception {
+        assertEquals(SeedSnapshot.Outcome.SEEDED, snapshot.ensureSeeded());
+        long contracts = scalar("SELECT COUNT(*) FROM CONTRACT");
+        execute("DROP TABLE CONTRACT");
+
+        assertEquals(SeedSnapshot.Outcome.RESTORED, snapshot.ensureSeeded());
+        assertEquals(contracts, scalar("SELECT COUNT(*) FROM CONTRACT"));
+    }
+
+    @Test
+    @DisplayName("The derived AGE column is not part of the checksum")
+    void testAgeIgnored() throws Exception {
+        assertEquals(SeedSnapshot.Outcome.SEEDED, snapshot.ensureSeeded());
+        execute("UPDATE PERSON SET AGE = AGE + 1");
+
+        assertEquals(SeedSnapshot.Outcome.REUSED, snapshot.ensureSeeded());
+        assertEquals(0, scalar("SELECT COUNT(*) FROM PERSON WHERE AGE IS DISTINCT FROM " + PersonAgeTrigger.AGE_EXPRESSION),
+            "Reusing the database refreshes the ages");
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement stmt = connection.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    private long scalar(String sql) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
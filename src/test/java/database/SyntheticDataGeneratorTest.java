@@ -0,0 +1,82 @@
+package database;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import config.AppConfig;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * SyntheticDataGenerator - determinism per seed and the shape of the generated data.
+ * Every run generates into a freshly seeded database of its own.
+ */
+public class SyntheticDataGeneratorTest {
+    private static final String GENERATED = " WHERE PERSON_ID >= " + SyntheticDataGenerator.ID_BASE;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("The same seed and scale factor give the same data, another seed other data")
+    void testDeterministic() throws Exception {
+        String first = generate(0.1, 7, "first");
+        assertEquals(first, generate(0.1, 7, "again"));
+        assertNotEquals(first, generate(0.1, 8, "other"));
+    }
+
+    @Test
+    @DisplayName("Generated data covers youth teams, top players, role history and unknown contract status")
+    void testDistributions() throws Exception {
+        try (ConnectionPool pool = seededPool("distributions")) {
+            assertTrue(new SyntheticDataGenerator(0.1, 7).generate(pool) > 0);
+            try (Connection connection = pool.borrow(); Statement stmt = connection.createStatement()) {
+                assertTrue(scalar(stmt, "SELECT COUNT(*) FROM TEAM WHERE TEAM_TYPE = 'YouthTeam'") > 2);
+                assertTrue(scalar(stmt, "SELECT COUNT(*) FROM PLAYER_ROLE" + GENERATED
+                    + " AND END_DATE IS NULL AND MARKET_VALUE >= 50000000") > 0, "Some players should be TopPlayers");
+                assertTrue(scalar(stmt, "SELECT COUNT(*) FROM PLAYER_ROLE" + GENERATED + " AND END_DATE IS NOT NULL") > 0,
+                    "Players should have role history");
+                assertTrue(scalar(stmt, "SELECT COUNT(*) FROM CONTRACT" + GENERATED + " AND IS_ACTIVE IS NULL") > 0,
+                    "Some contracts should have an unknown active status");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Club count follows the scale factor")
+    void testScaleFactor() {
+        assertEquals(20, new SyntheticDataGenerator(0.1, 7).getClubCount());
+        assertEquals(200, new SyntheticDataGenerator(1, 7).getClubCount());
+        assertEquals(2, new SyntheticDataGenerator(0.001, 7).getClubCount(), "At least two clubs for transfers");
+        assertThrows(IllegalArgumentException.class, () -> new SyntheticDataGenerator(0, 7));
+    }
+
+    /**
+     * Generate into a fresh database and summarize what was written
+     */
+    private String generate(double scaleFactor, long seed, String name) throws Exception {
+        try (ConnectionPool pool = seededPool(name)) {
+            long rows = new SyntheticDataGenerator(scaleFactor, seed).generate(pool);
+            try (Connection connection = pool.borrow(); Statement stmt = connection.createStatement()) {
+                return rows + " rows, market value " + scalar(stmt, "SELECT SUM(MARKET_VALUE) FROM PLAYER_ROLE" + GENERATED);
+            }
+        }
+    }
+
+    private ConnectionPool seededPool(String name) throws SQLException {
+        String path = tempDir.resolve(name).toString();
+        CreateH2Database.main(new String[]{path});
+        String url = "jdbc:h2:" + path + ";DATABASE_TO_UPPER=true;CASE_INSENSITIVE_IDENTIFIERS=true";
+        return new ConnectionPool(url, AppConfig.DB_USER, AppConfig.DB_PASSWORD, 1, 4);
+    }
+
+    private static long scalar(Statement stmt, String sql) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
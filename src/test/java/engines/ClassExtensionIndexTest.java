@@ -0,0 +1,93 @@
+package engines;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import config.AppConfig;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ClassExtensionIndex - bitmap counts, intersections and unions of class extensions,
+ * lazy loading, and patching after an ABox update
+ */
+public class ClassExtensionIndexTest {
+
+    private final OWLDataFactory factory = OWLManager.getOWLDataFactory();
+    private final OWLClass even = factory.getOWLClass(IRI.create(AppConfig.createOntologyIRI("Even")));
+    private final OWLClass third = factory.getOWLClass(IRI.create(AppConfig.createOntologyIRI("Third")));
+
+    private List<OWLNamedIndividual> individuals;
+    private List<OWLClass> loaded;
+    private ClassExtensionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        individuals = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            individuals.add(individual(String.format("ind%03d", i)));
+        }
+        loaded = new ArrayList<>();
+        // Even: every second individual, Third: every third one
+        index = new ClassExtensionIndex(individuals, owlClass -> {
+            loaded.add(owlClass);
+            int step = owlClass.equals(even) ? 2 : 3;
+            List<OWLNamedIndividual> members = new ArrayList<>();
+            for (int i = 0; i < individuals.size(); i += step) {
+                members.add(individuals.get(i));
+            }
+            return members;
+        });
+    }
+
+    private OWLNamedIndividual individual(String name) {
+        return factory.getOWLNamedIndividual(IRI.create(AppConfig.createABoxIRI(name)));
+    }
+
+    @Test
+    @DisplayName("Counts, intersections and unions match the set semantics")
+    void testSetOperations() {
+        ClassExtensionIndex.Bitmap evens = index.extension(even);
+        ClassExtensionIndex.Bitmap thirds = index.extension(third);
+        assertEquals(200, index.size());
+        assertEquals(100, evens.cardinality());
+        assertEquals(67, thirds.cardinality());
+        assertEquals(34, evens.andCardinality(thirds));
+        assertEquals(34, evens.and(thirds).cardinality());
+        assertEquals(133, evens.orCardinality(thirds));
+        assertEquals(133, evens.or(thirds).cardinality());
+        assertTrue(evens.contains(index.idOf(individuals.get(198))));
+        assertFalse(evens.contains(index.idOf(individuals.get(199))));
+        assertEquals(List.of(individuals.get(0), individuals.get(6), individuals.get(12)),
+            index.individuals(evens.and(thirds)).subList(0, 3));
+    }
+
+    @Test
+    @DisplayName("Extensions are loaded once per class")
+    void testLoadedOnce() {
+        assertSame(index.extension(even), index.extension(even));
+        assertEquals(List.of(even), loaded);
+        assertEquals(-1, index.idOf(individual("unknown")));
+    }
+
+    @Test
+    @DisplayName("Updates patch the loaded extensions, new individuals get the next ID")
+    void testUpdate() {
+        ClassExtensionIndex.Bitmap evens = index.extension(even);
+        OWLNamedIndividual newcomer = individual("ind200");
+
+        index.update(newcomer, owlClass -> owlClass.equals(even));
+        assertEquals(200, index.idOf(newcomer));
+        assertEquals(newcomer, index.individual(200));
+        assertTrue(evens.contains(200));
+        assertEquals(101, evens.cardinality());
+
+        index.update(individuals.get(0), owlClass -> false);
+        assertFalse(evens.contains(index.idOf(individuals.get(0))), "A removed individual leaves every extension");
+        assertEquals(100, evens.cardinality());
+    }
+}
@@ -0,0 +1,41 @@
+package engines;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.StringReader;
+
+/**
+ * CsvRecordReader - RFC 4180 records: quoted separators and line breaks, escaped quotes,
+ * blank lines, and unquoted empty fields as unbound values
+ */
+public class CsvRecordReaderTest {
+
+    @Test
+    @DisplayName("Quoted fields keep separators, line breaks and escaped quotes")
+    void testQuotedFields() throws Exception {
+        String csv = "name,notes\r\n" +
+                     "\"Smith, John\",\"line one\nline two\"\r\n" +
+                     "\r\n" +
+                     "\"\",\"say \"\"hi\"\"\"\r\n" +
+                     ",last";
+        try (CsvRecordReader reader = new CsvRecordReader(new StringReader(csv))) {
+            assertArrayEquals(new String[]{"name", "notes"}, reader.readRecord());
+            assertArrayEquals(new String[]{"Smith, John", "line one\nline two"}, reader.readRecord());
+            assertArrayEquals(new String[]{"", "say \"hi\""}, reader.readRecord(), "Blank line skipped, quoted empty kept");
+            assertArrayEquals(new String[]{null, "last"}, reader.readRecord(), "Unquoted empty field is unbound");
+            assertNull(reader.readRecord());
+        }
+    }
+
+    @Test
+    @DisplayName("Fields longer than the read buffer and other delimiters")
+    void testLongFieldsAndDelimiter() throws Exception {
+        String longValue = "x".repeat(20_000);
+        String csv = "a;b\n\"" + longValue + "\";2\n";
+        try (CsvRecordReader reader = new CsvRecordReader(new StringReader(csv), ';')) {
+            assertArrayEquals(new String[]{"a", "b"}, reader.readRecord());
+            assertArrayEquals(new String[]{longValue, "2"}, reader.readRecord());
+            assertNull(reader.readRecord());
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package engines;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import config.AppConfig;
+import java.io.FileWriter;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * OntopEmbeddedEngine - reflective calls into Ontop, and retirement: a replaced engine keeps
+ * serving its open cursors and stops once the last one closes.
+ * The tests that need a running engine are skipped when the Ontop libraries are not installed.
+ */
+public class OntopEmbeddedEngineTest {
+
+    private static final String TEAM_NAMES = AppConfig.getSPARQLPrefix()
+        + "SELECT ?name WHERE { ?team a :Team ; :hasName ?name }";
+
+    @TempDir
+    Path tempDir;
+
+    private H2_SQLEngine dbEngine;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (dbEngine != null) {
+            dbEngine.stop();
+            dbEngine = null;
+        }
+    }
+
+    /**
+     * Stand-in for an Ontop implementation class
+     */
+    public static class Greeter {
+        public String greet(String name) {
+            return "Hello " + name;
+        }
+
+        public String greet(Integer times) {
+            return "Hello x" + times;
+        }
+    }
+
+    @Test
+    @DisplayName("Reflective calls pick the overload matching the arguments")
+    void testReflectiveCall() throws Exception {
+        assertEquals("Hello Benfica", OntopEmbeddedEngine.call(new Greeter(), "greet", "Benfica"));
+        assertEquals("Hello x3", OntopEmbeddedEngine.call(new Greeter(), "greet", 3));
+        assertThrows(NoSuchMethodException.class, () -> OntopEmbeddedEngine.call(new Greeter(), "wave"));
+    }
+
+    @Test
+    @DisplayName("An engine that was never started or was retired refuses queries")
+    void testUnusableEngine() {
+        OntopEmbeddedEngine engine = new OntopEmbeddedEngine();
+        assertThrows(IllegalStateException.class, () -> engine.openCursor(TEAM_NAMES));
+        assertFalse(engine.isStarted());
+
+        engine.retire();
+        assertThrows(OntopEmbeddedEngine.RetiredException.class, () -> engine.openCursor(TEAM_NAMES));
+        assertThrows(OntopEmbeddedEngine.RetiredException.class, () -> engine.reformulate(TEAM_NAMES));
+    }
+
+    @Test
+    @DisplayName("A retired engine finishes its open cursor before stopping")
+    void testInFlightRetirement() throws Exception {
+        OntopEmbeddedEngine engine = startEngine();
+        SPARQLResultCursor cursor = engine.openCursor(TEAM_NAMES);
+        assertTrue(cursor.hasNext(), "The seeded database has teams");
+
+        engine.retire();
+        assertTrue(engine.isStarted(), "The engine must stay up while a cursor is open");
+        assertThrows(OntopEmbeddedEngine.RetiredException.class, () -> engine.openCursor(TEAM_NAMES));
+
+        int rows = 0;
+        while (cursor.hasNext()) {
+            assertNotNull(cursor.next().getString("name"));
+            rows++;
+        }
+        assertTrue(rows > 0);
+        assertFalse(engine.isStarted(), "The engine should stop once its last cursor is done");
+    }
+
+    @Test
+    @DisplayName("A reloaded engine serves new queries while the old one drains")
+    void testReloadSwap() throws Exception {
+        OntopEmbeddedEngine old = startEngine();
+        SPARQLResultCursor draining = old.openCursor(TEAM_NAMES);
+
+        OntopEmbeddedEngine reloaded = new OntopEmbeddedEngine();
+        reloaded.start(AppConfig.getOntologyAbsolutePath(), AppConfig.MAPPING_FILE.toString(), propertiesFile());
+        old.retire();
+
+        int reloadedRows;
+        try (SPARQLResultCursor fresh = reloaded.openCursor(TEAM_NAMES)) {
+            reloadedRows = fresh.toCsvLines().size() - 1;
+        }
+        int drainedRows = draining.toCsvLines().size() - 1;
+        assertEquals(reloadedRows, drainedRows, "Both engines answer from the same data");
+        assertFalse(old.isStarted());
+        assertTrue(reloaded.isStarted());
+        reloaded.stop();
+    }
+
+    @Test
+    @DisplayName("Literal results reformulate to typed SQL columns")
+    void testReformulate() throws Exception {
+        OntopEmbeddedEngine engine = startEngine();
+        try {
+            ReformulatedQuery plan = engine.reformulate(TEAM_NAMES);
+            assertNotNull(plan, "A string literal projection runs directly on H2");
+            assertEquals(1, plan.columns.size());
+            assertEquals(TermType.STRING, plan.types.get(0));
+        } finally {
+            engine.stop();
+        }
+    }
+
+    private OntopEmbeddedEngine startEngine() throws Exception {
+        Assumptions.assumeTrue(OntopEmbeddedEngine.isAvailable(), "Ontop libraries not installed");
+        dbEngine = new H2_SQLEngine();
+        dbEngine.start();
+
+        OntopEmbeddedEngine engine = new OntopEmbeddedEngine();
+        engine.start(AppConfig.getOntologyAbsolutePath(), AppConfig.MAPPING_FILE.toString(), propertiesFile());
+        return engine;
+    }
+
+    private String propertiesFile() throws Exception {
+        Path file = tempDir.resolve("test.properties");
+        Properties props = new Properties();
+        props.setProperty("jdbc.url", dbEngine.getDatabaseUrl());
+        props.setProperty("jdbc.driver", "org.h2.Driver");
+        props.setProperty("jdbc.user", "sa");
+        props.setProperty("jdbc.password", "");
+        try (FileWriter writer = new FileWriter(file.toFile())) {
+            props.store(writer, "OntopEmbeddedEngineTest");
+        }
+        return file.toString();
+    }
+}
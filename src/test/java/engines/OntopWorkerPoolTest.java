@@ -0,0 +1,236 @@
+package engines;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import config.AppConfig;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OntopWorkerPool - acquiring and releasing workers, recycling after the query budget,
+ * restarting dead workers and cleaning up after a failed start.
+ * The workers run a stand-in "ontop endpoint" that answers every query with its own pid,
+ * so the tests need a JDK but no Ontop installation.
+ */
+public class OntopWorkerPoolTest {
+
+    /**
+     * Stand-in endpoint: GET / answers the health check, POST /sparql returns the pid as TSV
+     * (400 for queries containing BAD). Writes pid-PORT on startup, exits if fail-PORT exists.
+     */
+    private static final String FAKE_ENDPOINT = String.join("\n",
+        "import com.sun.net.httpserver.HttpServer;",
+        "import java.net.InetSocketAddress;",
+        "import java.nio.charset.StandardCharsets;",
+        "import java.nio.file.*;",
+        "public class FakeEndpoint {",
+        "    public static void main(String[] args) throws Exception {",
+        "        Path dir = Paths.get(System.getProperty(\"fake.dir\"));",
+        "        String port = args[args.length - 1];",
+        "        if (Files.exists(dir.resolve(\"fail-\" + port))) System.exit(3);",
+        "        String pid = String.valueOf(ProcessHandle.current().pid());",
+        "        HttpServer server = HttpServer.create(new InetSocketAddress(Integer.parseInt(port)), 0);",
+        "        server.createContext(\"/\", exchange -> {",
+        "            String query = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);",
+        "            int status = query.contains(\"BAD\") ? 400 : 200;",
+        "            byte[] body = (\"?pid\\n\" + pid + \"\\n\").getBytes(StandardCharsets.UTF_8);",
+        "            exchange.sendResponseHeaders(status, body.length);",
+        "            exchange.getResponseBody().write(body);",
+        "            exchange.close();",
+        "        });",
+        "        server.start();",
+        "        Files.writeString(dir.resolve(\"pid-\" + port), pid);",
+        "    }",
+        "}",
+        "");
+
+    private static final String QUERY = "SELECT ?pid WHERE { }";
+
+    @TempDir
+    Path tempDir;
+
+    private Path script;
+    private OntopWorkerPool pool;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Assumptions.assumeFalse(AppConfig.isWindows(), "The stand-in endpoint is a shell script");
+        Path source = tempDir.resolve("FakeEndpoint.java");
+        Files.writeString(source, FAKE_ENDPOINT);
+        Path java = Paths.get(System.getProperty("java.home"), "bin", "java");
+        script = tempDir.resolve("ontop");
+        Files.writeString(script, "#!/bin/sh\nexec \"" + java + "\" -Dfake.dir=\"" + tempDir + "\" \""
+            + source + "\" \"$@\"\n");
+        assertTrue(script.toFile().setExecutable(true));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.stop();
+            pool = null;
+        }
+    }
+
+    @Test
+    @DisplayName("A cursor holds its worker until it is closed")
+    void testAcquireAndRelease() throws Exception {
+        pool = startPool(2, 100);
+        assertEquals(2, pool.getIdleWorkerCount());
+
+        SPARQLResultCursor first = pool.openCursor(QUERY);
+        SPARQLResultCursor second = pool.openCursor(QUERY);
+        assertEquals(0, pool.getIdleWorkerCount());
+        assertNotEquals(pidOf(first), pidOf(second), "Each cursor should have its own worker");
+
+        first.close();
+        second.close();
+        assertEquals(2, pool.getIdleWorkerCount());
+    }
+
+    @Test
+    @DisplayName("Callers wait for a worker no longer than their deadline")
+    @SuppressWarnings("try") // busy is only held to keep the single worker taken
+    void testAcquireTimesOut() throws Exception {
+        pool = startPool(1, 100);
+        try (SPARQLResultCursor busy = pool.openCursor(QUERY)) {
+            long start = System.nanoTime();
+            assertThrows(RuntimeException.class, () -> pool.openCursor(QUERY, QueryDeadline.afterMillis(300)));
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 250,
+                "The caller should have queued for the worker");
+        }
+        assertEquals(1, pool.getIdleWorkerCount());
+    }
+
+    @Test
+    @DisplayName("A cancelled caller gives up its place in the queue")
+    @SuppressWarnings("try") // busy is only held to keep the single worker taken
+    void testAcquireCancelled() throws Exception {
+        pool = startPool(1, 100);
+        try (SPARQLResultCursor busy = pool.openCursor(QUERY)) {
+            QueryDeadline deadline = QueryDeadline.none();
+            deadline.cancel();
+            assertThrows(CancellationException.class, () -> pool.openCursor(QUERY, deadline));
+        }
+        assertEquals(1, pool.getIdleWorkerCount());
+    }
+
+    @Test
+    @DisplayName("An invalid query returns its worker to the pool")
+    void testInvalidQueryReleasesWorker() throws Exception {
+        pool = startPool(1, 100);
+        long pid = pidOfQuery();
+
+        assertThrows(InvalidQueryException.class, () -> pool.openCursor("SELECT BAD"));
+        assertEquals(1, pool.getIdleWorkerCount());
+        assertEquals(pid, pidOfQuery(), "A query error is not a reason to restart the worker");
+    }
+
+    @Test
+    @DisplayName("Workers are recycled after their query budget")
+    void testRecycleAfterMaxQueries() throws Exception {
+        pool = startPool(1, 2);
+        long pid = pidOfQuery();
+        assertEquals(pid, pidOfQuery());
+
+        long recycled = pidOfQuery();
+        assertNotEquals(pid, recycled, "The third query should run on a relaunched worker");
+        assertFalse(ProcessHandle.of(pid).map(ProcessHandle::isAlive).orElse(false));
+        assertEquals(1, pool.getIdleWorkerCount());
+    }
+
+    @Test
+    @DisplayName("A worker that died is restarted on the next query")
+    void testRestartDeadWorker() throws Exception {
+        pool = startPool(1, 100);
+        long pid = pidOfQuery();
+
+        ProcessHandle process = ProcessHandle.of(pid).orElseThrow();
+        process.destroyForcibly();
+        process.onExit().get(10, TimeUnit.SECONDS);
+
+        long restarted = pidOfQuery();
+        assertNotEquals(pid, restarted);
+        assertEquals(1, pool.getIdleWorkerCount());
+    }
+
+    @Test
+    @DisplayName("A failed start stops the workers that were already launched")
+    void testFailedStartStopsWorkers() throws Exception {
+        int basePort = freePorts(2);
+        Files.createFile(tempDir.resolve("fail-" + (basePort + 1)));
+        OntopWorkerPool failing = newPool(2, basePort, 100);
+
+        assertThrows(IllegalStateException.class, failing::start);
+        assertFalse(failing.isStarted());
+        assertEquals(0, failing.getIdleWorkerCount());
+
+        Path pidFile = tempDir.resolve("pid-" + basePort);
+        if (Files.exists(pidFile)) {
+            long pid = Long.parseLong(Files.readString(pidFile).trim());
+            assertFalse(ProcessHandle.of(pid).map(ProcessHandle::isAlive).orElse(false),
+                "The worker that did start must not be orphaned");
+        }
+        try (ServerSocket socket = new ServerSocket(basePort)) {
+            assertEquals(basePort, socket.getLocalPort(), "The port of the stopped worker is free again");
+        }
+    }
+
+    private OntopWorkerPool startPool(int size, int maxQueries) throws Exception {
+        OntopWorkerPool started = newPool(size, freePorts(size), maxQueries);
+        started.start();
+        assertTrue(started.isStarted());
+        return started;
+    }
+
+    private OntopWorkerPool newPool(int size, int basePort, int maxQueries) {
+        return new OntopWorkerPool(script.toString(), "ontology.owl", "mapping.obda", "db.properties",
+            size, basePort, maxQueries);
+    }
+
+    private long pidOfQuery() throws Exception {
+        try (SPARQLResultCursor cursor = pool.openCursor(QUERY)) {
+            return pidOf(cursor);
+        }
+    }
+
+    private static long pidOf(SPARQLResultCursor cursor) {
+        assertTrue(cursor.hasNext());
+        BindingRow row = cursor.next();
+        assertEquals(TermType.XSD + "integer", row.getType("pid").getDatatype());
+        return Long.parseLong(row.getString("pid"));
+    }
+
+    /**
+     * First of a run of consecutive ports that are free right now
+     */
+    private static int freePorts(int count) throws IOException {
+        for (int attempt = 0; attempt < 20; attempt++) {
+            int first;
+            try (ServerSocket probe = new ServerSocket(0)) {
+                first = probe.getLocalPort();
+            }
+            if (first + count > 65535) {
+                continue;
+            }
+            boolean free = true;
+            for (int port = first + 1; port < first + count && free; port++) {
+                try (ServerSocket probe = new ServerSocket(port)) {
+                    free = probe.getLocalPort() == port;
+                } catch (IOException e) {
+                    free = false;
+                }
+            }
+            if (free) {
+                return first;
+            }
+        }
+        throw new IOException("No " + count + " consecutive free ports");
+    }
+}
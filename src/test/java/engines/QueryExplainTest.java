@@ -0,0 +1,32 @@
+package engines;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * QueryExplain - the per-phase timing report
+ */
+public class QueryExplainTest {
+
+    @Test
+    @DisplayName("Phases are reported in milliseconds, unmeasured ones as n/a")
+    void testReport() {
+        QueryExplain explain = new QueryExplain("SELECT ?s WHERE { ?s a :Team }", "cli", null, null,
+            -1, -1, -1, -1, 2_500_000, 7);
+        String report = explain.toString();
+        assertTrue(report.startsWith("SPARQL explain (cli, 7 rows)"), report);
+        assertTrue(report.contains("total:          2.500 ms"), report);
+        assertTrue(report.contains("parse:          n/a"), report);
+        assertTrue(report.contains("SQL:\n  (not available)"), report);
+    }
+
+    @Test
+    @DisplayName("Multi-line SQL and plans are indented under their heading")
+    void testSqlIndented() {
+        QueryExplain explain = new QueryExplain("SELECT ?s WHERE { ?s a :Team }", "direct",
+            "SELECT TEAM_ID\nFROM TEAM\n", "SELECT\n    TEAM_ID", 1_000, 2_000, 3_000, 4_000, 10_000, 1);
+        String report = explain.toString();
+        assertTrue(report.contains("SQL:\n  SELECT TEAM_ID\n  FROM TEAM\n"), report);
+        assertTrue(report.endsWith("H2 plan:\n  SELECT\n      TEAM_ID"), report);
+    }
+}
@@ -0,0 +1,129 @@
+package engines;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import utils.OntologyFingerprint;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ReformulationCache - query normalization, hit/miss accounting and invalidation when
+ * the ontology or mapping files change
+ */
+public class ReformulationCacheTest {
+
+    private static final ReformulatedQuery TEAMS = new ReformulatedQuery(
+        "SELECT NAME FROM TEAM", List.of("name"), List.of("NAME"));
+
+    @TempDir
+    Path tempDir;
+
+    private Path mappingFile;
+    private ReformulationCache cache;
+    private final AtomicInteger reformulations = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mappingFile = tempDir.resolve("mapping.ttl");
+        Files.writeString(mappingFile, "# mapping v1\n");
+        cache = new ReformulationCache(new OntologyFingerprint(mappingFile));
+        reformulations.set(0);
+    }
+
+    private ReformulatedQuery lookup(String query, ReformulatedQuery result) throws Exception {
+        return cache.getOrReformulate(query, sparql -> {
+            reformulations.incrementAndGet();
+            return result;
+        });
+    }
+
+    @Test
+    @DisplayName("Whitespace runs collapse and comment lines are dropped")
+    void testNormalizeFormatting() {
+        String formatted = "# all team names\n"
+                         + "SELECT ?name\n"
+                         + "WHERE {\n"
+                         + "    ?team :name ?name .   \n"
+                         + "}\n";
+        assertEquals("SELECT ?name WHERE { ?team :name ?name . }", ReformulationCache.normalize(formatted));
+        assertEquals(ReformulationCache.normalize("SELECT ?name WHERE { ?team :name ?name . }"),
+            ReformulationCache.normalize(formatted));
+    }
+
+    @Test
+    @DisplayName("Quoted literals and IRI fragments are kept verbatim")
+    void testNormalizeKeepsLiterals() {
+        assertEquals("SELECT ?t WHERE { ?t :name \"Sporting   CP\" }",
+            ReformulationCache.normalize("SELECT ?t\n  WHERE { ?t :name \"Sporting   CP\" }"));
+        assertEquals("SELECT ?t WHERE { ?t a <http://www.semanticweb.org/sports/ontology#Team> }",
+            ReformulationCache.normalize("SELECT ?t WHERE {\n ?t a <http://www.semanticweb.org/sports/ontology#Team> }"));
+        assertNotEquals(ReformulationCache.normalize("SELECT ?t WHERE { ?t :name 'A  B' }"),
+            ReformulationCache.normalize("SELECT ?t WHERE { ?t :name 'A B' }"));
+    }
+
+    @Test
+    @DisplayName("Repeats of a query are hits, differently formatted ones included")
+    void testHitsAndMisses() throws Exception {
+        assertSame(TEAMS, lookup("SELECT ?name WHERE { ?t :name ?name }", TEAMS));
+        assertSame(TEAMS, lookup("SELECT ?name\nWHERE { ?t :name ?name }", TEAMS));
+        assertSame(TEAMS, lookup("  SELECT ?name WHERE {  ?t :name ?name }  ", TEAMS));
+
+        assertEquals(1, reformulations.get(), "Ontop should reformulate the query once");
+        assertEquals(1, cache.getMisses());
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    @DisplayName("Queries that need Ontop are remembered as bypasses")
+    void testBypasses() throws Exception {
+        String query = "SELECT ?p WHERE { ?p a :Player }";
+        assertNull(lookup(query, null));
+        assertNull(lookup(query, null));
+
+        assertEquals(1, reformulations.get(), "A query without a direct plan should not be reformulated again");
+        assertEquals(1, cache.getBypasses());
+        assertEquals(0, cache.getHits());
+        assertEquals(0.0, cache.getHitRate(), 0.0);
+    }
+
+    @Test
+    @DisplayName("Changing the mapping file drops every entry")
+    void testInvalidation() throws Exception {
+        String query = "SELECT ?name WHERE { ?t :name ?name }";
+        lookup(query, TEAMS);
+        assertFalse(cache.invalidateIfChanged(), "Unchanged files should keep the entries");
+        lookup(query, TEAMS);
+        assertEquals(1, reformulations.get());
+
+        Files.writeString(mappingFile, "# mapping v2 - one more column\n");
+        assertTrue(cache.invalidateIfChanged());
+        assertEquals(0, cache.size());
+
+        lookup(query, TEAMS);
+        assertEquals(2, reformulations.get(), "The query should be reformulated against the new mapping");
+        assertFalse(cache.invalidateIfChanged());
+    }
+
+    @Test
+    @DisplayName("A detected change is only committed by invalidate, so a failed reload is retried")
+    void testChangeCommittedByInvalidate() throws Exception {
+        String query = "SELECT ?name WHERE { ?t :name ?name }";
+        lookup(query, TEAMS);
+        assertNull(cache.changedFingerprint());
+
+        Files.writeString(mappingFile, "# mapping v2 - fails to load\n");
+        String changed = cache.changedFingerprint();
+        assertNotNull(changed);
+        // The reload failed: nothing was invalidated, and the change is reported again
+        assertEquals(changed, cache.changedFingerprint());
+        assertEquals(1, cache.size());
+
+        cache.invalidate(changed);
+        assertNull(cache.changedFingerprint());
+        assertEquals(0, cache.size());
+    }
+}
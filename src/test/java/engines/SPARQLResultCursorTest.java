@@ -0,0 +1,107 @@
+package engines;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * SPARQLResultCursor - streaming rows of the CSV, TSV and JDBC results behind SPARQL queries
+ */
+public class SPARQLResultCursorTest {
+
+    // Same CSV layout Ontop produces: header, quoted fields, unbound values
+    private static final String CSV = "?teamName,playerCount,city\n" +
+                                      "\"Paris Saint-Germain, FC\",3,Paris\n" +
+                                      "Real Madrid,4,\n" +
+                                      "Barcelona,2,Barcelona\n";
+
+    @Test
+    @DisplayName("Rows are read one at a time with typed getters")
+    void testReadRows() throws Exception {
+        try (SPARQLResultCursor cursor = SPARQLResultCursor.fromCsv(new BufferedReader(new StringReader(CSV)), null)) {
+            assertEquals(List.of("teamName", "playerCount", "city"), cursor.getVariables());
+
+            BindingRow first = cursor.next();
+            assertEquals("Paris Saint-Germain, FC", first.getString("teamName"));
+            assertEquals(3, first.getInt("playerCount"));
+
+            BindingRow second = cursor.next();
+            assertEquals(4L, second.getLong("?playerCount"));
+            assertFalse(second.isBound("city"), "Empty CSV field should be unbound");
+
+            assertEquals("Barcelona", cursor.next().getString("city"));
+            assertFalse(cursor.hasNext());
+        }
+    }
+
+    @Test
+    @DisplayName("Closing early releases the backend")
+    void testEarlyClose() throws Exception {
+        boolean[] released = {false};
+        try (SPARQLResultCursor cursor = SPARQLResultCursor.fromCsv(
+                new BufferedReader(new StringReader(CSV)), () -> released[0] = true)) {
+            cursor.next();
+            assertFalse(released[0], "The backend is held while rows remain");
+        }
+        assertTrue(released[0], "Closing the cursor should release the backend");
+    }
+
+    @Test
+    @DisplayName("A JDBC cursor closes its statement along with the result set")
+    void testResultSetRelease() throws Exception {
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:cursor_release")) {
+            Statement stmt = connection.createStatement();
+            ResultSet rs = stmt.executeQuery("SELECT 'Benfica' AS NAME UNION ALL SELECT 'Porto'");
+            try (SPARQLResultCursor cursor = SPARQLResultCursor.fromResultSet(List.of("team"), List.of("NAME"), rs)) {
+                assertEquals("Benfica", cursor.next().getString("team"));
+            }
+            assertTrue(rs.isClosed(), "Closing the cursor should close the result set");
+            assertTrue(stmt.isClosed(), "Closing the cursor should close the statement");
+        }
+    }
+
+    @Test
+    @DisplayName("TSV results keep IRIs, blank nodes and literal datatypes")
+    void testTsvTermTypes() throws Exception {
+        String tsv = "?team\t?name\t?players\t?nick\t?coach\n" +
+                     "<http://www.semanticweb.org/sports/abox#team1>\t\"http://benfica.pt\"\t" +
+                     "\"3\"^^<http://www.w3.org/2001/XMLSchema#integer>\t\"Águias\"@pt\t_:b0\n" +
+                     "<http://www.semanticweb.org/sports/abox#team2>\t\"Tab\\tand \\\"quote\\\"\"\t12\t\t\n";
+        try (SPARQLResultCursor cursor = SPARQLResultCursor.fromTsv(new StringReader(tsv), null)) {
+            assertEquals(List.of("team", "name", "players", "nick", "coach"), cursor.getVariables());
+
+            BindingRow first = cursor.next();
+            assertEquals("http://www.semanticweb.org/sports/abox#team1", first.getString("team"));
+            assertEquals(TermType.Kind.IRI, first.getType("team").getKind());
+            assertEquals("http://benfica.pt", first.getString("name"));
+            assertEquals(TermType.STRING, first.getType("name"), "A string holding a URL is still a literal");
+            assertEquals(3, first.getInt("players"));
+            assertEquals(TermType.XSD + "integer", first.getType("players").getDatatype());
+            assertEquals("pt", first.getType("nick").getLanguage());
+            assertEquals(TermType.Kind.BNODE, first.getType("coach").getKind());
+
+            BindingRow second = cursor.next();
+            assertEquals("Tab\tand \"quote\"", second.getString("name"));
+            assertEquals(TermType.XSD + "integer", second.getType("players").getDatatype());
+            assertFalse(second.isBound("nick"));
+            assertNull(second.getType("coach"));
+            assertFalse(cursor.hasNext());
+        }
+    }
+
+    @Test
+    @DisplayName("CSV results carry no term types")
+    void testCsvHasNoTypes() throws Exception {
+        try (SPARQLResultCursor cursor = SPARQLResultCursor.fromCsv(new BufferedReader(new StringReader(CSV)), null)) {
+            BindingRow row = cursor.next();
+            assertFalse(row.hasTypes());
+            assertNull(row.getType("teamName"));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package engines;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SPARQLTemplate - binding values into the query text, and compiling the reformulated
+ * SQL into a parameterized statement
+ */
+public class SPARQLTemplateTest {
+
+    private static final String PLAYERS_OF_TEAM =
+        "SELECT ?name WHERE { ?p :playsFor <http://www.semanticweb.org/sports/data#team/{{team}}> ; " +
+        ":hasName ?name ; :hasNationality \"{{ country }}\" ; :hasMarketValue ?v . FILTER(?v > {{min}}) }";
+
+    @Test
+    @DisplayName("Values are substituted, quoted ones escaped")
+    void testBind() {
+        SPARQLTemplate template = new SPARQLTemplate("playersOfTeam", PLAYERS_OF_TEAM);
+        assertEquals(List.of("team", "country", "min"), template.getParameters());
+
+        String bound = template.bind(Map.of("team", 2, "country", "Say \"Spain\"", "min", 1_000_000));
+        assertTrue(bound.contains("data#team/2>"), bound);
+        assertTrue(bound.contains("\"Say \\\"Spain\\\"\""), "Quoted values must be escaped: " + bound);
+        assertTrue(bound.contains("?v > 1000000"), bound);
+    }
+
+    @Test
+    @DisplayName("Unsafe or missing values are rejected")
+    void testBindRejects() {
+        SPARQLTemplate template = new SPARQLTemplate("playersOfTeam", PLAYERS_OF_TEAM);
+        assertThrows(IllegalArgumentException.class,
+            () -> template.bind(Map.of("team", "2> . ?x ?y ?z", "country", "Spain", "min", 0)),
+            "Unquoted values must not change the query shape");
+        assertThrows(IllegalArgumentException.class,
+            () -> template.bind(Map.of("team", 2, "country", "Spain")), "Missing values must be rejected");
+    }
+
+    @Test
+    @DisplayName("Sentinels in the reformulated SQL become JDBC parameters")
+    void testCompile() throws Exception {
+        SPARQLTemplate template = new SPARQLTemplate("playersOfTeam", PLAYERS_OF_TEAM);
+        String sentinels = template.withSentinels();
+        assertFalse(sentinels.contains("{{"), sentinels);
+
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:template_compile", "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE PLAYER (NAME VARCHAR(50), TEAM_ID INT, NATIONALITY VARCHAR(50), MARKET_VALUE BIGINT)");
+            statement.execute("INSERT INTO PLAYER VALUES ('Pedri', 2, 'Spain', 80000000), ('Gavi', 2, 'Spain', 500000), "
+                + "('Mbappe', 1, 'France', 180000000)");
+
+            // Shaped like Ontop's output: the sentinels of team, country and min in filter position
+            ReformulatedQuery sentinelPlan = new ReformulatedQuery(
+                "SELECT NAME FROM PLAYER WHERE TEAM_ID = 987654321000 AND NATIONALITY = '__sparql_param_1__' "
+                    + "AND MARKET_VALUE > 987654321002 ORDER BY NAME",
+                List.of("name"), List.of("NAME"));
+            assertTrue(template.compile(sentinelPlan, connection, "v1"));
+            assertTrue(template.isCompiled());
+
+            assertEquals(List.of("name", "Pedri"),
+                template.executeCompiled(Map.of("team", 2, "country", "Spain", "min", 1_000_000), "v1", connection));
+            assertNull(template.executeCompiled(Map.of("team", 2, "country", "Spain", "min", 0), "v2", connection),
+                "A plan compiled for other mappings must not be used");
+
+            template.invalidate();
+            assertFalse(template.isCompiled());
+        }
+    }
+
+    @Test
+    @DisplayName("A sentinel folded into a larger literal cannot be compiled")
+    void testCompileFallsBack() throws Exception {
+        SPARQLTemplate template = new SPARQLTemplate("playersOfTeam", PLAYERS_OF_TEAM);
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:template_fallback", "sa", "")) {
+            ReformulatedQuery folded = new ReformulatedQuery(
+                "SELECT 'http://www.semanticweb.org/sports/data#team/987654321000' AS T, '__sparql_param_1__ FC' AS C, 987654321002 AS V",
+                List.of("name"), List.of("C"));
+            assertFalse(template.compile(folded, connection, "v1"));
+            assertFalse(template.isCompiled());
+        }
+    }
+}
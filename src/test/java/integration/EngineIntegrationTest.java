@@ -1,10 +1,60 @@
 package integration;
 
+import app.SparqlEndpointServer;
+import database.ConnectionPool;
+import database.PersonAgeTrigger;
+import database.TableChangeTrigger;
+import engines.ABoxUpdate;
+import engines.ClassificationSnapshot;
+import engines.DirectSQLRouter;
 import engines.H2_SQLEngine;
+import engines.QueryDeadline;
+import engines.QueryExecutors;
+import engines.ReasonerBackend;
+import engines.ReasonerBenchmark;
+import engines.ReasoningEngine;
+import engines.ReasoningSessionManager;
+import engines.ReformulatedQuery;
 import engines.SPARQLEngine;
+import engines.SPARQLResultCursor;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AddAxiom;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
 import org.junit.jupiter.api.Assumptions;
+import utils.OntologyFingerprint;
+import config.AppConfig;
+import java.math.BigDecimal;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Integration Test using Engine Architecture
@@ -165,6 +215,527 @@ public class EngineIntegrationTest {
         }
     }
     
+    @Test
+    @DisplayName("Direct SQL Fast Path for Simple SPARQL Patterns")
+    void testDirectSQLRouter() throws Exception {
+        System.out.println("\n🔸 Testing Direct SQL Router...");
+        
+        DirectSQLRouter router = new DirectSQLRouter(dbEngine, new OntologyFingerprint());
+        ReformulatedQuery players = router.rewrite(AppConfig.getSPARQLPrefix()
+            + "SELECT (COUNT(?player) AS ?count) WHERE { ?player a :Player }");
+        Assertions.assertNotNull(players, "Class count should be served from the mapping index");
+        Assertions.assertEquals(List.of("count"), players.variables);
+        Assertions.assertEquals(countOf("SELECT COUNT(DISTINCT PERSON_ID) FROM PLAYER_ROLE WHERE END_DATE IS NULL"),
+            countOf(players.sql), "Players are the mapped players and their subclasses");
+        
+        ReformulatedQuery playsFor = router.rewrite(AppConfig.getSPARQLPrefix() + "SELECT ?p ?t WHERE { ?p :playsFor ?t }");
+        Assertions.assertNotNull(playsFor, "Object property pattern should be served from the mapping index");
+        try (ResultSet rs = dbEngine.executeQuery(playsFor.sql)) {
+            Assertions.assertTrue(rs.next());
+            Assertions.assertTrue(rs.getString(2).startsWith("http://www.semanticweb.org/sports/data#team/"), rs.getString(2));
+        }
+        
+        // Anything beyond a single pattern goes to Ontop
+        Assertions.assertNull(router.rewrite(AppConfig.getSPARQLPrefix() + "SELECT ?p WHERE { ?p a :Player } LIMIT 3"));
+        Assertions.assertNull(router.rewrite(AppConfig.getSPARQLPrefix()
+            + "SELECT ?p WHERE { ?p a :Player . ?p :playsFor ?t }"));
+        
+        System.out.println("   [OK] Simple patterns rewritten to SQL, others left to Ontop");
+    }
+    
+    @Test
+    @DisplayName("SQL Explain Analyze")
+    void testExplainAnalyze() throws Exception {
+        System.out.println("\n🔸 Testing SQL Explain Analyze...");
+        
+        String plan = dbEngine.explainAnalyze("SELECT COUNT(*) FROM PERSON p JOIN PLAYER_ROLE pr ON p.PERSON_ID = pr.PERSON_ID");
+        Assertions.assertTrue(plan.contains("\"PUBLIC\".\"PERSON\"") && plan.contains("scanCount"), plan);
+        
+        System.out.println("   [OK] Explain output available");
+    }
+    
+    @Test
+    @DisplayName("Query Deadline Cancellation")
+    void testQueryDeadline() throws Exception {
+        System.out.println("\n🔸 Testing Query Deadlines...");
+        
+        // A runaway cross join is cancelled through Statement.cancel once the deadline passes
+        String runaway = "SELECT SUM(a.X * b.X) FROM SYSTEM_RANGE(1, 1000000) a, SYSTEM_RANGE(1, 1000000) b";
+        long start = System.nanoTime();
+        Assertions.assertThrows(CancellationException.class,
+            () -> dbEngine.executeQuery(runaway, QueryDeadline.afterMillis(300)));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Assertions.assertTrue(elapsedMillis < 10_000, "Query should stop soon after its deadline, took " + elapsedMillis + "ms");
+        
+        // A cancelled token fails fast, and the connection stays usable
+        QueryDeadline cancelled = QueryDeadline.none();
+        cancelled.cancel();
+        Assertions.assertThrows(CancellationException.class, () -> dbEngine.executeQuery("SELECT 1", cancelled));
+        Assertions.assertTrue(countOf("SELECT COUNT(*) FROM TEAM") > 0, "Engine should still answer after a cancellation");
+        
+        System.out.println("   [OK] Deadline cancelled the query after " + elapsedMillis + "ms");
+    }
+    
+    @Test
+    @DisplayName("Connection Pool Reuse")
+    void testConnectionPool() throws Exception {
+        System.out.println("\n🔸 Testing Connection Pool...");
+        
+        ConnectionPool pool = dbEngine.getConnectionPool();
+        Assertions.assertNotNull(pool, "Started engine should own a connection pool");
+        int active = pool.getActiveCount();
+        
+        // Concurrent borrowers get distinct connections, closing returns them
+        try (Connection first = dbEngine.getConnection(); Connection second = dbEngine.getConnection()) {
+            Assertions.assertNotSame(first, second);
+            Assertions.assertEquals(active + 2, pool.getActiveCount());
+        }
+        Assertions.assertEquals(active, pool.getActiveCount(), "Closed connections should return to the pool");
+        
+        // A statement closed and prepared again on the same connection comes from its cache
+        String sql = "SELECT NAME FROM TEAM WHERE TEAM_ID = ?";
+        try (Connection connection = dbEngine.getConnection()) {
+            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                stmt.setInt(1, 1);
+                stmt.executeQuery().close();
+            }
+            long hits = pool.getStatementCacheHits();
+            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                stmt.setInt(1, 1);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    Assertions.assertTrue(rs.next());
+                }
+            }
+            Assertions.assertEquals(hits + 1, pool.getStatementCacheHits(), "Repeated statement should hit the cache");
+        }
+        
+        // A streaming result set holds its connection until it is closed
+        ResultSet rs = dbEngine.openPreparedQuery("SELECT TEAM_ID FROM TEAM");
+        Assertions.assertEquals(active + 1, pool.getActiveCount());
+        rs.close();
+        Assertions.assertEquals(active, pool.getActiveCount(), "Closing the result set should return its connection");
+        
+        // executeQuery results are detached, cached or not - even left open they hold no connection
+        ResultSet uncached = dbEngine.executeQuery("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES");
+        Assertions.assertTrue(uncached.next());
+        Assertions.assertEquals(active, pool.getActiveCount(), "An uncached result must not hold a connection");
+        
+        System.out.println("   [OK] Pooled connections and statements reused");
+    }
+    
+    @Test
+    @DisplayName("Streaming Row API")
+    void testStreamingRowApi() throws Exception {
+        System.out.println("\n🔸 Testing Streaming Row API...");
+        
+        ConnectionPool pool = dbEngine.getConnectionPool();
+        int active = pool.getActiveCount();
+        
+        List<String> names = dbEngine.query("SELECT NAME FROM TEAM WHERE TEAM_TYPE = ? ORDER BY TEAM_ID",
+            (rs, rowNum) -> rs.getString(1), "SeniorTeam");
+        Assertions.assertFalse(names.isEmpty(), "Bound parameter should select senior teams");
+        
+        // Primitive aggregation without an object per row
+        long[] capacity = new long[1];
+        dbEngine.forEachRow("SELECT STADIUM_CAPACITY FROM TEAM", rs -> capacity[0] += rs.getLong(1));
+        Assertions.assertEquals(dbEngine.queryForLong("SELECT SUM(STADIUM_CAPACITY) FROM TEAM"), capacity[0]);
+        Assertions.assertEquals(countOf("SELECT COUNT(*) FROM TEAM"), dbEngine.queryForLong("SELECT COUNT(*) FROM TEAM"));
+        
+        // A stream holds its connection until closed, even when not fully read
+        try (Stream<Integer> ids = dbEngine.stream("SELECT TEAM_ID FROM TEAM ORDER BY TEAM_ID", (rs, rowNum) -> rs.getInt(1))) {
+            Assertions.assertEquals(2, ids.limit(2).count());
+            Assertions.assertEquals(active + 1, pool.getActiveCount());
+        }
+        Assertions.assertEquals(active, pool.getActiveCount(), "Statements and connections should all be released");
+        
+        System.out.println("   [OK] " + names.size() + " senior teams mapped, resources released");
+    }
+    
+    @Test
+    @DisplayName("Prepared Statement Cache")
+    void testPreparedStatementCache() throws Exception {
+        System.out.println("\n🔸 Testing Prepared Statement Cache...");
+        
+        ConnectionPool pool = dbEngine.getConnectionPool();
+        try (Connection connection = dbEngine.getConnection(); Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE STATEMENT_CACHE_TEST (ID INTEGER PRIMARY KEY, CITY VARCHAR(50))");
+            try {
+                // Tracked, so the selects below go through the result cache
+                TableChangeTrigger.install(stmt, "STATEMENT_CACHE_TEST");
+                stmt.execute("INSERT INTO STATEMENT_CACHE_TEST VALUES (1, 'Lisbon'), (2, 'Porto')");
+                
+                String rename = "UPDATE STATEMENT_CACHE_TEST SET CITY = ? WHERE ID = ?";
+                dbEngine.executeUpdate(rename, "Statement Cache City", 1);
+                long hits = pool.getStatementCacheHits();
+                dbEngine.executeUpdate(rename, "Statement Cache City", 1);
+                Assertions.assertTrue(pool.getStatementCacheHits() > hits, "Repeated update should reuse its prepared statement");
+                
+                // Bound values are part of the result cache key
+                try (ResultSet rs = dbEngine.executeQuery("SELECT CITY FROM STATEMENT_CACHE_TEST WHERE ID = ?", 1)) {
+                    Assertions.assertTrue(rs.next());
+                    Assertions.assertEquals("Statement Cache City", rs.getString(1));
+                }
+                try (ResultSet rs = dbEngine.executeQuery("SELECT CITY FROM STATEMENT_CACHE_TEST WHERE ID = ?", 2)) {
+                    Assertions.assertTrue(rs.next());
+                    Assertions.assertEquals("Porto", rs.getString(1));
+                }
+            } finally {
+                stmt.execute("DROP TABLE IF EXISTS STATEMENT_CACHE_TEST");
+            }
+        }
+        
+        System.out.printf("   [OK] Statement cache hit ratio %.0f%%%n", pool.getStatementCacheHitRatio() * 100);
+    }
+    
+    private static long scalar(Statement stmt, String sql) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+    
+    @Test
+    @DisplayName("Persisted Person Age")
+    void testPersonAge() throws Exception {
+        System.out.println("\n🔸 Testing Persisted Person Age...");
+        
+        Assertions.assertEquals(0, dbEngine.queryForLong("SELECT COUNT(*) FROM PERSON WHERE AGE IS DISTINCT FROM "
+            + PersonAgeTrigger.AGE_EXPRESSION), "Seeded ages should match the computed expression");
+        Assertions.assertEquals(0, dbEngine.refreshAges(), "Nothing to refresh right after loading");
+        
+        // The trigger fills in the age of new rows and follows birth date changes
+        try (Connection connection = dbEngine.getConnection(); Statement stmt = connection.createStatement()) {
+            connection.setAutoCommit(false);
+            try {
+                stmt.execute("INSERT INTO PERSON (PERSON_ID, FULL_NAME, BIRTH_DATE) VALUES (990001, 'Age Test', DATE '2005-03-01')");
+                Assertions.assertEquals(scalar(stmt, "SELECT TIMESTAMPDIFF('YEAR', DATE '2005-03-01', CURRENT_DATE)"),
+                    scalar(stmt, "SELECT AGE FROM PERSON WHERE PERSON_ID = 990001"));
+                stmt.execute("UPDATE PERSON SET BIRTH_DATE = DATE '1980-03-01' WHERE PERSON_ID = 990001");
+                Assertions.assertEquals(scalar(stmt, "SELECT TIMESTAMPDIFF('YEAR', DATE '1980-03-01', CURRENT_DATE)"),
+                    scalar(stmt, "SELECT AGE FROM PERSON WHERE PERSON_ID = 990001"));
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            
+            try (ResultSet rs = stmt.executeQuery("EXPLAIN SELECT PERSON_ID FROM PERSON WHERE AGE >= 33")) {
+                rs.next();
+                Assertions.assertTrue(rs.getString(1).contains("IDX_PERSON_AGE"), rs.getString(1));
+            }
+        }
+        
+        System.out.println("   [OK] Ages maintained and indexed");
+    }
+    
+    @Test
+    @DisplayName("Shared Reasoning Session")
+    void testReasoningSession() throws Exception {
+        System.out.println("\n🔸 Testing Shared Reasoning Session...");
+        
+        ReasoningSessionManager sessions = new ReasoningSessionManager(new OntologyFingerprint(AppConfig.ONTOLOGY_FILE));
+        try {
+            int players = sessions.query(engine -> engine.countIndividualsOfClass("Player"));
+            
+            // Concurrent readers share the one classified reasoner
+            List<CompletableFuture<Integer>> counts = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                counts.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return sessions.query(engine -> engine.countIndividualsOfClass("Player"));
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                }));
+            }
+            for (CompletableFuture<Integer> count : counts) {
+                Assertions.assertEquals(players, count.get(60, TimeUnit.SECONDS));
+            }
+            Assertions.assertEquals(1, sessions.getSessionsCreated(), "Queries should reuse the classified session");
+            
+            // ABox updates run exclusively and are visible to the next query
+            sessions.update(engine -> {
+                OWLDataFactory factory = engine.getDataFactory();
+                engine.applyChanges(List.of(new AddAxiom(engine.getOntology(), factory.getOWLClassAssertionAxiom(
+                    factory.getOWLClass(IRI.create(AppConfig.createOntologyIRI("Player"))),
+                    factory.getOWLNamedIndividual(IRI.create(AppConfig.createABoxIRI("SessionTestPlayer")))))));
+                return null;
+            });
+            int afterUpdate = sessions.query(engine -> engine.countIndividualsOfClass("Player"));
+            Assertions.assertEquals(players + 1, afterUpdate);
+            Assertions.assertEquals(1, sessions.getSessionsCreated());
+            Assertions.assertEquals(6, sessions.getQueriesServed());
+        } finally {
+            sessions.close();
+        }
+        
+        System.out.println("   [OK] One reasoning session served every query");
+    }
+    
+    @Test
+    @DisplayName("Incremental ABox Updates")
+    void testIncrementalABoxUpdate() throws Exception {
+        System.out.println("\n🔸 Testing Incremental ABox Updates...");
+        
+        ReasoningSessionManager sessions = new ReasoningSessionManager(new OntologyFingerprint(AppConfig.ONTOLOGY_FILE));
+        try {
+            int topPlayers = sessions.query(engine -> engine.countIndividualsOfClass("TopPlayer"));
+            int eliteTeams = sessions.query(engine -> engine.countIndividualsOfClass("EliteTeam"));
+            
+            // A new 60000-seat team signs a 150M player: the player becomes a TopPlayer, the team an EliteTeam
+            ABoxUpdate.MembershipChanges signed = sessions.update(engine -> engine.apply(engine.newABoxUpdate()
+                .addIndividual("ABox_Update_Test_Team", "Team")
+                .addDataPropertyAssertion("ABox_Update_Test_Team", "hasStadiumCapacity", 60000)
+                .addIndividual("ABox_Update_Test_Player", "Player")
+                .addDataPropertyAssertion("ABox_Update_Test_Player", "hasMarketValue", new BigDecimal("150000000"))
+                .addObjectPropertyAssertion("ABox_Update_Test_Player", "playsFor", "ABox_Update_Test_Team")));
+            System.out.println("   Signing: " + signed);
+            Assertions.assertTrue(signed.addedFor("ABox_Update_Test_Player").contains("TopPlayer"));
+            Assertions.assertTrue(signed.addedFor("ABox_Update_Test_Team").contains("EliteTeam"));
+            Assertions.assertTrue(signed.getRemoved().isEmpty());
+            
+            // Loaded extensions were patched, not rebuilt
+            int topAfterSigning = sessions.query(engine -> engine.countIndividualsOfClass("TopPlayer"));
+            int eliteAfterSigning = sessions.query(engine -> engine.countIndividualsOfClass("EliteTeam"));
+            Assertions.assertEquals(topPlayers + 1, topAfterSigning);
+            Assertions.assertEquals(eliteTeams + 1, eliteAfterSigning);
+            
+            // Removing the player takes the team's EliteTeam membership with it
+            ABoxUpdate.MembershipChanges released = sessions.update(engine -> engine.apply(engine.newABoxUpdate()
+                .removeIndividual("ABox_Update_Test_Player")));
+            System.out.println("   Release: " + released);
+            Assertions.assertTrue(released.removedFor("ABox_Update_Test_Player").contains("TopPlayer"));
+            Assertions.assertTrue(released.removedFor("ABox_Update_Test_Team").contains("EliteTeam"));
+            int topAfterRelease = sessions.query(engine -> engine.countIndividualsOfClass("TopPlayer"));
+            int eliteAfterRelease = sessions.query(engine -> engine.countIndividualsOfClass("EliteTeam"));
+            Assertions.assertEquals(topPlayers, topAfterRelease);
+            Assertions.assertEquals(eliteTeams, eliteAfterRelease);
+            Assertions.assertEquals(1, sessions.getSessionsCreated());
+        } finally {
+            sessions.close();
+        }
+        
+        System.out.println("   [OK] Changed memberships reported and extensions patched incrementally");
+    }
+    
+    @Test
+    @DisplayName("Classification Snapshot")
+    void testClassificationSnapshot(@TempDir Path snapshotDir) throws Exception {
+        System.out.println("\n🔸 Testing Classification Snapshot...");
+        
+        ReasonerBackend hermit = ReasonerBackend.named("hermit");
+        String key = ClassificationSnapshot.keyFor(hermit);
+        Path file = ClassificationSnapshot.fileFor(snapshotDir, key);
+        
+        // Cold start: parse, classify and realize, then save the snapshot
+        ReasoningEngine cold = new ReasoningEngine(hermit, snapshotDir);
+        ReasoningEngine warm = new ReasoningEngine(hermit, snapshotDir);
+        try {
+            long start = System.nanoTime();
+            cold.setup();
+            cold.addABoxData();
+            long coldMillis = (System.nanoTime() - start) / 1_000_000;
+            Assertions.assertFalse(cold.isFromSnapshot());
+            Assertions.assertTrue(Files.exists(file), "Full classification should save a snapshot");
+            
+            // Warm start: answered from the snapshot, no ontology parse or reasoner
+            start = System.nanoTime();
+            warm.setup();
+            warm.addABoxData();
+            long warmMillis = (System.nanoTime() - start) / 1_000_000;
+            Assertions.assertTrue(warm.isFromSnapshot());
+            System.out.println("   Cold start " + coldMillis + " ms, snapshot start " + warmMillis + " ms ("
+                + Files.size(file) + " bytes)");
+            
+            for (String className : List.of("Player", "TopPlayer", "YoungPlayer", "EliteTeam", "Team", "Person")) {
+                Assertions.assertEquals(cold.countIndividualsOfClass(className), warm.countIndividualsOfClass(className), className);
+            }
+            for (OWLNamedIndividual individual : cold.getOntology().getIndividualsInSignature()) {
+                if (individual.getIRI().toString().startsWith(AppConfig.ABOX_NAMESPACE)) {
+                    String name = individual.getIRI().getShortForm();
+                    Assertions.assertEquals(cold.getInferredClassesForIndividual(name), warm.getInferredClassesForIndividual(name), name);
+                }
+            }
+            Assertions.assertTrue(warm.isIndividualOfClass("ABox_Erling_Haaland", "Player"));
+            
+            OWLDataFactory factory = OWLManager.getOWLDataFactory();
+            ClassificationSnapshot snapshot = ClassificationSnapshot.read(file, key, factory);
+            Assertions.assertNotNull(snapshot);
+            Assertions.assertTrue(snapshot.getSuperClasses(factory.getOWLClass(IRI.create(AppConfig.createOntologyIRI("TopPlayer"))))
+                .contains(factory.getOWLClass(IRI.create(AppConfig.createOntologyIRI("Player")))));
+            Assertions.assertNull(ClassificationSnapshot.read(file, "other-ontology-version", factory),
+                "A snapshot must not be served for a different key");
+        } finally {
+            cold.cleanup();
+            warm.cleanup();
+        }
+        
+        System.out.println("   [OK] Snapshot start matches the classified ontology");
+    }
+    
+    @Test
+    @DisplayName("Reasoner Backends")
+    void testReasonerBackends() throws Exception {
+        System.out.println("\n🔸 Testing Reasoner Backends...");
+        
+        Assertions.assertEquals("hermit", ReasonerBackend.named("HermiT").name());
+        Assertions.assertThrows(IllegalArgumentException.class,
+            () -> ReasonerBackend.named("org.example.MissingReasonerFactory").createFactory());
+        
+        // The structural backend only sees told axioms: never more instances than HermiT infers
+        ReasoningEngine structural = new ReasoningEngine(ReasonerBackend.named("structural"));
+        structural.setup();
+        try {
+            int told = structural.countIndividualsOfClass("Player");
+            int inferred = ReasoningSessionManager.shared().query(engine -> engine.countIndividualsOfClass("Player"));
+            Assertions.assertTrue(told <= inferred, told + " told vs " + inferred + " inferred players");
+        } finally {
+            structural.cleanup();
+        }
+        
+        // Benchmark harness on a doubled ABox
+        OWLOntology ontology = OWLManager.createOWLOntologyManager()
+            .loadOntologyFromOntologyDocument(AppConfig.ONTOLOGY_FILE.toFile());
+        List<ReasonerBenchmark.Result> results = ReasonerBenchmark.compare(
+            List.of(ReasonerBackend.named("structural")), ontology, 1, 2);
+        Assertions.assertEquals(2, results.size());
+        Assertions.assertEquals(2 * results.get(0).individuals, results.get(1).individuals);
+        Assertions.assertTrue(results.get(1).consistent);
+        
+        System.out.println("   [OK] Backends: " + ReasonerBackend.available().stream().map(ReasonerBackend::name).collect(Collectors.toList()));
+    }
+    
+    @Test
+    @DisplayName("SQL Result Cache Invalidation")
+    void testResultCacheInvalidation() throws Exception {
+        System.out.println("\n🔸 Testing SQL Result Cache...");
+        Assumptions.assumeTrue(dbEngine.getResultCache() != null, "Result cache disabled");
+        
+        try (Connection connection = dbEngine.getConnection(); Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE RESULT_CACHE_TEST (ID INTEGER PRIMARY KEY, NAME VARCHAR(50))");
+            try {
+                TableChangeTrigger.install(stmt, "RESULT_CACHE_TEST");
+                stmt.execute("INSERT INTO RESULT_CACHE_TEST VALUES (1, 'Cache Test FC'), (2, 'Cache Test United')");
+                
+                String countRows = "SELECT COUNT(*) FROM RESULT_CACHE_TEST";
+                Assertions.assertEquals(2, countOf(countRows));
+                long hits = dbEngine.getResultCache().getHits();
+                Assertions.assertEquals(2, countOf("SELECT   COUNT(*)\n  FROM RESULT_CACHE_TEST"));
+                Assertions.assertEquals(hits + 1, dbEngine.getResultCache().getHits(), "Reformatted repeat should hit the cache");
+                
+                // Writes to the table must invalidate the cached count
+                dbEngine.executeUpdate("INSERT INTO RESULT_CACHE_TEST VALUES (3, 'Cache Test City')");
+                Assertions.assertEquals(3, countOf(countRows), "Insert should invalidate the cached count");
+                dbEngine.executeUpdate("DELETE FROM RESULT_CACHE_TEST WHERE ID = 3");
+                Assertions.assertEquals(2, countOf(countRows), "Delete should invalidate the cached count");
+            } finally {
+                stmt.execute("DROP TABLE IF EXISTS RESULT_CACHE_TEST");
+            }
+        }
+        
+        System.out.println("   [OK] SQL result cache invalidated on table changes");
+    }
+    
+    private int countOf(String sql) throws SQLException {
+        try (ResultSet rs = dbEngine.executeQuery(sql)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+    
+    @Test
+    @DisplayName("Async SQL Fan-out")
+    void testAsyncQueries() throws Exception {
+        System.out.println("\n🔸 Testing Async SQL Fan-out...");
+        
+        String[] tables = {"TEAM", "PERSON", "PLAYER_ROLE", "COACH_ROLE", "CONTRACT"};
+        List<CompletableFuture<Integer>> counts = new ArrayList<>();
+        for (String table : tables) {
+            counts.add(dbEngine.executeQueryAsync("SELECT COUNT(*) FROM " + table).thenApply(rs -> {
+                try (rs) {
+                    rs.next();
+                    return rs.getInt(1);
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
+                }
+            }));
+        }
+        
+        CompletableFuture.allOf(counts.toArray(new CompletableFuture<?>[0])).get(30, TimeUnit.SECONDS);
+        for (int i = 0; i < tables.length; i++) {
+            Assertions.assertTrue(counts.get(i).get() > 0, tables[i] + " should have records");
+        }
+        
+        CompletableFuture<ResultSet> failing = dbEngine.executeQueryAsync("SELECT * FROM NO_SUCH_TABLE");
+        ExecutionException error = Assertions.assertThrows(ExecutionException.class, failing::get);
+        Assertions.assertTrue(error.getCause() instanceof SQLException, "SQL errors should complete the future exceptionally");
+        
+        System.out.println("   [OK] Async fan-out over " + tables.length + " tables ("
+            + QueryExecutors.SQL.getMaxConcurrency() + " max concurrent SQL queries)");
+    }
+    
+    @Test
+    @DisplayName("SPARQL Endpoint Server")
+    void testSparqlEndpointServer() throws Exception {
+        System.out.println("\n🔸 Testing SPARQL Endpoint Server...");
+        
+        // Engine stub so the HTTP layer is tested without Ontop
+        SPARQLEngine stubEngine = new SPARQLEngine(dbEngine) {
+            @Override
+            public boolean isSetup() {
+                return true;
+            }
+            
+            @Override
+            public SPARQLResultCursor executeSPARQLCursor(String sparqlQuery, QueryDeadline deadline) throws Exception {
+                if (sparqlQuery.contains("SLOW")) {
+                    // Runs until the request's deadline stops it
+                    while (!deadline.isDone()) {
+                        Thread.sleep(10);
+                    }
+                    deadline.check();
+                }
+                String csv = "team,name\n" +
+                             "http://www.semanticweb.org/sports/data#team/1,\"Real \"\"Madrid\"\"\"\n";
+                return SPARQLResultCursor.fromCsv(new BufferedReader(new StringReader(csv)), null);
+            }
+        };
+        SparqlEndpointServer server = new SparqlEndpointServer(stubEngine, 0, 500);
+        server.start();
+        try {
+            HttpClient client = HttpClient.newHttpClient();
+            String query = URLEncoder.encode("SELECT ?team ?name WHERE { ?team :hasName ?name }", StandardCharsets.UTF_8);
+            
+            HttpResponse<byte[]> json = client.send(HttpRequest.newBuilder(URI.create(server.getEndpointUrl() + "?query=" + query))
+                .header("Accept-Encoding", "gzip").build(), HttpResponse.BodyHandlers.ofByteArray());
+            Assertions.assertEquals(200, json.statusCode());
+            Assertions.assertEquals("gzip", json.headers().firstValue("Content-Encoding").orElse(""));
+            String body = new String(new GZIPInputStream(new ByteArrayInputStream(json.body())).readAllBytes(), StandardCharsets.UTF_8);
+            Assertions.assertTrue(body.contains("\"vars\":[\"team\",\"name\"]"), body);
+            Assertions.assertTrue(body.contains("{\"type\":\"uri\",\"value\":\"http://www.semanticweb.org/sports/data#team/1\"}"), body);
+            Assertions.assertTrue(body.contains("{\"type\":\"literal\",\"value\":\"Real \\\"Madrid\\\"\"}"), body);
+            
+            HttpResponse<String> csv = client.send(HttpRequest.newBuilder(URI.create(server.getEndpointUrl()))
+                .header("Content-Type", "application/sparql-query").header("Accept", "text/csv")
+                .POST(HttpRequest.BodyPublishers.ofString("SELECT * WHERE { ?s ?p ?o }")).build(), HttpResponse.BodyHandlers.ofString());
+            Assertions.assertEquals(200, csv.statusCode());
+            Assertions.assertTrue(csv.body().startsWith("team,name\r\n"), csv.body());
+            
+            HttpResponse<String> missing = client.send(HttpRequest.newBuilder(URI.create(server.getEndpointUrl())).build(),
+                HttpResponse.BodyHandlers.ofString());
+            Assertions.assertEquals(400, missing.statusCode());
+            
+            // A request past its time limit is cancelled and answered 504
+            HttpResponse<String> slow = client.send(HttpRequest.newBuilder(URI.create(server.getEndpointUrl() + "?query="
+                + URLEncoder.encode("SELECT * WHERE { ?s ?p ?o } # SLOW", StandardCharsets.UTF_8))).build(),
+                HttpResponse.BodyHandlers.ofString());
+            Assertions.assertEquals(504, slow.statusCode(), slow.body());
+        } finally {
+            server.stop();
+        }
+        
+        System.out.println("   [OK] SPARQL endpoint served gzip JSON and CSV results, timed out a slow query");
+    }
+    
     @Test
     @DisplayName("Full OBDA Pipeline Test")
     void testFullPipeline() throws Exception {